@@ -0,0 +1,46 @@
+package io.quickledger.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Makes the attachment {@code data} columns nullable. Attachment content now lives in the blob
+ * store and the column is emptied once a row has been moved there, but Hibernate's schema update
+ * never relaxes an existing NOT NULL constraint. A failure stops startup rather than every later
+ * move into the blob store.
+ */
+public class AttachmentDataColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentDataColumnMigration.class);
+
+    private static final List<String> TABLES = List.of("job_attachments", "quote_attachments", "expense_attachments");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttachmentDataColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void relaxDataColumns() {
+        for (String table : TABLES) {
+            if (isRequired(table)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY data LONGBLOB NULL");
+                logger.info("Made {}.data nullable", table);
+            }
+        }
+    }
+
+    // False when the column already allows NULL, or the table does not exist yet and Hibernate will create it
+    private boolean isRequired(String table) {
+        List<String> nullable = jdbcTemplate.queryForList("""
+                SELECT is_nullable FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = ? AND column_name = 'data'
+                """, String.class, table);
+        return !nullable.isEmpty() && nullable.get(0).equalsIgnoreCase("NO");
+    }
+}
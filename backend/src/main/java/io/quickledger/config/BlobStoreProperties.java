@@ -0,0 +1,48 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "storage.blob")
+public class BlobStoreProperties {
+    // Only "local" for now
+    private String type = "local";
+    private String localRoot = "data/blobs";
+    // Unreferenced blobs younger than this are kept, as their row may not have committed yet
+    private long gcGraceHours = 24;
+    // Attachments moved out of the database per transaction
+    private int migrationBatchSize = 20;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getLocalRoot() {
+        return localRoot;
+    }
+
+    public void setLocalRoot(String localRoot) {
+        this.localRoot = localRoot;
+    }
+
+    public long getGcGraceHours() {
+        return gcGraceHours;
+    }
+
+    public void setGcGraceHours(long gcGraceHours) {
+        this.gcGraceHours = gcGraceHours;
+    }
+
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    public void setMigrationBatchSize(int migrationBatchSize) {
+        this.migrationBatchSize = migrationBatchSize;
+    }
+}
@@ -0,0 +1,103 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "email.outbox")
+public class EmailOutboxProperties {
+    // Rows claimed per poll; each worker sends its share over one provider connection
+    private int claimSize = 50;
+    private int sendBatchSize = 10;
+    private int workers = 4;
+    // A claimed row that is neither sent nor released within this time is picked up again
+    private long leaseSeconds = 300;
+    private int maxAttempts = 8;
+    private long initialBackoffSeconds = 30;
+    private long maxBackoffSeconds = 3600;
+    // SES account sending quota
+    private double providerRatePerSecond = 10;
+    // Per recipient domain, so one large mailbox provider does not start throttling us
+    private double domainRatePerSecond = 5;
+    private int retentionDays = 7;
+
+    public int getClaimSize() {
+        return claimSize;
+    }
+
+    public void setClaimSize(int claimSize) {
+        this.claimSize = claimSize;
+    }
+
+    public int getSendBatchSize() {
+        return sendBatchSize;
+    }
+
+    public void setSendBatchSize(int sendBatchSize) {
+        this.sendBatchSize = sendBatchSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffSeconds() {
+        return initialBackoffSeconds;
+    }
+
+    public void setInitialBackoffSeconds(long initialBackoffSeconds) {
+        this.initialBackoffSeconds = initialBackoffSeconds;
+    }
+
+    public long getMaxBackoffSeconds() {
+        return maxBackoffSeconds;
+    }
+
+    public void setMaxBackoffSeconds(long maxBackoffSeconds) {
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    public double getProviderRatePerSecond() {
+        return providerRatePerSecond;
+    }
+
+    public void setProviderRatePerSecond(double providerRatePerSecond) {
+        this.providerRatePerSecond = providerRatePerSecond;
+    }
+
+    public double getDomainRatePerSecond() {
+        return domainRatePerSecond;
+    }
+
+    public void setDomainRatePerSecond(double domainRatePerSecond) {
+        this.domainRatePerSecond = domainRatePerSecond;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
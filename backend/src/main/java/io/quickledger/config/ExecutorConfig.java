@@ -0,0 +1,70 @@
+package io.quickledger.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Reminder work is mostly waiting on the database, Stripe and SES, so each invoice gets its
+    // own virtual thread; the concurrency limit keeps the run from exhausting the connection pool
+    @Bean(name = "reminderExecutor")
+    public Executor reminderExecutor(ReminderProperties reminderProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("invoice-reminder-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(reminderProperties.getMaxConcurrency());
+        return executor;
+    }
+
+    // Workers for auto-sending generated recurring invoices, mostly rendering PDFs and creating
+    // payment links. The sender hands over one page of pending sends at a time and waits for it
+    @Bean(name = "recurringInvoiceSendExecutor")
+    public Executor recurringInvoiceSendExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("recurring-invoice-send-");
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    // Outbox workers mostly wait on the mail provider; the limit matches the configured pool size
+    @Bean(name = "emailOutboxExecutor")
+    public Executor emailOutboxExecutor(EmailOutboxProperties emailOutboxProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("email-outbox-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(emailOutboxProperties.getWorkers());
+        return executor;
+    }
+
+    // Webhook handlers wait on the database; the limit matches the configured pool size
+    @Bean(name = "stripeWebhookExecutor")
+    public Executor stripeWebhookExecutor(StripeWebhookProperties stripeWebhookProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stripe-webhook-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(stripeWebhookProperties.getWorkers());
+        return executor;
+    }
+
+    // Voice drafts hold a worker for the whole transcribe/parse/save run, mostly waiting on speech
+    // recognition and the LLM. The bounded queue is the backlog we accept; beyond it submissions
+    // are rejected rather than queued behind minutes of work
+    @Bean(name = "voiceDraftExecutor")
+    public ThreadPoolTaskExecutor voiceDraftExecutor(VoiceProperties voiceProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("voice-draft-");
+        executor.setCorePoolSize(voiceProperties.getJobs().getWorkers());
+        executor.setMaxPoolSize(voiceProperties.getJobs().getWorkers());
+        executor.setQueueCapacity(voiceProperties.getJobs().getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
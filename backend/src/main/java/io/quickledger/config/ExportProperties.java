@@ -0,0 +1,45 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    // MySQL Connector/J only streams rows one at a time with Integer.MIN_VALUE; any other value
+    // reads the whole result into memory unless the URL sets useCursorFetch=true
+    private int fetchSize = Integer.MIN_VALUE;
+
+    // Each running export holds a database connection until its last row is written
+    private int maxConcurrent = 2;
+
+    // Replaces spring.mvc.async.request-timeout for export downloads
+    private Duration timeout = Duration.ofHours(2);
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,67 @@
+package io.quickledger.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Converts invoices.invoice_date and invoices.due_date from the old VARCHAR columns to DATE.
+ * Hibernate's schema update never changes a column type, so this runs before the entity
+ * manager starts. Every value is checked before anything is changed: if any invoice has a
+ * missing or unreadable date, startup stops and lists those invoices so the values can be
+ * corrected by hand rather than lost. Any other failure also stops startup, as Hibernate would
+ * otherwise map the date fields onto the VARCHAR columns.
+ */
+public class InvoiceDateColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceDateColumnMigration.class);
+
+    private static final List<String> COLUMNS = List.of("invoice_date", "due_date");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvoiceDateColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrateDateColumns() {
+        List<String> pending = COLUMNS.stream().filter(this::isTextColumn).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        for (String column : pending) {
+            // Date-time strings are accepted and keep their date part
+            List<Long> invalid = jdbcTemplate.queryForList("SELECT id FROM invoices WHERE " + column + " IS NULL"
+                    + " OR " + column + " NOT REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}([T ].*)?$'"
+                    + " OR STR_TO_DATE(LEFT(" + column + ", 10), '%Y-%m-%d') IS NULL", Long.class);
+            if (!invalid.isEmpty()) {
+                throw new IllegalStateException("Cannot convert invoices." + column + " to DATE: invoices " + invalid
+                        + " have a missing or unreadable value. Correct them to YYYY-MM-DD and restart.");
+            }
+        }
+
+        logger.info("Converting invoice columns {} to DATE...", pending);
+        for (String column : pending) {
+            jdbcTemplate.update("UPDATE invoices SET " + column + " = LEFT(" + column + ", 10)"
+                    + " WHERE " + column + " REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}[T ]'");
+        }
+
+        String modify = String.join(", ", pending.stream().map(c -> "MODIFY " + c + " DATE NOT NULL").toList());
+        jdbcTemplate.execute("ALTER TABLE invoices " + modify);
+        logger.info("Invoice columns {} converted to DATE", pending);
+    }
+
+    // False when the column is already DATE, or the table does not exist yet and Hibernate will create it
+    private boolean isTextColumn(String column) {
+        List<String> types = jdbcTemplate.queryForList("""
+                SELECT data_type FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'invoices' AND column_name = ?
+                """, String.class, column);
+        return !types.isEmpty() && (types.get(0).equalsIgnoreCase("varchar") || types.get(0).equalsIgnoreCase("char"));
+    }
+}
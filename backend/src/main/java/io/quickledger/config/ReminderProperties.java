@@ -0,0 +1,48 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "reminders")
+public class ReminderProperties {
+    private int pageSize = 200;
+    // Each worker holds a database connection while sending, so stay below the pool size
+    private int maxConcurrency = 8;
+    // SES sending quota shared by the whole run
+    private double globalRatePerSecond = 10;
+    // Keeps one large tenant from using up the global quota
+    private double companyRatePerSecond = 2;
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public double getGlobalRatePerSecond() {
+        return globalRatePerSecond;
+    }
+
+    public void setGlobalRatePerSecond(double globalRatePerSecond) {
+        this.globalRatePerSecond = globalRatePerSecond;
+    }
+
+    public double getCompanyRatePerSecond() {
+        return companyRatePerSecond;
+    }
+
+    public void setCompanyRatePerSecond(double companyRatePerSecond) {
+        this.companyRatePerSecond = companyRatePerSecond;
+    }
+}
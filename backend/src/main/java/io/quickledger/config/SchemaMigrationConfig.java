@@ -0,0 +1,31 @@
+package io.quickledger.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Column changes that Hibernate's {@code ddl-auto=update} cannot make. The beans here are
+ * initialized before the entity manager factory, so mappings never see the old schema.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean
+    public InvoiceDateColumnMigration invoiceDateColumnMigration(JdbcTemplate jdbcTemplate) {
+        return new InvoiceDateColumnMigration(jdbcTemplate);
+    }
+
+    @Bean
+    public AttachmentDataColumnMigration attachmentDataColumnMigration(JdbcTemplate jdbcTemplate) {
+        return new AttachmentDataColumnMigration(jdbcTemplate);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class EntityManagerFactoryDependsOnMigrations extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigrations() {
+            super(InvoiceDateColumnMigration.class, AttachmentDataColumnMigration.class);
+        }
+    }
+}
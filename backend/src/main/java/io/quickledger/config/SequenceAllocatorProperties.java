@@ -0,0 +1,39 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sequence.allocator")
+public class SequenceAllocatorProperties {
+
+    public enum Mode {
+        // Numbers are taken in the document's own transaction: gapless, but the sequence row stays
+        // locked until that transaction commits
+        CALLER_TRANSACTION,
+        // Each allocation commits on its own; a document that fails to save leaves a gap
+        SHORT_TRANSACTION,
+        // Each instance reserves block-size numbers at a time and hands them out from memory;
+        // unused numbers are lost on restart and numbers are not in creation order across instances
+        BLOCK
+    }
+
+    private Mode mode = Mode.SHORT_TRANSACTION;
+    private int blockSize = 20;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+}
@@ -0,0 +1,75 @@
+package io.quickledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "stripe.webhook.inbox")
+public class StripeWebhookProperties {
+    // Events claimed per poll; at most one per customer or invoice, processed in parallel
+    private int claimSize = 50;
+    private int workers = 4;
+    // A claimed event that is neither processed nor released within this time is picked up again
+    private long leaseSeconds = 300;
+    private int maxAttempts = 10;
+    private long initialBackoffSeconds = 30;
+    private long maxBackoffSeconds = 3600;
+    // Stripe redelivers for up to three days, so processed ids are kept well beyond that
+    private int retentionDays = 30;
+
+    public int getClaimSize() {
+        return claimSize;
+    }
+
+    public void setClaimSize(int claimSize) {
+        this.claimSize = claimSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffSeconds() {
+        return initialBackoffSeconds;
+    }
+
+    public void setInitialBackoffSeconds(long initialBackoffSeconds) {
+        this.initialBackoffSeconds = initialBackoffSeconds;
+    }
+
+    public long getMaxBackoffSeconds() {
+        return maxBackoffSeconds;
+    }
+
+    public void setMaxBackoffSeconds(long maxBackoffSeconds) {
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
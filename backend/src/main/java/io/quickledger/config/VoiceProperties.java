@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 public class VoiceProperties {
     private final Stt stt = new Stt();
     private final Llm llm = new Llm();
+    private final Jobs jobs = new Jobs();
 
     public Stt getStt() {
         return stt;
@@ -17,10 +18,18 @@ public class VoiceProperties {
         return llm;
     }
 
+    public Jobs getJobs() {
+        return jobs;
+    }
+
     public static class Stt {
         private String languageCode = "en-US";
         private Integer sampleRateHertz = 16000;
         private String encoding = "LINEAR16";
+        private String provider = "google";
+        private int channelPoolSize = 2;
+        private int streamChunkBytes = 16384;
+        private int timeoutSeconds = 60;
 
         public String getLanguageCode() {
             return languageCode;
@@ -45,12 +54,48 @@ public class VoiceProperties {
         public void setEncoding(String encoding) {
             this.encoding = encoding;
         }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public void setProvider(String provider) {
+            this.provider = provider;
+        }
+
+        public int getChannelPoolSize() {
+            return channelPoolSize;
+        }
+
+        public void setChannelPoolSize(int channelPoolSize) {
+            this.channelPoolSize = channelPoolSize;
+        }
+
+        public int getStreamChunkBytes() {
+            return streamChunkBytes;
+        }
+
+        public void setStreamChunkBytes(int streamChunkBytes) {
+            this.streamChunkBytes = streamChunkBytes;
+        }
+
+        public int getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
     }
 
     public static class Llm {
         private String baseUrl = "http://localhost:11434";
         private String model = "qwen2.5:3b";
         private Integer timeoutMs = 20000;
+        private Integer connectTimeoutMs = 2000;
+        private boolean stream = true;
+        private long cacheTtlSeconds = 3600;
+        private int cacheMaxEntries = 5000;
 
         public String getBaseUrl() {
             return baseUrl;
@@ -75,5 +120,94 @@ public class VoiceProperties {
         public void setTimeoutMs(Integer timeoutMs) {
             this.timeoutMs = timeoutMs;
         }
+
+        public Integer getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public boolean isStream() {
+            return stream;
+        }
+
+        public void setStream(boolean stream) {
+            this.stream = stream;
+        }
+
+        public long getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(long cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+
+        public int getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(int cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+    }
+
+    public static class Jobs {
+        private int workers = 4;
+        private int queueCapacity = 50;
+        private int maxActivePerCompany = 3;
+        private int staleMinutes = 15;
+        private int retentionDays = 7;
+        private long sseTimeoutMs = 120000;
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxActivePerCompany() {
+            return maxActivePerCompany;
+        }
+
+        public void setMaxActivePerCompany(int maxActivePerCompany) {
+            this.maxActivePerCompany = maxActivePerCompany;
+        }
+
+        public int getStaleMinutes() {
+            return staleMinutes;
+        }
+
+        public void setStaleMinutes(int staleMinutes) {
+            this.staleMinutes = staleMinutes;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        public long getSseTimeoutMs() {
+            return sseTimeoutMs;
+        }
+
+        public void setSseTimeoutMs(long sseTimeoutMs) {
+            this.sseTimeoutMs = sseTimeoutMs;
+        }
     }
 }
@@ -0,0 +1,61 @@
+package io.quickledger.controller;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import io.quickledger.services.StripeService;
+import io.quickledger.services.StripeWebhookInbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator tool for the Stripe webhook inbox, as the {@code stripewebhooks} actuator endpoint.
+ * Reading it shows event counts by status and the most recent events that ran out of attempts.
+ * Writing to it replays events: a stored event by id, an event that never arrived (fetched
+ * from Stripe by id), or with no id every event that ran out of attempts. Not exposed over
+ * HTTP by default; include it in {@code management.endpoints.web.exposure.include} only on an
+ * internal management port.
+ */
+@Component
+@Endpoint(id = "stripewebhooks")
+public class StripeWebhookEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookEndpoint.class);
+
+    private final StripeWebhookInbox inbox;
+    private final StripeService stripeService;
+
+    public StripeWebhookEndpoint(StripeWebhookInbox inbox, StripeService stripeService) {
+        this.inbox = inbox;
+        this.stripeService = stripeService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        return inbox.summary();
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable String eventId) throws StripeException {
+        if (eventId == null || eventId.isBlank()) {
+            int requeued = inbox.replayFailed();
+            logger.info("Replaying {} failed Stripe webhook events", requeued);
+            return Map.of("requeued", requeued);
+        }
+        if (inbox.replay(eventId)) {
+            logger.info("Replaying Stripe webhook event {}", eventId);
+            return Map.of("requeued", 1);
+        }
+        Event event = stripeService.retrieveEvent(eventId);
+        boolean received = inbox.receive(event.getId(), event.getType(), StripeService.orderingKey(event),
+                event.toJson());
+        logger.info("Fetched missed Stripe webhook event {} from Stripe", eventId);
+        return Map.of("requeued", received ? 1 : 0);
+    }
+}
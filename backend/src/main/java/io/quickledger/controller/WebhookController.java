@@ -32,8 +32,9 @@ public class WebhookController {
         }
 
         try {
+            // Only verified and stored here; StripeWebhookWorker processes it
             stripeService.handleWebhook(payload, sigHeader);
-            logger.info("Webhook processed successfully");
+            logger.info("Webhook accepted");
             return ResponseEntity.ok("Received");
         } catch (IllegalArgumentException e) {
             logger.error("Invalid signature: {}", e.getMessage());
@@ -1,8 +1,10 @@
 package io.quickledger.controllers;
 
 import io.quickledger.dto.ClientDto;
+import io.quickledger.dto.ClientPageDto;
 import io.quickledger.entities.User;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.ClientSearchService;
 import io.quickledger.services.ClientService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,10 +20,12 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ClientSearchService clientSearchService;
     private static final Logger logger = LoggerFactory.getLogger(ClientController.class);
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, ClientSearchService clientSearchService) {
         this.clientService = clientService;
+        this.clientSearchService = clientSearchService;
     }
 
     @GetMapping
@@ -30,6 +34,13 @@ public class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    // Most recently modified first; pass nextCursor back as cursor for the following page
+    @GetMapping("/list")
+    public ResponseEntity<ClientPageDto> listClients(@PathVariable Long companyId, @UserIdAuth final User user,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(clientService.listClients(companyId, user, cursor, limit));
+    }
+
     @GetMapping("/{clientId}")
     public ResponseEntity<ClientDto> getClient(@PathVariable Long companyId, @UserIdAuth final User user, @PathVariable Long clientId) {
         ClientDto clients = clientService.getClient(companyId, user, clientId);
@@ -44,8 +55,10 @@ public class ClientController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ClientDto>> search(@PathVariable Long companyId, @RequestParam(required = true) String searchTerm) {
-        List<ClientDto> clients = clientService.search(companyId, searchTerm);
+    public ResponseEntity<List<ClientDto>> search(@PathVariable Long companyId, @RequestParam(required = true) String searchTerm,
+            @RequestParam(required = false) Long beforeId, @RequestParam(required = false) Integer limit) {
+        // Newest first; pass the last id of a page as beforeId for the next one
+        List<ClientDto> clients = clientSearchService.search(companyId, searchTerm, beforeId, limit);
         return ResponseEntity.ok(clients);
     }
 
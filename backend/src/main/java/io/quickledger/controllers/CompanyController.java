@@ -7,11 +7,13 @@ import io.quickledger.entities.Company;
 import io.quickledger.entities.User;
 import io.quickledger.mappers.CompanyMapper;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.CompanyLogoService;
 import io.quickledger.services.CompanyService;
 import io.quickledger.services.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -21,6 +23,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -35,10 +38,13 @@ public class CompanyController {
     // private final KeycloakAdminService keycloakAdminService;
     private final UserService userService;
     // private final UserCompanyService userCompanyService;
+    private final CompanyLogoService companyLogoService;
 
     @Autowired
-    public CompanyController(CompanyService companyService, UserService userService) {
+    public CompanyController(CompanyService companyService, UserService userService,
+            CompanyLogoService companyLogoService) {
         this.companyService = companyService;
+        this.companyLogoService = companyLogoService;
         // this.keycloakAdminService = keycloakAdminService;
         // this.userCompanyService = userCompanyService;
         this.userService = userService;
@@ -145,12 +151,8 @@ public class CompanyController {
                     .body("User does not have access to this company");
         }
 
-        try {
-            Company company = optionalCompany.get();
-            byte[] fileBytes = file.getBytes();
-            company.setImage(fileBytes);
-            company.setLogoContentType(contentType);
-            companyService.saveCompany(company);
+        try (InputStream content = file.getInputStream()) {
+            companyLogoService.storeLogo(optionalCompany.get(), content, contentType);
 
             logger.info("Logo uploaded successfully for company: {}, size: {} bytes, type: {}",
                     companyId, file.getSize(), contentType);
@@ -163,7 +165,7 @@ public class CompanyController {
     }
 
     @GetMapping("/{id}/logo")
-    public ResponseEntity<byte[]> getCompanyLogo(@PathVariable Long id) {
+    public ResponseEntity<Resource> getCompanyLogo(@PathVariable Long id) {
         logger.debug("Fetching logo for company: {}", id);
 
         Optional<Company> optionalCompany = companyService.getCompanyById(id);
@@ -173,14 +175,22 @@ public class CompanyController {
         }
 
         Company company = optionalCompany.get();
-        byte[] image = company.getImage();
+        if (company.getLogoKey() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
-        if (image == null || image.length == 0) {
+        Resource logo;
+        try {
+            logo = companyLogoService.openLogo(company);
+        } catch (IOException e) {
+            logger.error("Logo {} of company {} is missing", company.getLogoKey(), id, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
+        // The ETag is the content hash, so browsers revalidate cheaply and get 304 until the logo changes
         HttpHeaders headers = new HttpHeaders();
         headers.setCacheControl(CacheControl.noCache().getHeaderValue());
+        headers.setETag("\"" + company.getLogoKey() + "\"");
 
         // Set content type if available
         if (company.getLogoContentType() != null) {
@@ -190,7 +200,7 @@ public class CompanyController {
             headers.set(HttpHeaders.CONTENT_TYPE, "image/png");
         }
 
-        return new ResponseEntity<>(image, headers, HttpStatus.OK);
+        return new ResponseEntity<>(logo, headers, HttpStatus.OK);
     }
 
     @DeleteMapping("/{companyId}/logo")
@@ -207,10 +217,7 @@ public class CompanyController {
                     .body("User does not have access to this company");
         }
 
-        Company company = optionalCompany.get();
-        company.setImage(null);
-        company.setLogoContentType(null);
-        companyService.saveCompany(company);
+        companyLogoService.deleteLogo(optionalCompany.get());
 
         logger.info("Logo deleted successfully for company: {}", companyId);
         return ResponseEntity.ok("Logo deleted successfully");
@@ -226,7 +233,7 @@ public class CompanyController {
 
     // Legacy endpoint for backwards compatibility
     @GetMapping("/{id}/images")
-    public ResponseEntity<byte[]> getImage(@PathVariable Long id) {
+    public ResponseEntity<Resource> getImage(@PathVariable Long id) {
         // Redirect to new logo endpoint
         return getCompanyLogo(id);
     }
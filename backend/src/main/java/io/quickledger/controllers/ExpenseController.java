@@ -6,11 +6,14 @@ import io.quickledger.dto.expense.ExpenseSummaryDto;
 import io.quickledger.entities.User;
 import io.quickledger.entities.expense.ExpenseAttachment;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.AttachmentStorageService;
 import io.quickledger.services.ExpenseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 
 @RestController
@@ -26,9 +30,11 @@ public class ExpenseController {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseController.class);
     private final ExpenseService expenseService;
+    private final AttachmentStorageService attachmentStorageService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, AttachmentStorageService attachmentStorageService) {
         this.expenseService = expenseService;
+        this.attachmentStorageService = attachmentStorageService;
     }
 
     @PostMapping
@@ -97,13 +103,12 @@ public class ExpenseController {
             @PathVariable Long expenseId,
             @RequestParam("file") MultipartFile file,
             @UserIdAuth final User user) {
-        try {
+        try (InputStream content = file.getInputStream()) {
             ExpenseAttachmentDto attachment = expenseService.uploadAttachment(
                     expenseId, companyId,
                     file.getOriginalFilename(),
                     file.getContentType(),
-                    file.getBytes(),
-                    file.getSize(),
+                    content,
                     user);
             return ResponseEntity.ok(attachment);
         } catch (IOException e) {
@@ -113,7 +118,7 @@ public class ExpenseController {
     }
 
     @GetMapping("/{expenseId}/attachments/{attachmentId}")
-    public ResponseEntity<byte[]> downloadAttachment(
+    public ResponseEntity<Resource> downloadAttachment(
             @PathVariable Long companyId,
             @PathVariable Long expenseId,
             @PathVariable Long attachmentId) {
@@ -121,7 +126,9 @@ public class ExpenseController {
         return ResponseEntity.ok()
                 .header("Content-Disposition", "inline; filename=\"" + attachment.getFileName() + "\"")
                 .contentType(MediaType.parseMediaType(attachment.getContentType()))
-                .body(attachment.getData());
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(attachment.getStorageKey())
+                .body(attachmentStorageService.open(attachment));
     }
 
     @DeleteMapping("/{expenseId}/attachments/{attachmentId}")
@@ -0,0 +1,96 @@
+package io.quickledger.controllers;
+
+import io.quickledger.config.ExportProperties;
+import io.quickledger.entities.User;
+import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.ExportService;
+import io.quickledger.services.ExportService.Dataset;
+import io.quickledger.services.ExportService.ExportRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Streaming downloads of a company's invoices, quotes and expenses, e.g.
+ * {@code GET /companies/1/invoices/export?financialYear=2025-26&format=jsonl&gzip=true}.
+ * Filters: {@code from}/{@code to} (inclusive, ISO dates), {@code financialYear} and
+ * {@code status}; {@code format} is csv (the default) or jsonl.
+ */
+@RestController
+@RequestMapping("/companies/{companyId}")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ExportProperties exportProperties;
+
+    public ExportController(ExportService exportService, ExportProperties exportProperties) {
+        this.exportService = exportService;
+        this.exportProperties = exportProperties;
+    }
+
+    @GetMapping("/invoices/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(@PathVariable Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String financialYear,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @UserIdAuth final User user, HttpServletRequest request) {
+        return export(Dataset.INVOICES, companyId, from, to, financialYear, status, format, gzip, user, request);
+    }
+
+    @GetMapping("/quotes/export")
+    public ResponseEntity<StreamingResponseBody> exportQuotes(@PathVariable Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String financialYear,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @UserIdAuth final User user, HttpServletRequest request) {
+        return export(Dataset.QUOTES, companyId, from, to, financialYear, status, format, gzip, user, request);
+    }
+
+    @GetMapping("/expenses/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@PathVariable Long companyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String financialYear,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @UserIdAuth final User user, HttpServletRequest request) {
+        return export(Dataset.EXPENSES, companyId, from, to, financialYear, status, format, gzip, user, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(Dataset dataset, Long companyId, LocalDate from,
+            LocalDate to, String financialYear, String status, String format, boolean gzip, User user,
+            HttpServletRequest request) {
+        ExportRequest export = exportService.prepare(dataset, companyId, user, from, to, financialYear, status,
+                format, gzip);
+
+        // Large exports outlast spring.mvc.async.request-timeout, which is sized for voice drafts.
+        // The slot is also given back when the request ends, in case the body never gets to run
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportProperties.getTimeout().toMillis());
+            asyncWebRequest.addCompletionHandler(export.slot()::release);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                .body(out -> exportService.write(export, out));
+    }
+}
@@ -0,0 +1,83 @@
+package io.quickledger.controllers;
+
+import io.quickledger.dto.ImageDto;
+import io.quickledger.entities.StoredImage;
+import io.quickledger.entities.User;
+import io.quickledger.mappers.ImageMapper;
+import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.ImageService;
+import io.quickledger.services.UserCompanyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Uploads and serves a company's catalog images. An upload returns the {@link ImageDto} to put in
+ * an item's {@code images}; an image is only served once one of the company's items, assets or
+ * users references it. Images are addressed by content hash, so they are cached for good.
+ */
+@RestController
+@RequestMapping("/companies/{companyId}/images")
+public class ImageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+
+    private static final long MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
+    private final ImageService imageService;
+    private final ImageMapper imageMapper;
+    private final UserCompanyService userCompanyService;
+
+    public ImageController(ImageService imageService, ImageMapper imageMapper, UserCompanyService userCompanyService) {
+        this.imageService = imageService;
+        this.imageMapper = imageMapper;
+        this.userCompanyService = userCompanyService;
+    }
+
+    @PostMapping(consumes = "multipart/form-data")
+    public ResponseEntity<ImageDto> uploadImage(@PathVariable Long companyId, @RequestParam("file") MultipartFile file,
+            @UserIdAuth final User user) {
+        userCompanyService.checkUserBelongs(user, companyId);
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/") || file.getSize() > MAX_IMAGE_BYTES) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try (InputStream content = file.getInputStream()) {
+            StoredImage image = imageService.store(content, contentType);
+            return ResponseEntity.ok(imageMapper.toDto(image));
+        } catch (IOException e) {
+            logger.error("Failed to upload image", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{key}")
+    public ResponseEntity<Resource> getImage(@PathVariable Long companyId, @PathVariable String key,
+            @UserIdAuth final User user) {
+        userCompanyService.checkUserBelongs(user, companyId);
+        if (!imageService.isReferencedByCompany(key, companyId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        Resource image;
+        try {
+            image = imageService.open(key);
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .eTag(key)
+                .contentType(MediaType.parseMediaType(imageService.detectContentType(image)))
+                .body(image);
+    }
+}
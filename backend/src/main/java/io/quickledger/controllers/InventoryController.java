@@ -13,8 +13,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/companies/{companyId}/inventory")
 public class InventoryController {
@@ -35,10 +33,11 @@ public class InventoryController {
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<LowStockAlertDto>> getLowStockAlerts(
+    public ResponseEntity<Page<LowStockAlertDto>> getLowStockAlerts(
             @PathVariable Long companyId,
+            Pageable pageable,
             @UserIdAuth final User user) {
-        List<LowStockAlertDto> alerts = inventoryService.getLowStockAlerts(companyId, user);
+        Page<LowStockAlertDto> alerts = inventoryService.getLowStockAlerts(companyId, pageable, user);
         return ResponseEntity.ok(alerts);
     }
 
@@ -1,8 +1,10 @@
 package io.quickledger.controllers;
 
 import io.quickledger.dto.invoice.InvoiceDto;
+import io.quickledger.dto.invoice.InvoiceSearchResultDto;
 import io.quickledger.entities.User;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.InvoiceSearchService;
 import io.quickledger.services.InvoiceService;
 import jakarta.ws.rs.QueryParam;
 import org.slf4j.Logger;
@@ -17,10 +19,12 @@ import org.springframework.web.bind.annotation.*;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final InvoiceSearchService invoiceSearchService;
     private static final Logger logger = LoggerFactory.getLogger(InvoiceController.class);
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, InvoiceSearchService invoiceSearchService) {
         this.invoiceService = invoiceService;
+        this.invoiceSearchService = invoiceSearchService;
     }
 
     @PostMapping
@@ -59,11 +63,12 @@ public class InvoiceController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<java.util.List<InvoiceDto>> searchInvoice(@PathVariable Long companyId,
+    public ResponseEntity<java.util.List<InvoiceSearchResultDto>> searchInvoice(@PathVariable Long companyId,
             @org.springframework.web.bind.annotation.RequestParam(required = true) String searchTerm,
-            @QueryParam("lazy") boolean lazy) {
-        java.util.List<InvoiceDto> invoices = invoiceService.searchInvoice(companyId, searchTerm, lazy);
-        return ResponseEntity.ok(invoices);
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Long beforeId,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) Integer limit) {
+        // Newest first; pass the last id of a page as beforeId for the next one
+        return ResponseEntity.ok(invoiceSearchService.search(companyId, searchTerm, beforeId, limit));
     }
 
     @DeleteMapping("/{id}")
@@ -7,11 +7,14 @@ import io.quickledger.dto.job.JobTimeEntryDto;
 import io.quickledger.entities.User;
 import io.quickledger.entities.job.JobAttachment;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.AttachmentStorageService;
 import io.quickledger.services.JobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/companies/{companyId}/jobs")
@@ -26,9 +30,11 @@ public class JobController {
 
     private static final Logger logger = LoggerFactory.getLogger(JobController.class);
     private final JobService jobService;
+    private final AttachmentStorageService attachmentStorageService;
 
-    public JobController(JobService jobService) {
+    public JobController(JobService jobService, AttachmentStorageService attachmentStorageService) {
         this.jobService = jobService;
+        this.attachmentStorageService = attachmentStorageService;
     }
 
     // CRUD for Jobs
@@ -119,13 +125,12 @@ public class JobController {
             @PathVariable Long jobId,
             @RequestParam("file") MultipartFile file,
             @UserIdAuth final User user) {
-        try {
+        try (InputStream content = file.getInputStream()) {
             JobAttachmentDto attachment = jobService.uploadAttachment(
                     jobId, companyId,
                     file.getOriginalFilename(),
                     file.getContentType(),
-                    file.getBytes(),
-                    file.getSize(),
+                    content,
                     user);
             return ResponseEntity.ok(attachment);
         } catch (IOException e) {
@@ -135,7 +140,7 @@ public class JobController {
     }
 
     @GetMapping("/{jobId}/attachments/{attachmentId}")
-    public ResponseEntity<byte[]> downloadAttachment(
+    public ResponseEntity<Resource> downloadAttachment(
             @PathVariable Long companyId,
             @PathVariable Long jobId,
             @PathVariable Long attachmentId) {
@@ -143,7 +148,9 @@ public class JobController {
         return ResponseEntity.ok()
                 .header("Content-Disposition", "inline; filename=\"" + attachment.getFileName() + "\"")
                 .contentType(MediaType.parseMediaType(attachment.getContentType()))
-                .body(attachment.getData());
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(attachment.getStorageKey())
+                .body(attachmentStorageService.open(attachment));
     }
 
     @DeleteMapping("/{jobId}/attachments/{attachmentId}")
@@ -2,6 +2,7 @@ package io.quickledger.controllers.quote;
 
 import io.quickledger.dto.quote.QuoteDto;
 import io.quickledger.dto.quote.QuoteItemDto;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto;
 import io.quickledger.dto.quote.QuoteTempTokenValidationRequestDto;
 import io.quickledger.dto.quote.QuoteTempTokenValidationResponseDto;
 import io.quickledger.dto.quote.QuoteAttachmentDto;
@@ -10,6 +11,8 @@ import io.quickledger.entities.TempToken;
 import io.quickledger.entities.User;
 import io.quickledger.exception.TokenValidationException;
 import io.quickledger.security.UserIdAuth;
+import io.quickledger.services.AttachmentStorageService;
+import io.quickledger.services.QuoteRevisionService;
 import io.quickledger.services.QuoteService;
 import io.quickledger.services.TempTokenService;
 import jakarta.persistence.EntityNotFoundException;
@@ -17,7 +20,9 @@ import jakarta.ws.rs.QueryParam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -36,12 +41,17 @@ public class QuoteController {
     private static final long TOKEN_EXPIRATION_TIME_MILLIS = 1000 * 60 * 60 * 24 * 7 * 2; // 14 days
 
     private final QuoteService quoteService;
+    private final QuoteRevisionService quoteRevisionService;
     private final TempTokenService tempTokenService;
+    private final AttachmentStorageService attachmentStorageService;
     private static final Logger logger = LoggerFactory.getLogger(QuoteController.class);
 
-    public QuoteController(QuoteService quoteService, TempTokenService tempTokenService) {
+    public QuoteController(QuoteService quoteService, QuoteRevisionService quoteRevisionService,
+            TempTokenService tempTokenService, AttachmentStorageService attachmentStorageService) {
         this.quoteService = quoteService;
+        this.quoteRevisionService = quoteRevisionService;
         this.tempTokenService = tempTokenService;
+        this.attachmentStorageService = attachmentStorageService;
     }
 
     @GetMapping("/{qouteId}/clients/{clientId}/generate-token")
@@ -234,6 +244,17 @@ public class QuoteController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
     }
 
+    // changes between consecutive revisions of a quote number, oldest first
+    @GetMapping("/quotenumbers/{quoteNumber}/history")
+    public ResponseEntity<List<QuoteRevisionDeltaDto>> getRevisionHistory(@PathVariable Long companyId,
+            @PathVariable String quoteNumber, @UserIdAuth final User user) {
+        List<QuoteRevisionDeltaDto> history = quoteRevisionService.history(companyId, quoteNumber, user);
+        if (history.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quote not found: " + quoteNumber);
+        }
+        return ResponseEntity.ok(history);
+    }
+
     // all revisions of a quote number
     @GetMapping("/quotenumbers/{quoteNumber}/revisions")
     public ResponseEntity<List<QuoteDto>> getAllRevisionsByQuoteNumber(@PathVariable Long companyId,
@@ -264,14 +285,13 @@ public class QuoteController {
             @PathVariable Long companyId,
             @PathVariable Long quoteId,
             @RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
-        try {
+        try (java.io.InputStream content = file.getInputStream()) {
             QuoteAttachmentDto attachment = quoteService.uploadAttachment(
                     quoteId,
                     companyId,
                     file.getOriginalFilename(),
                     file.getContentType(),
-                    file.getBytes(),
-                    file.getSize());
+                    content);
             return ResponseEntity.ok(attachment);
         } catch (java.io.IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -279,7 +299,7 @@ public class QuoteController {
     }
 
     @GetMapping("/{quoteId}/attachments/{attachmentId}")
-    public ResponseEntity<byte[]> downloadAttachment(
+    public ResponseEntity<Resource> downloadAttachment(
             @PathVariable Long companyId,
             @PathVariable Long quoteId,
             @PathVariable Long attachmentId) {
@@ -289,7 +309,9 @@ public class QuoteController {
         return ResponseEntity.ok()
                 .header("Content-Disposition", "attachment; filename=\"" + attachment.getFileName() + "\"")
                 .contentType(MediaType.parseMediaType(attachment.getContentType()))
-                .body(attachment.getData());
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(attachment.getStorageKey())
+                .body(attachmentStorageService.open(attachment));
     }
 
     @DeleteMapping("/{quoteId}/attachments/{attachmentId}")
@@ -1,25 +1,50 @@
 package io.quickledger.controllers.voice;
 
+import io.quickledger.dto.voice.VoiceDraftJobDto;
 import io.quickledger.dto.voice.VoiceDraftResponse;
 import io.quickledger.entities.User;
 import io.quickledger.security.UserIdAuth;
-import io.quickledger.services.voice.VoiceDraftService;
+import io.quickledger.services.voice.VoiceDraftJobService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/companies/{companyId}/voice")
 public class VoiceDraftController {
-    private final VoiceDraftService voiceDraftService;
+    private final VoiceDraftJobService voiceDraftJobService;
 
-    public VoiceDraftController(VoiceDraftService voiceDraftService) {
-        this.voiceDraftService = voiceDraftService;
+    public VoiceDraftController(VoiceDraftJobService voiceDraftJobService) {
+        this.voiceDraftJobService = voiceDraftJobService;
     }
 
+    // Runs as a job like /draft-jobs, but answers with the finished draft; the servlet thread is released meanwhile
     @PostMapping(value = "/draft", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<VoiceDraftResponse> createDraft(
+    public CompletableFuture<ResponseEntity<VoiceDraftResponse>> createDraft(
+            @PathVariable Long companyId,
+            @RequestParam("audio") MultipartFile audio,
+            @RequestParam(value = "documentType", required = false) String documentType,
+            @RequestParam(value = "languageCode", required = false) String languageCode,
+            @RequestParam(value = "sampleRateHertz", required = false) Integer sampleRateHertz,
+            @RequestParam(value = "encoding", required = false) String encoding,
+            @UserIdAuth final User user) {
+        return voiceDraftJobService.submitAndAwait(
+                companyId,
+                audio,
+                documentType,
+                languageCode,
+                sampleRateHertz,
+                encoding,
+                user).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/draft-jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<VoiceDraftJobDto> submitDraftJob(
             @PathVariable Long companyId,
             @RequestParam("audio") MultipartFile audio,
             @RequestParam(value = "documentType", required = false) String documentType,
@@ -27,7 +52,7 @@ public class VoiceDraftController {
             @RequestParam(value = "sampleRateHertz", required = false) Integer sampleRateHertz,
             @RequestParam(value = "encoding", required = false) String encoding,
             @UserIdAuth final User user) {
-        VoiceDraftResponse response = voiceDraftService.createDraftFromAudio(
+        VoiceDraftJobDto job = voiceDraftJobService.submit(
                 companyId,
                 audio,
                 documentType,
@@ -35,6 +60,27 @@ public class VoiceDraftController {
                 sampleRateHertz,
                 encoding,
                 user);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/draft-jobs/{jobId}")
+    public ResponseEntity<VoiceDraftJobDto> getDraftJob(@PathVariable Long companyId,
+                                                        @PathVariable Long jobId,
+                                                        @UserIdAuth final User user) {
+        return ResponseEntity.ok(voiceDraftJobService.getJob(companyId, jobId, user));
+    }
+
+    @GetMapping(value = "/draft-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToDraftJob(@PathVariable Long companyId,
+                                          @PathVariable Long jobId,
+                                          @UserIdAuth final User user) {
+        return voiceDraftJobService.subscribe(companyId, jobId, user);
+    }
+
+    @PostMapping("/draft-jobs/{jobId}/cancel")
+    public ResponseEntity<VoiceDraftJobDto> cancelDraftJob(@PathVariable Long companyId,
+                                                           @PathVariable Long jobId,
+                                                           @UserIdAuth final User user) {
+        return ResponseEntity.ok(voiceDraftJobService.cancel(companyId, jobId, user));
     }
 }
@@ -0,0 +1,36 @@
+package io.quickledger.dto;
+
+import java.util.List;
+
+/**
+ * One page of a company's clients, most recently modified first. {@code nextCursor} is null on
+ * the last page; otherwise pass it back as {@code cursor} for the following page.
+ */
+public class ClientPageDto {
+    private List<ClientDto> clients;
+    private String nextCursor;
+
+    public ClientPageDto() {
+    }
+
+    public ClientPageDto(List<ClientDto> clients, String nextCursor) {
+        this.clients = clients;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ClientDto> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<ClientDto> clients) {
+        this.clients = clients;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
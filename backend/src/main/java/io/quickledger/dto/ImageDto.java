@@ -0,0 +1,45 @@
+package io.quickledger.dto;
+
+/**
+ * An uploaded image. The bytes are fetched separately from {@code /companies/{companyId}/images/{key}}, using
+ * {@code thumbnailKey} for lists when it is set.
+ */
+public class ImageDto {
+
+    private String storageKey;
+    private String thumbnailKey;
+    private String contentType;
+    private Long size;
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public String getThumbnailKey() {
+        return thumbnailKey;
+    }
+
+    public void setThumbnailKey(String thumbnailKey) {
+        this.thumbnailKey = thumbnailKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+}
@@ -31,6 +31,8 @@ public class StatsDto {
     public static class OutstandingInvoices {
         private int count;              // Number of unpaid invoices
         private BigDecimal totalAmount; // Total amount outstanding
+        private int overdueCount;       // Unpaid invoices past their due date
+        private BigDecimal overdueAmount = BigDecimal.ZERO;
 
         public OutstandingInvoices() {}
 
@@ -39,10 +41,20 @@ public class StatsDto {
             this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
         }
 
+        public OutstandingInvoices(int count, BigDecimal totalAmount, int overdueCount, BigDecimal overdueAmount) {
+            this(count, totalAmount);
+            this.overdueCount = overdueCount;
+            this.overdueAmount = overdueAmount != null ? overdueAmount : BigDecimal.ZERO;
+        }
+
         public int getCount() { return count; }
         public void setCount(int count) { this.count = count; }
         public BigDecimal getTotalAmount() { return totalAmount; }
         public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+        public int getOverdueCount() { return overdueCount; }
+        public void setOverdueCount(int overdueCount) { this.overdueCount = overdueCount; }
+        public BigDecimal getOverdueAmount() { return overdueAmount; }
+        public void setOverdueAmount(BigDecimal overdueAmount) { this.overdueAmount = overdueAmount; }
     }
 
     // Top Customer Response
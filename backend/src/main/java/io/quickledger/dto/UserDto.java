@@ -21,7 +21,7 @@ public class UserDto {
     private char gender;
     private String role;
     private String TFN;
-    private List<byte[]> images;
+    private List<ImageDto> images;
     private LocalDateTime registerDateTime;
     // Add list of Companies related to user to UserDTO
     // private Set<CompanyDto> companies;
@@ -131,11 +131,11 @@ public class UserDto {
         this.TFN = TFN;
     }
 
-    public List<byte[]> getImages() {
+    public List<ImageDto> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<ImageDto> images) {
         this.images = images;
     }
 
@@ -11,6 +11,18 @@ public class InventoryDashboardDto {
     private BigDecimal totalInventoryValue;
     private List<LowStockAlertDto> lowStockAlerts;
 
+    public InventoryDashboardDto() {
+    }
+
+    // Used by ProductItemRepository.summarizeInventory
+    public InventoryDashboardDto(Long totalProducts, Long lowStockCount, Long outOfStockCount,
+                                 BigDecimal totalInventoryValue) {
+        this.totalProducts = totalProducts.intValue();
+        this.lowStockCount = lowStockCount.intValue();
+        this.outOfStockCount = outOfStockCount.intValue();
+        this.totalInventoryValue = totalInventoryValue;
+    }
+
     // Getters and Setters
 
     public int getTotalProducts() {
@@ -9,6 +9,19 @@ public class LowStockAlertDto {
     private Integer reorderPoint;
     private Integer reorderQuantity;
 
+    public LowStockAlertDto() {
+    }
+
+    public LowStockAlertDto(Long productId, String productName, String productCode, Integer quantityOnHand,
+                            Integer reorderPoint, Integer reorderQuantity) {
+        this.productId = productId;
+        this.productName = productName;
+        this.productCode = productCode;
+        this.quantityOnHand = quantityOnHand;
+        this.reorderPoint = reorderPoint;
+        this.reorderQuantity = reorderQuantity;
+    }
+
     // Getters and Setters
 
     public Long getProductId() {
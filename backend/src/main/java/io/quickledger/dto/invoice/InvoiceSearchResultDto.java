@@ -0,0 +1,88 @@
+package io.quickledger.dto.invoice;
+
+import io.quickledger.entities.invoice.Invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of an invoice search, read straight from the query without loading the entity,
+ * its items or the mapper. Field names follow {@link InvoiceDto}.
+ */
+public class InvoiceSearchResultDto {
+    private Long id;
+    private String invoiceNumber;
+    private Invoice.InvoiceStatus status;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private BigDecimal totalPrice;
+    private Long clientId;
+    private String clientFirstname;
+    private String clientLastname;
+    private String clientEntityName;
+
+    public InvoiceSearchResultDto(Long id, String invoiceNumber, Invoice.InvoiceStatus status, LocalDate invoiceDate,
+            LocalDate dueDate, BigDecimal totalPrice, Long clientId, String clientFirstname, String clientLastname,
+            String clientEntityName) {
+        this.id = id;
+        this.invoiceNumber = invoiceNumber;
+        this.status = status;
+        this.invoiceDate = invoiceDate;
+        this.dueDate = dueDate;
+        this.totalPrice = totalPrice;
+        this.clientId = clientId;
+        this.clientFirstname = clientFirstname;
+        this.clientLastname = clientLastname;
+        this.clientEntityName = clientEntityName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public Invoice.InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getInvoiceDate() {
+        return invoiceDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientFirstname() {
+        return clientFirstname;
+    }
+
+    public String getClientLastname() {
+        return clientLastname;
+    }
+
+    public String getClientEntityName() {
+        return clientEntityName;
+    }
+
+    // Display name used by the search dropdown: the business name, else the contact's name
+    public String getClientName() {
+        if (clientEntityName != null && !clientEntityName.isBlank()) {
+            return clientEntityName;
+        }
+        String name = ((clientFirstname != null ? clientFirstname : "") + " "
+                + (clientLastname != null ? clientLastname : "")).trim();
+        return name.isEmpty() ? null : name;
+    }
+}
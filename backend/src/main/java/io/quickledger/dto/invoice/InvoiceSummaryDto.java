@@ -0,0 +1,172 @@
+package io.quickledger.dto.invoice;
+
+import io.quickledger.entities.invoice.Invoice;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of the invoice list: the invoice's own columns and its client's contact details,
+ * read in a single query without loading the entity, its items or its associations. Field
+ * names follow {@link InvoiceDto}; notes and items are only returned by the detail view.
+ */
+public class InvoiceSummaryDto {
+    private Long id;
+    private Long companyId;
+    private Long userId;
+    private Long clientId;
+    private String clientFirstname;
+    private String clientLastname;
+    private String clientEmail;
+    private String clientEntityName;
+    private String clientPhone;
+    private String invoiceNumber;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private Invoice.InvoiceStatus status;
+    private BigDecimal totalPrice;
+    private BigDecimal gst;
+    private BigDecimal discountValue;
+    private Invoice.DiscountType discountType;
+    private Long quoteId;
+    private String quoteNumber;
+    private Boolean isRecurring;
+    private Invoice.RecurringFrequency recurringFrequency;
+    private LocalDate recurringEndDate;
+    private Boolean recurringAutoSend;
+    private LocalDate nextRecurringDate;
+    private Long parentInvoiceId;
+
+    public InvoiceSummaryDto(Long id, Long companyId, Long userId, Long clientId, String clientFirstname,
+            String clientLastname, String clientEmail, String clientEntityName, String clientPhone,
+            String invoiceNumber, LocalDate invoiceDate, LocalDate dueDate, Invoice.InvoiceStatus status,
+            BigDecimal totalPrice, BigDecimal gst, BigDecimal discountValue, Invoice.DiscountType discountType,
+            Long quoteId, String quoteNumber, Boolean isRecurring,
+            Invoice.RecurringFrequency recurringFrequency, LocalDate recurringEndDate,
+            Boolean recurringAutoSend, LocalDate nextRecurringDate, Long parentInvoiceId) {
+        this.id = id;
+        this.companyId = companyId;
+        this.userId = userId;
+        this.clientId = clientId;
+        this.clientFirstname = clientFirstname;
+        this.clientLastname = clientLastname;
+        this.clientEmail = clientEmail;
+        this.clientEntityName = clientEntityName;
+        this.clientPhone = clientPhone;
+        this.invoiceNumber = invoiceNumber;
+        this.invoiceDate = invoiceDate;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.totalPrice = totalPrice;
+        this.gst = gst;
+        this.discountValue = discountValue;
+        this.discountType = discountType;
+        this.quoteId = quoteId;
+        this.quoteNumber = quoteNumber;
+        this.isRecurring = isRecurring;
+        this.recurringFrequency = recurringFrequency;
+        this.recurringEndDate = recurringEndDate;
+        this.recurringAutoSend = recurringAutoSend;
+        this.nextRecurringDate = nextRecurringDate;
+        this.parentInvoiceId = parentInvoiceId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientFirstname() {
+        return clientFirstname;
+    }
+
+    public String getClientLastname() {
+        return clientLastname;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public String getClientEntityName() {
+        return clientEntityName;
+    }
+
+    public String getClientPhone() {
+        return clientPhone;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public LocalDate getInvoiceDate() {
+        return invoiceDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public Invoice.InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public BigDecimal getGst() {
+        return gst;
+    }
+
+    public BigDecimal getDiscountValue() {
+        return discountValue;
+    }
+
+    public Invoice.DiscountType getDiscountType() {
+        return discountType;
+    }
+
+    public Long getQuoteId() {
+        return quoteId;
+    }
+
+    public String getQuoteNumber() {
+        return quoteNumber;
+    }
+
+    public Boolean getIsRecurring() {
+        return isRecurring;
+    }
+
+    public Invoice.RecurringFrequency getRecurringFrequency() {
+        return recurringFrequency;
+    }
+
+    public LocalDate getRecurringEndDate() {
+        return recurringEndDate;
+    }
+
+    public Boolean getRecurringAutoSend() {
+        return recurringAutoSend;
+    }
+
+    public LocalDate getNextRecurringDate() {
+        return nextRecurringDate;
+    }
+
+    public Long getParentInvoiceId() {
+        return parentInvoiceId;
+    }
+}
@@ -0,0 +1,157 @@
+package io.quickledger.dto.quote;
+
+import io.quickledger.entities.quote.Quote;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What one revision of a quote changed relative to the revision before it. The first revision is
+ * compared with an empty quote, so its changes and added items describe the whole quote.
+ * <p>
+ * Items are matched between revisions by product, service item, code and description; a line
+ * whose description was edited shows up as removed and added.
+ */
+public class QuoteRevisionDeltaDto {
+    private Long id;
+    private Integer quoteRevision;
+    private Quote.QuoteStatus status;
+    private List<FieldChange> changes = new ArrayList<>();
+    private List<QuoteItemDto> addedItems = new ArrayList<>();
+    private List<QuoteItemDto> removedItems = new ArrayList<>();
+    private List<ItemChange> changedItems = new ArrayList<>();
+
+    public QuoteRevisionDeltaDto() {
+    }
+
+    public QuoteRevisionDeltaDto(Long id, Integer quoteRevision, Quote.QuoteStatus status) {
+        this.id = id;
+        this.quoteRevision = quoteRevision;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getQuoteRevision() {
+        return quoteRevision;
+    }
+
+    public void setQuoteRevision(Integer quoteRevision) {
+        this.quoteRevision = quoteRevision;
+    }
+
+    public Quote.QuoteStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Quote.QuoteStatus status) {
+        this.status = status;
+    }
+
+    public List<FieldChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<FieldChange> changes) {
+        this.changes = changes;
+    }
+
+    public List<QuoteItemDto> getAddedItems() {
+        return addedItems;
+    }
+
+    public void setAddedItems(List<QuoteItemDto> addedItems) {
+        this.addedItems = addedItems;
+    }
+
+    public List<QuoteItemDto> getRemovedItems() {
+        return removedItems;
+    }
+
+    public void setRemovedItems(List<QuoteItemDto> removedItems) {
+        this.removedItems = removedItems;
+    }
+
+    public List<ItemChange> getChangedItems() {
+        return changedItems;
+    }
+
+    public void setChangedItems(List<ItemChange> changedItems) {
+        this.changedItems = changedItems;
+    }
+
+    public static class FieldChange {
+        private String field;
+        private Object from;
+        private Object to;
+
+        public FieldChange() {
+        }
+
+        public FieldChange(String field, Object from, Object to) {
+            this.field = field;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public Object getFrom() {
+            return from;
+        }
+
+        public void setFrom(Object from) {
+            this.from = from;
+        }
+
+        public Object getTo() {
+            return to;
+        }
+
+        public void setTo(Object to) {
+            this.to = to;
+        }
+    }
+
+    // An item present in both revisions, as it is in this one, with the fields that differ
+    public static class ItemChange {
+        private QuoteItemDto item;
+        private List<FieldChange> changes = new ArrayList<>();
+
+        public ItemChange() {
+        }
+
+        public ItemChange(QuoteItemDto item, List<FieldChange> changes) {
+            this.item = item;
+            this.changes = changes;
+        }
+
+        public QuoteItemDto getItem() {
+            return item;
+        }
+
+        public void setItem(QuoteItemDto item) {
+            this.item = item;
+        }
+
+        public List<FieldChange> getChanges() {
+            return changes;
+        }
+
+        public void setChanges(List<FieldChange> changes) {
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.quickledger.dto.quote;
+
+import io.quickledger.entities.quote.Quote;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of the quote list: the quote's own columns and its client's contact details, read
+ * in a single query without loading the entity, its items or its associations. Field names
+ * follow {@link QuoteDto}; notes, items, attachments and related invoices are only returned
+ * by the detail view.
+ */
+public class QuoteSummaryDto {
+    private Long id;
+    private Long companyId;
+    private Long userId;
+    private Long clientId;
+    private String clientFirstname;
+    private String clientLastname;
+    private String clientEmail;
+    private String clientEntityName;
+    private String clientPhone;
+    private String quoteNumber;
+    private Integer quoteRevision;
+    private LocalDate quoteDate;
+    private LocalDate expiryDate;
+    private Quote.QuoteStatus status;
+    private BigDecimal totalPrice;
+    private BigDecimal gst;
+    private BigDecimal discountValue;
+    private String discountType;
+
+    public QuoteSummaryDto(Long id, Long companyId, Long userId, Long clientId, String clientFirstname,
+            String clientLastname, String clientEmail, String clientEntityName, String clientPhone,
+            String quoteNumber, Integer quoteRevision, LocalDate quoteDate, LocalDate expiryDate,
+            Quote.QuoteStatus status, BigDecimal totalPrice, BigDecimal gst, BigDecimal discountValue,
+            String discountType) {
+        this.id = id;
+        this.companyId = companyId;
+        this.userId = userId;
+        this.clientId = clientId;
+        this.clientFirstname = clientFirstname;
+        this.clientLastname = clientLastname;
+        this.clientEmail = clientEmail;
+        this.clientEntityName = clientEntityName;
+        this.clientPhone = clientPhone;
+        this.quoteNumber = quoteNumber;
+        this.quoteRevision = quoteRevision;
+        this.quoteDate = quoteDate;
+        this.expiryDate = expiryDate;
+        this.status = status;
+        this.totalPrice = totalPrice;
+        this.gst = gst;
+        this.discountValue = discountValue;
+        this.discountType = discountType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientFirstname() {
+        return clientFirstname;
+    }
+
+    public String getClientLastname() {
+        return clientLastname;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public String getClientEntityName() {
+        return clientEntityName;
+    }
+
+    public String getClientPhone() {
+        return clientPhone;
+    }
+
+    public String getQuoteNumber() {
+        return quoteNumber;
+    }
+
+    public Integer getQuoteRevision() {
+        return quoteRevision;
+    }
+
+    public LocalDate getQuoteDate() {
+        return quoteDate;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public Quote.QuoteStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public BigDecimal getGst() {
+        return gst;
+    }
+
+    public BigDecimal getDiscountValue() {
+        return discountValue;
+    }
+
+    public String getDiscountType() {
+        return discountType;
+    }
+}
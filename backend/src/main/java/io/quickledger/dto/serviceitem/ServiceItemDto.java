@@ -1,6 +1,7 @@
 package io.quickledger.dto.serviceitem;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.quickledger.dto.ImageDto;
 import io.quickledger.entities.serviceitem.ServiceItem.Status;
 import io.quickledger.entities.serviceitem.ServiceItem.Category;
 import io.quickledger.entities.serviceitem.ServiceItem.SubCategory;
@@ -26,9 +27,7 @@ public class ServiceItemDto {
     private BigDecimal price;
     private BigDecimal item_tax;
     private BigDecimal discount;
-    //TODO: in future need to handle image outside dto as it's binary object and not a good practice to keep it in dto
-    @JsonIgnore
-    private List<byte[]> images;
+    private List<ImageDto> images;
     private List<ServiceItemAttributeValueDto> serviceItemAttributeValues;
 
     // Getters and Setters
@@ -145,11 +144,11 @@ public class ServiceItemDto {
         this.discount = discount;
     }
 
-    public List<byte[]> getImages() {
+    public List<ImageDto> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<ImageDto> images) {
         this.images = images;
     }
 
@@ -0,0 +1,80 @@
+package io.quickledger.dto.voice;
+
+import io.quickledger.entities.voice.VoiceDraftJob;
+
+import java.time.LocalDateTime;
+
+public class VoiceDraftJobDto {
+    private Long id;
+    private VoiceDraftJob.Status status;
+    private String transcript;
+    private VoiceDraftResponse result;
+    private String error;
+    private LocalDateTime createdDate;
+    private LocalDateTime modifiedDate;
+    private LocalDateTime completedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public VoiceDraftJob.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(VoiceDraftJob.Status status) {
+        this.status = status;
+    }
+
+    public String getTranscript() {
+        return transcript;
+    }
+
+    public void setTranscript(String transcript) {
+        this.transcript = transcript;
+    }
+
+    public VoiceDraftResponse getResult() {
+        return result;
+    }
+
+    public void setResult(VoiceDraftResponse result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public LocalDateTime getModifiedDate() {
+        return modifiedDate;
+    }
+
+    public void setModifiedDate(LocalDateTime modifiedDate) {
+        this.modifiedDate = modifiedDate;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -2,10 +2,23 @@ package io.quickledger.entities;
 
 import jakarta.persistence.*;
 
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @Entity
-@Table(name = "clients") // This names the table as "clients" in the database
+@Table(name = "clients", indexes = { // This names the table as "clients" in the database
+        // Keyset order of the client list: newest modified first, id breaking ties
+        @Index(name = "idx_client_company_modified", columnList = "company_id, modified_date, id"),
+        // Matching an invoice or quote to an existing client
+        @Index(name = "idx_client_company_email", columnList = "company_id, email"),
+        @Index(name = "idx_client_company_phone", columnList = "company_id, phone")
+})
 public class Client extends BaseEntity {
 
+    public static final int SEARCH_TEXT_LENGTH = 1000;
+
     // Default constructor
     public Client() {
     }
@@ -49,6 +62,10 @@ public class Client extends BaseEntity {
     @Column(name = "account_number", length = 50, nullable = true)
     private String accountNumber;
 
+    // Names, email and phone in lower case, for the ngram full-text index behind client search
+    @Column(name = "search_text", length = SEARCH_TEXT_LENGTH)
+    private String searchText;
+
     // Getters and Setters
 
     public String getAccountNumber() {
@@ -131,6 +148,28 @@ public class Client extends BaseEntity {
         this.status = status;
     }
 
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchText() {
+        this.searchText = buildSearchText(contactName, contactSurname, entityName, email, phone);
+    }
+
+    /**
+     * Same value as {@code LEFT(LOWER(CONCAT_WS(' ', ...)), 1000)} in SQL, which the backfill uses.
+     */
+    public static String buildSearchText(String contactName, String contactSurname, String entityName,
+            String email, String phone) {
+        String text = Stream.of(contactName, contactSurname, entityName, email, phone)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "))
+                .toLowerCase(Locale.ROOT);
+        return text.length() > SEARCH_TEXT_LENGTH ? text.substring(0, SEARCH_TEXT_LENGTH) : text;
+    }
+
     // toString method
     @Override
     public String toString() {
@@ -87,8 +87,9 @@ public class Company extends BaseEntity {
     @Column(name = "bank_account", length = 9, nullable = true, unique = false)
     private String bankAccount;
 
-    @Column(name = "images", nullable = true, columnDefinition = "MEDIUMBLOB")
-    private byte[] image;
+    // Blob store key of the logo; the bytes are only read when the logo is served or rendered
+    @Column(name = "logo_key", length = 64, nullable = true)
+    private String logoKey;
 
     @Column(name = "website", length = 500, nullable = true)
     private String website;
@@ -195,12 +196,12 @@ public class Company extends BaseEntity {
         this.bankAccount = bankAccount;
     }
 
-    public byte[] getImage() {
-        return image;
+    public String getLogoKey() {
+        return logoKey;
     }
 
-    public void setImage(byte[] images) {
-        this.image = images;
+    public void setLogoKey(String logoKey) {
+        this.logoKey = logoKey;
     }
 
     public Set<UserCompany> getUserCompanies() {
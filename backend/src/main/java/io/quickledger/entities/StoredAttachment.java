@@ -0,0 +1,26 @@
+package io.quickledger.entities;
+
+/**
+ * A file uploaded against a job, quote or expense. The content lives in the blob store under
+ * {@link #getStorageKey()}; {@link #getData()} is only set on rows that predate the store.
+ */
+public interface StoredAttachment {
+
+    Long getId();
+
+    String getFileName();
+
+    String getContentType();
+
+    Long getSize();
+
+    void setSize(Long size);
+
+    String getStorageKey();
+
+    void setStorageKey(String storageKey);
+
+    byte[] getData();
+
+    void setData(byte[] data);
+}
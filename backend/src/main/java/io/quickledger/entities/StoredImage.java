@@ -0,0 +1,58 @@
+package io.quickledger.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Reference to an image in the blob store, with the thumbnail generated when it was uploaded.
+ * Catalog entities keep these instead of the image bytes, so loading an item never reads a
+ * picture.
+ */
+@Embeddable
+public class StoredImage {
+
+    @Column(name = "storage_key", length = 64, nullable = false)
+    private String storageKey;
+
+    // Null when the format could not be decoded for scaling
+    @Column(name = "thumbnail_key", length = 64)
+    private String thumbnailKey;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size")
+    private Long size;
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public String getThumbnailKey() {
+        return thumbnailKey;
+    }
+
+    public void setThumbnailKey(String thumbnailKey) {
+        this.thumbnailKey = thumbnailKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+}
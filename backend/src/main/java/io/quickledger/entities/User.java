@@ -1,8 +1,11 @@
 package io.quickledger.entities;
 
+import io.quickledger.security.AuthenticationCacheListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -10,6 +13,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users") // This names the table as "users" in the database
+@EntityListeners(AuthenticationCacheListener.class)
 public class User extends BaseEntity {
     // Default constructor
     public User() {
@@ -61,10 +65,16 @@ public class User extends BaseEntity {
     @Column(name = "tfn", length = 9, nullable = true)
     private String TFN;
 
-    // Assume images are stored internally in DB nor externally thus not using URLs
+    // Images live in the blob store; see ImageService
     @ElementCollection
-    @Column(name = "images", nullable = true, columnDefinition = "MEDIUMBLOB")
-    private List<byte[]> images;
+    @BatchSize(size = 50)
+    @CollectionTable(name = "user_image_refs", joinColumns = @JoinColumn(name = "user_id"),
+            indexes = {
+                    @Index(name = "idx_user_image_storage_key", columnList = "storage_key"),
+                    @Index(name = "idx_user_image_thumbnail_key", columnList = "thumbnail_key")
+            })
+    @OrderColumn(name = "sort_order")
+    private List<StoredImage> images = new ArrayList<>();
 
     // User registration datetime
     @Column(name = "registration_date")
@@ -171,11 +181,11 @@ public class User extends BaseEntity {
         this.TFN = TFN;
     }
 
-    public List<byte[]> getImages() {
+    public List<StoredImage> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<StoredImage> images) {
         this.images = images;
     }
 
@@ -2,7 +2,9 @@ package io.quickledger.entities.asset;
 
 import io.quickledger.entities.BaseEntity;
 import io.quickledger.entities.Company;
+import io.quickledger.entities.StoredImage;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -80,10 +82,16 @@ public class Asset extends BaseEntity {
     @Column(name = "salvage_value", precision = 19, scale = 2)
     private BigDecimal salvageValue;
 
-    // Assume images are stored internally in DB nor externally thus not using URLs
+    // Images live in the blob store; see ImageService
     @ElementCollection
-    @Column(name = "images", nullable = true, columnDefinition = "MEDIUMBLOB")
-    private List<byte[]> images;
+    @BatchSize(size = 50)
+    @CollectionTable(name = "asset_image_refs", joinColumns = @JoinColumn(name = "asset_id"),
+            indexes = {
+                    @Index(name = "idx_asset_image_storage_key", columnList = "storage_key"),
+                    @Index(name = "idx_asset_image_thumbnail_key", columnList = "thumbnail_key")
+            })
+    @OrderColumn(name = "sort_order")
+    private List<StoredImage> images = new ArrayList<>();
 
     /* INFO: using assetAttributeValues to store any new attributes of the asset using EVA (Entity-Value-Attribute) model
         This is a one-to-many relationship with AssetAttributeValue and has a cascade type of ALL and orphanRemoval set to true
@@ -140,11 +148,11 @@ public class Asset extends BaseEntity {
 
 
 
-    public List<byte[]> getImages() {
+    public List<StoredImage> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<StoredImage> images) {
         this.images = images;
     }
 
@@ -2,8 +2,11 @@ package io.quickledger.entities.asset;
 
 import io.quickledger.entities.BaseEntity;
 import io.quickledger.entities.Company;
+import io.quickledger.entities.StoredImage;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -29,10 +32,16 @@ public class AssetGroup extends BaseEntity {
     @JoinColumn(name = "company_id", referencedColumnName = "id", nullable = false)
     private Company company;
 
-    // Assume images are stored internally in DB nor externally thus not using URLs
+    // Images live in the blob store; see ImageService
     @ElementCollection
-    @Column(name = "images", nullable = true, columnDefinition="MEDIUMBLOB")
-    private List<byte[]> images;
+    @BatchSize(size = 50)
+    @CollectionTable(name = "asset_group_image_refs", joinColumns = @JoinColumn(name = "asset_group_id"),
+            indexes = {
+                    @Index(name = "idx_asset_group_image_storage_key", columnList = "storage_key"),
+                    @Index(name = "idx_asset_group_image_thumbnail_key", columnList = "thumbnail_key")
+            })
+    @OrderColumn(name = "sort_order")
+    private List<StoredImage> images = new ArrayList<>();
 
 
     // Getters and Setters
@@ -52,11 +61,11 @@ public class AssetGroup extends BaseEntity {
         this.assetGroupName = assetGroupName;
     }
 
-    public List<byte[]> getImages() {
+    public List<StoredImage> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<StoredImage> images) {
         this.images = images;
     }
 
@@ -0,0 +1,84 @@
+package io.quickledger.entities.invoice;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Paid invoice count and revenue per client, maintained alongside {@link InvoiceMonthlyRollup}
+ * for the top customers widget.
+ */
+@Entity
+@Table(name = "client_revenue_rollups", indexes = {
+        @Index(name = "idx_client_rollup_revenue", columnList = "company_id, paid_total")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_client_rollup", columnNames = { "company_id", "client_id" })
+})
+public class ClientRevenueRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount = 0L;
+
+    @Column(name = "paid_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal paidTotal = BigDecimal.ZERO;
+
+    public ClientRevenueRollup() {
+    }
+
+    public ClientRevenueRollup(Long companyId, Long clientId, Long paidCount, BigDecimal paidTotal) {
+        this.companyId = companyId;
+        this.clientId = clientId;
+        this.paidCount = paidCount;
+        this.paidTotal = paidTotal;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getPaidCount() {
+        return paidCount;
+    }
+
+    public void setPaidCount(Long paidCount) {
+        this.paidCount = paidCount;
+    }
+
+    public BigDecimal getPaidTotal() {
+        return paidTotal;
+    }
+
+    public void setPaidTotal(BigDecimal paidTotal) {
+        this.paidTotal = paidTotal;
+    }
+}
@@ -6,15 +6,26 @@ import io.quickledger.entities.Company;
 import io.quickledger.entities.User;
 import io.quickledger.entities.quote.Quote;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // make sure field names of quote and invoice match as much as possible.
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoice_company_status_due", columnList = "company_id, status, due_date"),
+        @Index(name = "idx_invoice_company_created", columnList = "company_id, created_date"),
+        // Reminder runs look across companies by status and due date
+        @Index(name = "idx_invoice_status_due", columnList = "status, due_date")
+})
+@EntityListeners(InvoiceRollupListener.class)
 public class Invoice extends BaseEntity {
     // default constructor
     public Invoice() {
@@ -40,17 +51,18 @@ public class Invoice extends BaseEntity {
     @JoinColumn(name = "employee_id", referencedColumnName = "id")
     private User user;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<InvoiceItem> invoiceItems;
 
     @Column(name = "invoice_number", length = 500, nullable = false)
     private String invoiceNumber;
 
-    @Column(name = "invoice_date", length = 500, nullable = false)
-    private String invoiceDate;
+    @Column(name = "invoice_date", nullable = false)
+    private LocalDate invoiceDate;
 
-    @Column(name = "due_date", length = 500, nullable = false)
-    private String dueDate;
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
 
     @Column(name = "status", length = 500, nullable = false)
     private InvoiceStatus status;
@@ -103,6 +115,17 @@ public class Invoice extends BaseEntity {
     @Column(name = "parent_invoice_id")
     private Long parentInvoiceId;
 
+    // Invoice number and client names in one lower-cased column, so search needs neither a
+    // join nor per-row LOWER() calls. Backed by a FULLTEXT ngram index created at startup.
+    public static final int SEARCH_TEXT_LENGTH = 2000;
+
+    @Column(name = "search_text", length = SEARCH_TEXT_LENGTH)
+    private String searchText;
+
+    // State last read from or written to the database, used to keep the rollups in step
+    @Transient
+    private InvoiceRollupState rollupState;
+
     // Getters and Setters
 
     public User getUser() {
@@ -193,19 +216,19 @@ public class Invoice extends BaseEntity {
         this.invoiceNumber = invoiceNumber;
     }
 
-    public String getInvoiceDate() {
+    public LocalDate getInvoiceDate() {
         return invoiceDate;
     }
 
-    public void setInvoiceDate(String invoiceDate) {
+    public void setInvoiceDate(LocalDate invoiceDate) {
         this.invoiceDate = invoiceDate;
     }
 
-    public String getDueDate() {
+    public LocalDate getDueDate() {
         return dueDate;
     }
 
-    public void setDueDate(String dueDate) {
+    public void setDueDate(LocalDate dueDate) {
         this.dueDate = dueDate;
     }
 
@@ -281,6 +304,38 @@ public class Invoice extends BaseEntity {
         this.parentInvoiceId = parentInvoiceId;
     }
 
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchText() {
+        this.searchText = client != null
+                ? buildSearchText(invoiceNumber, client.getContactName(), client.getContactSurname(), client.getEntityName())
+                : buildSearchText(invoiceNumber, null, null, null);
+    }
+
+    /**
+     * Same value as {@code LEFT(LOWER(CONCAT_WS(' ', ...)), 2000)} in SQL, which the bulk refreshes use.
+     */
+    public static String buildSearchText(String invoiceNumber, String contactName, String contactSurname,
+            String entityName) {
+        String text = Stream.of(invoiceNumber, contactName, contactSurname, entityName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "))
+                .toLowerCase(Locale.ROOT);
+        return text.length() > SEARCH_TEXT_LENGTH ? text.substring(0, SEARCH_TEXT_LENGTH) : text;
+    }
+
+    public InvoiceRollupState getRollupState() {
+        return rollupState;
+    }
+
+    public void setRollupState(InvoiceRollupState rollupState) {
+        this.rollupState = rollupState;
+    }
+
     // toString method
     @Override
     public String toString() {
@@ -0,0 +1,98 @@
+package io.quickledger.entities.invoice;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Invoice count and total per company, month of creation and status. Maintained as invoices
+ * change (see {@link InvoiceRollupListener}) so the dashboard reads a few rows per month
+ * instead of aggregating the invoices table.
+ */
+@Entity
+@Table(name = "invoice_monthly_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_invoice_rollup", columnNames = { "company_id", "period", "status" })
+})
+public class InvoiceMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    // yyyy-MM of the invoice's created date
+    @Column(name = "period", nullable = false, length = 7)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Invoice.InvoiceStatus status;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount = 0L;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    public InvoiceMonthlyRollup() {
+    }
+
+    public InvoiceMonthlyRollup(Long companyId, String period, Invoice.InvoiceStatus status,
+            Long invoiceCount, BigDecimal totalAmount) {
+        this.companyId = companyId;
+        this.period = period;
+        this.status = status;
+        this.invoiceCount = invoiceCount;
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Invoice.InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Invoice.InvoiceStatus status) {
+        this.status = status;
+    }
+
+    public Long getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    public void setInvoiceCount(Long invoiceCount) {
+        this.invoiceCount = invoiceCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
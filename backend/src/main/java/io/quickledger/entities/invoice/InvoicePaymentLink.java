@@ -0,0 +1,89 @@
+package io.quickledger.entities.invoice;
+
+import io.quickledger.entities.BaseEntity;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The Stripe checkout session currently handed out for an invoice. A session is only
+ * reused while it is unexpired and was created for the invoice's current amount.
+ */
+@Entity
+@Table(name = "invoice_payment_links", indexes = {
+        @Index(name = "idx_payment_link_expires_at", columnList = "expires_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_link_invoice", columnNames = "invoice_id")
+})
+public class InvoicePaymentLink extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Column(name = "amount_cents", nullable = false)
+    private Long amountCents;
+
+    @Column(name = "session_id", nullable = false, length = 255)
+    private String sessionId;
+
+    @Column(name = "url", nullable = false, length = 2000)
+    private String url;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public InvoicePaymentLink() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public void setInvoiceId(Long invoiceId) {
+        this.invoiceId = invoiceId;
+    }
+
+    public Long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(Long amountCents) {
+        this.amountCents = amountCents;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
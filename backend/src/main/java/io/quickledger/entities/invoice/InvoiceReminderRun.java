@@ -0,0 +1,85 @@
+package io.quickledger.entities.invoice;
+
+import io.quickledger.entities.BaseEntity;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the daily reminder run. Candidates are processed in ascending invoice id order,
+ * so a run that stopped part way resumes after {@code lastInvoiceId}.
+ */
+@Entity
+@Table(name = "invoice_reminder_runs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reminder_run_date", columnNames = "run_date")
+})
+public class InvoiceReminderRun extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "last_invoice_id", nullable = false)
+    private Long lastInvoiceId = 0L;
+
+    @Column(name = "reminders_sent", nullable = false)
+    private Integer remindersSent = 0;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public InvoiceReminderRun() {
+    }
+
+    public InvoiceReminderRun(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    public void setRunDate(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public Long getLastInvoiceId() {
+        return lastInvoiceId;
+    }
+
+    public void setLastInvoiceId(Long lastInvoiceId) {
+        this.lastInvoiceId = lastInvoiceId;
+    }
+
+    public Integer getRemindersSent() {
+        return remindersSent;
+    }
+
+    public void setRemindersSent(Integer remindersSent) {
+        this.remindersSent = remindersSent;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
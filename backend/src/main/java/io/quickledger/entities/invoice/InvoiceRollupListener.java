@@ -0,0 +1,45 @@
+package io.quickledger.entities.invoice;
+
+import io.quickledger.services.InvoiceRollupService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps the invoice rollups in step with every invoice write. The state loaded from the
+ * database is remembered on the entity, and each insert, update or delete applies the
+ * difference in the same transaction.
+ */
+public class InvoiceRollupListener {
+
+    private final ObjectProvider<InvoiceRollupService> invoiceRollupService;
+
+    // Created by Hibernate through Spring's bean container
+    public InvoiceRollupListener(ObjectProvider<InvoiceRollupService> invoiceRollupService) {
+        this.invoiceRollupService = invoiceRollupService;
+    }
+
+    @PostLoad
+    public void postLoad(Invoice invoice) {
+        invoice.setRollupState(InvoiceRollupState.of(invoice));
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void postWrite(Invoice invoice) {
+        InvoiceRollupState after = InvoiceRollupState.of(invoice);
+        invoiceRollupService.getObject().apply(invoice.getRollupState(), after);
+        invoice.setRollupState(after);
+    }
+
+    @PostRemove
+    public void postRemove(Invoice invoice) {
+        InvoiceRollupState before = invoice.getRollupState() != null
+                ? invoice.getRollupState()
+                : InvoiceRollupState.of(invoice);
+        invoiceRollupService.getObject().apply(before, null);
+        invoice.setRollupState(null);
+    }
+}
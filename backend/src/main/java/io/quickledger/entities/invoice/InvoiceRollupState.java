@@ -0,0 +1,39 @@
+package io.quickledger.entities.invoice;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * What a single invoice contributes to the rollup tables.
+ */
+public record InvoiceRollupState(Long companyId, Long clientId, String period, Invoice.InvoiceStatus status,
+        BigDecimal total) {
+
+    // Period for invoices without a created date; never inside a dashboard window but still
+    // counted in the outstanding totals
+    public static final String UNDATED_PERIOD = "0000-00";
+
+    private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    public static InvoiceRollupState of(Invoice invoice) {
+        if (invoice.getCompany() == null || invoice.getStatus() == null) {
+            return null;
+        }
+        return new InvoiceRollupState(
+                invoice.getCompany().getId(),
+                invoice.getClient() != null ? invoice.getClient().getId() : null,
+                invoice.getCreatedDate() != null ? invoice.getCreatedDate().format(PERIOD_FORMATTER) : UNDATED_PERIOD,
+                invoice.getStatus(),
+                invoice.getTotalPrice() != null ? invoice.getTotalPrice() : BigDecimal.ZERO);
+    }
+
+    public boolean sameContribution(InvoiceRollupState other) {
+        return other != null
+                && companyId.equals(other.companyId)
+                && Objects.equals(clientId, other.clientId)
+                && period.equals(other.period)
+                && status == other.status
+                && total.compareTo(other.total) == 0;
+    }
+}
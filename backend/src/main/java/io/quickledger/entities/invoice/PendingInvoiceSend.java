@@ -0,0 +1,69 @@
+package io.quickledger.entities.invoice;
+
+import io.quickledger.entities.BaseEntity;
+import jakarta.persistence.*;
+
+/**
+ * A generated recurring invoice that still has to be emailed to the client. Written in the
+ * same transaction as the invoice and removed in the same transaction as the invoice's email
+ * is queued, so a restart in between neither loses nor repeats the send.
+ */
+@Entity
+@Table(name = "pending_invoice_sends", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pending_invoice_send_invoice", columnNames = "invoice_id")
+})
+public class PendingInvoiceSend extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    public PendingInvoiceSend() {
+    }
+
+    public PendingInvoiceSend(Long companyId, Long invoiceId) {
+        this.companyId = companyId;
+        this.invoiceId = invoiceId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public void setInvoiceId(Long invoiceId) {
+        this.invoiceId = invoiceId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -2,7 +2,10 @@ package io.quickledger.entities.product;
 
 import io.quickledger.entities.BaseEntity;
 import io.quickledger.entities.Company;
+import io.quickledger.entities.StoredImage;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -11,9 +14,14 @@ import java.util.List;
 /**
  * This is a bare minimum product (similar to ServiceItem) to get started with in the quote UI.
  * No attributes please!
+ * Updates only write changed columns, so saving a product never overwrites quantity_on_hand,
+ * which InventoryService changes in SQL.
  */
 @Entity
-@Table(name = "product_items")
+@DynamicUpdate
+@Table(name = "product_items", indexes = {
+        @Index(name = "idx_product_item_low_stock", columnList = "company_id, low_stock")
+})
 public class ProductItem extends BaseEntity {
 
     @Id
@@ -45,9 +53,16 @@ public class ProductItem extends BaseEntity {
     @Column(name = "discount", nullable = true, scale =2 ,  precision = 20)
     private BigDecimal discount;
 
+    // Images live in the blob store; see ImageService
     @ElementCollection
-    @Column(name = "images", nullable = true, columnDefinition="MEDIUMBLOB")
-    private List<byte[]> images;
+    @BatchSize(size = 50)
+    @CollectionTable(name = "product_item_image_refs", joinColumns = @JoinColumn(name = "product_item_id"),
+            indexes = {
+                    @Index(name = "idx_product_item_image_storage_key", columnList = "storage_key"),
+                    @Index(name = "idx_product_item_image_thumbnail_key", columnList = "thumbnail_key")
+            })
+    @OrderColumn(name = "sort_order")
+    private List<StoredImage> images = new ArrayList<>();
 
     // Inventory tracking fields
     @Column(name = "quantity_on_hand", nullable = false, columnDefinition = "integer default 0")
@@ -62,6 +77,10 @@ public class ProductItem extends BaseEntity {
     @Column(name = "track_inventory", nullable = false, columnDefinition = "boolean default false")
     private Boolean trackInventory = false;
 
+    // Tracked and at or below its reorder point; kept up to date by each stock movement
+    @Column(name = "low_stock", nullable = false, columnDefinition = "boolean default false")
+    private boolean lowStock;
+
     // EVA pattern for flexible attributes
     @OneToMany(mappedBy = "productItem", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<ProductItemAttributeValue> attributeValues = new ArrayList<>();
@@ -138,11 +157,11 @@ public class ProductItem extends BaseEntity {
         this.discount = discount;
     }
 
-    public List<byte[]> getImages() {
+    public List<StoredImage> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<StoredImage> images) {
         this.images = images;
     }
 
@@ -178,6 +197,20 @@ public class ProductItem extends BaseEntity {
         this.trackInventory = trackInventory;
     }
 
+    public boolean isLowStock() {
+        return lowStock;
+    }
+
+    public void setLowStock(boolean lowStock) {
+        this.lowStock = lowStock;
+    }
+
+    @PrePersist
+    public void refreshLowStock() {
+        this.lowStock = Boolean.TRUE.equals(trackInventory) && reorderPoint != null
+                && quantityOnHand != null && quantityOnHand <= reorderPoint;
+    }
+
     public List<ProductItemAttributeValue> getAttributeValues() {
         return attributeValues;
     }
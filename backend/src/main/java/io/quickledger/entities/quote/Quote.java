@@ -6,6 +6,7 @@ import io.quickledger.entities.Company;
 import io.quickledger.entities.User;
 import io.quickledger.entities.invoice.Invoice;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,6 +17,9 @@ import java.util.List;
 @Entity
 @Table(name = "quotes", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "quote_revision", "quote_number", "company_id" })
+}, indexes = {
+        @Index(name = "idx_quote_company_number_revision", columnList = "company_id, quote_number, quote_revision"),
+        @Index(name = "idx_quote_company_latest", columnList = "company_id, latest_revision, modified_date")
 })
 public class Quote extends BaseEntity {
     public Quote() {
@@ -38,12 +42,15 @@ public class Quote extends BaseEntity {
     private User user;
 
     // we do NOT always want to load all the quote items when we load a quote
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "quote", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<QuoteItem> quoteItems;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "quote", fetch = FetchType.LAZY)
     private List<QuoteAttachment> attachments;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "quote", fetch = FetchType.LAZY)
     private List<Invoice> invoices;
 
@@ -84,6 +91,10 @@ public class Quote extends BaseEntity {
     @Column(name = "quote_revision")
     private Integer quoteRevision;
 
+    // Highest revision of its quote number; kept up to date by QuoteRevisionService on every write
+    @Column(name = "latest_revision", nullable = false, columnDefinition = "boolean default false")
+    private boolean latestRevision;
+
     @Column(name = "total_price", nullable = false, precision = 19, scale = 2)
     private BigDecimal totalPrice;
 
@@ -234,6 +245,14 @@ public class Quote extends BaseEntity {
         this.quoteRevision = quoteRevision;
     }
 
+    public boolean isLatestRevision() {
+        return latestRevision;
+    }
+
+    public void setLatestRevision(boolean latestRevision) {
+        this.latestRevision = latestRevision;
+    }
+
     public String getClientNotes() {
         return clientNotes;
     }
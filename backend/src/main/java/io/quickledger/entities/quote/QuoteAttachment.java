@@ -2,11 +2,14 @@ package io.quickledger.entities.quote;
 
 import io.quickledger.entities.BaseEntity;
 import io.quickledger.entities.Company;
+import io.quickledger.entities.StoredAttachment;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "quote_attachments")
-public class QuoteAttachment extends BaseEntity {
+@Table(name = "quote_attachments", indexes = {
+        @Index(name = "idx_quote_attachment_storage_key", columnList = "storage_key")
+})
+public class QuoteAttachment extends BaseEntity implements StoredAttachment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,13 +29,20 @@ public class QuoteAttachment extends BaseEntity {
     @Column(name = "content_type", nullable = false)
     private String contentType;
 
+    // Only set on rows uploaded before the blob store; AttachmentStorageService moves them out
     @Lob
-    @Column(name = "data", nullable = false, columnDefinition = "LONGBLOB")
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "data", columnDefinition = "LONGBLOB")
     private byte[] data;
 
+    // SHA-256 of the content, which is also its key in the blob store
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
     @Column(name = "size")
     private Long size;
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -57,6 +67,7 @@ public class QuoteAttachment extends BaseEntity {
         this.company = company;
     }
 
+    @Override
     public String getFileName() {
         return fileName;
     }
@@ -65,6 +76,7 @@ public class QuoteAttachment extends BaseEntity {
         this.fileName = fileName;
     }
 
+    @Override
     public String getContentType() {
         return contentType;
     }
@@ -73,19 +85,33 @@ public class QuoteAttachment extends BaseEntity {
         this.contentType = contentType;
     }
 
+    @Override
     public byte[] getData() {
         return data;
     }
 
+    @Override
     public void setData(byte[] data) {
         this.data = data;
     }
 
+    @Override
     public Long getSize() {
         return size;
     }
 
+    @Override
     public void setSize(Long size) {
         this.size = size;
     }
+
+    @Override
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    @Override
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
 }
@@ -2,7 +2,9 @@ package io.quickledger.entities.serviceitem;
 
 import io.quickledger.entities.BaseEntity;
 import io.quickledger.entities.Company;
+import io.quickledger.entities.StoredImage;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.ArrayList;
 import java.math.BigDecimal;
 import java.util.List;
@@ -68,9 +70,16 @@ public class ServiceItem extends BaseEntity {
     @Column(name = "status", length = 500, nullable = true) // Status of the service item
     private Status status;
 
+    // Images live in the blob store; see ImageService
     @ElementCollection
-    @Column(name = "images", nullable = true, columnDefinition="MEDIUMBLOB")
-    private List<byte[]> images;
+    @BatchSize(size = 50)
+    @CollectionTable(name = "service_item_image_refs", joinColumns = @JoinColumn(name = "service_item_id"),
+            indexes = {
+                    @Index(name = "idx_service_item_image_storage_key", columnList = "storage_key"),
+                    @Index(name = "idx_service_item_image_thumbnail_key", columnList = "thumbnail_key")
+            })
+    @OrderColumn(name = "sort_order")
+    private List<StoredImage> images = new ArrayList<>();
 
     /* INFO: using assetAttributeValues to store any new attributes of the asset using EVA (Entity-Value-Attribute) model
         This is a one-to-many relationship with AssetAttributeValue and has a cascade type of ALL and orphanRemoval set to true
@@ -194,11 +203,11 @@ public class ServiceItem extends BaseEntity {
         this.discount = discount;
     }
 
-    public List<byte[]> getImages() {
+    public List<StoredImage> getImages() {
         return images;
     }
 
-    public void setImages(List<byte[]> images) {
+    public void setImages(List<StoredImage> images) {
         this.images = images;
     }
 
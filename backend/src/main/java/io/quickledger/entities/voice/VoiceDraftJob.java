@@ -0,0 +1,129 @@
+package io.quickledger.entities.voice;
+
+import io.quickledger.entities.BaseEntity;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A voice draft being built in the background: the audio is transcribed, the transcript parsed
+ * and the invoice or quote draft saved, with {@code status} recording the current stage. Stage
+ * changes are conditional updates, so a job cancelled mid-way never reaches the save.
+ * {@code result} holds the finished {@code VoiceDraftResponse} as JSON.
+ */
+@Entity
+@Table(name = "voice_draft_jobs", indexes = {
+        @Index(name = "idx_voice_draft_job_company_status", columnList = "company_id, status"),
+        @Index(name = "idx_voice_draft_job_status_modified", columnList = "status, modified_date")
+})
+public class VoiceDraftJob extends BaseEntity {
+
+    public enum Status {
+        QUEUED, TRANSCRIBING, PARSING, SAVING, COMPLETED, FAILED, CANCELLED;
+
+        public static final Set<Status> ACTIVE = EnumSet.of(QUEUED, TRANSCRIBING, PARSING, SAVING);
+
+        // Once the draft is being saved the job runs to the end
+        public static final Set<Status> CANCELLABLE = EnumSet.of(QUEUED, TRANSCRIBING, PARSING);
+
+        public boolean isFinished() {
+            return !ACTIVE.contains(this);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "transcript", columnDefinition = "TEXT")
+    private String transcript;
+
+    @Lob
+    @Column(name = "result", columnDefinition = "MEDIUMTEXT")
+    private String result;
+
+    @Column(name = "error", length = 2000)
+    private String error;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public VoiceDraftJob() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getTranscript() {
+        return transcript;
+    }
+
+    public void setTranscript(String transcript) {
+        this.transcript = transcript;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -20,7 +20,7 @@ public interface CompanyMapper {
 //    @Mapping(source = "productDefinitions", target = "productDefinitions")
 //    @Mapping(source = "companyId", target = "id")
 
-    @Mapping(ignore = true, target = "image")
+    @Mapping(ignore = true, target = "logoKey")
     Company toEntity(CompanyDto companyDto);
 
     /*List<ProductDefinitionDto> toDto(List<ProductDefinition> productDefinitions);
@@ -0,0 +1,11 @@
+package io.quickledger.mappers;
+
+import io.quickledger.dto.ImageDto;
+import io.quickledger.entities.StoredImage;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ImageMapper {
+
+    ImageDto toDto(StoredImage image);
+}
@@ -1,9 +1,14 @@
 package io.quickledger.mappers.invoice;
 
 import io.quickledger.dto.invoice.InvoiceDto;
+import io.quickledger.dto.invoice.InvoiceItemDto;
+import io.quickledger.dto.invoice.InvoiceSummaryDto;
 import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceItem;
 import org.mapstruct.*;
 
+import java.util.List;
+
 @Mapper(uses = { InvoiceItemMapper.class }, componentModel = "spring")
 public interface InvoiceMapper {
 
@@ -18,8 +23,17 @@ public interface InvoiceMapper {
     @Mapping(target = "quoteId", source = "quote.id")
     @Mapping(target = "quoteNumber", source = "quote.quoteNumber")
     @Mapping(target = "paymentLink", ignore = true)
+    @Mapping(target = "invoiceItems", ignore = true) // Handled in AfterMapping
     InvoiceDto toDto(Invoice invoice, @Context boolean lazyLoad);
 
+    // Invoice list rows; items, notes and the payment link are only in the detail view
+    @Mapping(target = "invoiceItems", ignore = true)
+    @Mapping(target = "notes", ignore = true)
+    @Mapping(target = "paymentLink", ignore = true)
+    InvoiceDto toDto(InvoiceSummaryDto summary);
+
+    List<InvoiceItemDto> toItemDtos(List<InvoiceItem> invoiceItems);
+
     @Mapping(target = "client.id", source = "clientId")
     @Mapping(target = "user.id", source = "userId")
     @Mapping(target = "invoiceItems", source = "invoiceItems")
@@ -29,12 +43,14 @@ public interface InvoiceMapper {
     @Mapping(target = "itemDescription", ignore = true)
     @Mapping(target = "quote", ignore = true)
     @Mapping(target = "employee", ignore = true)
+    @Mapping(target = "rollupState", ignore = true)
     Invoice toEntity(InvoiceDto invoiceDto);
 
     @AfterMapping
-    default void afterMapping(@MappingTarget InvoiceDto invoiceDto, @Context boolean lazy) {
-        if (lazy)
-            invoiceDto.setInvoiceItems(null);
+    default void afterMapping(Invoice invoice, @MappingTarget InvoiceDto invoiceDto, @Context boolean lazy) {
+        // Lazy DTOs never touch the collection, so mapping them does not load the items
+        if (!lazy)
+            invoiceDto.setInvoiceItems(toItemDtos(invoice.getInvoiceItems()));
     }
 
 }
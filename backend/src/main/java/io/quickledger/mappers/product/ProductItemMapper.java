@@ -3,6 +3,7 @@ package io.quickledger.mappers.product;
 import io.quickledger.dto.product.ProductItemDto;
 import io.quickledger.entities.product.ProductItem;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 //@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
@@ -12,5 +13,7 @@ public interface ProductItemMapper {
     ProductItemMapper INSTANCE = Mappers.getMapper(ProductItemMapper.class);
 
     ProductItemDto toDto(ProductItem productItem);
+    // Maintained by the repository's stock updates, never taken from a request
+    @Mapping(target = "lowStock", ignore = true)
     ProductItem toEntity(ProductItemDto productItemDto);
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package io.quickledger.mappers.quote;
 
+import io.quickledger.dto.quote.QuoteAttachmentDto;
 import io.quickledger.dto.quote.QuoteDto;
+import io.quickledger.dto.quote.QuoteItemDto;
+import io.quickledger.dto.quote.QuoteSummaryDto;
 import io.quickledger.entities.quote.Quote;
+import io.quickledger.entities.quote.QuoteAttachment;
+import io.quickledger.entities.quote.QuoteItem;
 import org.mapstruct.*;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Mapper(uses = { QuoteItemMapper.class, QuoteAttachmentMapper.class }, componentModel = "spring")
@@ -20,8 +26,22 @@ public interface QuoteMapper {
     @Mapping(target = "discountType", source = "discountType")
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "relatedInvoices", ignore = true) // Handled in AfterMapping
+    @Mapping(target = "quoteItems", ignore = true) // Handled in AfterMapping
+    @Mapping(target = "attachments", ignore = true) // Handled in AfterMapping
     QuoteDto toDto(Quote quote, @Context boolean lazyLoad);
 
+    // Quote list rows; notes, items, attachments and related invoices are only in the detail view
+    @Mapping(target = "notes", ignore = true)
+    @Mapping(target = "clientNotes", ignore = true)
+    @Mapping(target = "quoteItems", ignore = true)
+    @Mapping(target = "attachments", ignore = true)
+    @Mapping(target = "relatedInvoices", ignore = true)
+    QuoteDto toDto(QuoteSummaryDto summary);
+
+    List<QuoteItemDto> toItemDtos(List<QuoteItem> quoteItems);
+
+    List<QuoteAttachmentDto> toAttachmentDtos(List<QuoteAttachment> attachments);
+
     @Mapping(target = "client.id", source = "clientId")
     @Mapping(target = "user", ignore = true) // Handled manually in service
     @Mapping(source = "companyId", target = "company.id")
@@ -30,6 +50,7 @@ public interface QuoteMapper {
     @Mapping(target = "itemDescription", ignore = true)
     @Mapping(target = "attachments", ignore = true)
     @Mapping(target = "invoices", ignore = true)
+    @Mapping(target = "latestRevision", ignore = true) // Maintained by QuoteRevisionService
     Quote toEntity(QuoteDto quoteDto);
 
     @Mapping(target = "client.id", source = "clientId")
@@ -40,13 +61,18 @@ public interface QuoteMapper {
     @Mapping(target = "itemDescription", ignore = true)
     @Mapping(target = "attachments", ignore = true)
     @Mapping(target = "invoices", ignore = true)
+    @Mapping(target = "latestRevision", ignore = true) // Maintained by QuoteRevisionService
     void updateEntityFromDto(QuoteDto quoteDto, @MappingTarget Quote quote);
 
     @AfterMapping
     default void afterMapping(Quote quote, @MappingTarget QuoteDto quoteDto, @Context boolean lazy) {
+        // Lazy DTOs never touch the collections, so mapping them does not load them
         if (lazy) {
-            quoteDto.setQuoteItems(null);
+            quoteDto.setRelatedInvoices(Collections.emptyList());
+            return;
         }
+        quoteDto.setQuoteItems(toItemDtos(quote.getQuoteItems()));
+        quoteDto.setAttachments(toAttachmentDtos(quote.getAttachments()));
         if (quote.getInvoices() != null) {
             quoteDto.setRelatedInvoices(quote.getInvoices().stream()
                     .map(inv -> {
@@ -1,36 +1,72 @@
 package io.quickledger.repositories;
 
 import io.quickledger.entities.Client;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
-        // public Page<Client> findAllBy(Pageable pageable);
-
-        // TODO consider some indexing on these fields later
-        @Query("SELECT c FROM Client c WHERE c.company.id = ?1 AND " +
-                        "(LOWER(c.phone) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-                        "LOWER(c.email) LIKE LOWER(CONCAT('%', ?3, '%')) OR " +
-                        "LOWER(c.entityName) LIKE LOWER(CONCAT('%', ?4, '%')) OR " +
-                        "LOWER(c.contactName) LIKE LOWER(CONCAT('%', ?5, '%')) OR " +
-                        "LOWER(c.contactSurname) LIKE LOWER(CONCAT('%', ?6, '%')))")
-        List<Client> search(Long companyId, String phone, String email, String entityName, String contactName,
-                        String contactSurname, Pageable pageable);
-
-        // single search term for all fields
-        @Query("SELECT c FROM Client c WHERE c.company.id = ?1 AND " +
-                        "(LOWER(c.phone) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-                        "LOWER(c.email) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-                        "LOWER(c.entityName) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-                        "LOWER(c.contactName) LIKE LOWER(CONCAT('%', ?2, '%')) OR " +
-                        "LOWER(c.contactSurname) LIKE LOWER(CONCAT('%', ?2, '%')))")
-        List<Client> search(Long companyId, String searchTerm, Pageable pageable);
+
+        Page<Client> findByCompanyId(Long companyId, Pageable pageable);
+
+        // First keyset page of the client list, served by idx_client_company_modified
+        @Query("""
+                SELECT c FROM Client c
+                WHERE c.company.id = :companyId
+                ORDER BY c.modifiedDate DESC, c.id DESC
+                """)
+        List<Client> findFirstPage(@Param("companyId") Long companyId, Pageable pageable);
+
+        // Clients after the (modifiedDate, id) cursor; the <= bound gives the index a range to scan
+        @Query("""
+                SELECT c FROM Client c
+                WHERE c.company.id = :companyId
+                  AND c.modifiedDate <= :modifiedDate
+                  AND (c.modifiedDate < :modifiedDate OR c.id < :id)
+                ORDER BY c.modifiedDate DESC, c.id DESC
+                """)
+        List<Client> findPageAfter(@Param("companyId") Long companyId,
+                        @Param("modifiedDate") LocalDateTime modifiedDate,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        // Newest matching ids below the cursor, using the FULLTEXT ngram index on search_text
+        @Query(value = """
+                SELECT c.id FROM clients c
+                WHERE c.company_id = :companyId
+                  AND MATCH(c.search_text) AGAINST (:booleanQuery IN BOOLEAN MODE)
+                  AND c.id < :beforeId
+                ORDER BY c.id DESC
+                LIMIT :limit
+                """, nativeQuery = true)
+        List<Long> findSearchIdsByFulltext(@Param("companyId") Long companyId,
+                        @Param("booleanQuery") String booleanQuery,
+                        @Param("beforeId") Long beforeId,
+                        @Param("limit") int limit);
+
+        // Fallback for terms shorter than an ngram token, or when the FULLTEXT index is missing
+        @Query("""
+                SELECT c.id FROM Client c
+                WHERE c.company.id = :companyId
+                  AND c.searchText LIKE :pattern ESCAPE '!'
+                  AND c.id < :beforeId
+                ORDER BY c.id DESC
+                """)
+        List<Long> findSearchIdsByPattern(@Param("companyId") Long companyId,
+                        @Param("pattern") String pattern,
+                        @Param("beforeId") Long beforeId,
+                        Pageable pageable);
+
+        List<Client> findByIdInOrderByIdDesc(Collection<Long> ids);
 
         Optional<Client> findByEmailAndCompanyId(String email, Long companyId);
 
         Optional<Client> findByPhoneAndCompanyId(String phone, Long companyId);
-}
\ No newline at end of file
+}
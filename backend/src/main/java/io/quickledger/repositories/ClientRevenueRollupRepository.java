@@ -0,0 +1,23 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.invoice.ClientRevenueRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ClientRevenueRollupRepository extends CrudRepository<ClientRevenueRollup, Long> {
+
+    List<ClientRevenueRollup> findByCompanyId(Long companyId);
+
+    // [clientId, contactName, contactSurname, paidTotal, paidCount] ordered by revenue
+    @Query("SELECT r.clientId, c.contactName, c.contactSurname, r.paidTotal, r.paidCount FROM ClientRevenueRollup r, Client c WHERE c.id = r.clientId AND r.companyId = :companyId AND r.paidCount > 0 ORDER BY r.paidTotal DESC")
+    List<Object[]> findTopByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ClientRevenueRollup r WHERE r.companyId = :companyId")
+    void deleteByCompanyId(@Param("companyId") Long companyId);
+}
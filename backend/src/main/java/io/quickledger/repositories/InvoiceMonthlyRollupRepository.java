@@ -0,0 +1,27 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceMonthlyRollup;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InvoiceMonthlyRollupRepository extends CrudRepository<InvoiceMonthlyRollup, Long> {
+
+    List<InvoiceMonthlyRollup> findByCompanyId(Long companyId);
+
+    List<InvoiceMonthlyRollup> findByCompanyIdAndStatusAndPeriodGreaterThanEqualOrderByPeriodAsc(
+            Long companyId, Invoice.InvoiceStatus status, String fromPeriod);
+
+    // [count, total] across all months for one status
+    @Query("SELECT COALESCE(SUM(r.invoiceCount), 0), COALESCE(SUM(r.totalAmount), 0) FROM InvoiceMonthlyRollup r WHERE r.companyId = :companyId AND r.status = :status")
+    List<Object[]> sumByCompanyIdAndStatus(@Param("companyId") Long companyId,
+            @Param("status") Invoice.InvoiceStatus status);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceMonthlyRollup r WHERE r.companyId = :companyId")
+    void deleteByCompanyId(@Param("companyId") Long companyId);
+}
@@ -0,0 +1,29 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoicePaymentLink;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface InvoicePaymentLinkRepository extends CrudRepository<InvoicePaymentLink, Long> {
+
+    Optional<InvoicePaymentLink> findByInvoiceId(Long invoiceId);
+
+    // Links about to expire on invoices that are still waiting to be paid
+    @Query("SELECT l.invoiceId FROM InvoicePaymentLink l, Invoice i WHERE i.id = l.invoiceId AND i.status = :status AND l.expiresAt < :threshold ORDER BY l.expiresAt ASC")
+    List<Long> findInvoiceIdsWithLinksExpiringBefore(@Param("status") Invoice.InvoiceStatus status,
+            @Param("threshold") LocalDateTime threshold, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM InvoicePaymentLink l WHERE l.invoiceId = :invoiceId")
+    void deleteByInvoiceId(@Param("invoiceId") Long invoiceId);
+}
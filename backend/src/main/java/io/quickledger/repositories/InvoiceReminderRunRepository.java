@@ -0,0 +1,12 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.invoice.InvoiceReminderRun;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface InvoiceReminderRunRepository extends CrudRepository<InvoiceReminderRun, Long> {
+
+    Optional<InvoiceReminderRun> findByRunDate(LocalDate runDate);
+}
@@ -1,14 +1,19 @@
 package io.quickledger.repositories;
 
+import io.quickledger.dto.invoice.InvoiceSearchResultDto;
+import io.quickledger.dto.invoice.InvoiceSummaryDto;
 import io.quickledger.entities.invoice.Invoice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,65 +24,117 @@ public interface InvoiceRepository extends CrudRepository<Invoice, Long> {
 
     Page<Invoice> findAllByCompanyIdOrderByCreatedDateDesc(Long companyId, Pageable pageable);
 
-    @Query(value = "SELECT COUNT(id) FROM invoices WHERE company_id = :companyId AND YEAR(created_date) = YEAR(CURRENT_DATE) AND MONTH(created_date) = MONTH(CURRENT_DATE)", nativeQuery = true)
-    long countMonthlyInvoicesByCompanyId(@Param("companyId") Long companyId);
-
-    // Monthly revenue for last 6 months (for PAID invoices)
+    // Invoice list rows in one query; the count only touches the invoices table
     @Query(value = """
-        SELECT DATE_FORMAT(created_date, '%Y-%m') as month,
-               COALESCE(SUM(total_price), 0) as revenue,
-               COUNT(*) as invoice_count
-        FROM invoices
-        WHERE company_id = :companyId
-          AND status = 'PAID'
-          AND created_date >= DATE_SUB(CURRENT_DATE, INTERVAL 6 MONTH)
-        GROUP BY DATE_FORMAT(created_date, '%Y-%m')
-        ORDER BY month ASC
-        """, nativeQuery = true)
-    List<Object[]> getMonthlyRevenueByCompanyId(@Param("companyId") Long companyId);
+        SELECT new io.quickledger.dto.invoice.InvoiceSummaryDto(
+            i.id, i.company.id, i.user.id, c.id, c.contactName, c.contactSurname, c.email, c.entityName, c.phone,
+            i.invoiceNumber, i.invoiceDate, i.dueDate, i.status, i.totalPrice, i.gst, i.discountValue, i.discountType,
+            q.id, q.quoteNumber, i.isRecurring, i.recurringFrequency, i.recurringEndDate, i.recurringAutoSend,
+            i.nextRecurringDate, i.parentInvoiceId)
+        FROM Invoice i LEFT JOIN i.client c LEFT JOIN i.quote q
+        WHERE i.company.id = :companyId
+        ORDER BY i.createdDate DESC
+        """, countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.company.id = :companyId")
+    Page<InvoiceSummaryDto> findSummariesByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
 
-    // Outstanding invoices (SENT status - not yet paid)
-    @Query(value = """
-        SELECT COUNT(*) as count,
-               COALESCE(SUM(total_price), 0) as total_amount
-        FROM invoices
-        WHERE company_id = :companyId
-          AND status = 'SENT'
-        """, nativeQuery = true)
-    List<Object[]> getOutstandingInvoicesByCompanyId(@Param("companyId") Long companyId);
+    // Range on (company_id, created_date) rather than YEAR()/MONTH(), so the index is used
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.company.id = :companyId AND i.createdDate >= :from AND i.createdDate < :to")
+    long countCreatedBetween(@Param("companyId") Long companyId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Invoices created this calendar month; createdDate is stored in UTC
+    default long countMonthlyInvoicesByCompanyId(Long companyId) {
+        LocalDateTime monthStart = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).atStartOfDay();
+        return countCreatedBetween(companyId, monthStart, monthStart.plusMonths(1));
+    }
+
+    // [count, total] of a company's invoices in a status that fell due before the given date
+    @Query("SELECT COUNT(i), COALESCE(SUM(i.totalPrice), 0) FROM Invoice i WHERE i.company.id = :companyId AND i.status = :status AND i.dueDate < :date")
+    List<Object[]> sumByStatusDueBefore(@Param("companyId") Long companyId,
+            @Param("status") Invoice.InvoiceStatus status, @Param("date") LocalDate date);
+
+    // [status, year, month, count, total] per status and month of creation; source of truth for the rollups
+    @Query("""
+        SELECT i.status, YEAR(i.createdDate), MONTH(i.createdDate), COUNT(i), COALESCE(SUM(i.totalPrice), 0)
+        FROM Invoice i
+        WHERE i.company.id = :companyId
+        GROUP BY i.status, YEAR(i.createdDate), MONTH(i.createdDate)
+        """)
+    List<Object[]> aggregateByStatusAndMonth(@Param("companyId") Long companyId);
+
+    // [clientId, count, total] per client for invoices in the given status
+    @Query("""
+        SELECT i.client.id, COUNT(i), COALESCE(SUM(i.totalPrice), 0)
+        FROM Invoice i
+        WHERE i.company.id = :companyId
+          AND i.status = :status
+        GROUP BY i.client.id
+        """)
+    List<Object[]> aggregateByClient(@Param("companyId") Long companyId, @Param("status") Invoice.InvoiceStatus status);
+
+    @Query("SELECT DISTINCT i.company.id FROM Invoice i")
+    List<Long> findDistinctCompanyIds();
 
-    // Top customers by revenue (PAID invoices)
+    // [companyId, invoiceId] of recurring templates due for generation, grouped by company
+    @Query("SELECT i.company.id, i.id FROM Invoice i WHERE i.isRecurring = true AND i.nextRecurringDate <= :today AND (i.recurringEndDate IS NULL OR i.recurringEndDate >= :today) ORDER BY i.company.id, i.id")
+    List<Object[]> findRecurringTemplateIdsDueForGeneration(@Param("today") LocalDate today);
+
+    // SENT invoices with client emails due on one of the given dates, in id order so a run can resume after afterId
+    @Query("""
+        SELECT i FROM Invoice i JOIN i.client c
+        WHERE i.status = :status
+        AND i.dueDate IN :dueDates
+        AND c.email IS NOT NULL
+        AND c.email <> ''
+        AND i.id > :afterId
+        ORDER BY i.id ASC
+        """)
+    List<Invoice> findReminderCandidates(@Param("status") Invoice.InvoiceStatus status,
+            @Param("dueDates") List<LocalDate> dueDates, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Newest matching ids below the cursor, using the FULLTEXT ngram index on search_text
     @Query(value = """
-        SELECT c.id as customer_id,
-               CONCAT(COALESCE(c.contact_name, ''), ' ', COALESCE(c.contact_surname, '')) as customer_name,
-               COALESCE(SUM(i.total_price), 0) as total_revenue,
-               COUNT(i.id) as invoice_count
-        FROM invoices i
-        JOIN clients c ON i.client_id = c.id
+        SELECT i.id FROM invoices i
         WHERE i.company_id = :companyId
-          AND i.status = 'PAID'
-        GROUP BY c.id, c.contact_name, c.contact_surname
-        ORDER BY total_revenue DESC
+          AND MATCH(i.search_text) AGAINST (:booleanQuery IN BOOLEAN MODE)
+          AND i.id < :beforeId
+        ORDER BY i.id DESC
         LIMIT :limit
         """, nativeQuery = true)
-    List<Object[]> getTopCustomersByCompanyId(@Param("companyId") Long companyId, @Param("limit") int limit);
+    List<Long> findSearchIdsByFulltext(@Param("companyId") Long companyId,
+                                       @Param("booleanQuery") String booleanQuery,
+                                       @Param("beforeId") Long beforeId,
+                                       @Param("limit") int limit);
 
-    // Find recurring invoices due for generation
-    @Query("SELECT i FROM Invoice i WHERE i.isRecurring = true AND i.nextRecurringDate <= :today AND (i.recurringEndDate IS NULL OR i.recurringEndDate >= :today)")
-    List<Invoice> findRecurringInvoicesDueForGeneration(@Param("today") LocalDate today);
+    // Fallback for terms shorter than an ngram token, or when the FULLTEXT index is missing
+    @Query("""
+        SELECT i.id FROM Invoice i
+        WHERE i.company.id = :companyId
+          AND i.searchText LIKE :pattern ESCAPE '!'
+          AND i.id < :beforeId
+        ORDER BY i.id DESC
+        """)
+    List<Long> findSearchIdsByPattern(@Param("companyId") Long companyId,
+                                      @Param("pattern") String pattern,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
 
-    // Find SENT invoices with valid client emails for payment reminders
+    @Query("""
+        SELECT new io.quickledger.dto.invoice.InvoiceSearchResultDto(
+            i.id, i.invoiceNumber, i.status, i.invoiceDate, i.dueDate, i.totalPrice,
+            c.id, c.contactName, c.contactSurname, c.entityName)
+        FROM Invoice i LEFT JOIN i.client c
+        WHERE i.id IN :ids
+        ORDER BY i.id DESC
+        """)
+    List<InvoiceSearchResultDto> findSearchResultsByIds(@Param("ids") List<Long> ids);
+
+    // Re-derives search_text for a client's invoices after the client is renamed
+    @Modifying
     @Query(value = """
-        SELECT i.* FROM invoices i
-        JOIN clients c ON i.client_id = c.id
-        JOIN companies comp ON i.company_id = comp.id
-        WHERE i.status = 'SENT'
-        AND c.email IS NOT NULL
-        AND c.email <> ''
+        UPDATE invoices i JOIN clients c ON c.id = i.client_id
+        SET i.search_text = LEFT(LOWER(CONCAT_WS(' ', i.invoice_number, c.contact_name, c.contact_surname, c.entity_name)), 2000)
+        WHERE i.client_id = :clientId
         """, nativeQuery = true)
-    List<Invoice> findInvoicesForReminders();
-
-    // Search invoices by invoice number or client name
-    @Query("SELECT i FROM Invoice i LEFT JOIN Client c ON i.client.id = c.id WHERE (LOWER(i.invoiceNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(c.contactName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(c.contactSurname) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(c.entityName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND i.company.id = :companyId")
-    List<Invoice> searchInvoice(@Param("companyId") Long companyId, @Param("searchTerm") String searchTerm);
+    int refreshSearchTextForClient(@Param("clientId") Long clientId);
 }
@@ -0,0 +1,55 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.OutboundEmail;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboundEmailRepository extends CrudRepository<OutboundEmail, Long> {
+
+    // Due rows, including SENDING rows whose lease ran out; SKIP LOCKED lets several instances drain in parallel
+    @Query(value = """
+        SELECT id FROM email_outbox
+        WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now
+        ORDER BY next_attempt_at, id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboundEmail e
+        SET e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil
+        WHERE e.id IN :ids
+        """)
+    void markClaimed(@Param("ids") List<Long> ids, @Param("status") OutboundEmail.Status status,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboundEmail e
+        SET e.status = :status, e.sentAt = :now, e.lastError = null
+        WHERE e.id IN :ids
+        """)
+    void markSent(@Param("ids") List<Long> ids, @Param("status") OutboundEmail.Status status,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboundEmail e
+        SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error
+        WHERE e.id = :id
+        """)
+    void markAttemptFailed(@Param("id") Long id, @Param("status") OutboundEmail.Status status,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(@Param("status") OutboundEmail.Status status,
+            @Param("before") LocalDateTime before);
+}
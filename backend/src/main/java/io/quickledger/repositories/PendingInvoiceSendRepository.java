@@ -0,0 +1,16 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.invoice.PendingInvoiceSend;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PendingInvoiceSendRepository extends CrudRepository<PendingInvoiceSend, Long> {
+
+    // In id order, so a run resumes after afterId and skips sends that failed earlier in the run
+    @Query("SELECT p FROM PendingInvoiceSend p WHERE p.id > :afterId ORDER BY p.id")
+    List<PendingInvoiceSend> findPage(@Param("afterId") Long afterId, Pageable pageable);
+}
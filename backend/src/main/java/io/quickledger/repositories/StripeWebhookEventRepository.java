@@ -0,0 +1,79 @@
+package io.quickledger.repositories;
+
+import io.quickledger.entities.StripeWebhookEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StripeWebhookEventRepository extends CrudRepository<StripeWebhookEvent, Long> {
+
+    boolean existsByEventId(String eventId);
+
+    Optional<StripeWebhookEvent> findByEventId(String eventId);
+
+    // Due events, including PROCESSING ones whose lease ran out, that are the oldest unfinished
+    // event for their ordering key; later events for the same key wait until it is done
+    @Query(value = """
+        SELECT e.id FROM stripe_webhook_events e
+        WHERE e.status IN ('PENDING', 'PROCESSING') AND e.next_attempt_at <= :now
+          AND NOT EXISTS (
+            SELECT 1 FROM stripe_webhook_events p
+            WHERE p.ordering_key = e.ordering_key AND p.status IN ('PENDING', 'PROCESSING') AND p.id < e.id)
+        ORDER BY e.id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+        UPDATE StripeWebhookEvent e
+        SET e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil
+        WHERE e.id IN :ids
+        """)
+    void markClaimed(@Param("ids") List<Long> ids, @Param("status") StripeWebhookEvent.Status status,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("""
+        UPDATE StripeWebhookEvent e
+        SET e.status = :status, e.processedAt = :now, e.lastError = null
+        WHERE e.id = :id
+        """)
+    void markProcessed(@Param("id") Long id, @Param("status") StripeWebhookEvent.Status status,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        UPDATE StripeWebhookEvent e
+        SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error
+        WHERE e.id = :id
+        """)
+    void markAttemptFailed(@Param("id") Long id, @Param("status") StripeWebhookEvent.Status status,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("""
+        UPDATE StripeWebhookEvent e
+        SET e.status = :pending, e.attempts = 0, e.nextAttemptAt = :now
+        WHERE e.status = :status
+        """)
+    int requeueByStatus(@Param("status") StripeWebhookEvent.Status status,
+            @Param("pending") StripeWebhookEvent.Status pending, @Param("now") LocalDateTime now);
+
+    @Query("SELECT e.status, COUNT(e) FROM StripeWebhookEvent e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT e.eventId FROM StripeWebhookEvent e WHERE e.status = :status ORDER BY e.id DESC LIMIT 50")
+    List<String> findRecentEventIdsByStatus(@Param("status") StripeWebhookEvent.Status status);
+
+    @Modifying
+    @Query("DELETE FROM StripeWebhookEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteByStatusAndProcessedAtBefore(@Param("status") StripeWebhookEvent.Status status,
+            @Param("before") LocalDateTime before);
+}
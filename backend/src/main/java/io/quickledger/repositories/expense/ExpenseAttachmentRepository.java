@@ -1,7 +1,10 @@
 package io.quickledger.repositories.expense;
 
 import io.quickledger.entities.expense.ExpenseAttachment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,10 @@ public interface ExpenseAttachmentRepository extends JpaRepository<ExpenseAttach
     List<ExpenseAttachment> findAllByExpenseId(Long expenseId);
 
     Optional<ExpenseAttachment> findByIdAndCompanyId(Long id, Long companyId);
+
+    boolean existsByStorageKey(String storageKey);
+
+    // Rows whose content is still in the data column
+    @Query("SELECT a.id FROM ExpenseAttachment a WHERE a.storageKey IS NULL AND a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsWithoutStorageKey(@Param("afterId") Long afterId, Pageable pageable);
 }
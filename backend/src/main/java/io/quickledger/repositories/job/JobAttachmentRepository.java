@@ -1,7 +1,10 @@
 package io.quickledger.repositories.job;
 
 import io.quickledger.entities.job.JobAttachment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,10 @@ public interface JobAttachmentRepository extends JpaRepository<JobAttachment, Lo
     List<JobAttachment> findAllByJobId(Long jobId);
 
     Optional<JobAttachment> findByIdAndCompanyId(Long id, Long companyId);
+
+    boolean existsByStorageKey(String storageKey);
+
+    // Rows whose content is still in the data column
+    @Query("SELECT a.id FROM JobAttachment a WHERE a.storageKey IS NULL AND a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsWithoutStorageKey(@Param("afterId") Long afterId, Pageable pageable);
 }
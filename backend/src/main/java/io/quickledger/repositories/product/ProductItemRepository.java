@@ -1,5 +1,7 @@
 package io.quickledger.repositories.product;
 
+import io.quickledger.dto.inventory.InventoryDashboardDto;
+import io.quickledger.dto.inventory.LowStockAlertDto;
 import io.quickledger.entities.product.ProductItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,12 +10,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductItemRepository extends JpaRepository<ProductItem, Long> {
+public interface ProductItemRepository extends JpaRepository<ProductItem, Long>, ProductItemRepositoryCustom {
 
     List<ProductItem> findAllByCompanyId(Long companyId);
 
@@ -32,18 +33,24 @@ public interface ProductItemRepository extends JpaRepository<ProductItem, Long>
     @Query("SELECT p FROM ProductItem p WHERE p.company.id = :companyId AND p.trackInventory = true")
     List<ProductItem> findTrackedProducts(@Param("companyId") Long companyId);
 
-    @Query("SELECT COUNT(p) FROM ProductItem p WHERE p.company.id = :companyId AND p.trackInventory = true")
-    int countTrackedProducts(@Param("companyId") Long companyId);
-
-    @Query("SELECT p FROM ProductItem p WHERE p.company.id = :companyId AND p.trackInventory = true " +
-           "AND p.quantityOnHand <= p.reorderPoint AND p.reorderPoint IS NOT NULL")
-    List<ProductItem> findLowStockProducts(@Param("companyId") Long companyId);
-
-    @Query("SELECT p FROM ProductItem p WHERE p.company.id = :companyId AND p.trackInventory = true " +
-           "AND p.quantityOnHand = 0")
-    List<ProductItem> findOutOfStockProducts(@Param("companyId") Long companyId);
-
-    @Query("SELECT COALESCE(SUM(p.quantityOnHand * p.price), 0) FROM ProductItem p " +
-           "WHERE p.company.id = :companyId AND p.trackInventory = true")
-    BigDecimal calculateTotalInventoryValue(@Param("companyId") Long companyId);
+    @Query("""
+        SELECT new io.quickledger.dto.inventory.InventoryDashboardDto(
+            COUNT(p),
+            COALESCE(SUM(CASE WHEN p.lowStock = true THEN 1L ELSE 0L END), 0L),
+            COALESCE(SUM(CASE WHEN p.quantityOnHand = 0 THEN 1L ELSE 0L END), 0L),
+            COALESCE(SUM(p.quantityOnHand * p.price), 0))
+        FROM ProductItem p
+        WHERE p.company.id = :companyId AND p.trackInventory = true
+        """)
+    InventoryDashboardDto summarizeInventory(@Param("companyId") Long companyId);
+
+    @Query(value = """
+        SELECT new io.quickledger.dto.inventory.LowStockAlertDto(
+            p.id, p.name, p.code, p.quantityOnHand, p.reorderPoint, p.reorderQuantity)
+        FROM ProductItem p
+        WHERE p.company.id = :companyId AND p.lowStock = true
+        ORDER BY p.quantityOnHand - p.reorderPoint, p.id
+        """,
+        countQuery = "SELECT COUNT(p) FROM ProductItem p WHERE p.company.id = :companyId AND p.lowStock = true")
+    Page<LowStockAlertDto> findLowStockAlerts(@Param("companyId") Long companyId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package io.quickledger.repositories.product;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SQL-side stock updates. Both methods lock the affected product rows until the surrounding
+ * transaction ends, so concurrent movements for the same product are applied one after another.
+ * Managed {@code ProductItem} instances are not refreshed.
+ */
+public interface ProductItemRepositoryCustom {
+
+    /**
+     * Adds each delta to its product's quantity on hand in a single statement, updating the
+     * low-stock flag to match.
+     *
+     * @param deltas quantity change by product id
+     * @return the resulting quantity on hand by product id; products that do not exist are missing
+     */
+    Map<Long, Integer> addToQuantityOnHand(Map<Long, Integer> deltas);
+
+    /**
+     * Recomputes the low-stock flag of every product whose flag disagrees with its stock.
+     *
+     * @return the number of products whose flag changed
+     */
+    int refreshLowStockFlags();
+
+    /**
+     * Locks the product row and reads its current quantity on hand.
+     */
+    Optional<Integer> lockQuantityOnHand(Long productId);
+}
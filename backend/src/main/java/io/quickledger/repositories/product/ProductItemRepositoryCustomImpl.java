@@ -0,0 +1,77 @@
+package io.quickledger.repositories.product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+public class ProductItemRepositoryCustomImpl implements ProductItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, Integer> addToQuantityOnHand(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return Map.of();
+        }
+        // Ascending ids, so transactions touching the same products lock them in the same order
+        Map<Long, Integer> sorted = new TreeMap<>(deltas);
+
+        StringBuilder change = new StringBuilder("CASE id");
+        for (int i = 0; i < sorted.size(); i++) {
+            change.append(" WHEN :id").append(i).append(" THEN :delta").append(i);
+        }
+        change.append(" ELSE 0 END");
+        // low_stock is assigned first: MySQL would otherwise see the already incremented quantity
+        String sql = "UPDATE product_items SET low_stock = " + lowStockWhen("quantity_on_hand + " + change)
+                + ", quantity_on_hand = quantity_on_hand + " + change + " WHERE id IN (:ids)";
+
+        Query update = entityManager.createNativeQuery(sql);
+        int i = 0;
+        for (Map.Entry<Long, Integer> delta : sorted.entrySet()) {
+            update.setParameter("id" + i, delta.getKey());
+            update.setParameter("delta" + i, delta.getValue());
+            i++;
+        }
+        update.setParameter("ids", List.copyOf(sorted.keySet()));
+        update.executeUpdate();
+
+        // Reads our own uncommitted update; the rows stay locked until commit
+        List<?> rows = entityManager.createNativeQuery("SELECT id, quantity_on_hand FROM product_items WHERE id IN (:ids)")
+                .setParameter("ids", List.copyOf(sorted.keySet()))
+                .getResultList();
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            quantities.put(((Number) columns[0]).longValue(), ((Number) columns[1]).intValue());
+        }
+        return quantities;
+    }
+
+    @Override
+    public int refreshLowStockFlags() {
+        String lowStock = lowStockWhen("quantity_on_hand");
+        return entityManager.createNativeQuery("UPDATE product_items SET low_stock = " + lowStock
+                        + " WHERE low_stock <> " + lowStock)
+                .executeUpdate();
+    }
+
+    @Override
+    public Optional<Integer> lockQuantityOnHand(Long productId) {
+        List<?> rows = entityManager.createNativeQuery("SELECT quantity_on_hand FROM product_items WHERE id = :id FOR UPDATE")
+                .setParameter("id", productId)
+                .getResultList();
+        return rows.stream().findFirst().map(quantity -> ((Number) quantity).intValue());
+    }
+
+    // Same rule as ProductItem.refreshLowStock()
+    private static String lowStockWhen(String quantity) {
+        return "(track_inventory = TRUE AND reorder_point IS NOT NULL AND " + quantity + " <= reorder_point)";
+    }
+}
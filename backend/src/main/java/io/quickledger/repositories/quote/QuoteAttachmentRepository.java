@@ -1,7 +1,10 @@
 package io.quickledger.repositories.quote;
 
 import io.quickledger.entities.quote.QuoteAttachment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,10 @@ public interface QuoteAttachmentRepository extends JpaRepository<QuoteAttachment
     List<QuoteAttachment> findAllByQuoteId(Long quoteId);
 
     Optional<QuoteAttachment> findByIdAndCompanyId(Long id, Long companyId);
+
+    boolean existsByStorageKey(String storageKey);
+
+    // Rows whose content is still in the data column
+    @Query("SELECT a.id FROM QuoteAttachment a WHERE a.storageKey IS NULL AND a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsWithoutStorageKey(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,9 +1,11 @@
 package io.quickledger.repositories.quote;
 
+import io.quickledger.dto.quote.QuoteSummaryDto;
 import io.quickledger.entities.quote.Quote;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -27,17 +29,75 @@ public interface QuoteRepository extends JpaRepository<Quote, Long> {
                         @Param("companyId") Long companyId);
 
         // return only unique quote numbers and latest revisions
-        // @Query(value = "SELECT q.* FROM quotes q INNER JOIN ( SELECT quote_number,
-        // MAX(quote_revision) AS max_revision FROM quotes GROUP BY quote_number ) AS
-        // latest_revision ON q.quote_number = latest_revision.quote_number AND
-        // q.quote_revision = latest_revision.max_revision WHERE q.company_id =
-        // :companyId ORDER BY q.modified_date DESC", nativeQuery = true)
-        @Query(value = "SELECT q.* FROM quotes q INNER JOIN ( SELECT quote_number, MAX(quote_revision) AS max_revision FROM quotes WHERE company_id = :companyId GROUP BY quote_number ) AS latest_revision ON q.quote_number = latest_revision.quote_number AND q.quote_revision = latest_revision.max_revision WHERE q.company_id = :companyId ORDER BY q.modified_date DESC", countQuery = "SELECT count(*) FROM quotes q INNER JOIN ( SELECT quote_number, MAX(quote_revision) AS max_revision FROM quotes WHERE company_id = :companyId GROUP BY quote_number ) AS latest_revision ON q.quote_number = latest_revision.quote_number AND q.quote_revision = latest_revision.max_revision WHERE q.company_id = :companyId", nativeQuery = true)
+        @Query(value = "SELECT q.* FROM quotes q WHERE q.company_id = :companyId AND q.latest_revision = TRUE ORDER BY q.modified_date DESC", countQuery = "SELECT count(*) FROM quotes q WHERE q.company_id = :companyId AND q.latest_revision = TRUE", nativeQuery = true)
         Page<Quote> getAllQuotesLatestRevision(@Param("companyId") Long companyId, Pageable pageable);
 
         @Query("SELECT q FROM Quote q JOIN Client c ON q.client.id = c.id WHERE (LOWER(q.quoteNumber) LIKE LOWER(CONCAT('%', :searchTerms, '%')) OR LOWER(c.contactName) LIKE LOWER(CONCAT('%', :searchTerms, '%')) OR LOWER(c.contactSurname) LIKE LOWER(CONCAT('%', :searchTerms, '%')) OR LOWER(c.entityName) LIKE LOWER(CONCAT('%', :searchTerms, '%'))) AND q.company.id = :companyId")
         List<Quote> searchQuote(Long companyId, String searchTerms);
 
+        // Quote list rows in one query: the latest revision of each quote number, most recently modified first
+        @Query(value = """
+                SELECT new io.quickledger.dto.quote.QuoteSummaryDto(
+                    q.id, q.company.id, q.user.id, c.id, c.contactName, c.contactSurname, c.email, c.entityName,
+                    c.phone, q.quoteNumber, q.quoteRevision, q.quoteDate, q.expiryDate, q.status, q.totalPrice, q.gst,
+                    q.discountValue, q.discountType)
+                FROM Quote q LEFT JOIN q.client c
+                WHERE q.company.id = :companyId AND q.latestRevision = true
+                ORDER BY q.modifiedDate DESC
+                """, countQuery = "SELECT COUNT(q) FROM Quote q WHERE q.company.id = :companyId AND q.latestRevision = true")
+        Page<QuoteSummaryDto> findLatestRevisionSummaries(@Param("companyId") Long companyId, Pageable pageable);
+
+        @Query(value = """
+                SELECT new io.quickledger.dto.quote.QuoteSummaryDto(
+                    q.id, q.company.id, q.user.id, c.id, c.contactName, c.contactSurname, c.email, c.entityName,
+                    c.phone, q.quoteNumber, q.quoteRevision, q.quoteDate, q.expiryDate, q.status, q.totalPrice, q.gst,
+                    q.discountValue, q.discountType)
+                FROM Quote q LEFT JOIN q.client c
+                WHERE q.company.id = :companyId
+                """, countQuery = "SELECT COUNT(q) FROM Quote q WHERE q.company.id = :companyId")
+        Page<QuoteSummaryDto> findSummariesByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
+
+        @Query("""
+                SELECT new io.quickledger.dto.quote.QuoteSummaryDto(
+                    q.id, q.company.id, q.user.id, c.id, c.contactName, c.contactSurname, c.email, c.entityName,
+                    c.phone, q.quoteNumber, q.quoteRevision, q.quoteDate, q.expiryDate, q.status, q.totalPrice, q.gst,
+                    q.discountValue, q.discountType)
+                FROM Quote q LEFT JOIN q.client c
+                WHERE q.company.id = :companyId
+                  AND (LOWER(q.quoteNumber) LIKE LOWER(CONCAT('%', :searchTerms, '%'))
+                    OR LOWER(c.contactName) LIKE LOWER(CONCAT('%', :searchTerms, '%'))
+                    OR LOWER(c.contactSurname) LIKE LOWER(CONCAT('%', :searchTerms, '%'))
+                    OR LOWER(c.entityName) LIKE LOWER(CONCAT('%', :searchTerms, '%')))
+                """)
+        List<QuoteSummaryDto> searchQuoteSummaries(@Param("companyId") Long companyId,
+                        @Param("searchTerms") String searchTerms);
+
+        // Highest revision first; a revision without a number sorts last
+        @Query("""
+                SELECT q.id FROM Quote q
+                WHERE q.company.id = :companyId AND q.quoteNumber = :quoteNumber
+                ORDER BY q.quoteRevision DESC NULLS LAST, q.id DESC
+                """)
+        List<Long> findRevisionIdsNewestFirst(@Param("companyId") Long companyId,
+                        @Param("quoteNumber") String quoteNumber, Pageable pageable);
+
+        @Modifying(flushAutomatically = true)
+        @Query("""
+                UPDATE Quote q SET q.latestRevision = CASE WHEN q.id = :latestId THEN true ELSE false END
+                WHERE q.company.id = :companyId AND q.quoteNumber = :quoteNumber
+                  AND q.latestRevision <> CASE WHEN q.id = :latestId THEN true ELSE false END
+                """)
+        int markLatestRevision(@Param("companyId") Long companyId, @Param("quoteNumber") String quoteNumber,
+                        @Param("latestId") Long latestId);
+
+        @Query("""
+                SELECT q FROM Quote q
+                WHERE q.company.id = :companyId AND q.quoteNumber = :quoteNumber
+                ORDER BY q.quoteRevision ASC NULLS FIRST, q.id ASC
+                """)
+        List<Quote> findRevisionsOldestFirst(@Param("companyId") Long companyId,
+                        @Param("quoteNumber") String quoteNumber);
+
         /**
          * Count unique quotes (by quote_number) created this month for a company.
          * Used for free plan limit enforcement (5 quotes/invoices per month).
@@ -0,0 +1,63 @@
+package io.quickledger.repositories.voice;
+
+import io.quickledger.entities.voice.VoiceDraftJob;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface VoiceDraftJobRepository extends CrudRepository<VoiceDraftJob, Long> {
+
+    Optional<VoiceDraftJob> findByIdAndCompanyIdAndUserId(Long id, Long companyId, Long userId);
+
+    long countByCompanyIdAndStatusIn(Long companyId, Collection<VoiceDraftJob.Status> statuses);
+
+    // Moves the job on only if it is still in one of the expected states, so a cancelled job stays cancelled
+    @Modifying
+    @Query("""
+        UPDATE VoiceDraftJob j
+        SET j.status = :status, j.modifiedDate = :now
+        WHERE j.id = :id AND j.status IN :expected
+        """)
+    int transition(@Param("id") Long id, @Param("expected") Collection<VoiceDraftJob.Status> expected,
+            @Param("status") VoiceDraftJob.Status status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        UPDATE VoiceDraftJob j
+        SET j.status = :status, j.transcript = :transcript, j.modifiedDate = :now
+        WHERE j.id = :id AND j.status IN :expected
+        """)
+    int transitionWithTranscript(@Param("id") Long id, @Param("expected") Collection<VoiceDraftJob.Status> expected,
+            @Param("status") VoiceDraftJob.Status status, @Param("transcript") String transcript,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        UPDATE VoiceDraftJob j
+        SET j.status = :status, j.result = :result, j.error = :error, j.modifiedDate = :now, j.completedAt = :now
+        WHERE j.id = :id AND j.status IN :expected
+        """)
+    int finish(@Param("id") Long id, @Param("expected") Collection<VoiceDraftJob.Status> expected,
+            @Param("status") VoiceDraftJob.Status status, @Param("result") String result,
+            @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Jobs whose instance went away mid-run; live jobs touch modifiedDate at every stage
+    @Modifying
+    @Query("""
+        UPDATE VoiceDraftJob j
+        SET j.status = :failed, j.error = :error, j.modifiedDate = :now, j.completedAt = :now
+        WHERE j.status IN :active AND j.modifiedDate < :before
+        """)
+    int failStale(@Param("active") Collection<VoiceDraftJob.Status> active, @Param("failed") VoiceDraftJob.Status failed,
+            @Param("error") String error, @Param("before") LocalDateTime before, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM VoiceDraftJob j WHERE j.status IN :finished AND j.completedAt < :before")
+    int deleteFinishedBefore(@Param("finished") Collection<VoiceDraftJob.Status> finished,
+            @Param("before") LocalDateTime before);
+}
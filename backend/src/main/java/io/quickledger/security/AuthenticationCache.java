@@ -0,0 +1,113 @@
+package io.quickledger.security;
+
+import io.quickledger.entities.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches what {@link JwtRequestFilter} works out for each request: tokens whose signature was
+ * already checked (until they expire) and the id of the user behind each {@code sub}. Only the
+ * id is kept, so the filter reads the user row itself and a default company or role change is
+ * seen on the next request. Entries are evicted whenever the user is written (see
+ * {@link AuthenticationCacheListener}) and otherwise live for a short TTL, which bounds how long
+ * another instance's change of external id goes unseen.
+ */
+@Component
+public class AuthenticationCache {
+
+    public record VerifiedToken(String subject, String email, long expiresAtMillis) {
+    }
+
+    private record CachedUser(Long userId, long expiresAtMillis) {
+    }
+
+    private final Map<String, VerifiedToken> tokens;
+    private final Map<String, CachedUser> users;
+    private final long userTtlMillis;
+
+    public AuthenticationCache(@Value("${auth.token-cache.max-entries:10000}") int maxTokens,
+            @Value("${auth.user-cache.max-entries:5000}") int maxUsers,
+            @Value("${auth.user-cache.ttl-seconds:60}") long userTtlSeconds) {
+        this.tokens = boundedLru(maxTokens);
+        this.users = boundedLru(maxUsers);
+        this.userTtlMillis = userTtlSeconds * 1000;
+    }
+
+    public VerifiedToken getVerifiedToken(String token) {
+        String key = hash(token);
+        synchronized (tokens) {
+            VerifiedToken verified = tokens.get(key);
+            if (verified != null && verified.expiresAtMillis() <= System.currentTimeMillis()) {
+                // Expired tokens go back through the parser, which rejects them
+                tokens.remove(key);
+                return null;
+            }
+            return verified;
+        }
+    }
+
+    public void putVerifiedToken(String token, VerifiedToken verified) {
+        String key = hash(token);
+        synchronized (tokens) {
+            tokens.put(key, verified);
+        }
+    }
+
+    public Long getUserId(String subject) {
+        synchronized (users) {
+            CachedUser cached = users.get(subject);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAtMillis() <= System.currentTimeMillis()) {
+                users.remove(subject);
+                return null;
+            }
+            return cached.userId();
+        }
+    }
+
+    public void putUser(String subject, User user) {
+        synchronized (users) {
+            users.put(subject, new CachedUser(user.getId(), System.currentTimeMillis() + userTtlMillis));
+        }
+    }
+
+    public void evictUser(User user) {
+        synchronized (users) {
+            if (user.getExternalId() != null) {
+                users.remove(user.getExternalId());
+            }
+            // The external id may have just changed, so also match on the primary key
+            if (user.getId() != null) {
+                users.values().removeIf(cached -> user.getId().equals(cached.userId()));
+            }
+        }
+    }
+
+    private static <V> Map<String, V> boundedLru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // Tokens are only kept as hashes so a heap dump does not leak usable bearer tokens
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
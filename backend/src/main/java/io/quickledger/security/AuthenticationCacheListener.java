@@ -0,0 +1,26 @@
+package io.quickledger.security;
+
+import io.quickledger.entities.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Drops a user from the {@link AuthenticationCache} whenever the row is updated or deleted,
+ * whichever code path made the change.
+ */
+public class AuthenticationCacheListener {
+
+    private final ObjectProvider<AuthenticationCache> authenticationCache;
+
+    // Created by Hibernate through Spring's bean container
+    public AuthenticationCacheListener(ObjectProvider<AuthenticationCache> authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        authenticationCache.getObject().evictUser(user);
+    }
+}
@@ -25,22 +25,34 @@ import java.net.MalformedURLException;
 
 import java.security.PublicKey;
 import java.util.Base64;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 // @Profile("prod")
 public class JwtRequestFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long JWK_CACHE_MILLIS = java.util.concurrent.TimeUnit.HOURS.toMillis(24);
+    // Tokens without an exp claim are re-verified at least this often
+    private static final long NO_EXPIRY_CACHE_MILLIS = java.util.concurrent.TimeUnit.HOURS.toMillis(1);
+
+    private record CachedParser(JwtParser parser, long createdAtMillis) {
+    }
 
     private final UserService userService;
+    private final AuthenticationCache authenticationCache;
+    private final Map<String, CachedParser> parsersByKid = new ConcurrentHashMap<>();
 
     @Value("${auth0.domain}")
     private String auth0Domain;
 
     private JwkProvider jwkProvider;
 
-    public JwtRequestFilter(UserService userService) {
+    public JwtRequestFilter(UserService userService, AuthenticationCache authenticationCache) {
         this.userService = userService;
+        this.authenticationCache = authenticationCache;
     }
 
     @PostConstruct
@@ -93,56 +105,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             String jwtToken = requestTokenHeader.substring(7);
             logger.debug("Processing Bearer token for path: {}", path);
             try {
-                // Extract kid from the token header (unverified step just to find the key)
-                String[] parts = jwtToken.split("\\.");
-                if (parts.length < 2) {
-                    throw new IllegalArgumentException("Invalid JWT token format");
-                }
-                String headerJson = new String(Base64.getUrlDecoder().decode(parts[0]));
-                logger.debug("Parsing JWT header for path: {}", path);
-                String kid = new ObjectMapper().readTree(headerJson).get("kid").asText();
-
-                logger.debug("Fetching JWK for kid: {} (path: {})", kid, path);
-                long startTime = System.currentTimeMillis();
-
-                // Fetch Public Key using JwkProvider (cached)
-                Jwk jwk = jwkProvider.get(kid);
-                PublicKey publicKey = jwk.getPublicKey();
-
-                logger.debug("JWK fetched in {}ms for path: {}", System.currentTimeMillis() - startTime, path);
-
-                // Verify and Parse Token
-                logger.debug("Verifying JWT token for path: {}", path);
-                Jws<Claims> claims = Jwts.parser()
-                        .verifyWith(publicKey)
-                        .build()
-                        .parseSignedClaims(jwtToken);
-                logger.debug("JWT verified successfully for path: {}", path);
-
-                // Extract User Details
-                String sub = claims.getPayload().getSubject();
-                String email = claims.getPayload().get("https://quickledger.io/email", String.class);
-                if (email == null) {
-                    // Fallback to standard email claim
-                    email = claims.getPayload().get("email", String.class);
+                AuthenticationCache.VerifiedToken verified = authenticationCache.getVerifiedToken(jwtToken);
+                if (verified == null) {
+                    verified = verify(jwtToken, path);
+                    authenticationCache.putVerifiedToken(jwtToken, verified);
+                } else {
+                    logger.debug("JWT already verified, using cached claims for path: {}", path);
                 }
 
+                String sub = verified.subject();
+                String email = verified.email();
                 logger.debug("Token claims - sub: {}, email: {}", sub, email);
 
-                Optional<User> user = userService.findByExternalId(sub);
-
-                if (!user.isPresent() && email != null) {
-                    // Fallback: Try to find by email and link account
-                    user = userService.findByEmail(email);
-                    if (user.isPresent()) {
-                        User existingUser = user.get();
-                        if (existingUser.getExternalId() == null) {
-                            logger.info("Linking user {} with externalId {}", email, sub);
-                            existingUser.setExternalId(sub);
-                            userService.saveUser(existingUser);
-                        }
-                    }
-                }
+                Optional<User> user = resolveUser(sub, email);
 
                 if (user.isPresent()) {
                     UserDetails userDetails = new UserDetails(user.get());
@@ -176,6 +151,90 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         logger.debug("Completed request for path: {}", path);
     }
 
+    private AuthenticationCache.VerifiedToken verify(String jwtToken, String path) throws Exception {
+        // Extract kid from the token header (unverified step just to find the key)
+        String[] parts = jwtToken.split("\\.");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid JWT token format");
+        }
+        String headerJson = new String(Base64.getUrlDecoder().decode(parts[0]));
+        logger.debug("Parsing JWT header for path: {}", path);
+        String kid = OBJECT_MAPPER.readTree(headerJson).get("kid").asText();
+
+        // Verify and Parse Token
+        logger.debug("Verifying JWT token for path: {}", path);
+        Jws<Claims> claims = parserFor(kid).parseSignedClaims(jwtToken);
+        logger.debug("JWT verified successfully for path: {}", path);
+
+        // Extract User Details
+        String sub = claims.getPayload().getSubject();
+        String email = claims.getPayload().get("https://quickledger.io/email", String.class);
+        if (email == null) {
+            // Fallback to standard email claim
+            email = claims.getPayload().get("email", String.class);
+        }
+
+        long expiresAt = claims.getPayload().getExpiration() != null
+                ? claims.getPayload().getExpiration().getTime()
+                : System.currentTimeMillis() + NO_EXPIRY_CACHE_MILLIS;
+        return new AuthenticationCache.VerifiedToken(sub, email, expiresAt);
+    }
+
+    // Parsers are immutable and thread-safe, so one is kept per signing key and rebuilt at the
+    // same interval the JWK provider refreshes keys
+    private JwtParser parserFor(String kid) throws JwkException {
+        CachedParser cached = parsersByKid.get(kid);
+        if (cached != null && cached.createdAtMillis() + JWK_CACHE_MILLIS > System.currentTimeMillis()) {
+            return cached.parser();
+        }
+
+        logger.debug("Fetching JWK for kid: {}", kid);
+        long startTime = System.currentTimeMillis();
+
+        // Fetch Public Key using JwkProvider (cached)
+        Jwk jwk = jwkProvider.get(kid);
+        PublicKey publicKey = jwk.getPublicKey();
+
+        logger.debug("JWK fetched in {}ms", System.currentTimeMillis() - startTime);
+
+        JwtParser parser = Jwts.parser()
+                .verifyWith(publicKey)
+                .build();
+        parsersByKid.put(kid, new CachedParser(parser, System.currentTimeMillis()));
+        return parser;
+    }
+
+    private Optional<User> resolveUser(String sub, String email) {
+        Long cachedUserId = authenticationCache.getUserId(sub);
+        if (cachedUserId != null) {
+            // Read by primary key rather than cached, so the user's default company and role are current
+            Optional<User> cachedUser = userService.getUserById(cachedUserId);
+            if (cachedUser.isPresent() && sub.equals(cachedUser.get().getExternalId())) {
+                return cachedUser;
+            }
+        }
+
+        Optional<User> user = userService.findByExternalId(sub);
+
+        if (!user.isPresent() && email != null) {
+            // Fallback: Try to find by email and link account
+            user = userService.findByEmail(email);
+            if (user.isPresent()) {
+                User existingUser = user.get();
+                if (existingUser.getExternalId() == null) {
+                    logger.info("Linking user {} with externalId {}", email, sub);
+                    existingUser.setExternalId(sub);
+                    userService.saveUser(existingUser);
+                }
+            }
+        }
+
+        // Only users linked to this sub are cached, so the email fallback runs until linking succeeds
+        user.filter(u -> sub.equals(u.getExternalId()))
+                .ifPresent(u -> authenticationCache.putUser(sub, u));
+        return user;
+    }
+
     private boolean isExcludedPath(String path) {
         boolean excluded = path.equalsIgnoreCase("/api/stripe/webhook") ||
                 path.equalsIgnoreCase("/api/stripe/callback") ||
@@ -1,5 +1,6 @@
 package io.quickledger.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,6 +27,9 @@ public class SecurityConfig {
     public SecurityFilterChain configure(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(authorize -> authorize
                 // Matchers are relative to context-path (/api), so we remove /api prefix
+                // Async results (voice drafts, SSE) are dispatched again after the request was
+                // authorized; the JWT filter does not run on that dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/stripe/**").permitAll()
                 .requestMatchers("/users/auth0-webhook-create").permitAll()
                 .requestMatchers("/plans").permitAll()
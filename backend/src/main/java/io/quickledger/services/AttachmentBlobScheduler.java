@@ -0,0 +1,48 @@
+package io.quickledger.services;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves attachments still stored in the database into the blob store shortly after start, and
+ * deletes blobs that nothing references any more every night.
+ */
+@Service
+public class AttachmentBlobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentBlobScheduler.class);
+
+    private final AttachmentStorageService attachmentStorageService;
+
+    public AttachmentBlobScheduler(AttachmentStorageService attachmentStorageService) {
+        this.attachmentStorageService = attachmentStorageService;
+    }
+
+    // Hourly so a run interrupted by a deploy is finished by the next instance; a no-op once done
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    @SchedulerLock(name = "migrateAttachmentBlobs", lockAtMostFor = "PT2H")
+    public void migrateDatabaseBlobs() {
+        try {
+            int moved = attachmentStorageService.migrateDatabaseBlobs();
+            if (moved > 0) {
+                logger.info("Attachment migration completed. Attachments moved: {}", moved);
+            }
+        } catch (Exception e) {
+            logger.error("Error moving attachments into the blob store", e);
+        }
+    }
+
+    @Scheduled(cron = "0 45 4 * * *") // Daily at 4:45 AM
+    @SchedulerLock(name = "collectAttachmentBlobs", lockAtLeastFor = "PT5M", lockAtMostFor = "PT1H")
+    public void collectGarbage() {
+        try {
+            int deleted = attachmentStorageService.collectGarbage();
+            logger.info("Attachment blob collection completed. Blobs deleted: {}", deleted);
+        } catch (Exception e) {
+            logger.error("Error collecting unreferenced attachment blobs", e);
+        }
+    }
+}
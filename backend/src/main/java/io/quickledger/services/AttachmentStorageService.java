@@ -0,0 +1,180 @@
+package io.quickledger.services;
+
+import io.quickledger.config.BlobStoreProperties;
+import io.quickledger.entities.StoredAttachment;
+import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.repositories.expense.ExpenseAttachmentRepository;
+import io.quickledger.repositories.job.JobAttachmentRepository;
+import io.quickledger.repositories.quote.QuoteAttachmentRepository;
+import io.quickledger.services.storage.BlobStore;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps job, quote and expense attachment content in the {@link BlobStore} rather than in
+ * LONGBLOB columns. Identical files share one blob, so blobs are never deleted with their row;
+ * {@link #collectGarbage()} removes the ones no attachment, logo or catalog image references any more. Rows uploaded before
+ * the store existed are served from the database until {@link #migrateDatabaseBlobs()} has moved
+ * them out.
+ */
+@Service
+public class AttachmentStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStorageService.class);
+
+    private final BlobStore blobStore;
+    private final JobAttachmentRepository jobAttachmentRepository;
+    private final QuoteAttachmentRepository quoteAttachmentRepository;
+    private final ExpenseAttachmentRepository expenseAttachmentRepository;
+    private final CompanyRepository companyRepository;
+    private final ImageService imageService;
+    private final BlobStoreProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public AttachmentStorageService(BlobStore blobStore,
+                                    JobAttachmentRepository jobAttachmentRepository,
+                                    QuoteAttachmentRepository quoteAttachmentRepository,
+                                    ExpenseAttachmentRepository expenseAttachmentRepository,
+                                    CompanyRepository companyRepository,
+                                    ImageService imageService,
+                                    BlobStoreProperties properties,
+                                    PlatformTransactionManager transactionManager) {
+        this.blobStore = blobStore;
+        this.jobAttachmentRepository = jobAttachmentRepository;
+        this.quoteAttachmentRepository = quoteAttachmentRepository;
+        this.expenseAttachmentRepository = expenseAttachmentRepository;
+        this.companyRepository = companyRepository;
+        this.imageService = imageService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams an upload into the blob store and points the attachment at it. The size recorded
+     * is the number of bytes actually stored.
+     */
+    public void store(StoredAttachment attachment, InputStream content) throws IOException {
+        BlobStore.StoredBlob blob = blobStore.put(content);
+        attachment.setStorageKey(blob.key());
+        attachment.setSize(blob.size());
+        attachment.setData(null);
+    }
+
+    /**
+     * The attachment's content as a resource Spring MVC can stream, including byte ranges.
+     */
+    public Resource open(StoredAttachment attachment) {
+        if (attachment.getStorageKey() == null) {
+            if (attachment.getData() == null) {
+                throw new EntityNotFoundException("Attachment content not found");
+            }
+            return new ByteArrayResource(attachment.getData());
+        }
+        try {
+            return blobStore.get(attachment.getStorageKey());
+        } catch (IOException e) {
+            logger.error("Blob {} for attachment {} is missing: {}", attachment.getStorageKey(), attachment.getId(),
+                    e.getMessage());
+            throw new EntityNotFoundException("Attachment content not found");
+        }
+    }
+
+    /**
+     * Moves attachment content still held in the database into the blob store, one batch per
+     * transaction so a restart picks up where it stopped.
+     *
+     * @return the number of attachments moved
+     */
+    public int migrateDatabaseBlobs() {
+        return migrate("job", jobAttachmentRepository, jobAttachmentRepository::findIdsWithoutStorageKey)
+                + migrate("quote", quoteAttachmentRepository, quoteAttachmentRepository::findIdsWithoutStorageKey)
+                + migrate("expense", expenseAttachmentRepository, expenseAttachmentRepository::findIdsWithoutStorageKey);
+    }
+
+    private <T extends StoredAttachment> int migrate(String type, JpaRepository<T, Long> repository,
+                                                     BiFunction<Long, Pageable, List<Long>> pendingIds) {
+        int batchSize = Math.max(1, properties.getMigrationBatchSize());
+        int moved = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = pendingIds.apply(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+
+            Integer count = transactionTemplate.execute(status -> {
+                int batch = 0;
+                for (T attachment : repository.findAllById(ids)) {
+                    if (attachment.getStorageKey() != null || attachment.getData() == null) {
+                        continue;
+                    }
+                    try {
+                        store(attachment, new ByteArrayInputStream(attachment.getData()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    batch++;
+                }
+                return batch;
+            });
+            moved += count != null ? count : 0;
+        }
+        if (moved > 0) {
+            logger.info("Moved {} {} attachments into the blob store", moved, type);
+        }
+        return moved;
+    }
+
+    /**
+     * Deletes blobs that no attachment, logo or image references. Blobs written within the grace period are
+     * kept, since the upload that stored them may still be committing its row.
+     *
+     * @return the number of blobs deleted
+     */
+    public int collectGarbage() throws IOException {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(properties.getGcGraceHours()));
+        blobStore.purgeIncompleteUploads(cutoff);
+
+        AtomicInteger deleted = new AtomicInteger();
+        blobStore.forEach(blob -> {
+            if (!blob.lastModified().isBefore(cutoff) || isReferenced(blob.key())) {
+                return;
+            }
+            try {
+                blobStore.delete(blob.key());
+                deleted.incrementAndGet();
+            } catch (IOException e) {
+                logger.warn("Failed to delete unreferenced blob {}: {}", blob.key(), e.getMessage());
+            }
+        });
+        return deleted.get();
+    }
+
+    private boolean isReferenced(String key) {
+        return jobAttachmentRepository.existsByStorageKey(key)
+                || quoteAttachmentRepository.existsByStorageKey(key)
+                || expenseAttachmentRepository.existsByStorageKey(key)
+                || companyRepository.existsByLogoKey(key)
+                || imageService.isReferenced(key);
+    }
+}
@@ -0,0 +1,82 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.ClientDto;
+import io.quickledger.mappers.ClientMapper;
+import io.quickledger.repositories.ClientRepository;
+import io.quickledger.utils.FulltextSearch;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Client search over the denormalized {@code search_text} column (names, email and phone),
+ * newest first in pages of at most {@link #MAX_LIMIT}; pass the last id of a page as
+ * {@code beforeId} to get the next one. Works like {@link InvoiceSearchService}: the ngram
+ * FULLTEXT index for terms long enough to have tokens, a LIKE over the company's clients
+ * otherwise.
+ */
+@Service
+public class ClientSearchService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final String FULLTEXT_INDEX = "ft_client_search";
+
+    private static final String BACKFILL_RANGE_SQL = """
+            SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM clients
+            WHERE search_text IS NULL OR modified_date IS NULL
+            """;
+
+    private static final String BACKFILL_SQL = """
+            UPDATE clients
+            SET search_text = LEFT(LOWER(CONCAT_WS(' ', contact_name, contact_surname, entity_name, email, phone)), 1000),
+                modified_date = COALESCE(modified_date, created_date, UTC_TIMESTAMP())
+            WHERE (search_text IS NULL OR modified_date IS NULL) AND id > ? AND id <= ?
+            """;
+
+    private final ClientRepository clientRepository;
+    private final ClientMapper clientMapper;
+    private final FulltextSearch fulltextSearch;
+
+    public ClientSearchService(ClientRepository clientRepository, ClientMapper clientMapper, JdbcTemplate jdbcTemplate) {
+        this.clientRepository = clientRepository;
+        this.clientMapper = clientMapper;
+        this.fulltextSearch = new FulltextSearch(jdbcTemplate, "clients", FULLTEXT_INDEX, BACKFILL_RANGE_SQL, BACKFILL_SQL);
+    }
+
+    public List<ClientDto> search(Long companyId, String searchTerm, Long beforeId, Integer limit) {
+        String term = FulltextSearch.normalize(searchTerm);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        long cursor = beforeId == null ? Long.MAX_VALUE : beforeId;
+
+        List<Long> ids = fulltextSearch.findIds(term,
+                phrase -> clientRepository.findSearchIdsByFulltext(companyId, phrase, cursor, pageSize),
+                pattern -> clientRepository.findSearchIdsByPattern(companyId, pattern, cursor, PageRequest.of(0, pageSize)));
+        return ids.isEmpty() ? List.of() : clientRepository.findByIdInOrderByIdDesc(ids).stream()
+                .map(clientMapper::toDto)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndex() {
+        fulltextSearch.checkIndex();
+    }
+
+    // On one instance at a time; hourly so a run interrupted by a deploy is finished later,
+    // a quick check once done
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    @SchedulerLock(name = "prepareClientSearchIndex", lockAtMostFor = "PT2H")
+    public void prepareIndex() {
+        fulltextSearch.prepareIndex();
+    }
+}
@@ -1,6 +1,7 @@
 package io.quickledger.services;
 
 import io.quickledger.dto.ClientDto;
+import io.quickledger.dto.ClientPageDto;
 import io.quickledger.entities.Client;
 import io.quickledger.entities.Company;
 import io.quickledger.entities.User;
@@ -13,10 +14,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,44 +33,59 @@ public class ClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClientService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private ClientRepository clientRepository;
     private UserCompanyService userCompanyService;
     private ClientMapper clientMapper;
+    private InvoiceSearchService invoiceSearchService;
 
     public ClientService(ClientRepository clientRepository,
-            UserCompanyService userCompanyService, ClientMapper clientMapper) {
+            UserCompanyService userCompanyService, ClientMapper clientMapper,
+            InvoiceSearchService invoiceSearchService) {
         this.userCompanyService = userCompanyService;
         this.clientRepository = clientRepository;
         this.clientMapper = clientMapper;
+        this.invoiceSearchService = invoiceSearchService;
     }
 
     public Page<ClientDto> getAllClients(Long companyId, User user, Pageable pageable) {
         userCompanyService.checkUserBelongs(user, companyId);
-        Sort sort = pageable.getSort().and(Sort.by(Sort.Order.desc("modifiedDate")));
+        Sort sort = pageable.getSort()
+                .and(Sort.by(Sort.Order.desc("modifiedDate")))
+                .and(Sort.by(Sort.Order.desc("id")));
         Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-        Page<Client> clients = clientRepository.findAll(sortedPageable);
+        Page<Client> clients = clientRepository.findByCompanyId(companyId, sortedPageable);
         return clients.map(c -> clientMapper.toDto(c));
 
     }
 
-    public List<ClientDto> search(Long companyId, String phone, String email, String entityName, String contactName,
-            String contactSurname) {
-        Pageable pageable = PageRequest.of(0, 10);
-        // how do i add companyId to the search?
-
-        List<Client> clients = clientRepository.search(companyId, phone, email, entityName, contactName, contactSurname,
-                pageable);
-        return clients.stream()
-                .map(ClientMapper.INSTANCE::toDto)
-                .collect(Collectors.toList());
-    }
+    /**
+     * A page of the company's clients, most recently modified first, continuing after
+     * {@code cursor} when given. Unlike {@link #getAllClients} no page is counted or skipped, so
+     * every page reads only its own rows from idx_client_company_modified. A client modified while
+     * the list is being paged moves to the front and is not seen again further down.
+     */
+    public ClientPageDto listClients(Long companyId, User user, String cursor, Integer limit) {
+        userCompanyService.checkUserBelongs(user, companyId);
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        Pageable page = PageRequest.of(0, pageSize);
+
+        List<Client> clients;
+        if (StringUtils.isBlank(cursor)) {
+            clients = clientRepository.findFirstPage(companyId, page);
+        } else {
+            ClientCursor position = ClientCursor.decode(cursor);
+            clients = clientRepository.findPageAfter(companyId, position.modifiedDate(), position.id(), page);
+        }
 
-    public List<ClientDto> search(Long companyId, String searchTerm) {
-        Pageable pageable = PageRequest.of(0, 10);
-        List<Client> clients = clientRepository.search(companyId, searchTerm, pageable);
-        return clients.stream()
-                .map(ClientMapper.INSTANCE::toDto)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (clients.size() == pageSize) {
+            Client last = clients.get(clients.size() - 1);
+            nextCursor = new ClientCursor(last.getModifiedDate(), last.getId()).encode();
+        }
+        return new ClientPageDto(clients.stream().map(clientMapper::toDto).collect(Collectors.toList()), nextCursor);
     }
 
     /*
@@ -88,7 +109,12 @@ public class ClientService {
             client.setEmail(client.getEmail().toLowerCase());
         }
 
+        boolean existing = client.getId() != null;
         client = clientRepository.save(client);
+        if (existing) {
+            // Names may have changed; keep the client's invoices findable by the new ones
+            invoiceSearchService.refreshClient(client.getId());
+        }
         dto.setId(client.getId());
         return dto;
     }
@@ -103,4 +129,27 @@ public class ClientService {
         Client client = clientRepository.findById(clientId).orElseThrow(() -> new RuntimeException("Client not found"));
         return clientMapper.toDto(client);
     }
+
+    /**
+     * Position in the client list: the modified date and id of the last client on a page,
+     * as an opaque URL-safe token.
+     */
+    record ClientCursor(LocalDateTime modifiedDate, Long id) {
+
+        String encode() {
+            String position = modifiedDate + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ClientCursor decode(String cursor) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = position.lastIndexOf('_');
+                return new ClientCursor(LocalDateTime.parse(position.substring(0, separator)),
+                        Long.parseLong(position.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid client list cursor");
+            }
+        }
+    }
 }
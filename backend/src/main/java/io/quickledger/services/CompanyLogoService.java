@@ -0,0 +1,155 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.Company;
+import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.services.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Company logos live in the {@link BlobStore}; the company row only carries the content hash,
+ * so loading a company for a list page, tenant check or scheduler never reads the image. The
+ * hash also serves as the logo's ETag and as the key of the Base64 cache used by PDF rendering,
+ * which means a new logo can never be rendered with a stale encoding.
+ */
+@Service
+public class CompanyLogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyLogoService.class);
+
+    private final BlobStore blobStore;
+    private final CompanyRepository companyRepository;
+    private final PdfService pdfService;
+    private final JdbcTemplate jdbcTemplate;
+    private final long cacheMaxChars;
+
+    // Access-ordered, so the eldest entry is the least recently rendered logo
+    private final LinkedHashMap<String, String> encodedByKey = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedChars;
+
+    public CompanyLogoService(BlobStore blobStore, CompanyRepository companyRepository, PdfService pdfService,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${company.logo-cache.max-bytes:33554432}") long cacheMaxBytes) {
+        this.blobStore = blobStore;
+        this.companyRepository = companyRepository;
+        this.pdfService = pdfService;
+        this.jdbcTemplate = jdbcTemplate;
+        // Base64 is ASCII, so one char per byte of the budget
+        this.cacheMaxChars = cacheMaxBytes;
+    }
+
+    public Company storeLogo(Company company, InputStream content, String contentType) throws IOException {
+        BlobStore.StoredBlob blob = blobStore.put(content);
+        company.setLogoKey(blob.key());
+        company.setLogoContentType(contentType);
+        Company saved = companyRepository.save(company);
+        pdfService.evictCompany(saved.getId());
+        return saved;
+    }
+
+    public Company deleteLogo(Company company) {
+        company.setLogoKey(null);
+        company.setLogoContentType(null);
+        Company saved = companyRepository.save(company);
+        pdfService.evictCompany(saved.getId());
+        return saved;
+    }
+
+    public Resource openLogo(Company company) throws IOException {
+        return blobStore.get(company.getLogoKey());
+    }
+
+    /**
+     * The logo Base64 encoded for embedding in a rendered document, or null if the company has
+     * no logo or it cannot be read.
+     */
+    public String getLogoBase64(Company company) {
+        String key = company.getLogoKey();
+        if (key == null) {
+            return null;
+        }
+        synchronized (encodedByKey) {
+            String encoded = encodedByKey.get(key);
+            if (encoded != null) {
+                return encoded;
+            }
+        }
+
+        String encoded;
+        try {
+            encoded = Base64.getEncoder().encodeToString(blobStore.get(key).getContentAsByteArray());
+        } catch (IOException e) {
+            logger.error("Cannot read logo {} of company {}: {}", key, company.getId(), e.getMessage());
+            return null;
+        }
+        if (encoded.length() > cacheMaxChars) {
+            return encoded;
+        }
+        synchronized (encodedByKey) {
+            if (encodedByKey.putIfAbsent(key, encoded) == null) {
+                cachedChars += encoded.length();
+                Iterator<Map.Entry<String, String>> eldest = encodedByKey.entrySet().iterator();
+                while (cachedChars > cacheMaxChars && eldest.hasNext()) {
+                    cachedChars -= eldest.next().getValue().length();
+                    eldest.remove();
+                }
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Moves logos still stored in the old companies.images column into the blob store. Run by
+     * {@link ImageBlobScheduler} under a cluster-wide lock.
+     */
+    public int migrateDatabaseLogos() throws IOException {
+        if (!hasLegacyColumn()) {
+            return 0;
+        }
+        int moved = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM companies"
+                    + " WHERE images IS NOT NULL AND logo_key IS NULL AND id > ? ORDER BY id LIMIT 20",
+                    Long.class, afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                byte[] image = jdbcTemplate.queryForObject("SELECT images FROM companies WHERE id = ?",
+                        byte[].class, id);
+                if (image != null && image.length > 0) {
+                    String key = blobStore.put(new ByteArrayInputStream(image)).key();
+                    jdbcTemplate.update("UPDATE companies SET logo_key = ?, images = NULL WHERE id = ?", key, id);
+                    moved++;
+                } else {
+                    jdbcTemplate.update("UPDATE companies SET images = NULL WHERE id = ?", id);
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        return moved;
+    }
+
+    // The column is no longer mapped, so it only exists on databases created before the blob store
+    private boolean hasLegacyColumn() {
+        Integer columns = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'companies' AND column_name = 'images'
+                """, Integer.class);
+        return columns != null && columns > 0;
+    }
+}
@@ -32,18 +32,20 @@ public class CompanyService {
     private final UserService userService;
     private final UserCompanyService userCompanyService;
     private final SequenceConfigService sequenceConfigService;
+    private final PdfService pdfService;
 
     @Autowired
     public CompanyService(CompanyRepository companyRepository, UserCompanyRepository userCompanyRepository,
             ProductDefinitionMapper productDefinitionMapper,
             UserService userService, UserCompanyService userCompanyService,
-            SequenceConfigService sequenceConfigService) {
+            SequenceConfigService sequenceConfigService, PdfService pdfService) {
         this.companyRepository = companyRepository;
         this.userCompanyRepository = userCompanyRepository;
         this.productDefinitionMapper = productDefinitionMapper;
         this.userService = userService;
         this.userCompanyService = userCompanyService;
         this.sequenceConfigService = sequenceConfigService;
+        this.pdfService = pdfService;
     }
 
     public Iterable<Company> getAllCompanies() {
@@ -71,13 +73,17 @@ public class CompanyService {
 
     public Company saveCompany(Company company) {
         Company fromDB = companyRepository.findById(company.getId()).get();
-        company.setImage(fromDB.getImage());
+        company.setLogoKey(fromDB.getLogoKey());
+        company.setLogoContentType(fromDB.getLogoContentType());
         // Preserve Stripe fields from DB
         company.setStripeConnectedAccountId(fromDB.getStripeConnectedAccountId());
         company.setStripeChargesEnabled(fromDB.isStripeChargesEnabled());
         // Preserve Template Config from DB
         company.setTemplateConfig(fromDB.getTemplateConfig());
-        return companyRepository.save(company);
+        Company saved = companyRepository.save(company);
+        // Logo, template config and company details all feed into rendered documents
+        pdfService.evictCompany(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -125,7 +131,7 @@ public class CompanyService {
             userCompany.setCompany(company);
             userCompany.setRole(UserRole.ROLE_OWNER.getRole());
 
-            userCompanyRepository.save(userCompany);
+            userCompanyService.saveUserCompany(userCompany);
 
             // create default sequences
             SequenceConfigDTO defaultInvoiceSeq = new SequenceConfigDTO(SequenceConfig.EntityType.INVOICE,
@@ -169,8 +175,9 @@ public class CompanyService {
                 .orElseThrow(() -> new BusinessException("You do not have access to this company"));
 
         if (uc.getRole().equalsIgnoreCase(UserRole.ROLE_OWNER.getRole())) {
-            userCompanyRepository.delete(uc);
+            userCompanyService.deleteUserCompany(uc);
             companyRepository.deleteById(companyId);
+            userCompanyService.evictCompany(companyId);
         } else {
             throw new BusinessException("You do not have permission to delete this company");
         }
@@ -0,0 +1,107 @@
+package io.quickledger.services;
+
+import io.quickledger.config.EmailOutboxProperties;
+import io.quickledger.entities.OutboundEmail;
+import io.quickledger.repositories.OutboundEmailRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable queue of outgoing email. {@link #enqueue} joins the caller's transaction, so a
+ * message is only sent if the work that produced it commits. Rows are claimed with a lease
+ * by {@link EmailOutboxWorker} and retried with exponential backoff until
+ * {@code email.outbox.max-attempts} is reached.
+ */
+@Service
+public class EmailOutboxService {
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final EmailOutboxProperties properties;
+
+    public EmailOutboxService(OutboundEmailRepository outboundEmailRepository, EmailOutboxProperties properties) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.properties = properties;
+    }
+
+    @Transactional
+    public OutboundEmail enqueue(OutboundEmail email) {
+        email.setStatus(OutboundEmail.Status.PENDING);
+        email.setNextAttemptAt(now());
+        return outboundEmailRepository.save(email);
+    }
+
+    /**
+     * Takes up to {@code limit} due messages and leases them to the calling worker.
+     */
+    @Transactional
+    public List<OutboundEmail> claim(int limit) {
+        LocalDateTime now = now();
+        List<Long> ids = outboundEmailRepository.lockDueIds(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        outboundEmailRepository.markClaimed(ids, OutboundEmail.Status.SENDING, now.plusSeconds(properties.getLeaseSeconds()));
+        List<OutboundEmail> claimed = new ArrayList<>(ids.size());
+        outboundEmailRepository.findAllById(ids).forEach(claimed::add);
+        return claimed;
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboundEmailRepository.markSent(ids, OutboundEmail.Status.SENT, now());
+        }
+    }
+
+    /**
+     * Schedules another attempt, or gives up once the message has used all its attempts.
+     *
+     * @param attempts attempts made so far, including the one that just failed
+     * @return true if the message will be retried
+     */
+    @Transactional
+    public boolean markFailed(Long id, int attempts, String error) {
+        if (attempts >= properties.getMaxAttempts()) {
+            markUndeliverable(id, error);
+            return false;
+        }
+        outboundEmailRepository.markAttemptFailed(id, OutboundEmail.Status.PENDING,
+                now().plusSeconds(backoffSeconds(attempts)), truncate(error));
+        return true;
+    }
+
+    /**
+     * Gives up on a message without further attempts.
+     */
+    @Transactional
+    public void markUndeliverable(Long id, String error) {
+        outboundEmailRepository.markAttemptFailed(id, OutboundEmail.Status.FAILED, now(), truncate(error));
+    }
+
+    @Transactional
+    public int purgeSent() {
+        return outboundEmailRepository.deleteByStatusAndSentAtBefore(OutboundEmail.Status.SENT,
+                now().minusDays(properties.getRetentionDays()));
+    }
+
+    // initial * 2^(attempts - 1), capped, with up to 20% jitter so retries after an outage spread out
+    long backoffSeconds(int attempts) {
+        long backoff = properties.getInitialBackoffSeconds() << Math.min(Math.max(attempts - 1, 0), 20);
+        backoff = Math.min(backoff, properties.getMaxBackoffSeconds());
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
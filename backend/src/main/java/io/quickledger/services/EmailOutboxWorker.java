@@ -0,0 +1,203 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quickledger.config.EmailOutboxProperties;
+import io.quickledger.entities.OutboundEmail;
+import io.quickledger.utils.RateLimiter;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Drains the email outbox. Each poll claims a page of due messages and splits it across the
+ * worker pool; a worker hands its share to the mail sender in one call so they go out over a
+ * single provider connection. Sends are paced by the provider quota and per recipient domain.
+ * Several instances can drain at once, as claiming skips rows another instance has locked.
+ */
+@Service
+public class EmailOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    static final String FROM_ADDRESS = "info@ottero.com.au";
+
+    private final EmailOutboxService emailOutboxService;
+    private final JavaMailSender mailSender;
+    private final EmailOutboxProperties properties;
+    private final Executor emailOutboxExecutor;
+    private final RateLimiter providerLimiter;
+    private final Map<String, RateLimiter> domainLimiters = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxWorker(EmailOutboxService emailOutboxService, JavaMailSender mailSender,
+                             EmailOutboxProperties properties,
+                             @Qualifier("emailOutboxExecutor") Executor emailOutboxExecutor,
+                             MeterRegistry meterRegistry) {
+        this.emailOutboxService = emailOutboxService;
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.emailOutboxExecutor = emailOutboxExecutor;
+        this.providerLimiter = new RateLimiter(properties.getProviderRatePerSecond());
+        this.sent = Counter.builder("email.outbox.messages").tag("outcome", "sent").register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.messages").tag("outcome", "retry").register(meterRegistry);
+        this.failed = Counter.builder("email.outbox.messages").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        try {
+            while (true) {
+                List<OutboundEmail> claimed = emailOutboxService.claim(properties.getClaimSize());
+                if (claimed.isEmpty()) {
+                    return;
+                }
+
+                int batchSize = Math.max(1, properties.getSendBatchSize());
+                List<CompletableFuture<Void>> batches = new ArrayList<>();
+                for (int from = 0; from < claimed.size(); from += batchSize) {
+                    List<OutboundEmail> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+                    batches.add(CompletableFuture.runAsync(() -> sendBatch(batch), emailOutboxExecutor));
+                }
+                CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+                if (claimed.size() < properties.getClaimSize()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error draining email outbox", e);
+        }
+    }
+
+    @Scheduled(cron = "0 15 4 * * *") // Daily at 4:15 AM
+    @SchedulerLock(name = "purgeEmailOutbox", lockAtLeastFor = "PT5M", lockAtMostFor = "PT30M")
+    public void purgeSent() {
+        try {
+            int purged = emailOutboxService.purgeSent();
+            logger.info("Purged {} sent emails from the outbox", purged);
+        } catch (Exception e) {
+            logger.error("Error purging email outbox", e);
+        }
+    }
+
+    void sendBatch(List<OutboundEmail> batch) {
+        Map<MimeMessage, OutboundEmail> byMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            try {
+                MimeMessage message = toMimeMessage(email);
+                byMessage.put(message, email);
+                messages.add(message);
+            } catch (Exception e) {
+                // A message that cannot be built will not get better on retry
+                logger.error("Cannot build outbound email {} to {}: {}", email.getId(), email.getToAddress(), e.getMessage());
+                emailOutboxService.markUndeliverable(email.getId(), e.getMessage());
+                failed.increment();
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (OutboundEmail email : byMessage.values()) {
+                domainLimiters.computeIfAbsent(domainOf(email.getToAddress()),
+                        domain -> new RateLimiter(properties.getDomainRatePerSecond())).acquire();
+                providerLimiter.acquire();
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; the lease runs out and another poll picks the batch up
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, e);
+            }
+        } catch (Exception e) {
+            failures = allFailed(messages, e);
+        }
+
+        List<Long> sentIds = new ArrayList<>(messages.size());
+        for (MimeMessage message : messages) {
+            OutboundEmail email = byMessage.get(message);
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sentIds.add(email.getId());
+                continue;
+            }
+            // attempts was already counted when the message was claimed
+            if (emailOutboxService.markFailed(email.getId(), email.getAttempts(), failure.getMessage())) {
+                logger.warn("Email {} to {} failed (attempt {}), will retry: {}",
+                        email.getId(), email.getToAddress(), email.getAttempts(), failure.getMessage());
+                retried.increment();
+            } else {
+                logger.error("Email {} to {} failed after {} attempts: {}",
+                        email.getId(), email.getToAddress(), email.getAttempts(), failure.getMessage());
+                failed.increment();
+            }
+        }
+        emailOutboxService.markSent(sentIds);
+        sent.increment(sentIds.size());
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        boolean multipart = email.getAttachment() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(message, multipart, "UTF-8");
+
+        if (email.getFromName() != null && !email.getFromName().isEmpty()) {
+            helper.setFrom(FROM_ADDRESS, email.getFromName());
+        } else {
+            helper.setFrom(FROM_ADDRESS);
+        }
+        if (email.getReplyTo() != null && !email.getReplyTo().isEmpty()) {
+            helper.setReplyTo(email.getReplyTo());
+        }
+        helper.setTo(email.getToAddress());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), email.isHtml());
+        if (multipart) {
+            helper.addAttachment(email.getAttachmentName(), new ByteArrayResource(email.getAttachment()));
+        }
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(List<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private static String domainOf(String address) {
+        int at = address.lastIndexOf('@');
+        return at >= 0 ? address.substring(at + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
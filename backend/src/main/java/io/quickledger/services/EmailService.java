@@ -1,13 +1,8 @@
 package io.quickledger.services;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mail.javamail.JavaMailSender;
+import io.quickledger.entities.OutboundEmail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -15,31 +10,30 @@ import org.springframework.beans.factory.annotation.Value;
 public class EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final String appBaseUrl;
 
-    public EmailService(JavaMailSender mailSender, @Value("${application.frontend.url}") String appBaseUrl) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutboxService emailOutboxService, @Value("${application.frontend.url}") String appBaseUrl) {
+        this.emailOutboxService = emailOutboxService;
         this.appBaseUrl = appBaseUrl;
     }
 
+    /**
+     * Queues a plain text email. It is sent by {@link EmailOutboxWorker} once the current
+     * transaction commits.
+     */
     public void sendEmail(String to, String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("info@ottero.com.au");
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            logger.info("Email sent successfully to {}", to);
-        } catch (Exception e) {
-            logger.error("Error sending email to {}: {}", to, e.getMessage());
-            throw e;
-        }
+        OutboundEmail email = new OutboundEmail();
+        email.setToAddress(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setHtml(false);
+        emailOutboxService.enqueue(email);
+        logger.info("Email to {} queued", to);
     }
 
     /**
-     * Send email with PDF attachment
+     * Queue email with PDF attachment
      * 
      * @param to          recipient email address
      * @param subject     email subject
@@ -53,33 +47,17 @@ public class EmailService {
 
     public void sendEmailWithAttachment(String to, String subject, String body, byte[] pdfBytes, String pdfFileName,
             String fromName, String replyTo, boolean isHtml) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            if (fromName != null && !fromName.isEmpty()) {
-                helper.setFrom("info@ottero.com.au", fromName);
-            } else {
-                helper.setFrom("info@ottero.com.au");
-            }
-
-            if (replyTo != null && !replyTo.isEmpty()) {
-                helper.setReplyTo(replyTo);
-            }
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, isHtml);
-
-            // Add PDF attachment
-            helper.addAttachment(pdfFileName, new ByteArrayResource(pdfBytes));
-
-            mailSender.send(message);
-            logger.info("Email with attachment sent successfully to {}", to);
-        } catch (Exception e) {
-            logger.error("Error sending email with attachment to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email with attachment", e);
-        }
+        OutboundEmail email = new OutboundEmail();
+        email.setToAddress(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setHtml(isHtml);
+        email.setFromName(fromName);
+        email.setReplyTo(replyTo);
+        email.setAttachmentName(pdfFileName);
+        email.setAttachment(pdfBytes);
+        emailOutboxService.enqueue(email);
+        logger.info("Email with attachment to {} queued", to);
     }
 
     /**
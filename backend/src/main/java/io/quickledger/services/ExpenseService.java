@@ -22,6 +22,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import io.quickledger.entities.User;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -40,18 +42,21 @@ public class ExpenseService {
     private final ExpenseMapper expenseMapper;
     private final ExpenseAttachmentMapper attachmentMapper;
     private final PlanService planService;
+    private final AttachmentStorageService attachmentStorageService;
 
     public ExpenseService(
             ExpenseRepository expenseRepository,
             ExpenseAttachmentRepository attachmentRepository,
             ExpenseMapper expenseMapper,
             ExpenseAttachmentMapper attachmentMapper,
-            PlanService planService) {
+            PlanService planService,
+            AttachmentStorageService attachmentStorageService) {
         this.expenseRepository = expenseRepository;
         this.attachmentRepository = attachmentRepository;
         this.expenseMapper = expenseMapper;
         this.attachmentMapper = attachmentMapper;
         this.planService = planService;
+        this.attachmentStorageService = attachmentStorageService;
     }
 
     private void validateExpenseAccess(User user) {
@@ -126,7 +131,7 @@ public class ExpenseService {
     // Attachment methods
     @Transactional
     public ExpenseAttachmentDto uploadAttachment(Long expenseId, Long companyId,
-            String fileName, String contentType, byte[] data, long size, User user) {
+            String fileName, String contentType, InputStream content, User user) throws IOException {
         validateExpenseAccess(user);
         Expense expense = expenseRepository.findByIdAndCompanyId(expenseId, companyId)
                 .orElseThrow(() -> new EntityNotFoundException("Expense not found"));
@@ -136,8 +141,7 @@ public class ExpenseService {
         attachment.setCompany(expense.getCompany());
         attachment.setFileName(fileName);
         attachment.setContentType(contentType);
-        attachment.setData(data);
-        attachment.setSize(size);
+        attachmentStorageService.store(attachment, content);
 
         attachment = attachmentRepository.save(attachment);
         return attachmentMapper.toDto(attachment);
@@ -0,0 +1,482 @@
+package io.quickledger.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quickledger.config.ExportProperties;
+import io.quickledger.entities.User;
+import io.quickledger.entities.expense.ExpenseStatus;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.quote.Quote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of a company's invoices, quotes and expenses as CSV or JSON Lines, optionally
+ * gzipped. Rows are read through a forward-only JDBC cursor and written as they arrive, so memory
+ * use does not depend on the number of rows; the query joins everything a row needs, so no
+ * entities are loaded.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Australian financial year, e.g. 2025-26 runs from 1 July 2025 to 30 June 2026
+    private static final Pattern FINANCIAL_YEAR = Pattern.compile("(\\d{4})-(\\d{2})");
+
+    public enum Dataset {
+        INVOICES("""
+                SELECT i.id, i.invoice_number, i.invoice_date, i.due_date, i.status,
+                       c.contact_name, c.contact_surname, c.entity_name, c.email,
+                       i.total_price, i.gst, i.discount_type, i.discount_value, q.quote_number, i.created_date
+                FROM invoices i
+                LEFT JOIN clients c ON c.id = i.client_id
+                LEFT JOIN quotes q ON q.id = i.quote_id
+                WHERE i.company_id = ?""", "i.invoice_date", "i.status", "i.id",
+                Invoice.InvoiceStatus.values(),
+                Column.id("id"), Column.text("invoice_number"), Column.date("invoice_date"),
+                Column.date("due_date"), Column.ordinal("status", Invoice.InvoiceStatus.values()),
+                Column.text("client_first_name"), Column.text("client_last_name"),
+                Column.text("client_entity_name"), Column.text("client_email"), Column.amount("total_price"),
+                Column.amount("gst"), Column.ordinal("discount_type", Invoice.DiscountType.values()),
+                Column.amount("discount_value"), Column.text("quote_number"), Column.timestamp("created_date")),
+        QUOTES("""
+                SELECT q.id, q.quote_number, q.quote_revision, q.latest_revision, q.quote_date, q.expiry_date,
+                       q.status, c.contact_name, c.contact_surname, c.entity_name, c.email,
+                       q.total_price, q.gst, q.discount_type, q.discount_value, q.created_date
+                FROM quotes q
+                LEFT JOIN clients c ON c.id = q.client_id
+                WHERE q.company_id = ?""", "q.quote_date", "q.status", "q.id",
+                Quote.QuoteStatus.values(),
+                Column.id("id"), Column.text("quote_number"), Column.id("quote_revision"),
+                Column.bool("latest_revision"), Column.date("quote_date"), Column.date("expiry_date"),
+                Column.ordinal("status", Quote.QuoteStatus.values()), Column.text("client_first_name"),
+                Column.text("client_last_name"), Column.text("client_entity_name"), Column.text("client_email"),
+                Column.amount("total_price"), Column.amount("gst"), Column.text("discount_type"),
+                Column.amount("discount_value"), Column.timestamp("created_date")),
+        EXPENSES("""
+                SELECT e.id, e.expense_date, e.financial_year, e.category, e.vendor, e.status,
+                       e.amount, e.gst_amount, e.net_amount, e.tax_deductible, e.gst_claimable,
+                       e.reference_number, e.payment_method, e.created_date
+                FROM expenses e
+                WHERE e.company_id = ?""", "e.expense_date", "e.status", "e.id",
+                ExpenseStatus.values(),
+                Column.id("id"), Column.date("expense_date"), Column.text("financial_year"),
+                Column.text("category"), Column.text("vendor"), Column.text("status"), Column.amount("amount"),
+                Column.amount("gst_amount"), Column.amount("net_amount"), Column.bool("tax_deductible"),
+                Column.bool("gst_claimable"), Column.text("reference_number"), Column.text("payment_method"),
+                Column.timestamp("created_date"));
+
+        private final String select;
+        private final String dateColumn;
+        private final String statusColumn;
+        private final String orderColumn;
+        private final Enum<?>[] statuses;
+        private final List<Column> columns;
+
+        Dataset(String select, String dateColumn, String statusColumn, String orderColumn, Enum<?>[] statuses,
+                Column... columns) {
+            this.select = select;
+            this.dateColumn = dateColumn;
+            this.statusColumn = statusColumn;
+            this.orderColumn = orderColumn;
+            this.statuses = statuses;
+            this.columns = List.of(columns);
+        }
+
+        public String fileName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        // Invoice and quote statuses are stored by ordinal, expense statuses by name
+        private Object statusParameter(Enum<?> status) {
+            return this == EXPENSES ? status.name() : status.ordinal();
+        }
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        JSONL("jsonl", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * A validated export, ready to be written. Dates are inclusive; a null bound is open. Holds
+     * one of the {@code export.max-concurrent} slots until {@link #write} finishes or the slot is
+     * released otherwise.
+     */
+    public record ExportRequest(Dataset dataset, Long companyId, LocalDate from, LocalDate to, Enum<?> status,
+                                Format format, boolean gzip, String fileName, Slot slot) {
+
+        public String contentType() {
+            return gzip ? "application/gzip" : format.contentType;
+        }
+    }
+
+    /**
+     * A running export's share of the concurrency limit. Releasing it more than once is harmless,
+     * so both the writer and the request's completion can give it back.
+     */
+    public static final class Slot {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private final UserCompanyService userCompanyService;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore running;
+    private final Map<Dataset, Counter> rowsExported = new EnumMap<>(Dataset.class);
+    private final Map<Dataset, Timer> exportDuration = new EnumMap<>(Dataset.class);
+
+    public ExportService(UserCompanyService userCompanyService, ObjectMapper objectMapper,
+                         ExportProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this.userCompanyService = userCompanyService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        // A template of its own, so the streaming fetch size applies to exports only
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.running = new Semaphore(Math.max(properties.getMaxConcurrent(), 1));
+        for (Dataset dataset : Dataset.values()) {
+            String tag = dataset.fileName();
+            rowsExported.put(dataset, Counter.builder("export.rows").tag("dataset", tag).register(meterRegistry));
+            exportDuration.put(dataset, Timer.builder("export.duration").tag("dataset", tag).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Checks access, parses the filters and takes an export slot, so a refusal is a plain 429
+     * before any of the download is sent. {@code financialYear} ("2025-26") narrows the
+     * {@code from}/{@code to} range; {@code status} is the dataset's status name.
+     */
+    public ExportRequest prepare(Dataset dataset, Long companyId, User user, LocalDate from, LocalDate to,
+                                 String financialYear, String status, String format, boolean gzip) {
+        userCompanyService.checkUserBelongs(user, companyId);
+
+        Format outputFormat = parseFormat(format);
+        String fileName = dataset.fileName();
+        if (financialYear != null && !financialYear.isBlank()) {
+            LocalDate[] year = financialYearRange(financialYear.trim());
+            from = from == null || from.isBefore(year[0]) ? year[0] : from;
+            to = to == null || to.isAfter(year[1]) ? year[1] : to;
+            fileName += "-" + financialYear.trim();
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        fileName += "." + outputFormat.extension + (gzip ? ".gz" : "");
+        Enum<?> parsedStatus = parseStatus(dataset, status);
+
+        if (!running.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many exports are running, please try again shortly");
+        }
+        return new ExportRequest(dataset, companyId, from, to, parsedStatus, outputFormat, gzip, fileName,
+                new Slot(running));
+    }
+
+    /**
+     * Writes every matching row to {@code out}, oldest first, and releases the request's slot.
+     * Does not close {@code out}.
+     */
+    public void write(ExportRequest request, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        try {
+            GZIPOutputStream gzip = request.gzip() ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(gzip != null ? gzip : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            RowWriter rows = request.format() == Format.CSV
+                    ? new CsvRowWriter(writer, request.dataset().columns)
+                    : new JsonLinesRowWriter(objectMapper, writer, request.dataset().columns);
+            long count = query(request, rows);
+            rows.finish();
+            writer.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            rowsExported.get(request.dataset()).increment(count);
+            logger.info("Exported {} {} for company {} in {} ms", count, request.dataset().fileName(),
+                    request.companyId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            exportDuration.get(request.dataset()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            request.slot().release();
+        }
+    }
+
+    private long query(ExportRequest request, RowWriter rows) throws IOException {
+        Dataset dataset = request.dataset();
+        StringBuilder sql = new StringBuilder(dataset.select);
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(request.companyId());
+        if (request.from() != null) {
+            sql.append(" AND ").append(dataset.dateColumn).append(" >= ?");
+            parameters.add(request.from());
+        }
+        if (request.to() != null) {
+            sql.append(" AND ").append(dataset.dateColumn).append(" <= ?");
+            parameters.add(request.to());
+        }
+        if (request.status() != null) {
+            sql.append(" AND ").append(dataset.statusColumn).append(" = ?");
+            parameters.add(dataset.statusParameter(request.status()));
+        }
+        // The company's rows in id order come straight off the company_id index, no sort needed
+        sql.append(" ORDER BY ").append(dataset.orderColumn);
+
+        long[] count = { 0 };
+        Object[] values = new Object[dataset.columns.size()];
+        try {
+            jdbcTemplate.query(sql.toString(), resultSet -> {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = dataset.columns.get(i).read(resultSet, i + 1);
+                }
+                try {
+                    rows.write(values);
+                } catch (IOException e) {
+                    // Usually the client went away; stop reading rows
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, parameters.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    private static Format parseFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return Format.CSV;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format
+                    + ", expected csv or jsonl");
+        }
+    }
+
+    private static Enum<?> parseStatus(Dataset dataset, String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(dataset.statuses)
+                .filter(candidate -> candidate.name().equalsIgnoreCase(status.trim()))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status
+                        + ", expected one of " + Arrays.toString(dataset.statuses)));
+    }
+
+    static LocalDate[] financialYearRange(String financialYear) {
+        Matcher matcher = FINANCIAL_YEAR.matcher(financialYear);
+        if (matcher.matches()) {
+            int startYear = Integer.parseInt(matcher.group(1));
+            if ((startYear + 1) % 100 == Integer.parseInt(matcher.group(2))) {
+                LocalDate start = LocalDate.of(startYear, Month.JULY, 1);
+                return new LocalDate[] { start, start.plusYears(1).minusDays(1) };
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid financial year: " + financialYear + ", expected e.g. 2025-26");
+    }
+
+    private enum Kind { TEXT, ID, AMOUNT, DATE, TIMESTAMP, BOOLEAN, ORDINAL }
+
+    private record Column(String name, Kind kind, Enum<?>[] ordinals) {
+
+        static Column text(String name) {
+            return new Column(name, Kind.TEXT, null);
+        }
+
+        static Column id(String name) {
+            return new Column(name, Kind.ID, null);
+        }
+
+        static Column amount(String name) {
+            return new Column(name, Kind.AMOUNT, null);
+        }
+
+        static Column date(String name) {
+            return new Column(name, Kind.DATE, null);
+        }
+
+        static Column timestamp(String name) {
+            return new Column(name, Kind.TIMESTAMP, null);
+        }
+
+        static Column bool(String name) {
+            return new Column(name, Kind.BOOLEAN, null);
+        }
+
+        static Column ordinal(String name, Enum<?>[] values) {
+            return new Column(name, Kind.ORDINAL, values);
+        }
+
+        Object read(ResultSet resultSet, int index) throws SQLException {
+            Object value = switch (kind) {
+                case TEXT -> resultSet.getString(index);
+                case ID -> resultSet.getLong(index);
+                case AMOUNT -> resultSet.getBigDecimal(index);
+                case DATE -> resultSet.getObject(index, LocalDate.class);
+                case TIMESTAMP -> resultSet.getObject(index, LocalDateTime.class);
+                case BOOLEAN -> resultSet.getBoolean(index);
+                case ORDINAL -> {
+                    int ordinal = resultSet.getInt(index);
+                    yield ordinal >= 0 && ordinal < ordinals.length ? ordinals[ordinal].name() : null;
+                }
+            };
+            return resultSet.wasNull() ? null : value;
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(Object[] values) throws IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    // RFC 4180: a header row, CRLF line endings, fields quoted when they need to be
+    static final class CsvRowWriter implements RowWriter {
+
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer, List<Column> columns) throws IOException {
+            this.writer = writer;
+            writeLine(columns.stream().map(Column::name).toArray());
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value instanceof BigDecimal amount ? amount.toPlainString() : value.toString();
+            // Spreadsheets run text that looks like a formula; only text cells can, amounts stay numbers
+            if (value instanceof String && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    // One JSON object per line, keyed by column name
+    static final class JsonLinesRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<Column> columns;
+
+        JsonLinesRowWriter(ObjectMapper objectMapper, Writer writer, List<Column> columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i).name());
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal amount) {
+                    generator.writeNumber(amount);
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // Flushes into the writer without closing it
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.quickledger.services;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Moves catalog, user and company logo images still stored in the database into the blob store
+ * shortly after start, on one instance at a time.
+ */
+@Service
+public class ImageBlobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobScheduler.class);
+
+    private final ImageService imageService;
+    private final CompanyLogoService companyLogoService;
+
+    public ImageBlobScheduler(ImageService imageService, CompanyLogoService companyLogoService) {
+        this.imageService = imageService;
+        this.companyLogoService = companyLogoService;
+    }
+
+    // Hourly so a run interrupted by a deploy is finished by the next instance; a no-op once done
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    @SchedulerLock(name = "migrateImageBlobs", lockAtMostFor = "PT2H")
+    public void migrateDatabaseImages() {
+        try {
+            int moved = imageService.migrateDatabaseImages();
+            if (moved > 0) {
+                logger.info("Image migration completed. Images moved: {}", moved);
+            }
+        } catch (Exception e) {
+            logger.error("Error moving images into the blob store", e);
+        }
+    }
+
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    @SchedulerLock(name = "migrateCompanyLogoBlobs", lockAtMostFor = "PT1H")
+    public void migrateDatabaseLogos() {
+        try {
+            int moved = companyLogoService.migrateDatabaseLogos();
+            if (moved > 0) {
+                logger.info("Company logo migration completed. Logos moved: {}", moved);
+            }
+        } catch (DataAccessException | IOException e) {
+            logger.error("Error moving company logos into the blob store", e);
+        }
+    }
+}
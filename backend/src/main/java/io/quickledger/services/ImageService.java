@@ -0,0 +1,267 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.StoredImage;
+import io.quickledger.services.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Images of products, service items, assets, asset groups and users. The bytes go to the
+ * {@link BlobStore} and a thumbnail is scaled once at upload; entities only hold
+ * {@link StoredImage} references, so listing them never reads or decodes a picture.
+ */
+@Service
+public class ImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
+
+    static final int THUMBNAIL_SIZE = 256;
+
+    // A decoded image takes 4 bytes a pixel, and a small PNG can declare enormous dimensions
+    static final long MAX_PIXELS = 40_000_000;
+
+    // Prefixes of the <owner>_image_refs tables and of the <owner>_images tables they replace
+    private static final List<String> OWNERS = List.of("product_item", "service_item", "asset", "asset_group", "user");
+
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImageService(BlobStore blobStore, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stores an uploaded image, refusing pictures above {@link #MAX_PIXELS} before they are decoded.
+     */
+    public StoredImage store(InputStream content, String contentType) throws IOException {
+        return store(content, contentType, true);
+    }
+
+    // Images moved out of the database were accepted long ago, so an oversized one is kept without a thumbnail
+    private StoredImage store(InputStream content, String contentType, boolean rejectOversized) throws IOException {
+        BlobStore.StoredBlob original = blobStore.put(content);
+        StoredImage image = new StoredImage();
+        image.setStorageKey(original.key());
+        image.setContentType(contentType);
+        image.setSize(original.size());
+        try {
+            image.setThumbnailKey(createThumbnail(original.key()));
+        } catch (ImageTooLargeException e) {
+            if (rejectOversized) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            logger.warn("Not making a thumbnail of image {}: {}", original.key(), e.getMessage());
+        }
+        return image;
+    }
+
+    public Resource open(String key) throws IOException {
+        return blobStore.get(key);
+    }
+
+    /**
+     * Sniffs the image format, as a key alone does not say what was stored under it.
+     */
+    public String detectContentType(Resource image) {
+        try (InputStream in = new BufferedInputStream(image.getInputStream())) {
+            String contentType = URLConnection.guessContentTypeFromStream(in);
+            return contentType != null ? contentType : "application/octet-stream";
+        } catch (IOException e) {
+            return "application/octet-stream";
+        }
+    }
+
+    /**
+     * Whether one of the company's items, assets, asset groups or users has the image, so a
+     * content hash alone never opens another tenant's picture.
+     */
+    public boolean isReferencedByCompany(String key, Long companyId) {
+        for (String owner : OWNERS) {
+            String ownerCompany = owner.equals("user")
+                    ? "SELECT user_id FROM user_companies WHERE company_id = ?"
+                    : "SELECT id FROM " + owner + "s WHERE company_id = ?";
+            if (!jdbcTemplate.queryForList("SELECT 1 FROM " + owner + "_image_refs"
+                    + " WHERE (storage_key = ? OR thumbnail_key = ?) AND " + owner + "_id IN (" + ownerCompany + ")"
+                    + " LIMIT 1", key, key, companyId).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isReferenced(String key) {
+        for (String owner : OWNERS) {
+            if (!jdbcTemplate.queryForList("SELECT 1 FROM " + owner + "_image_refs"
+                    + " WHERE storage_key = ? OR thumbnail_key = ? LIMIT 1", key, key).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the original's key when it is already small enough, null when ImageIO cannot decode it, and
+    // throws ImageTooLargeException above MAX_PIXELS
+    String createThumbnail(String key) {
+        BufferedImage source;
+        try (InputStream in = blobStore.get(key).getInputStream()) {
+            source = decode(in);
+        } catch (IOException e) {
+            logger.warn("Cannot read image {} for a thumbnail: {}", key, e.getMessage());
+            return null;
+        }
+        if (source == null) {
+            return null;
+        }
+        if (source.getWidth() <= THUMBNAIL_SIZE && source.getHeight() <= THUMBNAIL_SIZE) {
+            return key;
+        }
+
+        double scale = Math.min((double) THUMBNAIL_SIZE / source.getWidth(), (double) THUMBNAIL_SIZE / source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        try {
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", png);
+            return blobStore.put(new ByteArrayInputStream(png.toByteArray())).key();
+        } catch (IOException e) {
+            logger.warn("Cannot store thumbnail of image {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    // Reads the dimensions from the header and only decodes the pixels when they fit under MAX_PIXELS
+    private static BufferedImage decode(InputStream in) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new ImageTooLargeException("Image of " + reader.getWidth(0) + "x" + reader.getHeight(0)
+                            + " pixels is larger than the " + MAX_PIXELS + " pixel limit");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static class ImageTooLargeException extends IllegalArgumentException {
+        ImageTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Moves images still held in the old {@code <owner>_images} BLOB tables into the blob store,
+     * one owner per transaction. Run by {@link ImageBlobScheduler} under a cluster-wide lock.
+     */
+    public int migrateDatabaseImages() {
+        int moved = 0;
+        for (String owner : OWNERS) {
+            if (!tableExists(owner + "_images")) {
+                continue;
+            }
+            int movedForOwner = 0;
+            long afterId = 0;
+            while (true) {
+                List<Long> ownerIds = jdbcTemplate.queryForList("SELECT DISTINCT " + owner + "_id FROM " + owner
+                        + "_images WHERE " + owner + "_id > ? ORDER BY " + owner + "_id LIMIT 20", Long.class, afterId);
+                if (ownerIds.isEmpty()) {
+                    break;
+                }
+                for (Long ownerId : ownerIds) {
+                    Integer count = transactionTemplate.execute(status -> migrateOwner(owner, ownerId));
+                    movedForOwner += count != null ? count : 0;
+                }
+                afterId = ownerIds.get(ownerIds.size() - 1);
+            }
+            if (movedForOwner > 0) {
+                logger.info("Moved {} {} images into the blob store", movedForOwner, owner);
+            }
+            moved += movedForOwner;
+        }
+        return moved;
+    }
+
+    private int migrateOwner(String owner, Long ownerId) {
+        // Claims the owner's rows until commit; a run that gets them after another has finished finds none left
+        List<byte[]> images = jdbcTemplate.queryForList("SELECT images FROM " + owner + "_images WHERE "
+                + owner + "_id = ? FOR UPDATE", byte[].class, ownerId);
+        Integer next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(sort_order) + 1, 0) FROM " + owner
+                + "_image_refs WHERE " + owner + "_id = ?", Integer.class, ownerId);
+        int position = next != null ? next : 0;
+        int moved = 0;
+        for (byte[] bytes : images) {
+            if (bytes == null || bytes.length == 0) {
+                continue;
+            }
+            StoredImage image;
+            try {
+                String contentType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(bytes));
+                image = store(new ByteArrayInputStream(bytes), contentType, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update("INSERT INTO " + owner + "_image_refs (" + owner + "_id, sort_order, storage_key,"
+                            + " thumbnail_key, content_type, size) VALUES (?, ?, ?, ?, ?, ?)",
+                    ownerId, position++, image.getStorageKey(), image.getThumbnailKey(), image.getContentType(),
+                    image.getSize());
+            moved++;
+        }
+        jdbcTemplate.update("DELETE FROM " + owner + "_images WHERE " + owner + "_id = ?", ownerId);
+        return moved;
+    }
+
+    private boolean tableExists(String table) {
+        Integer tables = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.tables
+                WHERE table_schema = DATABASE() AND table_name = ?
+                """, Integer.class, table);
+        return tables != null && tables > 0;
+    }
+}
@@ -17,13 +17,21 @@ import io.quickledger.repositories.product.ProductItemRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,20 +39,26 @@ public class InventoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
 
+    static final int DASHBOARD_ALERT_LIMIT = 20;
+    static final int MAX_ALERT_PAGE_SIZE = 100;
+
     private final StockMovementRepository stockMovementRepository;
     private final ProductItemRepository productItemRepository;
     private final StockMovementMapper stockMovementMapper;
     private final PlanService planService;
+    private final LowStockAlertCache lowStockAlertCache;
 
     public InventoryService(
             StockMovementRepository stockMovementRepository,
             ProductItemRepository productItemRepository,
             StockMovementMapper stockMovementMapper,
-            PlanService planService) {
+            PlanService planService,
+            LowStockAlertCache lowStockAlertCache) {
         this.stockMovementRepository = stockMovementRepository;
         this.productItemRepository = productItemRepository;
         this.stockMovementMapper = stockMovementMapper;
         this.planService = planService;
+        this.lowStockAlertCache = lowStockAlertCache;
     }
 
     private void validateAccess(User user) {
@@ -66,37 +80,119 @@ public class InventoryService {
             String notes,
             Company company) {
 
-        int quantityBefore = product.getQuantityOnHand() != null ? product.getQuantityOnHand() : 0;
-        int quantityAfter = quantityBefore + quantityChange;
+        StockMovement movement = newMovement(product, movementType, quantityChange,
+                referenceType, referenceId, referenceNumber, notes, company);
+        return recordStockMovements(List.of(movement)).get(0);
+    }
+
+    /**
+     * Record several stock movements at once. The quantity changes are applied in the database in
+     * a single statement, which holds the product rows locked until the transaction commits, and
+     * each movement's before/after quantities are taken from the result. Movements for the same
+     * product are applied in list order.
+     */
+    @Transactional
+    public List<StockMovement> recordStockMovements(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return movements;
+        }
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (StockMovement movement : movements) {
+            deltas.merge(movement.getProductItem().getId(), movement.getQuantityChange(), Integer::sum);
+        }
+
+        Map<Long, Integer> onHand = productItemRepository.addToQuantityOnHand(deltas);
+        if (onHand.size() != deltas.size()) {
+            throw new EntityNotFoundException("Product not found");
+        }
+        // Walk back from the new totals to what each product held before this batch
+        deltas.forEach((productId, delta) -> onHand.put(productId, onHand.get(productId) - delta));
+
+        for (StockMovement movement : movements) {
+            Long productId = movement.getProductItem().getId();
+            int quantityBefore = onHand.get(productId);
+            int quantityAfter = quantityBefore + movement.getQuantityChange();
+            onHand.put(productId, quantityAfter);
+
+            // Allow negative stock (backorders) but log warning
+            if (quantityAfter < 0) {
+                logger.warn("Stock for product {} going negative: {} -> {}",
+                        productId, quantityBefore, quantityAfter);
+            }
+
+            movement.setQuantityBefore(quantityBefore);
+            movement.setQuantityAfter(quantityAfter);
+
+            logger.info("Recorded stock movement: {} {} units for product {}, {} -> {}",
+                    movement.getMovementType(), movement.getQuantityChange(), productId, quantityBefore, quantityAfter);
+        }
+
+        stockMovementRepository.saveAll(movements);
+        evictLowStockAlertsAfterCommit(movements);
+        return movements;
+    }
 
-        // Allow negative stock (backorders) but log warning
-        if (quantityAfter < 0) {
-            logger.warn("Stock for product {} going negative: {} -> {}",
-                    product.getId(), quantityBefore, quantityAfter);
+    // Only products with a reorder point can move in or out of the low-stock set
+    private void evictLowStockAlertsAfterCommit(List<StockMovement> movements) {
+        Set<Long> companyIds = movements.stream()
+                .filter(movement -> movement.getProductItem().getReorderPoint() != null)
+                .map(movement -> movement.getCompany().getId())
+                .collect(Collectors.toSet());
+        if (companyIds.isEmpty()) {
+            return;
         }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            companyIds.forEach(lowStockAlertCache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                companyIds.forEach(lowStockAlertCache::evict);
+            }
+        });
+    }
+
+    /**
+     * Brings the low-stock flags in line with stock levels, e.g. after the column was added or a
+     * reorder point was changed outside of the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refreshLowStockFlags() {
+        try {
+            int changed = productItemRepository.refreshLowStockFlags();
+            if (changed > 0) {
+                logger.info("Updated the low-stock flag of {} products", changed);
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing low-stock flags", e);
+        }
+    }
+
+    /**
+     * Builds an unsaved movement for {@link #recordStockMovements}.
+     */
+    public StockMovement newMovement(
+            ProductItem product,
+            MovementType movementType,
+            int quantityChange,
+            ReferenceType referenceType,
+            Long referenceId,
+            String referenceNumber,
+            String notes,
+            Company company) {
 
-        // Create movement record
         StockMovement movement = new StockMovement();
         movement.setCompany(company);
         movement.setProductItem(product);
         movement.setMovementType(movementType);
         movement.setQuantityChange(quantityChange);
-        movement.setQuantityBefore(quantityBefore);
-        movement.setQuantityAfter(quantityAfter);
         movement.setReferenceType(referenceType);
         movement.setReferenceId(referenceId);
         movement.setReferenceNumber(referenceNumber);
         movement.setNotes(notes);
-
-        stockMovementRepository.save(movement);
-
-        // Update product quantity
-        product.setQuantityOnHand(quantityAfter);
-        productItemRepository.save(product);
-
-        logger.info("Recorded stock movement: {} {} units for product {}, {} -> {}",
-                movementType, quantityChange, product.getId(), quantityBefore, quantityAfter);
-
         return movement;
     }
 
@@ -110,11 +206,12 @@ public class InventoryService {
             return;
         }
 
+        List<StockMovement> movements = new ArrayList<>();
         for (InvoiceItem item : invoice.getInvoiceItems()) {
             if (item.getProductItem() != null &&
                     Boolean.TRUE.equals(item.getProductItem().getTrackInventory())) {
 
-                recordStockMovement(
+                movements.add(newMovement(
                         item.getProductItem(),
                         MovementType.SALE,
                         -item.getQuantity(), // Negative for outgoing
@@ -123,48 +220,38 @@ public class InventoryService {
                         invoice.getInvoiceNumber(),
                         "Invoice sale",
                         invoice.getCompany()
-                );
+                ));
             }
         }
+        recordStockMovements(movements);
     }
 
     /**
-     * Get inventory dashboard data.
+     * Get inventory dashboard data: totals from one aggregate query plus the most urgent alerts.
      */
     @Transactional(readOnly = true)
     public InventoryDashboardDto getInventoryDashboard(Long companyId, User user) {
         validateAccess(user);
 
-        InventoryDashboardDto dashboard = new InventoryDashboardDto();
-
-        dashboard.setTotalProducts(productItemRepository.countTrackedProducts(companyId));
-
-        List<ProductItem> lowStockProducts = productItemRepository.findLowStockProducts(companyId);
-        dashboard.setLowStockCount(lowStockProducts.size());
-
-        List<ProductItem> outOfStockProducts = productItemRepository.findOutOfStockProducts(companyId);
-        dashboard.setOutOfStockCount(outOfStockProducts.size());
-
-        BigDecimal totalValue = productItemRepository.calculateTotalInventoryValue(companyId);
-        dashboard.setTotalInventoryValue(totalValue != null ? totalValue : BigDecimal.ZERO);
-
-        dashboard.setLowStockAlerts(lowStockProducts.stream()
-                .map(this::toLowStockAlertDto)
-                .collect(Collectors.toList()));
-
+        InventoryDashboardDto dashboard = productItemRepository.summarizeInventory(companyId);
+        dashboard.setLowStockAlerts(findLowStockAlerts(companyId, 0, DASHBOARD_ALERT_LIMIT).getContent());
         return dashboard;
     }
 
     /**
-     * Get low stock alerts.
+     * Get low stock alerts, most urgent first.
      */
     @Transactional(readOnly = true)
-    public List<LowStockAlertDto> getLowStockAlerts(Long companyId, User user) {
+    public Page<LowStockAlertDto> getLowStockAlerts(Long companyId, Pageable pageable, User user) {
         validateAccess(user);
 
-        return productItemRepository.findLowStockProducts(companyId).stream()
-                .map(this::toLowStockAlertDto)
-                .collect(Collectors.toList());
+        int size = Math.min(Math.max(pageable.getPageSize(), 1), MAX_ALERT_PAGE_SIZE);
+        return findLowStockAlerts(companyId, pageable.getPageNumber(), size);
+    }
+
+    private Page<LowStockAlertDto> findLowStockAlerts(Long companyId, int page, int size) {
+        return lowStockAlertCache.get(companyId, page, size,
+                () -> productItemRepository.findLowStockAlerts(companyId, PageRequest.of(page, size)));
     }
 
     /**
@@ -181,7 +268,9 @@ public class InventoryService {
             throw new IllegalStateException("Product does not have inventory tracking enabled");
         }
 
-        int currentQty = product.getQuantityOnHand() != null ? product.getQuantityOnHand() : 0;
+        // Read under the row lock so a concurrent movement can't slip in between
+        int currentQty = productItemRepository.lockQuantityOnHand(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
         int change = newQuantity - currentQty;
 
         StockMovement movement = recordStockMovement(
@@ -221,15 +310,4 @@ public class InventoryService {
                 .findAllByCompanyIdOrderByCreatedDateDesc(companyId, pageable)
                 .map(stockMovementMapper::toDto);
     }
-
-    private LowStockAlertDto toLowStockAlertDto(ProductItem product) {
-        LowStockAlertDto dto = new LowStockAlertDto();
-        dto.setProductId(product.getId());
-        dto.setProductName(product.getName());
-        dto.setProductCode(product.getCode());
-        dto.setQuantityOnHand(product.getQuantityOnHand());
-        dto.setReorderPoint(product.getReorderPoint());
-        dto.setReorderQuantity(product.getReorderQuantity());
-        return dto;
-    }
 }
@@ -0,0 +1,36 @@
+package io.quickledger.services;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renews Stripe checkout sessions for unpaid invoices before they expire, so invoice reads
+ * and emails can keep using the stored link.
+ */
+@Service
+public class InvoicePaymentLinkScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePaymentLinkScheduler.class);
+
+    private final InvoicePaymentLinkService invoicePaymentLinkService;
+
+    public InvoicePaymentLinkScheduler(InvoicePaymentLinkService invoicePaymentLinkService) {
+        this.invoicePaymentLinkService = invoicePaymentLinkService;
+    }
+
+    @Scheduled(cron = "0 */15 * * * *") // Every 15 minutes
+    @SchedulerLock(name = "renewInvoicePaymentLinks", lockAtLeastFor = "PT1M", lockAtMostFor = "PT14M")
+    public void renewExpiringPaymentLinks() {
+        try {
+            int renewed = invoicePaymentLinkService.renewExpiringLinks();
+            if (renewed > 0) {
+                logger.info("Renewed {} expiring invoice payment links", renewed);
+            }
+        } catch (Exception e) {
+            logger.error("Error in invoice payment link renewal scheduler", e);
+        }
+    }
+}
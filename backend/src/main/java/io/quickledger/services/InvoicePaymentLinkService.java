@@ -0,0 +1,227 @@
+package io.quickledger.services;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.checkout.Session;
+import io.quickledger.entities.Company;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoicePaymentLink;
+import io.quickledger.repositories.InvoicePaymentLinkRepository;
+import io.quickledger.repositories.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registry of Stripe checkout sessions per invoice. Reads reuse the stored session while it
+ * is unexpired and matches the invoice amount, so plain GETs no longer go to Stripe. A new
+ * session is only created when the amount changes or the old one is about to expire.
+ */
+@Service
+public class InvoicePaymentLinkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePaymentLinkService.class);
+
+    // A link handed out should stay payable for at least this long
+    private static final Duration MIN_REMAINING_VALIDITY = Duration.ofMinutes(30);
+    // Background renewal picks up links this close to expiry
+    private static final Duration RENEW_AHEAD = Duration.ofHours(2);
+    // Stripe's default checkout session lifetime, used if the response has no expiry
+    private static final Duration DEFAULT_SESSION_LIFETIME = Duration.ofHours(24);
+    private static final int RENEW_BATCH_SIZE = 100;
+
+    private final InvoicePaymentLinkRepository invoicePaymentLinkRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final StripeService stripeService;
+    private final TransactionTemplate requiresNewTransaction;
+
+    @Value("${application.frontend.url}")
+    private String applicationFrontendUrl;
+
+    public InvoicePaymentLinkService(InvoicePaymentLinkRepository invoicePaymentLinkRepository,
+            InvoiceRepository invoiceRepository, StripeService stripeService,
+            PlatformTransactionManager transactionManager) {
+        this.invoicePaymentLinkRepository = invoicePaymentLinkRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.stripeService = stripeService;
+        // Callers are often read-only transactions (PDF download, GET invoice), so the registry
+        // row is written in its own short transaction
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns a payable Stripe checkout URL for the invoice, or null if the company cannot take
+     * card payments or Stripe is unavailable.
+     */
+    public String getPaymentLink(Invoice invoice) {
+        Company company = invoice.getCompany();
+        if (!canTakePayments(company)) {
+            logger.debug("Stripe not fully enabled for company {}. AccountId present: {}, Charges Enabled: {}",
+                    company.getId(),
+                    company.getStripeConnectedAccountId() != null,
+                    company.isStripeChargesEnabled());
+            return null;
+        }
+
+        try {
+            long amountCents = toCents(invoice.getTotalPrice());
+            Optional<InvoicePaymentLink> existing = invoicePaymentLinkRepository.findByInvoiceId(invoice.getId());
+            if (existing.isPresent() && isReusable(existing.get(), amountCents, MIN_REMAINING_VALIDITY)) {
+                return existing.get().getUrl();
+            }
+            return issue(invoice, amountCents, existing.orElse(null)).getUrl();
+        } catch (Exception e) {
+            logger.error("Failed to generate payment link for invoice " + invoice.getId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Drops the stored session for an invoice and expires it on Stripe so it can no longer be paid.
+     */
+    public void invalidate(Long invoiceId) {
+        invoicePaymentLinkRepository.findByInvoiceId(invoiceId).ifPresent(link -> {
+            invoicePaymentLinkRepository.deleteByInvoiceId(invoiceId);
+            expireQuietly(link.getSessionId());
+        });
+    }
+
+    /**
+     * Re-issues sessions that are about to expire for invoices still waiting on payment, so the
+     * next read finds a fresh link instead of calling Stripe inline.
+     *
+     * @return number of links renewed
+     */
+    public int renewExpiringLinks() {
+        LocalDateTime threshold = now().plus(RENEW_AHEAD);
+        Set<Long> attempted = new HashSet<>();
+        int renewed = 0;
+
+        while (true) {
+            List<Long> invoiceIds = invoicePaymentLinkRepository.findInvoiceIdsWithLinksExpiringBefore(
+                    Invoice.InvoiceStatus.SENT, threshold, PageRequest.of(0, RENEW_BATCH_SIZE));
+            // Renewed links drop out of the query, failed ones stay; stop once only failures are left
+            if (!attempted.addAll(invoiceIds)) {
+                break;
+            }
+
+            for (Long invoiceId : invoiceIds) {
+                Optional<Invoice> invoice = invoiceRepository.findById(invoiceId);
+                if (invoice.isEmpty() || !canTakePayments(invoice.get().getCompany())) {
+                    invoicePaymentLinkRepository.deleteByInvoiceId(invoiceId);
+                    continue;
+                }
+                try {
+                    InvoicePaymentLink existing = invoicePaymentLinkRepository.findByInvoiceId(invoiceId).orElse(null);
+                    issue(invoice.get(), toCents(invoice.get().getTotalPrice()), existing);
+                    renewed++;
+                } catch (Exception e) {
+                    logger.warn("Failed to renew payment link for invoice {}: {}", invoiceId, e.getMessage());
+                }
+            }
+
+            if (invoiceIds.size() < RENEW_BATCH_SIZE) {
+                break;
+            }
+        }
+        return renewed;
+    }
+
+    private InvoicePaymentLink issue(Invoice invoice, long amountCents, InvoicePaymentLink previous)
+            throws StripeException {
+        // Read before the upsert below, which may update this same row
+        String previousSessionId = previous != null ? previous.getSessionId() : null;
+
+        String successUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=success";
+        String cancelUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=cancel";
+
+        Session session = stripeService.createInvoiceCheckoutSession(
+                invoice.getId(),
+                amountCents,
+                "aud",
+                "Invoice #" + invoice.getInvoiceNumber(),
+                invoice.getCompany().getId(),
+                invoice.getClient() != null ? invoice.getClient().getEmail() : null,
+                successUrl,
+                cancelUrl);
+
+        LocalDateTime expiresAt = session.getExpiresAt() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochSecond(session.getExpiresAt()), ZoneOffset.UTC)
+                : now().plus(DEFAULT_SESSION_LIFETIME);
+
+        InvoicePaymentLink link;
+        try {
+            link = requiresNewTransaction.execute(status -> {
+                InvoicePaymentLink row = invoicePaymentLinkRepository.findByInvoiceId(invoice.getId())
+                        .orElseGet(InvoicePaymentLink::new);
+                row.setInvoiceId(invoice.getId());
+                row.setAmountCents(amountCents);
+                row.setSessionId(session.getId());
+                row.setUrl(session.getUrl());
+                row.setExpiresAt(expiresAt);
+                return invoicePaymentLinkRepository.save(row);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request registered a session for this invoice at the same time. Use theirs and expire
+            // ours, so no payable session exists that the webhook and renewal job don't know about.
+            logger.debug("Concurrent payment link registration for invoice {}", invoice.getId());
+            InvoicePaymentLink winner = requiresNewTransaction.execute(status ->
+                    invoicePaymentLinkRepository.findByInvoiceId(invoice.getId()).orElse(null));
+            expireQuietly(session.getId());
+            if (winner == null) {
+                throw e;
+            }
+            return winner;
+        }
+
+        // Only the registered session may stay payable; a replaced one could otherwise still be paid
+        if (previousSessionId != null && !previousSessionId.equals(session.getId())) {
+            expireQuietly(previousSessionId);
+        }
+        return link;
+    }
+
+    private void expireQuietly(String sessionId) {
+        try {
+            stripeService.expireCheckoutSession(sessionId);
+        } catch (Exception e) {
+            // Already expired, completed or unknown to Stripe; nothing left to do
+            logger.debug("Could not expire checkout session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static boolean isReusable(InvoicePaymentLink link, long amountCents, Duration minRemaining) {
+        return link.getAmountCents() != null
+                && link.getAmountCents() == amountCents
+                && link.getExpiresAt() != null
+                && link.getExpiresAt().isAfter(now().plus(minRemaining));
+    }
+
+    private static boolean canTakePayments(Company company) {
+        return company.getStripeConnectedAccountId() != null && company.isStripeChargesEnabled();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.multiply(BigDecimal.valueOf(100)).longValue();
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -1,18 +1,34 @@
 package io.quickledger.services;
 
+import io.quickledger.config.ReminderProperties;
 import io.quickledger.entities.invoice.Invoice;
 import io.quickledger.entities.invoice.InvoiceReminder.ReminderType;
+import io.quickledger.entities.invoice.InvoiceReminderRun;
+import io.quickledger.repositories.InvoiceReminderRunRepository;
 import io.quickledger.repositories.InvoiceRepository;
+import io.quickledger.utils.RateLimiter;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class InvoiceReminderScheduler {
@@ -20,62 +36,145 @@ public class InvoiceReminderScheduler {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceReminderScheduler.class);
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceReminderRunRepository invoiceReminderRunRepository;
     private final InvoiceReminderService invoiceReminderService;
+    private final ReminderProperties reminderProperties;
+    private final Executor reminderExecutor;
 
     public InvoiceReminderScheduler(InvoiceRepository invoiceRepository,
-                                     InvoiceReminderService invoiceReminderService) {
+                                     InvoiceReminderRunRepository invoiceReminderRunRepository,
+                                     InvoiceReminderService invoiceReminderService,
+                                     ReminderProperties reminderProperties,
+                                     @Qualifier("reminderExecutor") Executor reminderExecutor) {
         this.invoiceRepository = invoiceRepository;
+        this.invoiceReminderRunRepository = invoiceReminderRunRepository;
         this.invoiceReminderService = invoiceReminderService;
+        this.reminderProperties = reminderProperties;
+        this.reminderExecutor = reminderExecutor;
     }
 
-    @Scheduled(cron = "0 0 8 * * *") // Daily at 8 AM
-    @SchedulerLock(name = "sendInvoicePaymentReminders", lockAtLeastFor = "PT5M", lockAtMostFor = "PT30M")
+    // Starts at 8 AM; the later hourly runs only pick up a run that stopped before finishing
+    @Scheduled(cron = "0 0 8-20 * * *")
+    @SchedulerLock(name = "sendInvoicePaymentReminders", lockAtLeastFor = "PT5M", lockAtMostFor = "PT3H")
     public void sendPaymentReminders() {
-        logger.info("Starting invoice payment reminder check...");
-
         try {
             LocalDate today = LocalDate.now();
-            List<Invoice> sentInvoices = invoiceRepository.findInvoicesForReminders();
-            int remindersSent = 0;
-
-            for (Invoice invoice : sentInvoices) {
-                try {
-                    LocalDate dueDate = parseDate(invoice.getDueDate());
-                    if (dueDate == null) {
-                        continue;
-                    }
+            InvoiceReminderRun run = invoiceReminderRunRepository.findByRunDate(today)
+                    .orElseGet(() -> new InvoiceReminderRun(today));
+            if (run.isCompleted()) {
+                logger.debug("Invoice payment reminders for {} already sent", today);
+                return;
+            }
 
-                    ReminderType reminderType = determineReminderType(today, dueDate);
-                    if (reminderType != null) {
-                        boolean sent = invoiceReminderService.sendReminderIfNotAlreadySent(invoice, reminderType);
-                        if (sent) {
-                            remindersSent++;
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.error("Error processing reminder for invoice {}: {}",
-                            invoice.getId(), e.getMessage());
-                }
+            if (run.getLastInvoiceId() > 0) {
+                logger.info("Resuming invoice payment reminder check after invoice {}...", run.getLastInvoiceId());
+            } else {
+                logger.info("Starting invoice payment reminder check...");
             }
 
-            logger.info("Invoice payment reminder check completed. Reminders sent: {}", remindersSent);
+            processRun(run, today);
+
+            run.setCompletedAt(LocalDateTime.now());
+            invoiceReminderRunRepository.save(run);
+            logger.info("Invoice payment reminder check completed. Reminders sent: {}", run.getRemindersSent());
         } catch (Exception e) {
             logger.error("Error in invoice reminder scheduler", e);
         }
     }
 
-    private LocalDate parseDate(String dateString) {
-        if (dateString == null || dateString.isBlank()) {
-            return null;
+    private void processRun(InvoiceReminderRun run, LocalDate today) {
+        List<LocalDate> dueDates = List.of(today.plusDays(3), today.minusDays(7));
+        int pageSize = reminderProperties.getPageSize();
+        RateLimiter globalLimiter = new RateLimiter(reminderProperties.getGlobalRatePerSecond());
+        Map<Long, RateLimiter> companyLimiters = new HashMap<>();
+
+        while (true) {
+            List<Invoice> page = invoiceRepository.findReminderCandidates(
+                    Invoice.InvoiceStatus.SENT, dueDates, run.getLastInvoiceId(), PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                return;
+            }
+
+            // Reminders due today, queued per company in page order
+            Map<Long, Deque<PendingReminder>> pending = new LinkedHashMap<>();
+            for (Invoice invoice : page) {
+                ReminderType reminderType = invoice.getDueDate() != null
+                        ? determineReminderType(today, invoice.getDueDate())
+                        : null;
+                if (reminderType != null) {
+                    pending.computeIfAbsent(invoice.getCompany().getId(), id -> new ArrayDeque<>())
+                            .add(new PendingReminder(invoice, reminderType));
+                }
+            }
+
+            AtomicInteger sentInPage = new AtomicInteger();
+            List<CompletableFuture<?>> tasks = new ArrayList<>();
+            try {
+                while (!pending.isEmpty()) {
+                    // Waiting for a permit happens here, before the task takes an executor slot, so
+                    // reminders throttled for one company never hold the workers other companies
+                    // could use. The company whose next permit comes up first goes next.
+                    long now = System.nanoTime();
+                    Long companyId = null;
+                    long earliest = Long.MAX_VALUE;
+                    for (Long id : pending.keySet()) {
+                        long slot = companyLimiters.computeIfAbsent(id,
+                                key -> new RateLimiter(reminderProperties.getCompanyRatePerSecond())).nextSlot(now);
+                        if (companyId == null || slot - earliest < 0) {
+                            companyId = id;
+                            earliest = slot;
+                        }
+                    }
+                    long sendAt = globalLimiter.reserve(earliest);
+                    companyLimiters.get(companyId).reserve(sendAt);
+                    long waitNanos = sendAt - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+
+                    Deque<PendingReminder> queue = pending.get(companyId);
+                    PendingReminder reminder = queue.poll();
+                    if (queue.isEmpty()) {
+                        pending.remove(companyId);
+                    }
+                    tasks.add(CompletableFuture.runAsync(() -> {
+                        if (sendReminder(reminder.invoice(), reminder.type())) {
+                            sentInPage.incrementAndGet();
+                        }
+                    }, reminderExecutor));
+                }
+            } catch (InterruptedException e) {
+                // Stops without checkpointing the page, so the next run resumes from the previous one
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Invoice reminder run interrupted", e);
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+            // Checkpoint only once the whole page is done, so a restart never skips an invoice.
+            // Invoices retried after a crash are not emailed twice: sent reminders are recorded.
+            run.setLastInvoiceId(page.get(page.size() - 1).getId());
+            run.setRemindersSent(run.getRemindersSent() + sentInPage.get());
+            run = invoiceReminderRunRepository.save(run);
+
+            if (page.size() < pageSize) {
+                return;
+            }
         }
+    }
+
+    private boolean sendReminder(Invoice invoice, ReminderType reminderType) {
         try {
-            return LocalDate.parse(dateString);
-        } catch (DateTimeParseException e) {
-            logger.warn("Unable to parse due date: {}", dateString);
-            return null;
+            return invoiceReminderService.sendReminderIfNotAlreadySent(invoice, reminderType);
+        } catch (Exception e) {
+            logger.error("Error processing reminder for invoice {}: {}",
+                    invoice.getId(), e.getMessage());
+            return false;
         }
     }
 
+    private record PendingReminder(Invoice invoice, ReminderType type) {
+    }
+
     private ReminderType determineReminderType(LocalDate today, LocalDate dueDate) {
         long daysDiff = ChronoUnit.DAYS.between(today, dueDate);
 
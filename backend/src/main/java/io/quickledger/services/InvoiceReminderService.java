@@ -1,6 +1,5 @@
 package io.quickledger.services;
 
-import io.quickledger.entities.Company;
 import io.quickledger.entities.invoice.Invoice;
 import io.quickledger.entities.invoice.InvoiceReminder;
 import io.quickledger.entities.invoice.InvoiceReminder.ReminderType;
@@ -23,7 +22,7 @@ public class InvoiceReminderService {
     private final InvoiceService invoiceService;
     private final EmailService emailService;
     private final TempTokenService tempTokenService;
-    private final StripeService stripeService;
+    private final InvoicePaymentLinkService invoicePaymentLinkService;
 
     @Value("${application.frontend.url}")
     private String applicationFrontendUrl;
@@ -32,12 +31,12 @@ public class InvoiceReminderService {
                                    InvoiceService invoiceService,
                                    EmailService emailService,
                                    TempTokenService tempTokenService,
-                                   StripeService stripeService) {
+                                   InvoicePaymentLinkService invoicePaymentLinkService) {
         this.invoiceReminderRepository = invoiceReminderRepository;
         this.invoiceService = invoiceService;
         this.emailService = emailService;
         this.tempTokenService = tempTokenService;
-        this.stripeService = stripeService;
+        this.invoicePaymentLinkService = invoicePaymentLinkService;
     }
 
     @Transactional
@@ -136,7 +135,7 @@ public class InvoiceReminderService {
         emailBody.append("<strong>Due Date:</strong> ").append(invoice.getDueDate()).append("</p>");
 
         // Stripe Payment Link
-        String paymentLink = generatePaymentLink(invoice);
+        String paymentLink = invoicePaymentLinkService.getPaymentLink(invoice);
         if (paymentLink != null) {
             emailBody.append("<p>You can pay securely online by clicking the button below:</p>");
             emailBody.append("<a href=\"").append(paymentLink)
@@ -183,28 +182,4 @@ public class InvoiceReminderService {
         emailBody.append("</body></html>");
         return emailBody.toString();
     }
-
-    private String generatePaymentLink(Invoice invoice) {
-        Company company = invoice.getCompany();
-        if (company.getStripeConnectedAccountId() != null && company.isStripeChargesEnabled()) {
-            try {
-                long amountCents = invoice.getTotalPrice().multiply(java.math.BigDecimal.valueOf(100)).longValue();
-                String successUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=success";
-                String cancelUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=cancel";
-
-                return stripeService.createInvoicePaymentSession(
-                        invoice.getId(),
-                        amountCents,
-                        "aud",
-                        "Invoice #" + invoice.getInvoiceNumber(),
-                        company.getId(),
-                        invoice.getClient().getEmail(),
-                        successUrl,
-                        cancelUrl);
-            } catch (Exception e) {
-                logger.error("Failed to generate payment link for invoice " + invoice.getId(), e);
-            }
-        }
-        return null;
-    }
 }
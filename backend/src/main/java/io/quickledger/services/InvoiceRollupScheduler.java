@@ -0,0 +1,53 @@
+package io.quickledger.services;
+
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Backfills the invoice rollups on first start and checks them against the invoices table
+ * every night. Start with {@code stats.rollup.rebuild-on-startup=true} to force a full rebuild.
+ */
+@Service
+public class InvoiceRollupScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceRollupScheduler.class);
+
+    private final InvoiceRollupService invoiceRollupService;
+
+    @Value("${stats.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public InvoiceRollupScheduler(InvoiceRollupService invoiceRollupService) {
+        this.invoiceRollupService = invoiceRollupService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (rebuildOnStartup || invoiceRollupService.isEmpty()) {
+                logger.info("Rebuilding invoice rollups...");
+                int companies = invoiceRollupService.rebuildAll();
+                logger.info("Invoice rollups rebuilt for {} companies", companies);
+            }
+        } catch (Exception e) {
+            logger.error("Error rebuilding invoice rollups", e);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // Daily at 3:30 AM
+    @SchedulerLock(name = "checkInvoiceRollups", lockAtLeastFor = "PT5M", lockAtMostFor = "PT1H")
+    public void checkRollups() {
+        try {
+            int repaired = invoiceRollupService.repairDrift();
+            logger.info("Invoice rollup check completed. Companies repaired: {}", repaired);
+        } catch (Exception e) {
+            logger.error("Error in invoice rollup check", e);
+        }
+    }
+}
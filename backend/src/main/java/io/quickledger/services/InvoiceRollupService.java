@@ -0,0 +1,222 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.invoice.ClientRevenueRollup;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceMonthlyRollup;
+import io.quickledger.entities.invoice.InvoiceRollupState;
+import io.quickledger.repositories.ClientRevenueRollupRepository;
+import io.quickledger.repositories.InvoiceMonthlyRollupRepository;
+import io.quickledger.repositories.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the per-company invoice rollups that back the dashboard. Writes apply deltas with
+ * atomic upserts in the caller's transaction; {@link #rebuildCompany} recomputes a company from
+ * the invoices table and {@link #findDrift} compares the two.
+ */
+@Service
+public class InvoiceRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceRollupService.class);
+
+    private static final String UPSERT_MONTHLY = """
+            INSERT INTO invoice_monthly_rollups (company_id, period, status, invoice_count, total_amount)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE invoice_count = invoice_count + VALUES(invoice_count),
+                                    total_amount = total_amount + VALUES(total_amount)
+            """;
+
+    private static final String UPSERT_CLIENT = """
+            INSERT INTO client_revenue_rollups (company_id, client_id, paid_count, paid_total)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE paid_count = paid_count + VALUES(paid_count),
+                                    paid_total = paid_total + VALUES(paid_total)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceMonthlyRollupRepository invoiceMonthlyRollupRepository;
+    private final ClientRevenueRollupRepository clientRevenueRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public InvoiceRollupService(JdbcTemplate jdbcTemplate, InvoiceRepository invoiceRepository,
+            InvoiceMonthlyRollupRepository invoiceMonthlyRollupRepository,
+            ClientRevenueRollupRepository clientRevenueRollupRepository,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceMonthlyRollupRepository = invoiceMonthlyRollupRepository;
+        this.clientRevenueRollupRepository = clientRevenueRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Moves an invoice's contribution from {@code before} to {@code after}. Either side may be
+     * null for inserts and deletes.
+     */
+    public void apply(InvoiceRollupState before, InvoiceRollupState after) {
+        if (before != null && before.sameContribution(after)) {
+            return;
+        }
+        if (before != null) {
+            add(before, -1);
+        }
+        if (after != null) {
+            add(after, 1);
+        }
+    }
+
+    private void add(InvoiceRollupState state, int sign) {
+        BigDecimal amount = sign < 0 ? state.total().negate() : state.total();
+        jdbcTemplate.update(UPSERT_MONTHLY, state.companyId(), state.period(), state.status().name(), sign, amount);
+        if (state.status() == Invoice.InvoiceStatus.PAID && state.clientId() != null) {
+            jdbcTemplate.update(UPSERT_CLIENT, state.companyId(), state.clientId(), sign, amount);
+        }
+    }
+
+    /**
+     * Replaces a company's rollup rows with totals computed from its invoices.
+     */
+    public void rebuildCompany(Long companyId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Deleting first locks the company's rollup rows, so concurrent deltas wait for the
+            // rebuild instead of being overwritten by it
+            invoiceMonthlyRollupRepository.deleteByCompanyId(companyId);
+            clientRevenueRollupRepository.deleteByCompanyId(companyId);
+
+            List<InvoiceMonthlyRollup> monthly = new ArrayList<>();
+            liveMonthlyTotals(companyId).forEach((key, totals) -> monthly.add(new InvoiceMonthlyRollup(
+                    companyId, key.period(), key.status(), totals.count(), totals.amount())));
+            invoiceMonthlyRollupRepository.saveAll(monthly);
+
+            List<ClientRevenueRollup> clients = new ArrayList<>();
+            liveClientTotals(companyId).forEach((clientId, totals) -> clients.add(new ClientRevenueRollup(
+                    companyId, clientId, totals.count(), totals.amount())));
+            clientRevenueRollupRepository.saveAll(clients);
+        });
+    }
+
+    /**
+     * Rebuilds the rollups of every company that has invoices.
+     *
+     * @return number of companies rebuilt
+     */
+    public int rebuildAll() {
+        int rebuilt = 0;
+        for (Long companyId : invoiceRepository.findDistinctCompanyIds()) {
+            try {
+                rebuildCompany(companyId);
+                rebuilt++;
+            } catch (Exception e) {
+                logger.error("Failed to rebuild invoice rollups for company {}", companyId, e);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Compares a company's rollups with its invoices.
+     *
+     * @return a description of each mismatching row, empty when consistent
+     */
+    public List<String> findDrift(Long companyId) {
+        List<String> drift = new ArrayList<>();
+
+        Map<MonthKey, Totals> stored = new HashMap<>();
+        for (InvoiceMonthlyRollup row : invoiceMonthlyRollupRepository.findByCompanyId(companyId)) {
+            stored.put(new MonthKey(row.getPeriod(), row.getStatus()),
+                    new Totals(row.getInvoiceCount(), row.getTotalAmount()));
+        }
+        compare("month", stored, liveMonthlyTotals(companyId), drift);
+
+        Map<Long, Totals> storedClients = new HashMap<>();
+        for (ClientRevenueRollup row : clientRevenueRollupRepository.findByCompanyId(companyId)) {
+            storedClients.put(row.getClientId(), new Totals(row.getPaidCount(), row.getPaidTotal()));
+        }
+        compare("client", storedClients, liveClientTotals(companyId), drift);
+
+        return drift;
+    }
+
+    /**
+     * Checks every company and rebuilds the ones whose rollups have drifted.
+     *
+     * @return number of companies repaired
+     */
+    public int repairDrift() {
+        int repaired = 0;
+        for (Long companyId : invoiceRepository.findDistinctCompanyIds()) {
+            try {
+                List<String> drift = findDrift(companyId);
+                if (!drift.isEmpty()) {
+                    logger.warn("Invoice rollups for company {} drifted, rebuilding: {}", companyId, drift);
+                    rebuildCompany(companyId);
+                    repaired++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to check invoice rollups for company {}", companyId, e);
+            }
+        }
+        return repaired;
+    }
+
+    public boolean isEmpty() {
+        return invoiceMonthlyRollupRepository.count() == 0;
+    }
+
+    private Map<MonthKey, Totals> liveMonthlyTotals(Long companyId) {
+        Map<MonthKey, Totals> totals = new HashMap<>();
+        for (Object[] row : invoiceRepository.aggregateByStatusAndMonth(companyId)) {
+            String period = row[1] != null && row[2] != null
+                    ? String.format("%04d-%02d", ((Number) row[1]).intValue(), ((Number) row[2]).intValue())
+                    : InvoiceRollupState.UNDATED_PERIOD;
+            totals.put(new MonthKey(period, (Invoice.InvoiceStatus) row[0]),
+                    new Totals(((Number) row[3]).longValue(), new BigDecimal(row[4].toString())));
+        }
+        return totals;
+    }
+
+    private Map<Long, Totals> liveClientTotals(Long companyId) {
+        Map<Long, Totals> totals = new HashMap<>();
+        for (Object[] row : invoiceRepository.aggregateByClient(companyId, Invoice.InvoiceStatus.PAID)) {
+            totals.put((Long) row[0], new Totals(((Number) row[1]).longValue(), new BigDecimal(row[2].toString())));
+        }
+        return totals;
+    }
+
+    private static <K> void compare(String kind, Map<K, Totals> stored, Map<K, Totals> live, List<String> drift) {
+        Set<K> keys = new HashSet<>(stored.keySet());
+        keys.addAll(live.keySet());
+        for (K key : keys) {
+            Totals expected = live.getOrDefault(key, Totals.ZERO);
+            Totals actual = stored.getOrDefault(key, Totals.ZERO);
+            if (!expected.matches(actual)) {
+                drift.add(kind + " " + key + ": expected " + expected + ", found " + actual);
+            }
+        }
+    }
+
+    private record MonthKey(String period, Invoice.InvoiceStatus status) {
+    }
+
+    private record Totals(long count, BigDecimal amount) {
+        static final Totals ZERO = new Totals(0, BigDecimal.ZERO);
+
+        boolean matches(Totals other) {
+            return count == other.count && amount.compareTo(other.amount) == 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.invoice.InvoiceSearchResultDto;
+import io.quickledger.repositories.InvoiceRepository;
+import io.quickledger.utils.FulltextSearch;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Invoice search over the denormalized {@code search_text} column. Results come newest first
+ * in pages of at most {@link #MAX_LIMIT}; pass the last id of a page as {@code beforeId} to get
+ * the next one. Terms long enough for the ngram parser use the FULLTEXT index, anything else
+ * (or a database without the index) falls back to a LIKE over the company's invoices.
+ */
+@Service
+public class InvoiceSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 50;
+
+    private static final String FULLTEXT_INDEX = "ft_invoice_search";
+
+    private static final String BACKFILL_RANGE_SQL =
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM invoices WHERE search_text IS NULL";
+
+    private static final String BACKFILL_SQL = """
+            UPDATE invoices i LEFT JOIN clients c ON c.id = i.client_id
+            SET i.search_text = LEFT(LOWER(CONCAT_WS(' ', i.invoice_number, c.contact_name, c.contact_surname, c.entity_name)), 2000)
+            WHERE i.search_text IS NULL AND i.id > ? AND i.id <= ?
+            """;
+
+    private final InvoiceRepository invoiceRepository;
+    private final FulltextSearch fulltextSearch;
+
+    public InvoiceSearchService(InvoiceRepository invoiceRepository, JdbcTemplate jdbcTemplate) {
+        this.invoiceRepository = invoiceRepository;
+        this.fulltextSearch = new FulltextSearch(jdbcTemplate, "invoices", FULLTEXT_INDEX, BACKFILL_RANGE_SQL, BACKFILL_SQL);
+    }
+
+    public List<InvoiceSearchResultDto> search(Long companyId, String searchTerm, Long beforeId, Integer limit) {
+        String term = FulltextSearch.normalize(searchTerm);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        long cursor = beforeId == null ? Long.MAX_VALUE : beforeId;
+
+        List<Long> ids = fulltextSearch.findIds(term,
+                phrase -> invoiceRepository.findSearchIdsByFulltext(companyId, phrase, cursor, pageSize),
+                pattern -> invoiceRepository.findSearchIdsByPattern(companyId, pattern, cursor, PageRequest.of(0, pageSize)));
+        return ids.isEmpty() ? List.of() : invoiceRepository.findSearchResultsByIds(ids);
+    }
+
+    /**
+     * Brings {@code search_text} of a client's invoices in line with the client's current names.
+     */
+    public void refreshClient(Long clientId) {
+        invoiceRepository.refreshSearchTextForClient(clientId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndex() {
+        fulltextSearch.checkIndex();
+    }
+
+    // On one instance at a time; hourly so a run interrupted by a deploy is finished later,
+    // a quick check once done
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    @SchedulerLock(name = "prepareInvoiceSearchIndex", lockAtMostFor = "PT2H")
+    public void prepareIndex() {
+        fulltextSearch.prepareIndex();
+    }
+}
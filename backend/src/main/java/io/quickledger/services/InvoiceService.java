@@ -16,7 +16,6 @@ import io.quickledger.mappers.invoice.InvoiceItemMapper;
 import io.quickledger.mappers.invoice.InvoiceMapper;
 import io.quickledger.repositories.ClientRepository;
 import io.quickledger.repositories.InvoiceRepository;
-import io.quickledger.repositories.SequenceConfigRepository;
 import io.quickledger.repositories.quote.QuoteRepository;
 import io.quickledger.repositories.product.ProductItemRepository;
 import io.quickledger.repositories.serviceitem.ServiceItemRepository;
@@ -34,7 +33,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Base64;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -52,11 +50,12 @@ public class InvoiceService {
     private final ClientService clientService;
 
     private final QuoteRepository quoteRepository;
-    private final SequenceConfigRepository sequenceConfigRepository;
+    private final SequenceAllocator sequenceAllocator;
     private final PdfService pdfService;
+    private final CompanyLogoService companyLogoService;
     private final ObjectMapper objectMapper;
     private final EmailService emailService;
-    private final StripeService stripeService;
+    private final InvoicePaymentLinkService invoicePaymentLinkService;
     private final TempTokenService tempTokenService;
     private final PlanService planService;
     private final InventoryService inventoryService;
@@ -70,8 +69,9 @@ public class InvoiceService {
             ClientRepository clientRepository,
             UserCompanyService userCompanyService,
             InvoiceMapper invoiceMapper, ClientMapper clientMapper, InvoiceItemMapper invoiceItemMapper,
-            QuoteRepository quoteRepository, SequenceConfigRepository sequenceConfigRepository,
-            PdfService pdfService, ObjectMapper objectMapper, EmailService emailService, StripeService stripeService,
+            QuoteRepository quoteRepository, SequenceAllocator sequenceAllocator,
+            PdfService pdfService, CompanyLogoService companyLogoService, ObjectMapper objectMapper, EmailService emailService,
+            InvoicePaymentLinkService invoicePaymentLinkService,
             TempTokenService tempTokenService, PlanService planService, InventoryService inventoryService,
             ProductItemRepository productItemRepository, ServiceItemRepository serviceItemRepository) {
         this.invoiceRepository = invoiceRepository;
@@ -82,11 +82,12 @@ public class InvoiceService {
         this.clientMapper = clientMapper;
         this.invoiceItemMapper = invoiceItemMapper;
         this.quoteRepository = quoteRepository;
-        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.sequenceAllocator = sequenceAllocator;
         this.pdfService = pdfService;
+        this.companyLogoService = companyLogoService;
         this.objectMapper = objectMapper;
         this.emailService = emailService;
-        this.stripeService = stripeService;
+        this.invoicePaymentLinkService = invoicePaymentLinkService;
         this.tempTokenService = tempTokenService;
         this.planService = planService;
         this.inventoryService = inventoryService;
@@ -97,18 +98,24 @@ public class InvoiceService {
     public InvoiceDto createUpdate(Long companyId, InvoiceDto invoiceDto, final User user) {
         logger.info("Creating invoice for company with id: {}", companyId);
 
+        java.time.LocalDateTime existingCreatedDate = null;
         if (invoiceDto.getId() != null) {
-            invoiceRepository.findById(invoiceDto.getId()).ifPresent(existingInvoice -> {
+            Optional<Invoice> existing = invoiceRepository.findById(invoiceDto.getId());
+            if (existing.isPresent()) {
+                Invoice existingInvoice = existing.get();
                 if (existingInvoice.getStatus() == Invoice.InvoiceStatus.PAID ||
                         existingInvoice.getStatus() == Invoice.InvoiceStatus.SENT ||
                         existingInvoice.getStatus() == Invoice.InvoiceStatus.CANCELLED) {
                     throw new IllegalStateException(
                             "Invoices that are " + existingInvoice.getStatus() + " cannot be modified");
                 }
-            });
+                existingCreatedDate = existingInvoice.getCreatedDate();
+            }
         }
 
         Invoice invoice = invoiceMapper.toEntity(invoiceDto);
+        // The mapper ignores createdDate; keep it so the invoice stays in its original month in the stats
+        invoice.setCreatedDate(existingCreatedDate);
 
         // this is a new invoice
         if (invoice.getId() == null && StringUtils.isBlank(invoice.getInvoiceNumber())) {
@@ -123,10 +130,10 @@ public class InvoiceService {
 
             // Default dates if missing
             if (invoice.getInvoiceDate() == null) {
-                invoice.setInvoiceDate(java.time.LocalDate.now().toString());
+                invoice.setInvoiceDate(java.time.LocalDate.now());
             }
             if (invoice.getDueDate() == null) {
-                invoice.setDueDate(java.time.LocalDate.now().plusDays(14).toString());
+                invoice.setDueDate(java.time.LocalDate.now().plusDays(14));
             }
         }
 
@@ -165,7 +172,7 @@ public class InvoiceService {
             if (invoice.getNextRecurringDate() == null) {
                 // Use issue date as the base for recurring calculations
                 java.time.LocalDate issueDate = invoice.getInvoiceDate() != null
-                    ? java.time.LocalDate.parse(invoice.getInvoiceDate())
+                    ? invoice.getInvoiceDate()
                     : java.time.LocalDate.now();
                 invoice.setNextRecurringDate(
                     RecurringInvoiceScheduler.calculateNextRecurringDate(
@@ -180,8 +187,9 @@ public class InvoiceService {
         }
 
         invoice = invoiceRepository.save(invoice);
+        pdfService.evictDocument("invoice_pdf", invoice.getId());
         InvoiceDto savedInvoiceDto = invoiceMapper.toDto(invoice, false);
-        savedInvoiceDto.setPaymentLink(generatePaymentLink(invoice));
+        savedInvoiceDto.setPaymentLink(invoicePaymentLinkService.getPaymentLink(invoice));
         return savedInvoiceDto;
     }
 
@@ -212,8 +220,8 @@ public class InvoiceService {
         invoice.setInvoiceNumber(generateInvoiceSequence(companyId));
 
         // Default dates
-        invoice.setInvoiceDate(java.time.LocalDate.now().toString());
-        invoice.setDueDate(java.time.LocalDate.now().plusDays(14).toString()); // Default 14 days
+        invoice.setInvoiceDate(java.time.LocalDate.now());
+        invoice.setDueDate(java.time.LocalDate.now().plusDays(14)); // Default 14 days
 
         invoice.setStatus(Invoice.InvoiceStatus.DRAFT);
         invoice.setTotalPrice(quote.getTotalPrice());
@@ -292,46 +300,21 @@ public class InvoiceService {
     }
 
     private String generateInvoiceSequence(Long companyId) {
-        // Fetch the SequenceConfig with pessimistic lock to prevent race conditions
-        Optional<SequenceConfig> sequenceConfigOptional = sequenceConfigRepository
-                .findByEntityTypeAndCompanyIdForUpdate(SequenceConfig.EntityType.INVOICE, companyId);
-
-        if (!sequenceConfigOptional.isPresent()) {
-            throw new IllegalStateException("Sequence configuration not found for INVOICE and company ID: "
-                    + companyId + " please configure the sequence configuration for your Invoice");
-        }
-
-        SequenceConfig sequenceConfig = sequenceConfigOptional.get();
-        Integer currentNumber = sequenceConfig.getCurrentNumber();
-
-        int newInvoiceSequence = currentNumber + 1;
-
-        // Generate the new invoice number with date placeholders and padding
-        String newInvoiceNumber = io.quickledger.utils.SequenceNumberFormatter.format(
-                sequenceConfig.getPrefix(),
-                newInvoiceSequence,
-                sequenceConfig.getPostfix(),
-                sequenceConfig.getNumberPadding(),
-                java.time.LocalDate.now());
-
-        // Update the current number in the database
-        sequenceConfig.setCurrentNumber(newInvoiceSequence);
-        sequenceConfigRepository.save(sequenceConfig);
-
-        return newInvoiceNumber;
+        // Allocated in its own short transaction, so the sequence row is not locked while the
+        // client, items and payment link are saved
+        return sequenceAllocator.next(SequenceConfig.EntityType.INVOICE, companyId, java.time.LocalDate.now());
     }
 
     public Page<InvoiceDto> getAllInvoices(Long companyId, boolean lazy, Pageable pageable, User user) {
         userCompanyService.checkUserBelongs(user, companyId);
+        if (lazy) {
+            // Header columns and client details in one query, no entities or items
+            return invoiceRepository.findSummariesByCompanyId(companyId, pageable).map(invoiceMapper::toDto);
+        }
         Page<Invoice> invoices = invoiceRepository.findAllByCompanyIdOrderByCreatedDateDesc(companyId, pageable);
         return invoices.map(invoice -> invoiceMapper.toDto(invoice, lazy));
     }
 
-    public List<InvoiceDto> searchInvoice(Long companyId, String searchTerm, boolean lazy) {
-        List<Invoice> invoices = invoiceRepository.searchInvoice(companyId, searchTerm);
-        return invoices.stream().map(i -> invoiceMapper.toDto(i, lazy)).collect(java.util.stream.Collectors.toList());
-    }
-
     public InvoiceDto getInvoiceById(Long companyId, Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new EntityNotFoundException("Invoice not found with id: " + invoiceId));
@@ -341,7 +324,7 @@ public class InvoiceService {
         }
 
         InvoiceDto invoiceDto = invoiceMapper.toDto(invoice, false);
-        invoiceDto.setPaymentLink(generatePaymentLink(invoice));
+        invoiceDto.setPaymentLink(invoicePaymentLinkService.getPaymentLink(invoice));
         return invoiceDto;
     }
 
@@ -358,6 +341,8 @@ public class InvoiceService {
         }
 
         invoiceRepository.delete(invoice);
+        pdfService.evictDocument("invoice_pdf", invoiceId);
+        invoicePaymentLinkService.invalidate(invoiceId);
     }
 
     @Transactional(readOnly = true)
@@ -396,8 +381,8 @@ public class InvoiceService {
         }
 
         // Add company logo if available
-        if (company.getImage() != null && company.getImage().length > 0) {
-            String logoBase64 = Base64.getEncoder().encodeToString(company.getImage());
+        String logoBase64 = companyLogoService.getLogoBase64(company);
+        if (logoBase64 != null) {
             variables.put("companyLogoBase64", logoBase64);
 
             // Use content type if available, otherwise default to image/png
@@ -417,7 +402,7 @@ public class InvoiceService {
         }
 
         // Add Stripe Payment Link if connected
-        String paymentLink = generatePaymentLink(invoice);
+        String paymentLink = invoicePaymentLinkService.getPaymentLink(invoice);
         if (paymentLink != null) {
             variables.put("paymentLink", paymentLink);
         } else {
@@ -425,7 +410,7 @@ public class InvoiceService {
                     invoiceId, company.getStripeConnectedAccountId() != null, company.isStripeChargesEnabled());
         }
 
-        return pdfService.generatePdfFromHtml("invoice_pdf", variables);
+        return pdfService.generatePdfFromHtml("invoice_pdf", variables, companyId, invoiceId);
     }
 
     @Transactional
@@ -461,7 +446,7 @@ public class InvoiceService {
         emailBody.append("<strong>Due Date:</strong> ").append(invoice.getDueDate()).append("</p>");
 
         // Generate Stripe Payment Link if company is connected
-        String paymentLink = generatePaymentLink(invoice);
+        String paymentLink = invoicePaymentLinkService.getPaymentLink(invoice);
         if (paymentLink != null) {
             emailBody.append("<p>You can pay securely online by clicking the button below:</p>");
             emailBody.append("<a href=\"").append(paymentLink)
@@ -530,7 +515,7 @@ public class InvoiceService {
         }
 
         InvoiceDto invoiceDto = invoiceMapper.toDto(invoice, false);
-        invoiceDto.setPaymentLink(generatePaymentLink(invoice));
+        invoiceDto.setPaymentLink(invoicePaymentLinkService.getPaymentLink(invoice));
         return invoiceDto;
     }
 
@@ -597,34 +582,4 @@ public class InvoiceService {
         invoice.setTotalPrice(finalTotal);
         invoice.setGst(totalGst);
     }
-
-    private String generatePaymentLink(Invoice invoice) {
-        Company company = invoice.getCompany();
-        if (company.getStripeConnectedAccountId() != null
-                && company.isStripeChargesEnabled()) {
-            try {
-                long amountCents = invoice.getTotalPrice().multiply(java.math.BigDecimal.valueOf(100)).longValue();
-                String successUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=success";
-                String cancelUrl = applicationFrontendUrl + "/invoices/" + invoice.getId() + "?payment=cancel";
-
-                return stripeService.createInvoicePaymentSession(
-                        invoice.getId(),
-                        amountCents,
-                        "aud",
-                        "Invoice #" + invoice.getInvoiceNumber(),
-                        company.getId(),
-                        invoice.getClient().getEmail(),
-                        successUrl,
-                        cancelUrl);
-            } catch (Exception e) {
-                logger.error("Failed to generate payment link for invoice " + invoice.getId(), e);
-            }
-        } else {
-            logger.debug("Stripe not fully enabled for company {}. AccountId present: {}, Charges Enabled: {}",
-                    company.getId(),
-                    company.getStripeConnectedAccountId() != null,
-                    company.isStripeChargesEnabled());
-        }
-        return null;
-    }
 }
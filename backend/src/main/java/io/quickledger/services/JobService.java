@@ -11,7 +11,6 @@ import io.quickledger.entities.quote.Quote;
 import io.quickledger.mappers.job.*;
 import io.quickledger.repositories.ClientRepository;
 import io.quickledger.repositories.InvoiceRepository;
-import io.quickledger.repositories.SequenceConfigRepository;
 import io.quickledger.repositories.job.*;
 import io.quickledger.repositories.quote.QuoteRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -22,8 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,10 +38,11 @@ public class JobService {
     private final QuoteRepository quoteRepository;
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
-    private final SequenceConfigRepository sequenceConfigRepository;
+    private final SequenceAllocator sequenceAllocator;
     private final JobMapper jobMapper;
     private final JobNoteMapper noteMapper;
     private final JobAttachmentMapper attachmentMapper;
+    private final AttachmentStorageService attachmentStorageService;
     private final JobTimeEntryMapper timeEntryMapper;
     private final PlanService planService;
 
@@ -53,10 +54,11 @@ public class JobService {
             QuoteRepository quoteRepository,
             InvoiceRepository invoiceRepository,
             ClientRepository clientRepository,
-            SequenceConfigRepository sequenceConfigRepository,
+            SequenceAllocator sequenceAllocator,
             JobMapper jobMapper,
             JobNoteMapper noteMapper,
             JobAttachmentMapper attachmentMapper,
+            AttachmentStorageService attachmentStorageService,
             JobTimeEntryMapper timeEntryMapper,
             PlanService planService) {
         this.jobRepository = jobRepository;
@@ -66,10 +68,11 @@ public class JobService {
         this.quoteRepository = quoteRepository;
         this.invoiceRepository = invoiceRepository;
         this.clientRepository = clientRepository;
-        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.sequenceAllocator = sequenceAllocator;
         this.jobMapper = jobMapper;
         this.noteMapper = noteMapper;
         this.attachmentMapper = attachmentMapper;
+        this.attachmentStorageService = attachmentStorageService;
         this.timeEntryMapper = timeEntryMapper;
         this.planService = planService;
     }
@@ -112,38 +115,8 @@ public class JobService {
     }
 
     private String generateJobNumber(Long companyId) {
-        Optional<SequenceConfig> sequenceConfigOptional = sequenceConfigRepository
-                .findByEntityTypeAndCompanyIdForUpdate(SequenceConfig.EntityType.JOB, companyId);
-
-        if (sequenceConfigOptional.isEmpty()) {
-            // Create default sequence config for JOB if not exists
-            SequenceConfig config = new SequenceConfig();
-            config.setEntityType(SequenceConfig.EntityType.JOB);
-            config.setCompanyId(companyId);
-            config.setPrefix("JOB-");
-            config.setPostfix("");
-            config.setCurrentNumber(0);
-            config.setNumberPadding(4);
-            sequenceConfigRepository.save(config);
-
-            return "JOB-0001";
-        }
-
-        SequenceConfig sequenceConfig = sequenceConfigOptional.get();
-        Integer currentNumber = sequenceConfig.getCurrentNumber();
-        int newJobSequence = currentNumber + 1;
-
-        String newJobNumber = io.quickledger.utils.SequenceNumberFormatter.format(
-                sequenceConfig.getPrefix(),
-                newJobSequence,
-                sequenceConfig.getPostfix(),
-                sequenceConfig.getNumberPadding(),
-                LocalDate.now());
-
-        sequenceConfig.setCurrentNumber(newJobSequence);
-        sequenceConfigRepository.save(sequenceConfig);
-
-        return newJobNumber;
+        // The allocator creates the default JOB- sequence on first use
+        return sequenceAllocator.next(SequenceConfig.EntityType.JOB, companyId, LocalDate.now());
     }
 
     public Page<JobDto> getAllJobs(Long companyId, Pageable pageable) {
@@ -198,7 +171,7 @@ public class JobService {
     // Attachments
     @Transactional
     public JobAttachmentDto uploadAttachment(Long jobId, Long companyId,
-            String fileName, String contentType, byte[] data, long size, User user) {
+            String fileName, String contentType, InputStream content, User user) throws IOException {
         validateJobAccess(user);
         Job job = jobRepository.findByIdAndCompanyId(jobId, companyId)
                 .orElseThrow(() -> new EntityNotFoundException("Job not found"));
@@ -208,8 +181,7 @@ public class JobService {
         attachment.setCompany(job.getCompany());
         attachment.setFileName(fileName);
         attachment.setContentType(contentType);
-        attachment.setData(data);
-        attachment.setSize(size);
+        attachmentStorageService.store(attachment, content);
 
         attachment = attachmentRepository.save(attachment);
         return attachmentMapper.toDto(attachment);
@@ -0,0 +1,80 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.inventory.LowStockAlertDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of low-stock alert pages per company. Stock movements on this instance evict
+ * their company once they commit; the TTL bounds how long a page can lag behind movements
+ * recorded by other instances.
+ */
+@Component
+public class LowStockAlertCache {
+
+    private final long ttlMillis;
+    private final int maxCompanies;
+
+    // Access-ordered, so the eldest entry is the company whose alerts were read least recently
+    private final LinkedHashMap<Long, CompanyPages> byCompany = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LowStockAlertCache(@Value("${inventory.low-stock-cache.ttl-seconds:30}") long ttlSeconds,
+                              @Value("${inventory.low-stock-cache.max-companies:1000}") int maxCompanies) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxCompanies = maxCompanies;
+    }
+
+    public Page<LowStockAlertDto> get(Long companyId, int page, int size, Supplier<Page<LowStockAlertDto>> loader) {
+        if (ttlMillis <= 0) {
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        String key = page + ":" + size;
+        CompanyPages pages;
+        synchronized (byCompany) {
+            pages = byCompany.get(companyId);
+            if (pages == null || pages.expiresAt <= now) {
+                pages = new CompanyPages(now + ttlMillis);
+                byCompany.put(companyId, pages);
+                while (byCompany.size() > maxCompanies) {
+                    byCompany.remove(byCompany.keySet().iterator().next());
+                }
+            } else {
+                Page<LowStockAlertDto> cached = pages.pages.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        Page<LowStockAlertDto> loaded = loader.get();
+        synchronized (byCompany) {
+            // If the company was evicted while loading, the page may predate that movement
+            if (byCompany.get(companyId) == pages) {
+                pages.pages.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void evict(Long companyId) {
+        synchronized (byCompany) {
+            byCompany.remove(companyId);
+        }
+    }
+
+    private static final class CompanyPages {
+        private final long expiresAt;
+        private final Map<String, Page<LowStockAlertDto>> pages = new HashMap<>();
+
+        private CompanyPages(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.quickledger.services;
+
+import io.quickledger.config.PdfCacheProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier (memory + disk) cache of rendered PDFs, keyed by a SHA-256 of the
+ * template name and the fully rendered HTML. Because the key is derived from the
+ * content, an unchanged document always maps to the same entry and a changed one
+ * can never be served stale; the owner/company indexes only exist so that old
+ * renderings are freed as soon as a document or its company branding changes
+ * instead of waiting for LRU eviction.
+ */
+@Component
+public class PdfRenderCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfRenderCache.class);
+    private static final String FILE_SUFFIX = ".pdf";
+
+    private final PdfCacheProperties properties;
+    private final Object lock = new Object();
+
+    // Both tiers are access-ordered so the eldest entry is always the least recently used
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    // owner is "<template>:<documentId>", e.g. "invoice_pdf:42"
+    private final Map<String, Set<String>> hashesByOwner = new HashMap<>();
+    private final Map<Long, Set<String>> ownersByCompany = new HashMap<>();
+
+    private Path directory;
+
+    public PdfRenderCache(PdfCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            directory = Paths.get(properties.getDiskDirectory());
+            Files.createDirectories(directory);
+
+            // Entries on disk are content-addressed so they are still valid after a restart
+            List<Path> existing;
+            try (Stream<Path> files = Files.list(directory)) {
+                existing = files.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX))
+                        .sorted(Comparator.comparingLong(this::lastModified))
+                        .toList();
+            }
+            List<Path> evicted = new ArrayList<>();
+            synchronized (lock) {
+                for (Path file : existing) {
+                    String name = file.getFileName().toString();
+                    long size = Files.size(file);
+                    disk.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                    diskBytes += size;
+                }
+                evictDiskOverBudget(evicted);
+            }
+            deleteFiles(evicted);
+            logger.info("PDF render cache initialised at {} with {} entries ({} bytes)",
+                    directory, disk.size(), diskBytes);
+        } catch (IOException e) {
+            logger.error("Failed to initialise PDF disk cache at {}, continuing with memory only",
+                    properties.getDiskDirectory(), e);
+            directory = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public static String owner(String templateName, Long documentId) {
+        return templateName + ":" + documentId;
+    }
+
+    public static String contentHash(String templateName, String html) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(templateName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(html.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public byte[] get(String hash) {
+        synchronized (lock) {
+            byte[] pdf = memory.get(hash);
+            if (pdf != null) {
+                // Keep the disk copy from being evicted as least recently used while it is hot
+                disk.get(hash);
+                return pdf;
+            }
+            if (directory == null || disk.get(hash) == null) {
+                return null;
+            }
+        }
+
+        byte[] pdf;
+        try {
+            pdf = Files.readAllBytes(fileFor(hash));
+        } catch (IOException e) {
+            // Evicted or removed underneath us, treat as a miss
+            synchronized (lock) {
+                Long size = disk.remove(hash);
+                if (size != null) {
+                    diskBytes -= size;
+                }
+            }
+            return null;
+        }
+
+        synchronized (lock) {
+            putInMemory(hash, pdf);
+        }
+        return pdf;
+    }
+
+    public void put(String owner, Long companyId, String hash, byte[] pdf) {
+        boolean writeToDisk;
+        Set<String> superseded;
+        synchronized (lock) {
+            // A document only ever needs its latest rendering, anything older is stale
+            Set<String> previous = hashesByOwner.put(owner, new HashSet<>(Set.of(hash)));
+            superseded = previous != null ? previous : new HashSet<>();
+            superseded.remove(hash);
+            if (companyId != null) {
+                ownersByCompany.computeIfAbsent(companyId, id -> new HashSet<>()).add(owner);
+            }
+            putInMemory(hash, pdf);
+            writeToDisk = directory != null && !disk.containsKey(hash) && pdf.length <= properties.getDiskMaxBytes();
+        }
+
+        if (writeToDisk) {
+            try {
+                Path target = fileFor(hash);
+                Path tmp = Files.createTempFile(directory, hash, ".tmp");
+                Files.write(tmp, pdf);
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                List<Path> evicted = new ArrayList<>();
+                synchronized (lock) {
+                    if (disk.put(hash, (long) pdf.length) == null) {
+                        diskBytes += pdf.length;
+                    }
+                    evictDiskOverBudget(evicted);
+                }
+                deleteFiles(evicted);
+            } catch (IOException e) {
+                logger.warn("Failed to write PDF {} to disk cache: {}", hash, e.getMessage());
+            }
+        }
+
+        removeHashes(superseded);
+    }
+
+    public void invalidate(String owner) {
+        Set<String> hashes;
+        synchronized (lock) {
+            hashes = hashesByOwner.remove(owner);
+        }
+        if (hashes != null) {
+            removeHashes(hashes);
+        }
+    }
+
+    public void invalidateCompany(Long companyId) {
+        Set<String> owners;
+        synchronized (lock) {
+            owners = ownersByCompany.remove(companyId);
+        }
+        if (owners == null) {
+            return;
+        }
+        for (String owner : owners) {
+            invalidate(owner);
+        }
+        logger.debug("Invalidated {} cached PDFs for company {}", owners.size(), companyId);
+    }
+
+    private void removeHashes(Set<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        List<Path> evicted = new ArrayList<>();
+        synchronized (lock) {
+            for (String hash : hashes) {
+                byte[] pdf = memory.remove(hash);
+                if (pdf != null) {
+                    memoryBytes -= pdf.length;
+                }
+                Long size = disk.remove(hash);
+                if (size != null) {
+                    diskBytes -= size;
+                    evicted.add(fileFor(hash));
+                }
+            }
+        }
+        deleteFiles(evicted);
+    }
+
+    // Must hold lock
+    private void putInMemory(String hash, byte[] pdf) {
+        if (pdf.length > properties.getMemoryMaxBytes()) {
+            return;
+        }
+        byte[] previous = memory.put(hash, pdf);
+        memoryBytes += pdf.length - (previous != null ? previous.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> it = memory.entrySet().iterator();
+        while (memoryBytes > properties.getMemoryMaxBytes() && it.hasNext()) {
+            memoryBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    // Must hold lock; files are deleted by the caller once the lock is released
+    private void evictDiskOverBudget(List<Path> evicted) {
+        Iterator<Map.Entry<String, Long>> it = disk.entrySet().iterator();
+        while (diskBytes > properties.getDiskMaxBytes() && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            diskBytes -= eldest.getValue();
+            evicted.add(fileFor(eldest.getKey()));
+            it.remove();
+        }
+    }
+
+    private void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete cached PDF {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Path fileFor(String hash) {
+        return directory.resolve(hash + FILE_SUFFIX);
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -12,16 +12,55 @@ import java.util.Map;
 public class PdfService {
 
     private final TemplateEngine templateEngine;
+    private final PdfRenderCache pdfRenderCache;
 
-    public PdfService(TemplateEngine templateEngine) {
+    public PdfService(TemplateEngine templateEngine, PdfRenderCache pdfRenderCache) {
         this.templateEngine = templateEngine;
+        this.pdfRenderCache = pdfRenderCache;
     }
 
     public byte[] generatePdfFromHtml(String templateName, Map<String, Object> variables) {
+        return renderPdf(renderHtml(templateName, variables));
+    }
+
+    /**
+     * Same as {@link #generatePdfFromHtml(String, Map)} but serves the PDF from the render cache
+     * when the rendered HTML is unchanged. Layout is by far the expensive part, so the HTML is
+     * always rendered and used as the cache key.
+     */
+    public byte[] generatePdfFromHtml(String templateName, Map<String, Object> variables, Long companyId,
+            Long documentId) {
+        String htmlContent = renderHtml(templateName, variables);
+        if (!pdfRenderCache.isEnabled()) {
+            return renderPdf(htmlContent);
+        }
+
+        String hash = PdfRenderCache.contentHash(templateName, htmlContent);
+        byte[] cached = pdfRenderCache.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] pdf = renderPdf(htmlContent);
+        pdfRenderCache.put(PdfRenderCache.owner(templateName, documentId), companyId, hash, pdf);
+        return pdf;
+    }
+
+    public void evictDocument(String templateName, Long documentId) {
+        pdfRenderCache.invalidate(PdfRenderCache.owner(templateName, documentId));
+    }
+
+    public void evictCompany(Long companyId) {
+        pdfRenderCache.invalidateCompany(companyId);
+    }
+
+    private String renderHtml(String templateName, Map<String, Object> variables) {
         Context context = new Context();
         context.setVariables(variables);
-        String htmlContent = templateEngine.process(templateName, context);
+        return templateEngine.process(templateName, context);
+    }
 
+    private byte[] renderPdf(String htmlContent) {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
             ITextRenderer renderer = new ITextRenderer();
             renderer.setDocumentFromString(htmlContent);
@@ -6,6 +6,7 @@ import io.quickledger.dto.purchaseorder.ReceiveItemsDto;
 import io.quickledger.entities.Company;
 import io.quickledger.entities.SequenceConfig;
 import io.quickledger.entities.User;
+import io.quickledger.entities.inventory.StockMovement;
 import io.quickledger.entities.inventory.StockMovement.MovementType;
 import io.quickledger.entities.inventory.StockMovement.ReferenceType;
 import io.quickledger.entities.product.ProductItem;
@@ -14,7 +15,6 @@ import io.quickledger.entities.purchaseorder.PurchaseOrder.PurchaseOrderStatus;
 import io.quickledger.entities.purchaseorder.PurchaseOrderItem;
 import io.quickledger.entities.supplier.Supplier;
 import io.quickledger.mappers.purchaseorder.PurchaseOrderMapper;
-import io.quickledger.repositories.SequenceConfigRepository;
 import io.quickledger.repositories.product.ProductItemRepository;
 import io.quickledger.repositories.purchaseorder.PurchaseOrderRepository;
 import io.quickledger.repositories.supplier.SupplierRepository;
@@ -30,7 +30,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class PurchaseOrderService {
@@ -40,7 +39,7 @@ public class PurchaseOrderService {
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final SupplierRepository supplierRepository;
     private final ProductItemRepository productItemRepository;
-    private final SequenceConfigRepository sequenceConfigRepository;
+    private final SequenceAllocator sequenceAllocator;
     private final PurchaseOrderMapper purchaseOrderMapper;
     private final InventoryService inventoryService;
     private final PlanService planService;
@@ -49,14 +48,14 @@ public class PurchaseOrderService {
             PurchaseOrderRepository purchaseOrderRepository,
             SupplierRepository supplierRepository,
             ProductItemRepository productItemRepository,
-            SequenceConfigRepository sequenceConfigRepository,
+            SequenceAllocator sequenceAllocator,
             PurchaseOrderMapper purchaseOrderMapper,
             InventoryService inventoryService,
             PlanService planService) {
         this.purchaseOrderRepository = purchaseOrderRepository;
         this.supplierRepository = supplierRepository;
         this.productItemRepository = productItemRepository;
-        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.sequenceAllocator = sequenceAllocator;
         this.purchaseOrderMapper = purchaseOrderMapper;
         this.inventoryService = inventoryService;
         this.planService = planService;
@@ -196,6 +195,7 @@ public class PurchaseOrderService {
             throw new IllegalStateException("Cannot receive items for " + po.getStatus() + " purchase orders");
         }
 
+        List<StockMovement> movements = new ArrayList<>();
         for (ReceiveItemsDto.ReceiveItemDto receiveItem : dto.getItems()) {
             PurchaseOrderItem poItem = po.getItems().stream()
                     .filter(item -> item.getId().equals(receiveItem.getPurchaseOrderItemId()))
@@ -212,7 +212,7 @@ public class PurchaseOrderService {
 
             // Update inventory
             if (Boolean.TRUE.equals(poItem.getProductItem().getTrackInventory())) {
-                inventoryService.recordStockMovement(
+                movements.add(inventoryService.newMovement(
                         poItem.getProductItem(),
                         MovementType.PURCHASE,
                         receiveItem.getQuantityReceived(), // Positive for incoming
@@ -221,9 +221,10 @@ public class PurchaseOrderService {
                         po.getPoNumber(),
                         dto.getNotes(),
                         po.getCompany()
-                );
+                ));
             }
         }
+        inventoryService.recordStockMovements(movements);
 
         // Update PO status
         updatePOStatus(po);
@@ -274,36 +275,7 @@ public class PurchaseOrderService {
     }
 
     private String generatePOSequence(Long companyId) {
-        Optional<SequenceConfig> sequenceConfigOptional = sequenceConfigRepository
-                .findByEntityTypeAndCompanyIdForUpdate(SequenceConfig.EntityType.PURCHASE_ORDER, companyId);
-
-        SequenceConfig sequenceConfig;
-        if (!sequenceConfigOptional.isPresent()) {
-            // Create default sequence config for purchase orders
-            sequenceConfig = new SequenceConfig();
-            sequenceConfig.setEntityType(SequenceConfig.EntityType.PURCHASE_ORDER);
-            sequenceConfig.setCompanyId(companyId);
-            sequenceConfig.setPrefix("PO-");
-            sequenceConfig.setPostfix("");
-            sequenceConfig.setCurrentNumber(0);
-            sequenceConfig.setNumberPadding(4);
-            sequenceConfig = sequenceConfigRepository.save(sequenceConfig);
-        } else {
-            sequenceConfig = sequenceConfigOptional.get();
-        }
-
-        int newSequence = sequenceConfig.getCurrentNumber() + 1;
-
-        String newPONumber = io.quickledger.utils.SequenceNumberFormatter.format(
-                sequenceConfig.getPrefix(),
-                newSequence,
-                sequenceConfig.getPostfix(),
-                sequenceConfig.getNumberPadding(),
-                LocalDate.now());
-
-        sequenceConfig.setCurrentNumber(newSequence);
-        sequenceConfigRepository.save(sequenceConfig);
-
-        return newPONumber;
+        // The allocator creates the default PO- sequence on first use
+        return sequenceAllocator.next(SequenceConfig.EntityType.PURCHASE_ORDER, companyId, LocalDate.now());
     }
 }
@@ -0,0 +1,187 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.quote.QuoteDto;
+import io.quickledger.dto.quote.QuoteItemDto;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto.FieldChange;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto.ItemChange;
+import io.quickledger.entities.User;
+import io.quickledger.entities.quote.Quote;
+import io.quickledger.mappers.quote.QuoteMapper;
+import io.quickledger.repositories.quote.QuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Revision bookkeeping for quotes. Each quote number keeps exactly one row flagged as its latest
+ * revision, so the quote list filters on the flag instead of grouping every quote number to find
+ * its highest revision. The history of a quote number is served as deltas between consecutive
+ * revisions rather than as full copies.
+ */
+@Service
+public class QuoteRevisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteRevisionService.class);
+
+    private static final String REFRESH_SQL = """
+            UPDATE quotes q
+            JOIN (SELECT company_id, quote_number, MAX(quote_revision) AS max_revision
+                  FROM quotes GROUP BY company_id, quote_number) latest
+              ON latest.company_id = q.company_id AND latest.quote_number = q.quote_number
+            SET q.latest_revision = (q.quote_revision <=> latest.max_revision)
+            WHERE q.latest_revision <> (q.quote_revision <=> latest.max_revision)
+            """;
+
+    private final QuoteRepository quoteRepository;
+    private final QuoteMapper quoteMapper;
+    private final UserCompanyService userCompanyService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuoteRevisionService(QuoteRepository quoteRepository, QuoteMapper quoteMapper,
+            UserCompanyService userCompanyService, JdbcTemplate jdbcTemplate) {
+        this.quoteRepository = quoteRepository;
+        this.quoteMapper = quoteMapper;
+        this.userCompanyService = userCompanyService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Flags the highest revision of the quote number as latest and clears the flag on the others.
+     * Call after saving or deleting a revision, in the same transaction.
+     *
+     * @return the id of the latest revision, or null if the quote number has no revisions left
+     */
+    @Transactional
+    public Long markLatest(Long companyId, String quoteNumber) {
+        if (companyId == null || quoteNumber == null) {
+            return null;
+        }
+        List<Long> newest = quoteRepository.findRevisionIdsNewestFirst(companyId, quoteNumber, PageRequest.of(0, 1));
+        if (newest.isEmpty()) {
+            return null;
+        }
+        quoteRepository.markLatestRevision(companyId, quoteNumber, newest.get(0));
+        return newest.get(0);
+    }
+
+    /**
+     * Every revision of a quote number, oldest first, each as its changes from the one before.
+     */
+    @Transactional(readOnly = true)
+    public List<QuoteRevisionDeltaDto> history(Long companyId, String quoteNumber, User user) {
+        userCompanyService.checkUserBelongs(user, companyId);
+        List<Quote> revisions = quoteRepository.findRevisionsOldestFirst(companyId, quoteNumber);
+        List<QuoteRevisionDeltaDto> deltas = new ArrayList<>(revisions.size());
+        QuoteDto previous = new QuoteDto();
+        for (Quote revision : revisions) {
+            QuoteDto current = quoteMapper.toDto(revision, true);
+            current.setQuoteItems(quoteMapper.toItemDtos(revision.getQuoteItems()));
+            deltas.add(delta(previous, current));
+            previous = current;
+        }
+        return deltas;
+    }
+
+    /**
+     * Brings the latest-revision flags in line with the stored revisions, e.g. after the column
+     * was added or revisions were edited outside of the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshLatestRevisionFlags() {
+        try {
+            int changed = jdbcTemplate.update(REFRESH_SQL);
+            if (changed > 0) {
+                logger.info("Updated the latest-revision flag of {} quotes", changed);
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing quote latest-revision flags", e);
+        }
+    }
+
+    static QuoteRevisionDeltaDto delta(QuoteDto previous, QuoteDto current) {
+        QuoteRevisionDeltaDto delta = new QuoteRevisionDeltaDto(current.getId(), current.getQuoteRevision(),
+                current.getStatus());
+        List<FieldChange> changes = delta.getChanges();
+        compare(changes, "clientId", previous, current, QuoteDto::getClientId);
+        compare(changes, "quoteDate", previous, current, QuoteDto::getQuoteDate);
+        compare(changes, "expiryDate", previous, current, QuoteDto::getExpiryDate);
+        compare(changes, "notes", previous, current, QuoteDto::getNotes);
+        compare(changes, "discountType", previous, current, QuoteDto::getDiscountType);
+        compare(changes, "discountValue", previous, current, QuoteDto::getDiscountValue);
+        compare(changes, "totalPrice", previous, current, QuoteDto::getTotalPrice);
+        compare(changes, "gst", previous, current, QuoteDto::getGst);
+
+        // Previous items by line, in item order, so repeated lines pair up in order
+        Map<ItemKey, Deque<QuoteItemDto>> unmatched = new LinkedHashMap<>();
+        for (QuoteItemDto item : ordered(previous.getQuoteItems())) {
+            unmatched.computeIfAbsent(ItemKey.of(item), key -> new ArrayDeque<>()).add(item);
+        }
+        for (QuoteItemDto item : ordered(current.getQuoteItems())) {
+            Deque<QuoteItemDto> candidates = unmatched.get(ItemKey.of(item));
+            QuoteItemDto before = candidates == null ? null : candidates.poll();
+            if (before == null) {
+                delta.getAddedItems().add(item);
+                continue;
+            }
+            List<FieldChange> itemChanges = new ArrayList<>();
+            compare(itemChanges, "quantity", before, item, QuoteItemDto::getQuantity);
+            compare(itemChanges, "price", before, item, QuoteItemDto::getPrice);
+            compare(itemChanges, "gst", before, item, QuoteItemDto::getGst);
+            compare(itemChanges, "total", before, item, QuoteItemDto::getTotal);
+            if (!itemChanges.isEmpty()) {
+                delta.getChangedItems().add(new ItemChange(item, itemChanges));
+            }
+        }
+        unmatched.values().forEach(delta.getRemovedItems()::addAll);
+        return delta;
+    }
+
+    private static <T> void compare(List<FieldChange> changes, String field, T previous, T current,
+            Function<T, Object> getter) {
+        Object from = getter.apply(previous);
+        Object to = getter.apply(current);
+        if (!sameValue(from, to)) {
+            changes.add(new FieldChange(field, from, to));
+        }
+    }
+
+    // 10 and 10.00 are the same amount
+    private static boolean sameValue(Object from, Object to) {
+        if (from instanceof BigDecimal a && to instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(from, to);
+    }
+
+    private static List<QuoteItemDto> ordered(List<QuoteItemDto> items) {
+        if (items == null) {
+            return List.of();
+        }
+        return items.stream().sorted(Comparator.comparingInt(QuoteItemDto::getItemOrder)).toList();
+    }
+
+    private record ItemKey(Long productItemId, Long serviceItemId, String code, String description) {
+
+        static ItemKey of(QuoteItemDto item) {
+            return new ItemKey(item.getProductItemId(), item.getServiceItemId(), item.getCode(),
+                    item.getItemDescription());
+        }
+    }
+}
@@ -23,11 +23,16 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,14 +52,17 @@ public class QuoteService {
     private final QuoteItemMapper quoteItemMapper;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
-    private final SequenceConfigRepository sequenceConfigRepository;
+    private final SequenceAllocator sequenceAllocator;
+    private final QuoteRevisionService quoteRevisionService;
     private final ClientService clientService;
     private final TempTokenService tempTokenService;
     private final PdfService pdfService;
+    private final CompanyLogoService companyLogoService;
     private final ObjectMapper objectMapper;
     private final EmailService emailService;
     private final QuoteAttachmentRepository quoteAttachmentRepository;
     private final io.quickledger.mappers.quote.QuoteAttachmentMapper quoteAttachmentMapper;
+    private final AttachmentStorageService attachmentStorageService;
     private final UserCompanyService userCompanyService;
     private final PlanService planService;
     private final String appBaseUrl;
@@ -64,10 +72,12 @@ public class QuoteService {
     public QuoteService(QuoteRepository quoteRepository, QuoteItemRepository quoteItemRepository,
             QuoteMapper quoteMapper,
             QuoteItemMapper quoteItemMapper, ClientRepository clientRepository, UserRepository userRepository,
-            SequenceConfigRepository sequenceConfigRepository, ClientService clientService, ClientMapper clientMapper,
-            TempTokenService tempTokenService, PdfService pdfService,
+            SequenceAllocator sequenceAllocator, QuoteRevisionService quoteRevisionService,
+            ClientService clientService, ClientMapper clientMapper,
+            TempTokenService tempTokenService, PdfService pdfService, CompanyLogoService companyLogoService,
             QuoteAttachmentRepository quoteAttachmentRepository,
             io.quickledger.mappers.quote.QuoteAttachmentMapper quoteAttachmentMapper,
+            AttachmentStorageService attachmentStorageService,
             ObjectMapper objectMapper, EmailService emailService,
             UserCompanyService userCompanyService, PlanService planService,
             @Value("${application.frontend.url}") String appBaseUrl,
@@ -78,13 +88,16 @@ public class QuoteService {
         this.quoteItemMapper = quoteItemMapper;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
-        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.sequenceAllocator = sequenceAllocator;
+        this.quoteRevisionService = quoteRevisionService;
         this.clientService = clientService;
         this.clientMapper = clientMapper;
         this.tempTokenService = tempTokenService;
         this.pdfService = pdfService;
+        this.companyLogoService = companyLogoService;
         this.quoteAttachmentRepository = quoteAttachmentRepository;
         this.quoteAttachmentMapper = quoteAttachmentMapper;
+        this.attachmentStorageService = attachmentStorageService;
         this.objectMapper = objectMapper;
         this.emailService = emailService;
         this.userCompanyService = userCompanyService;
@@ -234,17 +247,45 @@ public class QuoteService {
 
     public Page<QuoteDto> getAllQuotesLatestRevision(Long companyId, boolean lazy, Pageable pageable, User user) {
         userCompanyService.checkUserBelongs(user, companyId);
+        if (lazy) {
+            // Header columns and client details in one query, no entities or items
+            return quoteRepository.findLatestRevisionSummaries(companyId, withPropertySort(pageable))
+                    .map(quoteMapper::toDto);
+        }
         Page<Quote> quotes = quoteRepository.getAllQuotesLatestRevision(companyId, pageable);
         return quotes.map(quote -> quoteMapper.toDto(quote, lazy));
     }
 
     public Page<QuoteDto> getAllQuotesAllRevisions(Long companyId, boolean lazy, Pageable pageable, User user) {
         userCompanyService.checkUserBelongs(user, companyId);
+        if (lazy) {
+            return quoteRepository.findSummariesByCompanyId(companyId, pageable).map(quoteMapper::toDto);
+        }
         Page<Quote> quotes = quoteRepository.findByCompanyId(companyId, pageable);
         return quotes.map(quote -> quoteMapper.toDto(quote, lazy));
     }
 
+    /**
+     * The latest-revision list used to be a native query, so clients sort it by column name
+     * ({@code quote_date}); the summary query sorts by entity property ({@code quoteDate}).
+     */
+    static Pageable withPropertySort(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .map(order -> order.getProperty().indexOf('_') < 0 ? order
+                        : order.withProperty(JdbcUtils.convertUnderscoreNameToPropertyName(order.getProperty())))
+                .collect(Collectors.toList());
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
     public List<QuoteDto> searchQuote(Long companyId, String searchTerm, boolean lazy) {
+        if (lazy) {
+            return quoteRepository.searchQuoteSummaries(companyId, searchTerm).stream()
+                    .map(quoteMapper::toDto)
+                    .collect(Collectors.toList());
+        }
         List<Quote> quote = quoteRepository.searchQuote(companyId, searchTerm);
         return quote.stream().map(q -> quoteMapper.toDto(q, lazy)).collect(Collectors.toList());
     }
@@ -351,6 +392,9 @@ public class QuoteService {
         calculateQuoteTotals(quote);
 
         quote = quoteRepository.save(quote);
+        Long latestId = quoteRevisionService.markLatest(quote.getCompany().getId(), quote.getQuoteNumber());
+        quote.setLatestRevision(quote.getId().equals(latestId));
+        pdfService.evictDocument("quote_pdf", quote.getId());
         return quoteMapper.toDto(quote, false);
     }
 
@@ -490,8 +534,8 @@ public class QuoteService {
                 logger.error("Failed to parse template config for company " + companyId, e);
             }
         }
-        if (company.getImage() != null && company.getImage().length > 0) {
-            String logoBase64 = java.util.Base64.getEncoder().encodeToString(company.getImage());
+        String logoBase64 = companyLogoService.getLogoBase64(company);
+        if (logoBase64 != null) {
             variables.put("companyLogoBase64", logoBase64);
 
             // Use content type if available, otherwise default to image/png
@@ -502,11 +546,17 @@ public class QuoteService {
             variables.put("companyLogoContentType", contentType);
         }
 
-        return pdfService.generatePdfFromHtml("quote_pdf", variables);
+        return pdfService.generatePdfFromHtml("quote_pdf", variables, companyId, quoteId);
     }
 
+    @Transactional
     public void deleteQuote(Long id) {
+        Optional<Quote> quote = quoteRepository.findById(id);
         quoteRepository.deleteById(id);
+        // Hand the latest-revision flag to the revision before it
+        quote.filter(Quote::isLatestRevision)
+                .ifPresent(q -> quoteRevisionService.markLatest(q.getCompany().getId(), q.getQuoteNumber()));
+        pdfService.evictDocument("quote_pdf", id);
     }
 
     @Transactional
@@ -529,35 +579,8 @@ public class QuoteService {
         return quoteItemMapper.toDto(quoteItem);
     }
 
-    @Transactional
     public String generateQuoteSequence(Long companyId) {
-        // Fetch the SequenceConfig with pessimistic lock to prevent race conditions
-        Optional<SequenceConfig> sequenceConfigOptional = sequenceConfigRepository
-                .findByEntityTypeAndCompanyIdForUpdate(SequenceConfig.EntityType.QUOTE, companyId);
-
-        if (!sequenceConfigOptional.isPresent()) {
-            throw new IllegalStateException("Sequence configuration not found for QUOTE and company ID: "
-                    + companyId + " please configure the sequence configuration for your Quote");
-        }
-
-        SequenceConfig sequenceConfig = sequenceConfigOptional.get();
-        Integer currentNumber = sequenceConfig.getCurrentNumber();
-
-        int newQuoteSequence = currentNumber + 1;
-
-        // Generate the new quote number with date placeholders and padding
-        String newQuoteNumber = io.quickledger.utils.SequenceNumberFormatter.format(
-                sequenceConfig.getPrefix(),
-                newQuoteSequence,
-                sequenceConfig.getPostfix(),
-                sequenceConfig.getNumberPadding(),
-                java.time.LocalDate.now());
-
-        // Update the current number in the database
-        sequenceConfig.setCurrentNumber(newQuoteSequence);
-        sequenceConfigRepository.save(sequenceConfig);
-
-        return newQuoteNumber;
+        return sequenceAllocator.next(SequenceConfig.EntityType.QUOTE, companyId, java.time.LocalDate.now());
     }
 
     @Transactional
@@ -583,7 +606,7 @@ public class QuoteService {
 
     @Transactional
     public QuoteAttachmentDto uploadAttachment(Long quoteId, Long companyId, String fileName, String contentType,
-            byte[] data, long size) {
+            InputStream content) throws IOException {
         Quote quote = quoteRepository.findById(quoteId)
                 .orElseThrow(() -> new EntityNotFoundException("Quote not found with id: " + quoteId));
 
@@ -596,8 +619,7 @@ public class QuoteService {
         attachment.setCompany(quote.getCompany());
         attachment.setFileName(fileName);
         attachment.setContentType(contentType);
-        attachment.setData(data);
-        attachment.setSize(size);
+        attachmentStorageService.store(attachment, content);
 
         attachment = quoteAttachmentRepository.save(attachment);
         return quoteAttachmentMapper.toDto(attachment);
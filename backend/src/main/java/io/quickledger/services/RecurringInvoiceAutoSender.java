@@ -0,0 +1,91 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.invoice.PendingInvoiceSend;
+import io.quickledger.repositories.PendingInvoiceSendRepository;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends generated recurring invoices recorded as pending sends. Each send queues the email and
+ * removes its pending row in one transaction, so an invoice is neither lost nor sent twice when
+ * an instance stops mid-run; whatever is left is picked up by the next run.
+ */
+@Service
+public class RecurringInvoiceAutoSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringInvoiceAutoSender.class);
+
+    static final int PAGE_SIZE = 100;
+    static final int MAX_ATTEMPTS = 3;
+
+    private final InvoiceService invoiceService;
+    private final PendingInvoiceSendRepository pendingInvoiceSendRepository;
+    private final Executor recurringInvoiceSendExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecurringInvoiceAutoSender(InvoiceService invoiceService,
+                                      PendingInvoiceSendRepository pendingInvoiceSendRepository,
+                                      @Qualifier("recurringInvoiceSendExecutor") Executor recurringInvoiceSendExecutor,
+                                      PlatformTransactionManager transactionManager) {
+        this.invoiceService = invoiceService;
+        this.pendingInvoiceSendRepository = pendingInvoiceSendRepository;
+        this.recurringInvoiceSendExecutor = recurringInvoiceSendExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Also called by the generation run once it has committed its invoices
+    @Scheduled(initialDelay = 60_000, fixedDelay = 300_000)
+    @SchedulerLock(name = "sendRecurringInvoices", lockAtMostFor = "PT1H")
+    public void sendPending() {
+        try {
+            long afterId = 0;
+            while (true) {
+                List<PendingInvoiceSend> page = pendingInvoiceSendRepository.findPage(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (page.isEmpty()) {
+                    return;
+                }
+                List<CompletableFuture<Void>> sends = new ArrayList<>(page.size());
+                for (PendingInvoiceSend pending : page) {
+                    sends.add(CompletableFuture.runAsync(() -> send(pending), recurringInvoiceSendExecutor));
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            logger.error("Error sending recurring invoices", e);
+        }
+    }
+
+    void send(PendingInvoiceSend pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                invoiceService.sendInvoice(pending.getCompanyId(), pending.getInvoiceId());
+                pendingInvoiceSendRepository.delete(pending);
+            });
+            logger.info("Auto-sent recurring invoice {} for company {}", pending.getInvoiceId(), pending.getCompanyId());
+        } catch (Exception e) {
+            pending.setAttempts(pending.getAttempts() + 1);
+            if (pending.getAttempts() >= MAX_ATTEMPTS) {
+                logger.error("Giving up auto-sending recurring invoice {} after {} attempts: {}",
+                        pending.getInvoiceId(), pending.getAttempts(), e.getMessage());
+                pendingInvoiceSendRepository.delete(pending);
+            } else {
+                logger.warn("Failed to auto-send recurring invoice {}, will retry: {}",
+                        pending.getInvoiceId(), e.getMessage());
+                pendingInvoiceSendRepository.save(pending);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.SequenceConfig;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceItem;
+import io.quickledger.entities.invoice.PendingInvoiceSend;
+import io.quickledger.repositories.InvoiceRepository;
+import io.quickledger.repositories.PendingInvoiceSendRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates invoices from one company's recurring templates in a single short transaction.
+ * Each template's next date is advanced in the same transaction as its invoice is created,
+ * so a chunk that fails or is interrupted is simply picked up again by the next run. Invoices
+ * to be auto-sent are recorded as pending sends in that transaction too.
+ */
+@Service
+public class RecurringInvoiceGenerator {
+
+    private final InvoiceRepository invoiceRepository;
+    private final SequenceAllocator sequenceAllocator;
+    private final PendingInvoiceSendRepository pendingInvoiceSendRepository;
+
+    public RecurringInvoiceGenerator(InvoiceRepository invoiceRepository,
+                                     SequenceAllocator sequenceAllocator,
+                                     PendingInvoiceSendRepository pendingInvoiceSendRepository) {
+        this.invoiceRepository = invoiceRepository;
+        this.sequenceAllocator = sequenceAllocator;
+        this.pendingInvoiceSendRepository = pendingInvoiceSendRepository;
+    }
+
+    public record GeneratedInvoice(Long invoiceId, String invoiceNumber, String templateNumber, boolean autoSend) {
+    }
+
+    @Transactional
+    public List<GeneratedInvoice> generateChunk(Long companyId, List<Long> templateIds, LocalDate today) {
+        List<Invoice> templates = new ArrayList<>();
+        for (Invoice template : invoiceRepository.findAllById(templateIds)) {
+            // Skip templates another run already advanced or that were edited since the lookup
+            if (template.getCompany().getId().equals(companyId)
+                    && Boolean.TRUE.equals(template.getIsRecurring())
+                    && template.getNextRecurringDate() != null
+                    && !template.getNextRecurringDate().isAfter(today)) {
+                templates.add(template);
+            }
+        }
+        if (templates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Invoice> newInvoices = new ArrayList<>(templates.size());
+        for (Invoice template : templates) {
+            newInvoices.add(generateInvoiceFromTemplate(template, today));
+            template.setNextRecurringDate(RecurringInvoiceScheduler.calculateNextRecurringDate(
+                    template.getRecurringFrequency(),
+                    template.getNextRecurringDate()));
+        }
+
+        // One allocation for the whole chunk; in the default mode it commits on its own, so a chunk
+        // that fails afterwards leaves a gap in the invoice numbers rather than holding the row lock
+        List<String> invoiceNumbers = sequenceAllocator.next(
+                SequenceConfig.EntityType.INVOICE, companyId, newInvoices.size(), today);
+        for (int i = 0; i < newInvoices.size(); i++) {
+            newInvoices.get(i).setInvoiceNumber(invoiceNumbers.get(i));
+        }
+        invoiceRepository.saveAll(newInvoices);
+        invoiceRepository.saveAll(templates);
+
+        List<GeneratedInvoice> generated = new ArrayList<>(newInvoices.size());
+        List<PendingInvoiceSend> pendingSends = new ArrayList<>();
+        for (int i = 0; i < newInvoices.size(); i++) {
+            Invoice template = templates.get(i);
+            Invoice newInvoice = newInvoices.get(i);
+            boolean autoSend = Boolean.TRUE.equals(template.getRecurringAutoSend());
+            if (autoSend) {
+                pendingSends.add(new PendingInvoiceSend(companyId, newInvoice.getId()));
+            }
+            generated.add(new GeneratedInvoice(newInvoice.getId(), newInvoice.getInvoiceNumber(),
+                    template.getInvoiceNumber(), autoSend));
+        }
+        pendingInvoiceSendRepository.saveAll(pendingSends);
+        return generated;
+    }
+
+    private Invoice generateInvoiceFromTemplate(Invoice template, LocalDate invoiceDate) {
+        Invoice newInvoice = new Invoice();
+
+        // Copy basic details
+        newInvoice.setCompany(template.getCompany());
+        newInvoice.setClient(template.getClient());
+        newInvoice.setUser(template.getUser());
+        newInvoice.setStatus(Invoice.InvoiceStatus.DRAFT);
+
+        // Set new dates
+        newInvoice.setInvoiceDate(invoiceDate);
+        newInvoice.setDueDate(invoiceDate.plusDays(14)); // Default 14 days
+
+        // Copy pricing details
+        newInvoice.setTotalPrice(template.getTotalPrice());
+        newInvoice.setGst(template.getGst());
+        newInvoice.setDiscountType(template.getDiscountType());
+        newInvoice.setDiscountValue(template.getDiscountValue());
+        newInvoice.setNotes(template.getNotes());
+
+        // Link to parent template
+        newInvoice.setParentInvoiceId(template.getId());
+
+        // This invoice is NOT recurring (it's a generated instance)
+        newInvoice.setIsRecurring(false);
+
+        // Copy line items
+        List<InvoiceItem> newItems = new ArrayList<>();
+        if (template.getInvoiceItems() != null) {
+            for (InvoiceItem templateItem : template.getInvoiceItems()) {
+                InvoiceItem newItem = new InvoiceItem();
+                newItem.setInvoice(newInvoice);
+                newItem.setItemDescription(templateItem.getItemDescription());
+                newItem.setQuantity(templateItem.getQuantity());
+                newItem.setPrice(templateItem.getPrice());
+                newItem.setTotal(templateItem.getTotal());
+                newItem.setGst(templateItem.getGst());
+                newItem.setCode(templateItem.getCode());
+                newItem.setItemOrder(templateItem.getItemOrder());
+                newItems.add(newItem);
+            }
+        }
+        newInvoice.setInvoiceItems(newItems);
+
+        return newInvoice;
+    }
+}
@@ -1,167 +1,136 @@
 package io.quickledger.services;
 
 import io.quickledger.entities.invoice.Invoice;
-import io.quickledger.entities.invoice.InvoiceItem;
 import io.quickledger.repositories.InvoiceRepository;
-import io.quickledger.repositories.SequenceConfigRepository;
-import io.quickledger.entities.SequenceConfig;
+import io.quickledger.services.RecurringInvoiceGenerator.GeneratedInvoice;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class RecurringInvoiceScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(RecurringInvoiceScheduler.class);
 
+    // Templates per transaction; keeps each company's sequence lock short
+    static final int CHUNK_SIZE = 25;
+
     private final InvoiceRepository invoiceRepository;
-    private final InvoiceService invoiceService;
-    private final SequenceConfigRepository sequenceConfigRepository;
+    private final RecurringInvoiceGenerator recurringInvoiceGenerator;
+    private final RecurringInvoiceAutoSender recurringInvoiceAutoSender;
+    private final Counter templatesGenerated;
+    private final Counter templatesFailed;
+    private final Timer runTimer;
+    private volatile double lastRunTemplatesPerSecond;
+    private boolean autoSendPending;
 
     public RecurringInvoiceScheduler(InvoiceRepository invoiceRepository,
-                                      InvoiceService invoiceService,
-                                      SequenceConfigRepository sequenceConfigRepository) {
+                                      RecurringInvoiceGenerator recurringInvoiceGenerator,
+                                      RecurringInvoiceAutoSender recurringInvoiceAutoSender,
+                                      MeterRegistry meterRegistry) {
         this.invoiceRepository = invoiceRepository;
-        this.invoiceService = invoiceService;
-        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.recurringInvoiceGenerator = recurringInvoiceGenerator;
+        this.recurringInvoiceAutoSender = recurringInvoiceAutoSender;
+        this.templatesGenerated = Counter.builder("recurring.invoices.templates.processed")
+                .tag("outcome", "generated")
+                .register(meterRegistry);
+        this.templatesFailed = Counter.builder("recurring.invoices.templates.processed")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("recurring.invoices.generation.run").register(meterRegistry);
+        Gauge.builder("recurring.invoices.templates.per.second", this, s -> s.lastRunTemplatesPerSecond)
+                .description("Templates processed per second in the last generation run")
+                .register(meterRegistry);
     }
 
     @Scheduled(cron = "0 0 6 * * *") // Daily at 6 AM
     @SchedulerLock(name = "generateRecurringInvoices", lockAtLeastFor = "PT5M", lockAtMostFor = "PT30M")
-    @Transactional
     public void generateRecurringInvoices() {
         logger.info("Starting recurring invoice generation...");
 
         try {
             LocalDate today = LocalDate.now();
-            List<Invoice> recurringInvoices = invoiceRepository.findRecurringInvoicesDueForGeneration(today);
-            int invoicesGenerated = 0;
+            autoSendPending = false;
+            long startNanos = System.nanoTime();
 
-            for (Invoice templateInvoice : recurringInvoices) {
-                try {
-                    Invoice newInvoice = generateInvoiceFromTemplate(templateInvoice);
-                    invoiceRepository.save(newInvoice);
-
-                    // Update the next recurring date on the template
-                    LocalDate nextDate = calculateNextRecurringDate(
-                            templateInvoice.getRecurringFrequency(),
-                            templateInvoice.getNextRecurringDate()
-                    );
-                    templateInvoice.setNextRecurringDate(nextDate);
-                    invoiceRepository.save(templateInvoice);
-
-                    // Auto-send if configured
-                    if (Boolean.TRUE.equals(templateInvoice.getRecurringAutoSend())) {
-                        try {
-                            invoiceService.sendInvoice(newInvoice.getCompany().getId(), newInvoice.getId());
-                            logger.info("Auto-sent recurring invoice #{} for company {}",
-                                    newInvoice.getInvoiceNumber(), newInvoice.getCompany().getId());
-                        } catch (Exception e) {
-                            logger.error("Failed to auto-send recurring invoice #{}: {}",
-                                    newInvoice.getInvoiceNumber(), e.getMessage());
-                        }
-                    }
-
-                    invoicesGenerated++;
-                    logger.info("Generated recurring invoice #{} from template #{} for company {}",
-                            newInvoice.getInvoiceNumber(),
-                            templateInvoice.getInvoiceNumber(),
-                            templateInvoice.getCompany().getId());
-
-                } catch (Exception e) {
-                    logger.error("Failed to generate recurring invoice from template #{}: {}",
-                            templateInvoice.getInvoiceNumber(), e.getMessage(), e);
+            Map<Long, List<Long>> templateIdsByCompany = new LinkedHashMap<>();
+            for (Object[] row : invoiceRepository.findRecurringTemplateIdsDueForGeneration(today)) {
+                templateIdsByCompany.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+            }
+
+            int invoicesGenerated = 0;
+            int templatesProcessed = 0;
+            for (Map.Entry<Long, List<Long>> entry : templateIdsByCompany.entrySet()) {
+                List<Long> templateIds = entry.getValue();
+                for (int from = 0; from < templateIds.size(); from += CHUNK_SIZE) {
+                    List<Long> chunk = templateIds.subList(from, Math.min(from + CHUNK_SIZE, templateIds.size()));
+                    invoicesGenerated += processChunk(entry.getKey(), chunk, today);
+                    templatesProcessed += chunk.size();
                 }
             }
 
-            logger.info("Recurring invoice generation completed. Generated {} invoices.", invoicesGenerated);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            double seconds = Math.max(elapsedNanos / 1_000_000_000.0, 0.001);
+            lastRunTemplatesPerSecond = templatesProcessed / seconds;
+
+            logger.info("Recurring invoice generation completed. Generated {} invoices from {} templates ({} templates/s).",
+                    invoicesGenerated, templatesProcessed, String.format("%.1f", lastRunTemplatesPerSecond));
+
+            // Auto-send invoices were recorded as pending sends with their chunk; send them now
+            // rather than waiting for the sender's next poll
+            if (autoSendPending) {
+                recurringInvoiceAutoSender.sendPending();
+            }
         } catch (Exception e) {
             logger.error("Error in recurring invoice scheduler", e);
         }
     }
 
-    private Invoice generateInvoiceFromTemplate(Invoice template) {
-        Invoice newInvoice = new Invoice();
-
-        // Copy basic details
-        newInvoice.setCompany(template.getCompany());
-        newInvoice.setClient(template.getClient());
-        newInvoice.setUser(template.getUser());
-        newInvoice.setStatus(Invoice.InvoiceStatus.DRAFT);
-
-        // Generate new invoice number
-        newInvoice.setInvoiceNumber(generateInvoiceSequence(template.getCompany().getId()));
-
-        // Set new dates
-        LocalDate invoiceDate = LocalDate.now();
-        newInvoice.setInvoiceDate(invoiceDate.toString());
-        newInvoice.setDueDate(invoiceDate.plusDays(14).toString()); // Default 14 days
-
-        // Copy pricing details
-        newInvoice.setTotalPrice(template.getTotalPrice());
-        newInvoice.setGst(template.getGst());
-        newInvoice.setDiscountType(template.getDiscountType());
-        newInvoice.setDiscountValue(template.getDiscountValue());
-        newInvoice.setNotes(template.getNotes());
-
-        // Link to parent template
-        newInvoice.setParentInvoiceId(template.getId());
-
-        // This invoice is NOT recurring (it's a generated instance)
-        newInvoice.setIsRecurring(false);
-
-        // Copy line items
-        List<InvoiceItem> newItems = new ArrayList<>();
-        if (template.getInvoiceItems() != null) {
-            for (InvoiceItem templateItem : template.getInvoiceItems()) {
-                InvoiceItem newItem = new InvoiceItem();
-                newItem.setInvoice(newInvoice);
-                newItem.setItemDescription(templateItem.getItemDescription());
-                newItem.setQuantity(templateItem.getQuantity());
-                newItem.setPrice(templateItem.getPrice());
-                newItem.setTotal(templateItem.getTotal());
-                newItem.setGst(templateItem.getGst());
-                newItem.setCode(templateItem.getCode());
-                newItem.setItemOrder(templateItem.getItemOrder());
-                newItems.add(newItem);
+    private int processChunk(Long companyId, List<Long> templateIds, LocalDate today) {
+        List<GeneratedInvoice> generated;
+        try {
+            generated = recurringInvoiceGenerator.generateChunk(companyId, templateIds, today);
+        } catch (Exception e) {
+            if (templateIds.size() == 1) {
+                templatesFailed.increment();
+                logger.error("Failed to generate recurring invoice from template {}: {}",
+                        templateIds.get(0), e.getMessage(), e);
+                return 0;
             }
+            // The chunk rolled back as a whole; retry template by template so one bad template
+            // does not hold back the rest of the company
+            logger.warn("Recurring invoice chunk for company {} failed, retrying templates individually: {}",
+                    companyId, e.getMessage());
+            int count = 0;
+            for (Long templateId : templateIds) {
+                count += processChunk(companyId, List.of(templateId), today);
+            }
+            return count;
         }
-        newInvoice.setInvoiceItems(newItems);
-
-        return newInvoice;
-    }
 
-    private String generateInvoiceSequence(Long companyId) {
-        Optional<SequenceConfig> sequenceConfigOptional = sequenceConfigRepository
-                .findByEntityTypeAndCompanyIdForUpdate(SequenceConfig.EntityType.INVOICE, companyId);
-
-        if (!sequenceConfigOptional.isPresent()) {
-            throw new IllegalStateException("Sequence configuration not found for INVOICE and company ID: " + companyId);
+        templatesGenerated.increment(generated.size());
+        for (GeneratedInvoice invoice : generated) {
+            logger.info("Generated recurring invoice #{} from template #{} for company {}",
+                    invoice.invoiceNumber(), invoice.templateNumber(), companyId);
+            if (invoice.autoSend()) {
+                autoSendPending = true;
+            }
         }
-
-        SequenceConfig sequenceConfig = sequenceConfigOptional.get();
-        Integer currentNumber = sequenceConfig.getCurrentNumber();
-        int newInvoiceSequence = currentNumber + 1;
-
-        String newInvoiceNumber = io.quickledger.utils.SequenceNumberFormatter.format(
-                sequenceConfig.getPrefix(),
-                newInvoiceSequence,
-                sequenceConfig.getPostfix(),
-                sequenceConfig.getNumberPadding(),
-                LocalDate.now());
-
-        sequenceConfig.setCurrentNumber(newInvoiceSequence);
-        sequenceConfigRepository.save(sequenceConfig);
-
-        return newInvoiceNumber;
+        return generated.size();
     }
 
     public static LocalDate calculateNextRecurringDate(Invoice.RecurringFrequency frequency, LocalDate fromDate) {
@@ -0,0 +1,197 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quickledger.config.SequenceAllocatorProperties;
+import io.quickledger.config.SequenceAllocatorProperties.Mode;
+import io.quickledger.entities.SequenceConfig;
+import io.quickledger.entities.SequenceConfig.EntityType;
+import io.quickledger.repositories.SequenceConfigRepository;
+import io.quickledger.utils.SequenceNumberFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out invoice, quote, job and purchase order numbers. By default each allocation locks the
+ * company's sequence row in its own short transaction, so the lock is released before the
+ * document is built and saved rather than when the document's transaction commits; see
+ * {@link SequenceAllocatorProperties.Mode} for the trade-offs of each mode.
+ */
+@Service
+public class SequenceAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAllocator.class);
+
+    // Sequences created on first use; invoices and quotes must be configured by the company
+    private static final Map<EntityType, String> DEFAULT_PREFIXES = Map.of(
+            EntityType.JOB, "JOB-",
+            EntityType.PURCHASE_ORDER, "PO-");
+
+    private final SequenceConfigRepository sequenceConfigRepository;
+    private final SequenceAllocatorProperties properties;
+    private final TransactionTemplate callerTransaction;
+    private final TransactionTemplate shortTransaction;
+    private final Map<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+
+    private final Map<EntityType, Timer> lockWait = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, Timer> allocation = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, Counter> allocated = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, Counter> blocksReserved = new EnumMap<>(EntityType.class);
+
+    public SequenceAllocator(SequenceConfigRepository sequenceConfigRepository,
+                             SequenceAllocatorProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.sequenceConfigRepository = sequenceConfigRepository;
+        this.properties = properties;
+        this.callerTransaction = new TransactionTemplate(transactionManager);
+        this.shortTransaction = new TransactionTemplate(transactionManager);
+        this.shortTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (EntityType type : EntityType.values()) {
+            String tag = type.name().toLowerCase();
+            lockWait.put(type, Timer.builder("sequence.lock.wait").tag("type", tag).register(meterRegistry));
+            allocation.put(type, Timer.builder("sequence.allocation").tag("type", tag).register(meterRegistry));
+            allocated.put(type, Counter.builder("sequence.numbers.allocated").tag("type", tag).register(meterRegistry));
+            blocksReserved.put(type, Counter.builder("sequence.blocks.reserved").tag("type", tag).register(meterRegistry));
+        }
+    }
+
+    public String next(EntityType type, Long companyId, LocalDate date) {
+        return next(type, companyId, 1, date).get(0);
+    }
+
+    /**
+     * Takes the next {@code count} numbers of the company's sequence, formatted for {@code date}.
+     */
+    public List<String> next(EntityType type, Long companyId, int count, LocalDate date) {
+        if (count <= 0) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        try {
+            List<String> numbers = switch (properties.getMode()) {
+                case CALLER_TRANSACTION -> callerTransaction.execute(status -> reserve(type, companyId, count))
+                        .format(date);
+                case SHORT_TRANSACTION -> reserveInShortTransaction(type, companyId, count).format(date);
+                case BLOCK -> fromBlock(type, companyId, count, date);
+            };
+            allocated.get(type).increment(count);
+            return numbers;
+        } finally {
+            allocation.get(type).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Drops this instance's unused block for the sequence, so the next number is read from the
+     * edited configuration. Other instances keep their blocks until they run out.
+     */
+    public void discardBlock(EntityType type, Long companyId) {
+        if (type != null && companyId != null) {
+            blocks.remove(new BlockKey(type, companyId));
+        }
+    }
+
+    private List<String> fromBlock(EntityType type, Long companyId, int count, LocalDate date) {
+        Block block = blocks.computeIfAbsent(new BlockKey(type, companyId), key -> new Block());
+        List<String> numbers = new ArrayList<>(count);
+        block.lock.lock();
+        try {
+            while (numbers.size() < count) {
+                if (block.next > block.last) {
+                    int size = Math.max(properties.getBlockSize(), count - numbers.size());
+                    Range range = reserveInShortTransaction(type, companyId, size);
+                    block.next = range.first();
+                    block.last = range.last();
+                    block.formatter = range.formatter();
+                    blocksReserved.get(type).increment();
+                }
+                numbers.add(block.formatter.format(block.next++, date));
+            }
+        } finally {
+            block.lock.unlock();
+        }
+        return numbers;
+    }
+
+    private Range reserveInShortTransaction(EntityType type, Long companyId, int count) {
+        try {
+            return shortTransaction.execute(status -> reserve(type, companyId, count));
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the default sequence first; use theirs
+            logger.debug("Sequence {} for company {} was created concurrently, retrying", type, companyId);
+            return shortTransaction.execute(status -> reserve(type, companyId, count));
+        }
+    }
+
+    private Range reserve(EntityType type, Long companyId, int count) {
+        long waitStart = System.nanoTime();
+        SequenceConfig sequenceConfig = sequenceConfigRepository
+                .findByEntityTypeAndCompanyIdForUpdate(type, companyId)
+                .orElse(null);
+        lockWait.get(type).record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        if (sequenceConfig == null) {
+            sequenceConfig = createDefault(type, companyId);
+        }
+
+        int currentNumber = sequenceConfig.getCurrentNumber();
+        sequenceConfig.setCurrentNumber(currentNumber + count);
+        sequenceConfigRepository.save(sequenceConfig);
+        return new Range(currentNumber + 1, currentNumber + count, SequenceNumberFormatter.of(
+                sequenceConfig.getPrefix(), sequenceConfig.getPostfix(), sequenceConfig.getNumberPadding()));
+    }
+
+    private SequenceConfig createDefault(EntityType type, Long companyId) {
+        String prefix = DEFAULT_PREFIXES.get(type);
+        if (prefix == null) {
+            String document = type == EntityType.QUOTE ? "Quote" : "Invoice";
+            throw new IllegalStateException("Sequence configuration not found for " + type + " and company ID: "
+                    + companyId + " please configure the sequence configuration for your " + document);
+        }
+        SequenceConfig sequenceConfig = new SequenceConfig();
+        sequenceConfig.setEntityType(type);
+        sequenceConfig.setCompanyId(companyId);
+        sequenceConfig.setPrefix(prefix);
+        sequenceConfig.setPostfix("");
+        sequenceConfig.setCurrentNumber(0);
+        sequenceConfig.setNumberPadding(4);
+        return sequenceConfigRepository.save(sequenceConfig);
+    }
+
+    private record BlockKey(EntityType type, Long companyId) {
+    }
+
+    private record Range(int first, int last, SequenceNumberFormatter formatter) {
+
+        List<String> format(LocalDate date) {
+            List<String> numbers = new ArrayList<>(last - first + 1);
+            for (int number = first; number <= last; number++) {
+                numbers.add(formatter.format(number, date));
+            }
+            return numbers;
+        }
+    }
+
+    // Numbers reserved in the database but not yet handed out; guarded by lock
+    private static final class Block {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int next = 1;
+        private int last = 0;
+        private SequenceNumberFormatter formatter;
+    }
+}
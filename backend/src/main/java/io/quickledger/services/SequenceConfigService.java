@@ -17,11 +17,14 @@ public class SequenceConfigService {
 
     private final SequenceConfigRepository sequenceConfigRepository;
     private final SequenceConfigMapper sequenceConfigMapper;
+    private final SequenceAllocator sequenceAllocator;
 
     @Autowired
-    public SequenceConfigService(SequenceConfigRepository sequenceConfigRepository, SequenceConfigMapper sequenceConfigMapper) {
+    public SequenceConfigService(SequenceConfigRepository sequenceConfigRepository, SequenceConfigMapper sequenceConfigMapper,
+                                 SequenceAllocator sequenceAllocator) {
         this.sequenceConfigRepository = sequenceConfigRepository;
         this.sequenceConfigMapper = sequenceConfigMapper;
+        this.sequenceAllocator = sequenceAllocator;
     }
 
 //    public List<SequenceConfigDTO> createOrUpdateSequenceConfigs(Long companyId, List<SequenceConfigDTO> sequenceConfigDTOs) {
@@ -38,6 +41,8 @@ public class SequenceConfigService {
     public SequenceConfigDTO createOrUpdateSequenceConfig(Long companyId, SequenceConfigDTO sequenceConfigDTO) {
         SequenceConfig sequenceConfig = sequenceConfigMapper.toEntity(sequenceConfigDTO);
         sequenceConfig = sequenceConfigRepository.save(sequenceConfig);
+        // Numbers already reserved in block mode would keep the old prefix and counter
+        sequenceAllocator.discardBlock(sequenceConfig.getEntityType(), sequenceConfig.getCompanyId());
         return sequenceConfigMapper.toDto(sequenceConfig);
     }
 
@@ -54,7 +59,9 @@ public class SequenceConfigService {
     }
 
     public void deleteByIdAndCompanyId(Long id, Long companyId) {
+        Optional<SequenceConfig> sequenceConfig = sequenceConfigRepository.findByIdAndCompanyId(id, companyId);
         sequenceConfigRepository.deleteByIdAndCompanyId(id, companyId);
+        sequenceConfig.ifPresent(config -> sequenceAllocator.discardBlock(config.getEntityType(), companyId));
     }
 
     private SequenceConfigDTO convertToDto(SequenceConfig sequenceConfig) {
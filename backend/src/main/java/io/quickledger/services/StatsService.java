@@ -1,12 +1,18 @@
 package io.quickledger.services;
 
 import io.quickledger.dto.StatsDto;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceMonthlyRollup;
+import io.quickledger.repositories.ClientRevenueRollupRepository;
+import io.quickledger.repositories.InvoiceMonthlyRollupRepository;
 import io.quickledger.repositories.InvoiceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -20,9 +26,16 @@ public class StatsService {
     private static final Logger logger = LoggerFactory.getLogger(StatsService.class);
     private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
 
+    // Reads come from the rollups maintained by InvoiceRollupService, not the invoices table
+    private final InvoiceMonthlyRollupRepository invoiceMonthlyRollupRepository;
+    private final ClientRevenueRollupRepository clientRevenueRollupRepository;
     private final InvoiceRepository invoiceRepository;
 
-    public StatsService(InvoiceRepository invoiceRepository) {
+    public StatsService(InvoiceMonthlyRollupRepository invoiceMonthlyRollupRepository,
+                        ClientRevenueRollupRepository clientRevenueRollupRepository,
+                        InvoiceRepository invoiceRepository) {
+        this.invoiceMonthlyRollupRepository = invoiceMonthlyRollupRepository;
+        this.clientRevenueRollupRepository = clientRevenueRollupRepository;
         this.invoiceRepository = invoiceRepository;
     }
 
@@ -33,22 +46,24 @@ public class StatsService {
     public List<StatsDto.MonthlyRevenue> getMonthlyRevenue(Long companyId) {
         logger.debug("Getting monthly revenue for company {}", companyId);
 
-        List<Object[]> results = invoiceRepository.getMonthlyRevenueByCompanyId(companyId);
+        YearMonth current = YearMonth.now();
+        List<InvoiceMonthlyRollup> rows = invoiceMonthlyRollupRepository
+                .findByCompanyIdAndStatusAndPeriodGreaterThanEqualOrderByPeriodAsc(
+                        companyId, Invoice.InvoiceStatus.PAID, current.minusMonths(5).format(MONTH_FORMATTER));
 
         // Create a map of existing data
-        Map<String, StatsDto.MonthlyRevenue> revenueMap = results.stream()
+        Map<String, StatsDto.MonthlyRevenue> revenueMap = rows.stream()
             .collect(Collectors.toMap(
-                row -> (String) row[0],
+                InvoiceMonthlyRollup::getPeriod,
                 row -> new StatsDto.MonthlyRevenue(
-                    (String) row[0],
-                    row[1] != null ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO,
-                    row[2] != null ? ((Number) row[2]).intValue() : 0
+                    row.getPeriod(),
+                    row.getTotalAmount(),
+                    row.getInvoiceCount().intValue()
                 )
             ));
 
         // Build list with all 6 months (including zeros)
         List<StatsDto.MonthlyRevenue> monthlyRevenue = new ArrayList<>();
-        YearMonth current = YearMonth.now();
 
         for (int i = 5; i >= 0; i--) {
             YearMonth month = current.minusMonths(i);
@@ -70,17 +85,28 @@ public class StatsService {
     public StatsDto.OutstandingInvoices getOutstandingInvoices(Long companyId) {
         logger.debug("Getting outstanding invoices for company {}", companyId);
 
-        List<Object[]> results = invoiceRepository.getOutstandingInvoicesByCompanyId(companyId);
+        List<Object[]> results = invoiceMonthlyRollupRepository.sumByCompanyIdAndStatus(
+                companyId, Invoice.InvoiceStatus.SENT);
+        // Overdue depends on today's date so it cannot be rolled up; it is a range scan on
+        // the (company_id, status, due_date) index instead
+        List<Object[]> overdue = invoiceRepository.sumByStatusDueBefore(
+                companyId, Invoice.InvoiceStatus.SENT, LocalDate.now());
 
-        if (results == null || results.isEmpty()) {
-            return new StatsDto.OutstandingInvoices(0, BigDecimal.ZERO);
-        }
+        return new StatsDto.OutstandingInvoices(count(results), amount(results), count(overdue), amount(overdue));
+    }
 
-        Object[] result = results.get(0);
-        int count = result[0] != null ? ((Number) result[0]).intValue() : 0;
-        BigDecimal totalAmount = result[1] != null ? new BigDecimal(result[1].toString()) : BigDecimal.ZERO;
+    private static int count(List<Object[]> results) {
+        if (results == null || results.isEmpty() || results.get(0)[0] == null) {
+            return 0;
+        }
+        return ((Number) results.get(0)[0]).intValue();
+    }
 
-        return new StatsDto.OutstandingInvoices(count, totalAmount);
+    private static BigDecimal amount(List<Object[]> results) {
+        if (results == null || results.isEmpty() || results.get(0)[1] == null) {
+            return BigDecimal.ZERO;
+        }
+        return new BigDecimal(results.get(0)[1].toString());
     }
 
     /**
@@ -88,16 +114,23 @@ public class StatsService {
      */
     public List<StatsDto.TopCustomer> getTopCustomers(Long companyId, int limit) {
         logger.debug("Getting top {} customers for company {}", limit, companyId);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
 
-        List<Object[]> results = invoiceRepository.getTopCustomersByCompanyId(companyId, limit);
+        List<Object[]> results = clientRevenueRollupRepository.findTopByCompanyId(companyId, PageRequest.of(0, limit));
 
         return results.stream()
             .map(row -> new StatsDto.TopCustomer(
                 row[0] != null ? ((Number) row[0]).longValue() : null,
-                row[1] != null ? ((String) row[1]).trim() : "Unknown",
-                row[2] != null ? new BigDecimal(row[2].toString()) : BigDecimal.ZERO,
-                row[3] != null ? ((Number) row[3]).intValue() : 0
+                customerName((String) row[1], (String) row[2]),
+                row[3] != null ? new BigDecimal(row[3].toString()) : BigDecimal.ZERO,
+                row[4] != null ? ((Number) row[4]).intValue() : 0
             ))
             .collect(Collectors.toList());
     }
+
+    private static String customerName(String contactName, String contactSurname) {
+        return ((contactName != null ? contactName : "") + " " + (contactSurname != null ? contactSurname : "")).trim();
+    }
 }
@@ -1,10 +1,14 @@
 package io.quickledger.services;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.stripe.Stripe;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.*;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
 import com.stripe.net.Webhook;
 import com.stripe.param.SubscriptionUpdateParams;
 import com.stripe.param.checkout.SessionCreateParams;
@@ -16,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.repositories.InvoicePaymentLinkRepository;
 import io.quickledger.repositories.InvoiceRepository;
 import io.quickledger.entities.invoice.Invoice;
 
@@ -42,20 +47,33 @@ public class StripeService {
     @Value("${stripe.platform.fee.cents:100}")
     private Long platformFeeCents;
 
+    // Optional override so the API can be pointed at a local stub (e.g. stripe-mock)
+    @Value("${stripe.api.base:}")
+    private String stripeApiBase;
+
     private final CompanyRepository companyRepository;
     private final InvoiceRepository invoiceRepository;
+    private final InvoicePaymentLinkRepository invoicePaymentLinkRepository;
+    private final StripeWebhookInbox stripeWebhookInbox;
 
     public StripeService(UserRepository userRepository, EmailService emailService,
-            CompanyRepository companyRepository, InvoiceRepository invoiceRepository) {
+            CompanyRepository companyRepository, InvoiceRepository invoiceRepository,
+            InvoicePaymentLinkRepository invoicePaymentLinkRepository, StripeWebhookInbox stripeWebhookInbox) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.companyRepository = companyRepository;
         this.invoiceRepository = invoiceRepository;
+        this.invoicePaymentLinkRepository = invoicePaymentLinkRepository;
+        this.stripeWebhookInbox = stripeWebhookInbox;
     }
 
     @PostConstruct
     public void init() {
         Stripe.apiKey = stripeApiKey;
+        if (stripeApiBase != null && !stripeApiBase.isEmpty()) {
+            Stripe.overrideApiBase(stripeApiBase);
+            logger.warn("Stripe API base overridden to {}", stripeApiBase);
+        }
         // Also set client ID on Stripe object if needed, but usually passed in OAuth
         // params
         // Stripe.clientId = stripeClientId; // Not a standard field on Stripe global
@@ -102,6 +120,17 @@ public class StripeService {
      */
     public String createInvoicePaymentSession(Long invoiceId, Long amountCents, String currency, String description,
             Long companyId, String customerEmail, String successUrl, String cancelUrl) throws StripeException {
+        return createInvoiceCheckoutSession(invoiceId, amountCents, currency, description, companyId, customerEmail,
+                successUrl, cancelUrl).getUrl();
+    }
+
+    /**
+     * Same as {@link #createInvoicePaymentSession} but returns the whole session so callers can
+     * keep track of its id and expiry.
+     */
+    public Session createInvoiceCheckoutSession(Long invoiceId, Long amountCents, String currency,
+            String description, Long companyId, String customerEmail, String successUrl, String cancelUrl)
+            throws StripeException {
         io.quickledger.entities.Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new IllegalArgumentException("Company not found"));
 
@@ -179,8 +208,15 @@ public class StripeService {
             paramsBuilder.setCustomerEmail(customerEmail);
         }
 
-        Session session = Session.create(paramsBuilder.build());
-        return session.getUrl();
+        return Session.create(paramsBuilder.build());
+    }
+
+    /**
+     * Expires an open checkout session so it can no longer be paid, e.g. after the invoice
+     * amount changed and a new session was issued.
+     */
+    public void expireCheckoutSession(String sessionId) throws StripeException {
+        Session.retrieve(sessionId).expire();
     }
 
     public String createCheckoutSession(String userExternalId, String priceId, String planName) throws StripeException {
@@ -242,6 +278,10 @@ public class StripeService {
         }
     }
 
+    /**
+     * Verifies a webhook delivery and stores it in the inbox; {@link StripeWebhookWorker} does the
+     * actual processing. Redeliveries of an event that was already received are ignored.
+     */
     public void handleWebhook(String payload, String sigHeader) {
         Event event;
 
@@ -255,6 +295,53 @@ public class StripeService {
             throw new RuntimeException("Webhook processing failed");
         }
 
+        if (!stripeWebhookInbox.receive(event.getId(), event.getType(), orderingKey(event), payload)) {
+            logger.info("Ignoring duplicate Stripe event {} ({})", event.getId(), event.getType());
+        }
+    }
+
+    public static Event parseEvent(String payload) {
+        return ApiResource.GSON.fromJson(payload, Event.class);
+    }
+
+    /**
+     * Events for the same customer (or, for one-off invoice payments, the same invoice) must be
+     * applied in order, e.g. a subscription update after the checkout that created it.
+     */
+    public static String orderingKey(Event event) {
+        JsonObject object = null;
+        try {
+            object = JsonParser.parseString(event.getDataObjectDeserializer().getRawJson()).getAsJsonObject();
+        } catch (Exception e) {
+            logger.warn("Cannot read data object of Stripe event {}: {}", event.getId(), e.getMessage());
+        }
+        if (object != null) {
+            JsonElement customer = object.get("customer");
+            if (customer != null && customer.isJsonPrimitive()) {
+                return "customer:" + customer.getAsString();
+            }
+            JsonElement metadata = object.get("metadata");
+            if (metadata != null && metadata.isJsonObject()) {
+                JsonElement invoiceId = metadata.getAsJsonObject().get("invoiceId");
+                if (invoiceId != null && invoiceId.isJsonPrimitive()) {
+                    return "invoice:" + invoiceId.getAsString();
+                }
+            }
+        }
+        return "event:" + event.getId();
+    }
+
+    /**
+     * Fetches an event from Stripe, e.g. one whose deliveries all failed while we were down.
+     */
+    public Event retrieveEvent(String eventId) throws StripeException {
+        return Event.retrieve(eventId);
+    }
+
+    /**
+     * Applies a received event. Failures propagate so the inbox can retry the event.
+     */
+    public void processEvent(Event event) {
         switch (event.getType()) {
             case "checkout.session.completed":
                 // Payment is successful and the subscription is created.
@@ -344,6 +431,7 @@ public class StripeService {
                 invoiceRepository.findById(invoiceId).ifPresent(invoice -> {
                     invoice.setStatus(Invoice.InvoiceStatus.PAID);
                     invoiceRepository.save(invoice);
+                    invoicePaymentLinkRepository.deleteByInvoiceId(invoiceId);
                     logger.info("Invoice {} marked as PAID via Stripe webhook", invoiceId);
 
                     // Optional: Send receipt email logic here
@@ -355,173 +443,157 @@ public class StripeService {
     }
 
     private void handleInvoicePaymentSucceeded(Event event) {
-        try {
-            com.stripe.model.Invoice invoice = null;
-            if (event.getDataObjectDeserializer().getObject().isPresent()) {
-                invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().getObject().get();
-            } else {
-                try {
-                    invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().deserializeUnsafe();
-                    logger.warn("Using unsafe deserialization for invoice payment succeeded event {}", event.getId());
-                } catch (Exception e) {
-                    logger.error("Failed to deserialize invoice unsafe for event {}", event.getId(), e);
-                }
-            }
-
-            if (invoice != null && invoice.getCustomer() != null) {
-                String customerId = invoice.getCustomer();
-
-                // ✅ Optimized: Use indexed query instead of findAll()
-                userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
-                    boolean wasTrialing = "trialing".equalsIgnoreCase(user.getSubscriptionStatus());
-                    boolean wasPastDue = "past_due".equalsIgnoreCase(user.getSubscriptionStatus());
-
-                    user.setSubscriptionStatus("active");
-                    userRepository.save(user);
-                    logger.info("Payment succeeded for user {}: Status=active (was: {})",
-                            user.getExternalId(), wasTrialing ? "trialing" : wasPastDue ? "past_due" : "other");
-
-                    // Send subscription activated email if transitioning from trial to active
-                    if (wasTrialing) {
-                        try {
-                            String userName = user.getName() != null ? user.getName() : "Valued Customer";
-                            String planName = user.getSubscriptionPlan() != null ? user.getSubscriptionPlan()
-                                    : "Premium";
-                            emailService.sendSubscriptionActivatedEmail(user.getEmail(), userName, planName);
-                        } catch (Exception e) {
-                            logger.error("Failed to send subscription activated email to user {}",
-                                    user.getExternalId(), e);
-                        }
-                    }
-                });
+        com.stripe.model.Invoice invoice = null;
+        if (event.getDataObjectDeserializer().getObject().isPresent()) {
+            invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().getObject().get();
+        } else {
+            try {
+                invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().deserializeUnsafe();
+                logger.warn("Using unsafe deserialization for invoice payment succeeded event {}", event.getId());
+            } catch (Exception e) {
+                logger.error("Failed to deserialize invoice unsafe for event {}", event.getId(), e);
             }
-        } catch (Exception e) {
-            logger.error("Error handling invoice.payment_succeeded", e);
         }
-    }
 
-    private void handleInvoicePaymentFailed(Event event) {
-        try {
-            com.stripe.model.Invoice invoice = null;
-            if (event.getDataObjectDeserializer().getObject().isPresent()) {
-                invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().getObject().get();
-            } else {
-                try {
-                    invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().deserializeUnsafe();
-                    logger.warn("Using unsafe deserialization for invoice payment failed event {}", event.getId());
-                } catch (Exception e) {
-                    logger.error("Failed to deserialize invoice unsafe for event {}", event.getId(), e);
-                }
-            }
+        if (invoice != null && invoice.getCustomer() != null) {
+            String customerId = invoice.getCustomer();
 
-            if (invoice != null && invoice.getCustomer() != null) {
-                String customerId = invoice.getCustomer();
+            // ✅ Optimized: Use indexed query instead of findAll()
+            userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
+                boolean wasTrialing = "trialing".equalsIgnoreCase(user.getSubscriptionStatus());
+                boolean wasPastDue = "past_due".equalsIgnoreCase(user.getSubscriptionStatus());
 
-                // ✅ Optimized: Use indexed query instead of findAll()
-                userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
-                    user.setSubscriptionStatus("past_due");
-                    userRepository.save(user);
-                    logger.warn("Payment failed for user {}: Status=past_due (Stripe will retry automatically)",
-                            user.getExternalId());
+                user.setSubscriptionStatus("active");
+                userRepository.save(user);
+                logger.info("Payment succeeded for user {}: Status=active (was: {})",
+                        user.getExternalId(), wasTrialing ? "trialing" : wasPastDue ? "past_due" : "other");
 
-                    // Send payment failed email notification
+                // Send subscription activated email if transitioning from trial to active
+                if (wasTrialing) {
                     try {
                         String userName = user.getName() != null ? user.getName() : "Valued Customer";
-                        emailService.sendPaymentFailedEmail(user.getEmail(), userName);
+                        String planName = user.getSubscriptionPlan() != null ? user.getSubscriptionPlan()
+                                : "Premium";
+                        emailService.sendSubscriptionActivatedEmail(user.getEmail(), userName, planName);
                     } catch (Exception e) {
-                        logger.error("Failed to send payment failed email to user {}",
+                        logger.error("Failed to send subscription activated email to user {}",
                                 user.getExternalId(), e);
                     }
-                });
-            }
-        } catch (Exception e) {
-            logger.error("Error handling invoice.payment_failed", e);
+                }
+            });
         }
     }
 
-    private void handleSubscriptionUpdated(Event event) {
-        try {
-            com.stripe.model.Subscription subscription = null;
-            if (event.getDataObjectDeserializer().getObject().isPresent()) {
-                subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer().getObject().get();
-            } else {
-                try {
-                    subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer()
-                            .deserializeUnsafe();
-                    logger.warn("Using unsafe deserialization for subscription updated event {}", event.getId());
-                } catch (Exception e) {
-                    logger.error("Failed to deserialize subscription unsafe for event {}", event.getId(), e);
-                }
+    private void handleInvoicePaymentFailed(Event event) {
+        com.stripe.model.Invoice invoice = null;
+        if (event.getDataObjectDeserializer().getObject().isPresent()) {
+            invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().getObject().get();
+        } else {
+            try {
+                invoice = (com.stripe.model.Invoice) event.getDataObjectDeserializer().deserializeUnsafe();
+                logger.warn("Using unsafe deserialization for invoice payment failed event {}", event.getId());
+            } catch (Exception e) {
+                logger.error("Failed to deserialize invoice unsafe for event {}", event.getId(), e);
             }
+        }
 
-            if (subscription != null && subscription.getCustomer() != null) {
-                String customerId = subscription.getCustomer();
-                String status = subscription.getStatus();
-
-                // ✅ Optimized: Use indexed query instead of findAll()
-                final com.stripe.model.Subscription finalSubscription = subscription;
-                userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
-                    user.setSubscriptionStatus(status);
-                    user.setCancelAtPeriodEnd(finalSubscription.getCancelAtPeriodEnd());
-
-                    // ✅ Handle unpaid status (after all Stripe retries exhausted)
-                    if ("unpaid".equalsIgnoreCase(status)) {
-                        user.setSubscriptionPlan("Free");
-                        user.setStripeSubscriptionId(null);
-                        logger.warn(
-                                "Subscription unpaid for user {}: Reverted to Free plan (all payment retries failed)",
-                                user.getExternalId());
-                    }
+        if (invoice != null && invoice.getCustomer() != null) {
+            String customerId = invoice.getCustomer();
 
-                    userRepository.save(user);
-                    logger.info("Subscription updated for user {}: Status={}", user.getExternalId(), status);
-                });
-            }
-        } catch (Exception e) {
-            logger.error("Error handling customer.subscription.updated", e);
-        }
-    }
+            // ✅ Optimized: Use indexed query instead of findAll()
+            userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
+                user.setSubscriptionStatus("past_due");
+                userRepository.save(user);
+                logger.warn("Payment failed for user {}: Status=past_due (Stripe will retry automatically)",
+                        user.getExternalId());
 
-    private void handleSubscriptionDeleted(Event event) {
-        try {
-            com.stripe.model.Subscription subscription = null;
-            if (event.getDataObjectDeserializer().getObject().isPresent()) {
-                subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer().getObject().get();
-            } else {
+                // Send payment failed email notification
                 try {
-                    subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer()
-                            .deserializeUnsafe();
-                    logger.warn("Using unsafe deserialization for subscription deleted event {}", event.getId());
+                    String userName = user.getName() != null ? user.getName() : "Valued Customer";
+                    emailService.sendPaymentFailedEmail(user.getEmail(), userName);
                 } catch (Exception e) {
-                    logger.error("Failed to deserialize subscription unsafe for event {}", event.getId(), e);
+                    logger.error("Failed to send payment failed email to user {}",
+                            user.getExternalId(), e);
                 }
+            });
+        }
+    }
+
+    private void handleSubscriptionUpdated(Event event) {
+        com.stripe.model.Subscription subscription = null;
+        if (event.getDataObjectDeserializer().getObject().isPresent()) {
+            subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer().getObject().get();
+        } else {
+            try {
+                subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer()
+                        .deserializeUnsafe();
+                logger.warn("Using unsafe deserialization for subscription updated event {}", event.getId());
+            } catch (Exception e) {
+                logger.error("Failed to deserialize subscription unsafe for event {}", event.getId(), e);
             }
+        }
+
+        if (subscription != null && subscription.getCustomer() != null) {
+            String customerId = subscription.getCustomer();
+            String status = subscription.getStatus();
 
-            if (subscription != null && subscription.getCustomer() != null) {
-                String customerId = subscription.getCustomer();
+            // ✅ Optimized: Use indexed query instead of findAll()
+            final com.stripe.model.Subscription finalSubscription = subscription;
+            userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
+                user.setSubscriptionStatus(status);
+                user.setCancelAtPeriodEnd(finalSubscription.getCancelAtPeriodEnd());
 
-                // ✅ Optimized: Use indexed query instead of findAll()
-                userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
+                // ✅ Handle unpaid status (after all Stripe retries exhausted)
+                if ("unpaid".equalsIgnoreCase(status)) {
                     user.setSubscriptionPlan("Free");
-                    user.setSubscriptionStatus("canceled");
                     user.setStripeSubscriptionId(null);
-                    userRepository.save(user);
-                    logger.info("Subscription canceled for user {}: Reverted to Free plan",
+                    logger.warn(
+                            "Subscription unpaid for user {}: Reverted to Free plan (all payment retries failed)",
                             user.getExternalId());
+                }
 
-                    // ✅ Send cancellation confirmation email
-                    try {
-                        String userName = user.getName() != null ? user.getName() : "Valued Customer";
-                        emailService.sendSubscriptionCanceledEmail(user.getEmail(), userName);
-                        logger.info("Sent cancellation email to user {}", user.getExternalId());
-                    } catch (Exception e) {
-                        logger.error("Failed to send cancellation email to user {}",
-                                user.getExternalId(), e);
-                    }
-                });
+                userRepository.save(user);
+                logger.info("Subscription updated for user {}: Status={}", user.getExternalId(), status);
+            });
+        }
+    }
+
+    private void handleSubscriptionDeleted(Event event) {
+        com.stripe.model.Subscription subscription = null;
+        if (event.getDataObjectDeserializer().getObject().isPresent()) {
+            subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer().getObject().get();
+        } else {
+            try {
+                subscription = (com.stripe.model.Subscription) event.getDataObjectDeserializer()
+                        .deserializeUnsafe();
+                logger.warn("Using unsafe deserialization for subscription deleted event {}", event.getId());
+            } catch (Exception e) {
+                logger.error("Failed to deserialize subscription unsafe for event {}", event.getId(), e);
             }
-        } catch (Exception e) {
-            logger.error("Error handling customer.subscription.deleted", e);
+        }
+
+        if (subscription != null && subscription.getCustomer() != null) {
+            String customerId = subscription.getCustomer();
+
+            // ✅ Optimized: Use indexed query instead of findAll()
+            userRepository.findByStripeCustomerId(customerId).ifPresent(user -> {
+                user.setSubscriptionPlan("Free");
+                user.setSubscriptionStatus("canceled");
+                user.setStripeSubscriptionId(null);
+                userRepository.save(user);
+                logger.info("Subscription canceled for user {}: Reverted to Free plan",
+                        user.getExternalId());
+
+                // ✅ Send cancellation confirmation email
+                try {
+                    String userName = user.getName() != null ? user.getName() : "Valued Customer";
+                    emailService.sendSubscriptionCanceledEmail(user.getEmail(), userName);
+                    logger.info("Sent cancellation email to user {}", user.getExternalId());
+                } catch (Exception e) {
+                    logger.error("Failed to send cancellation email to user {}",
+                            user.getExternalId(), e);
+                }
+            });
         }
     }
 
@@ -0,0 +1,157 @@
+package io.quickledger.services;
+
+import io.quickledger.config.StripeWebhookProperties;
+import io.quickledger.entities.StripeWebhookEvent;
+import io.quickledger.repositories.StripeWebhookEventRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable inbox of Stripe webhook events. {@link #receive} stores a verified event once per
+ * Stripe event id so the endpoint can acknowledge straight away; {@link StripeWebhookWorker}
+ * claims events with a lease and retries failures with exponential backoff until
+ * {@code stripe.webhook.inbox.max-attempts} is reached.
+ */
+@Service
+public class StripeWebhookInbox {
+
+    private final StripeWebhookEventRepository repository;
+    private final StripeWebhookProperties properties;
+
+    public StripeWebhookInbox(StripeWebhookEventRepository repository, StripeWebhookProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    /**
+     * Stores an event for processing.
+     *
+     * @return false if the event was already received
+     */
+    public boolean receive(String eventId, String eventType, String orderingKey, String payload) {
+        if (repository.existsByEventId(eventId)) {
+            return false;
+        }
+        StripeWebhookEvent event = new StripeWebhookEvent();
+        event.setEventId(eventId);
+        event.setEventType(eventType);
+        event.setOrderingKey(orderingKey);
+        event.setPayload(payload);
+        event.setStatus(StripeWebhookEvent.Status.PENDING);
+        event.setNextAttemptAt(now());
+        try {
+            repository.save(event);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent delivery of the same event got there first
+            return false;
+        }
+    }
+
+    /**
+     * Takes up to {@code limit} due events, at most one per ordering key, and leases them to the
+     * calling worker.
+     */
+    @Transactional
+    public List<StripeWebhookEvent> claim(int limit) {
+        LocalDateTime now = now();
+        List<Long> ids = repository.lockDueIds(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        repository.markClaimed(ids, StripeWebhookEvent.Status.PROCESSING, now.plusSeconds(properties.getLeaseSeconds()));
+        List<StripeWebhookEvent> claimed = new ArrayList<>(ids.size());
+        repository.findAllById(ids).forEach(claimed::add);
+        return claimed;
+    }
+
+    /**
+     * Joins the caller's transaction, so an event only counts as processed if its effects commit.
+     */
+    @Transactional
+    public void markProcessed(Long id) {
+        repository.markProcessed(id, StripeWebhookEvent.Status.PROCESSED, now());
+    }
+
+    /**
+     * Schedules another attempt, or gives up once the event has used all its attempts.
+     *
+     * @param attempts attempts made so far, including the one that just failed
+     * @return true if the event will be retried
+     */
+    @Transactional
+    public boolean markFailed(Long id, int attempts, String error) {
+        if (attempts >= properties.getMaxAttempts()) {
+            repository.markAttemptFailed(id, StripeWebhookEvent.Status.FAILED, now(), truncate(error));
+            return false;
+        }
+        repository.markAttemptFailed(id, StripeWebhookEvent.Status.PENDING,
+                now().plusSeconds(backoffSeconds(attempts)), truncate(error));
+        return true;
+    }
+
+    /**
+     * Queues a stored event to be processed again, whatever its current status.
+     *
+     * @return false if no event with that id was received
+     */
+    @Transactional
+    public boolean replay(String eventId) {
+        return repository.findByEventId(eventId).map(event -> {
+            event.setStatus(StripeWebhookEvent.Status.PENDING);
+            event.setAttempts(0);
+            event.setNextAttemptAt(now());
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Queues every event that ran out of attempts to be processed again.
+     */
+    @Transactional
+    public int replayFailed() {
+        return repository.requeueByStatus(StripeWebhookEvent.Status.FAILED, StripeWebhookEvent.Status.PENDING, now());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> summary() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : repository.countByStatus()) {
+            counts.put(row[0].toString(), (Long) row[1]);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("counts", counts);
+        summary.put("recentFailures", repository.findRecentEventIdsByStatus(StripeWebhookEvent.Status.FAILED));
+        return summary;
+    }
+
+    @Transactional
+    public int purgeProcessed() {
+        return repository.deleteByStatusAndProcessedAtBefore(StripeWebhookEvent.Status.PROCESSED,
+                now().minusDays(properties.getRetentionDays()));
+    }
+
+    // initial * 2^(attempts - 1), capped, with up to 20% jitter
+    long backoffSeconds(int attempts) {
+        long backoff = properties.getInitialBackoffSeconds() << Math.min(Math.max(attempts - 1, 0), 20);
+        backoff = Math.min(backoff, properties.getMaxBackoffSeconds());
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
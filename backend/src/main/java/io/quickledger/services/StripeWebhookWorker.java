@@ -0,0 +1,102 @@
+package io.quickledger.services;
+
+import com.stripe.model.Event;
+import io.quickledger.config.StripeWebhookProperties;
+import io.quickledger.entities.StripeWebhookEvent;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Processes the Stripe webhook inbox. Each poll claims the oldest due event of every customer
+ * or invoice and processes them in parallel on the worker pool; each event's updates, queued
+ * emails and processed mark commit together, so a retried event never repeats half its work.
+ * Several instances can drain at once, as claiming skips rows another instance has locked.
+ */
+@Service
+public class StripeWebhookWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookWorker.class);
+
+    private final StripeWebhookInbox inbox;
+    private final StripeService stripeService;
+    private final StripeWebhookProperties properties;
+    private final Executor stripeWebhookExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public StripeWebhookWorker(StripeWebhookInbox inbox, StripeService stripeService,
+                               StripeWebhookProperties properties,
+                               @Qualifier("stripeWebhookExecutor") Executor stripeWebhookExecutor,
+                               PlatformTransactionManager transactionManager) {
+        this.inbox = inbox;
+        this.stripeService = stripeService;
+        this.properties = properties;
+        this.stripeWebhookExecutor = stripeWebhookExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.inbox.poll-interval-ms:1000}")
+    public void drain() {
+        try {
+            while (true) {
+                List<StripeWebhookEvent> claimed = inbox.claim(properties.getClaimSize());
+                if (claimed.isEmpty()) {
+                    return;
+                }
+
+                List<CompletableFuture<Void>> running = new ArrayList<>(claimed.size());
+                for (StripeWebhookEvent event : claimed) {
+                    running.add(CompletableFuture.runAsync(() -> process(event), stripeWebhookExecutor));
+                }
+                CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+
+                if (claimed.size() < properties.getClaimSize()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error draining Stripe webhook inbox", e);
+        }
+    }
+
+    @Scheduled(cron = "0 30 4 * * *") // Daily at 4:30 AM
+    @SchedulerLock(name = "purgeStripeWebhookEvents", lockAtLeastFor = "PT5M", lockAtMostFor = "PT30M")
+    public void purgeProcessed() {
+        try {
+            int purged = inbox.purgeProcessed();
+            logger.info("Purged {} processed Stripe webhook events", purged);
+        } catch (Exception e) {
+            logger.error("Error purging Stripe webhook events", e);
+        }
+    }
+
+    void process(StripeWebhookEvent event) {
+        try {
+            Event stripeEvent = StripeService.parseEvent(event.getPayload());
+            transactionTemplate.executeWithoutResult(status -> {
+                stripeService.processEvent(stripeEvent);
+                inbox.markProcessed(event.getId());
+            });
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            // attempts was already counted when the event was claimed
+            if (inbox.markFailed(event.getId(), event.getAttempts(), error)) {
+                logger.warn("Stripe event {} ({}) failed (attempt {}), will retry: {}",
+                        event.getEventId(), event.getEventType(), event.getAttempts(), error);
+            } else {
+                logger.error("Stripe event {} ({}) failed after {} attempts",
+                        event.getEventId(), event.getEventType(), event.getAttempts(), e);
+            }
+        }
+    }
+}
@@ -1,34 +1,149 @@
 package io.quickledger.services;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quickledger.entities.Company;
 import io.quickledger.entities.User;
 import io.quickledger.entities.UserCompany;
+import io.quickledger.entities.UserCompanyId;
 import io.quickledger.repositories.UserCompanyRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserCompanyService {
 
+    private static final String REQUEST_MEMO_ATTRIBUTE = UserCompanyService.class.getName() + ".verified";
+
     private UserCompanyRepository userCompanyRepository;
 
-    public UserCompanyService(UserCompanyRepository userCompanyRepository) {
+    // Confirmed memberships with the time they expire. Only positive answers are cached, so a
+    // membership created on another instance is seen at once; a removed one lasts at most the TTL
+    private final Map<UserCompanyId, Long> membershipCache;
+    private final long ttlMillis;
+    private final Counter requestHits;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public UserCompanyService(UserCompanyRepository userCompanyRepository, MeterRegistry meterRegistry,
+            @Value("${tenant.membership-cache.max-entries:10000}") int maxEntries,
+            @Value("${tenant.membership-cache.ttl-seconds:300}") long ttlSeconds) {
         this.userCompanyRepository = userCompanyRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.membershipCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UserCompanyId, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.requestHits = Counter.builder("tenant.membership.checks").tag("result", "request_hit").register(meterRegistry);
+        this.cacheHits = Counter.builder("tenant.membership.checks").tag("result", "cache_hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("tenant.membership.checks").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("tenant.membership.cache.size", membershipCache, this::cacheSize).register(meterRegistry);
     }
 
     // check user and company relation exists. we have to user this on most APIs!
     public boolean checkUserBelongs(User user, Long companyID) {
-        Optional<UserCompany> output = userCompanyRepository.findByUserIdAndCompanyId(user.getId(), companyID);
-        if (!output.isPresent())
-            throw new RuntimeException("User " + user.getId() + " does not have access to company " + companyID
-                    + ". Please check user_companies table.");
+        UserCompanyId key = new UserCompanyId(user.getId(), companyID);
+
+        Set<UserCompanyId> verifiedInRequest = requestMemo();
+        if (verifiedInRequest != null && verifiedInRequest.contains(key)) {
+            requestHits.increment();
+            return true;
+        }
+
+        if (isCached(key)) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            Optional<UserCompany> output = userCompanyRepository.findByUserIdAndCompanyId(user.getId(), companyID);
+            if (!output.isPresent())
+                throw new RuntimeException("User " + user.getId() + " does not have access to company " + companyID
+                        + ". Please check user_companies table.");
+            synchronized (membershipCache) {
+                membershipCache.put(key, System.currentTimeMillis() + ttlMillis);
+            }
+        }
+
+        if (verifiedInRequest != null) {
+            verifiedInRequest.add(key);
+        }
         return true;
     }
 
     public UserCompany saveUserCompany(UserCompany userCompany) {
-        return userCompanyRepository.save(userCompany);
+        UserCompany saved = userCompanyRepository.save(userCompany);
+        evict(saved.getId());
+        return saved;
+    }
+
+    public void deleteUserCompany(UserCompany userCompany) {
+        userCompanyRepository.delete(userCompany);
+        evict(userCompany.getId());
+    }
+
+    /**
+     * Forgets every cached membership of a company, e.g. when the company is deleted.
+     */
+    public void evictCompany(Long companyId) {
+        synchronized (membershipCache) {
+            membershipCache.keySet().removeIf(key -> companyId.equals(key.getCompanyId()));
+        }
+    }
+
+    private void evict(UserCompanyId key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (membershipCache) {
+            membershipCache.remove(key);
+        }
+    }
+
+    private boolean isCached(UserCompanyId key) {
+        synchronized (membershipCache) {
+            Long expiresAt = membershipCache.get(key);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt <= System.currentTimeMillis()) {
+                membershipCache.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private double cacheSize(Map<UserCompanyId, Long> cache) {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // Memberships already confirmed in the current HTTP request, or null outside of one
+    @SuppressWarnings("unchecked")
+    private Set<UserCompanyId> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Set<UserCompanyId> verified = (Set<UserCompanyId>) attributes.getAttribute(REQUEST_MEMO_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (verified == null) {
+            verified = new HashSet<>();
+            attributes.setAttribute(REQUEST_MEMO_ATTRIBUTE, verified, RequestAttributes.SCOPE_REQUEST);
+        }
+        return verified;
     }
 
     // Add other methods as needed...
-}
\ No newline at end of file
+}
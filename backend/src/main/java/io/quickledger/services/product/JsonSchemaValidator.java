@@ -9,16 +9,39 @@ import com.networknt.schema.ValidationMessage;
 import com.networknt.schema.SpecVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Validates product instances against their definition's JSON schema. Compiled schemas are
+ * cached per product definition together with the schema they were compiled from, so a changed
+ * definition is recompiled on its next use even if it was updated on another instance; the least
+ * recently used are dropped beyond {@code product.schema-cache.max-entries}.
+ */
 @Component
 public class JsonSchemaValidator {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonSchemaValidator.class);
 
+    // The factory caches meta-schemas and is safe to share
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
+
+    private final ObjectMapper objectMapper;
+    private final int maxCachedSchemas;
+
+    // Access-ordered, so the eldest entry is the definition validated against least recently
+    private final LinkedHashMap<Long, CompiledSchema> schemasByDefinition = new LinkedHashMap<>(64, 0.75f, true);
+
+    public JsonSchemaValidator(ObjectMapper objectMapper,
+                               @Value("${product.schema-cache.max-entries:1000}") int maxCachedSchemas) {
+        this.objectMapper = objectMapper;
+        this.maxCachedSchemas = maxCachedSchemas;
+    }
+
     public static class ValidationResult {
         private boolean valid;
         private String message;
@@ -40,27 +63,65 @@ public class JsonSchemaValidator {
 
     public ValidationResult validateJsonSchema(String jsonSchema, String jsonPayload) {
         try {
-            JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
-            JsonSchema schema = factory.getSchema(jsonSchema);
-            Set<ValidationMessage> errors = schema.validate(new com.fasterxml.jackson.databind.ObjectMapper().readTree(jsonPayload));
-
-            if (errors.isEmpty()) {
-                return new ValidationResult(true, "JSON is valid");
-            } else {
-                return new ValidationResult(false, "Invalid JSON: " + errors.toString());
-            }
+            JsonSchema schema = SCHEMA_FACTORY.getSchema(jsonSchema);
+            return toResult(schema.validate(objectMapper.readTree(jsonPayload)));
         } catch (Exception e) {
             return new ValidationResult(false, "Exception: " + e.getMessage());
         }
     }
 
-    public List<JsonNode> updateJsonObjects(List<JsonNode> jsonObjects, JsonNode newSchemaNode) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonSchemaFactory schemaFactory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
+    /**
+     * Validates an instance against a product definition's schema, compiling the schema only if
+     * it differs from the one last compiled for that definition.
+     */
+    public ValidationResult validate(Long productDefinitionId, JsonNode schemaNode, JsonNode instance) {
+        try {
+            return toResult(compiledSchema(productDefinitionId, schemaNode).validate(instance));
+        } catch (Exception e) {
+            return new ValidationResult(false, "Exception: " + e.getMessage());
+        }
+    }
+
+    public void evict(Long productDefinitionId) {
+        synchronized (schemasByDefinition) {
+            schemasByDefinition.remove(productDefinitionId);
+        }
+    }
+
+    JsonSchema compiledSchema(Long productDefinitionId, JsonNode schemaNode) {
+        synchronized (schemasByDefinition) {
+            CompiledSchema cached = schemasByDefinition.get(productDefinitionId);
+            if (cached != null && cached.source().equals(schemaNode)) {
+                return cached.schema();
+            }
+        }
+
+        // Compiled outside the lock; two threads may both compile a new schema, which is harmless
+        JsonSchema schema = SCHEMA_FACTORY.getSchema(schemaNode);
+        schema.initializeValidators();
+        synchronized (schemasByDefinition) {
+            schemasByDefinition.put(productDefinitionId, new CompiledSchema(schemaNode.deepCopy(), schema));
+            while (schemasByDefinition.size() > maxCachedSchemas) {
+                schemasByDefinition.remove(schemasByDefinition.keySet().iterator().next());
+            }
+        }
+        return schema;
+    }
+
+    private static ValidationResult toResult(Set<ValidationMessage> errors) {
+        if (errors.isEmpty()) {
+            return new ValidationResult(true, "JSON is valid");
+        }
+        return new ValidationResult(false, "Invalid JSON: " + errors.toString());
+    }
 
+    private record CompiledSchema(JsonNode source, JsonSchema schema) {
+    }
+
+    public List<JsonNode> updateJsonObjects(List<JsonNode> jsonObjects, JsonNode newSchemaNode) {
         try {
             // Create JSON schema instance
-            JsonSchema newSchema = schemaFactory.getSchema(newSchemaNode);
+            JsonSchema newSchema = SCHEMA_FACTORY.getSchema(newSchemaNode);
 
             for (JsonNode jsonObject : jsonObjects) {
                 // Validate the JSON object against the new schema
@@ -25,12 +25,14 @@ public class ProductDefinitionService {
     private final ProductDefinitionMapper productDefinitionMapper;
     private final CompanyRepository companyRepository;
     private final JsonSchemaGenerator jsonSchemaGenerator;
+    private final JsonSchemaValidator jsonSchemaValidator;
 
-    public ProductDefinitionService(ProductDefinitionRepository productDefinitionRepository, ProductDefinitionMapper productDefinitionMapper, CompanyRepository companyRepository, JsonSchemaGenerator jsonSchemaGenerator) {
+    public ProductDefinitionService(ProductDefinitionRepository productDefinitionRepository, ProductDefinitionMapper productDefinitionMapper, CompanyRepository companyRepository, JsonSchemaGenerator jsonSchemaGenerator, JsonSchemaValidator jsonSchemaValidator) {
         this.productDefinitionRepository = productDefinitionRepository;
         this.productDefinitionMapper = productDefinitionMapper;
         this.companyRepository = companyRepository;
         this.jsonSchemaGenerator = jsonSchemaGenerator;
+        this.jsonSchemaValidator = jsonSchemaValidator;
     }
 
     public ProductDefinitionTabularDto save(ProductDefinitionTabularDto inputDto, Long companyId) {
@@ -60,6 +62,8 @@ public class ProductDefinitionService {
     public ProductDefinitionDto updateProduct(ProductDefinitionDto productDefinitionDTO) {
         ProductDefinition productDefinition = productDefinitionMapper.toEntity(productDefinitionDTO);
         productDefinition = productDefinitionRepository.save(productDefinition);
+        // A changed schema is also detected on use; evicting just frees the old compiled copy
+        jsonSchemaValidator.evict(productDefinition.getId());
         return productDefinitionMapper.toDto(productDefinition);
     }
 
@@ -78,5 +82,6 @@ public class ProductDefinitionService {
     public void deleteProductById(Long id) {
         //TODO this should only delete if there is no product associated with this product definition. RG
         productDefinitionRepository.deleteById(id);
+        jsonSchemaValidator.evict(id);
     }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package io.quickledger.services.product;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quickledger.dto.product.ProductInstanceDto;
 import io.quickledger.entities.product.ProductDefinition;
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -44,18 +45,11 @@ public class ProductInstanceService {
         productInstanceDto.setProductDefinitionId(productDefinitionId);
         ProductDefinition productDefinition = productDefinitionRepository.findById(productDefinitionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product Definition not found with id " + productDefinitionId));
-        // use validateJsonSchema() method from JsonSchemaValidator class to validate the productInstanceDto against the productDefinition schema
-        String productInstanceJson;
-        String productDefinitionSchema;
-        try {
-            productInstanceJson = objectMapper.writeValueAsString(productInstanceDto.getInstanceAttributes());
-            productDefinitionSchema = objectMapper.writeValueAsString(productDefinition.getProductAttributes().get("schema"));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error converting object to JSON string", e);
-        }
-
-        // Validate productInstanceDto against productDefinition schema
-        JsonSchemaValidator.ValidationResult validationResult = jsonSchemaValidator.validateJsonSchema(productDefinitionSchema, productInstanceJson);
+        // Validate productInstanceDto against productDefinition schema; the compiled schema is cached per definition
+        JsonNode productInstanceNode = objectMapper.valueToTree(productInstanceDto.getInstanceAttributes());
+        Map<String, Object> productAttributes = productDefinition.getProductAttributes();
+        JsonNode productDefinitionSchema = objectMapper.valueToTree(productAttributes != null ? productAttributes.get("schema") : null);
+        JsonSchemaValidator.ValidationResult validationResult = jsonSchemaValidator.validate(productDefinitionId, productDefinitionSchema, productInstanceNode);
         if (!validationResult.isValid()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, validationResult.getMessage());
         }
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -52,9 +53,20 @@ public class ProductItemService {
         return products.map(mapper::toDto);
     }
 
+    @Transactional
     public ProductItemDto save(ProductItemDto productItemDto, Long companyId) {
         ProductItem productItem = mapper.toEntity(productItemDto);
         productItem.setCompany(new Company(companyId));
+        if (productItem.getId() != null) {
+            // Stock is not on the DTO and only changes through InventoryService
+            productItemRepository.findById(productItem.getId()).ifPresent(existing -> {
+                productItem.setQuantityOnHand(existing.getQuantityOnHand());
+                productItem.setTrackInventory(existing.getTrackInventory());
+                productItem.setReorderPoint(existing.getReorderPoint());
+                productItem.setReorderQuantity(existing.getReorderQuantity());
+                productItem.setLowStock(existing.isLowStock());
+            });
+        }
         ProductItem savedProductItem = productItemRepository.save(productItem);
         return mapper.toDto(savedProductItem);
     }
@@ -0,0 +1,49 @@
+package io.quickledger.services.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Content-addressed storage for uploaded files. Content is keyed by its SHA-256, so storing the
+ * same bytes twice keeps one copy. Keys are shared between attachments, which is why nothing
+ * deletes a blob directly on upload or delete; {@code AttachmentStorageService} collects the
+ * ones no row references any more.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams {@code content} into the store. The stream is read to the end but not closed.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    /**
+     * The stored content, readable in ranges. Fails if the key is not in the store.
+     */
+    Resource get(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Visits every blob in the store, in no particular order.
+     */
+    void forEach(Consumer<StoredBlob> action) throws IOException;
+
+    /**
+     * Removes partial uploads left behind by a crash, for stores that keep them.
+     */
+    default void purgeIncompleteUploads(Instant olderThan) throws IOException {
+    }
+
+    /**
+     * @param lastModified when the content was last written or stored again; a blob stored
+     *                     again after a delete has a fresh time, so a collector can skip it
+     */
+    record StoredBlob(String key, long size, Instant lastModified) {
+    }
+}
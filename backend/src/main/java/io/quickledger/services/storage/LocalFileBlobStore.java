@@ -0,0 +1,141 @@
+package io.quickledger.services.storage;
+
+import io.quickledger.config.BlobStoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps blobs on the local filesystem as {@code <root>/<first two hex digits>/<sha-256>}.
+ * Uploads are streamed into {@code <root>/tmp} while being hashed and then renamed into place,
+ * so a reader never sees a partial file and two uploads of the same content cannot collide.
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage.blob", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileBlobStore.class);
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final String TMP_DIR = "tmp";
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalFileBlobStore(BlobStoreProperties properties) throws IOException {
+        this.root = Paths.get(properties.getLocalRoot()).toAbsolutePath().normalize();
+        this.tmp = root.resolve(TMP_DIR);
+        Files.createDirectories(tmp);
+        logger.info("Storing attachment blobs under {}", root);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                size = out.transferFrom(in, 0, Long.MAX_VALUE);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                // Same content is already stored; refresh it so a running collection keeps it
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(key, size, Files.getLastModifiedTime(target).toInstant());
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public Resource get(String key) throws IOException {
+        Path path = pathFor(key);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException("Blob not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(pathFor(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    @Override
+    public void forEach(Consumer<StoredBlob> action) throws IOException {
+        try (Stream<Path> files = Files.find(root, 2,
+                (path, attributes) -> attributes.isRegularFile() && KEY.matcher(path.getFileName().toString()).matches())) {
+            files.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    action.accept(new StoredBlob(path.getFileName().toString(), attributes.size(),
+                            attributes.lastModifiedTime().toInstant()));
+                } catch (NoSuchFileException e) {
+                    // Deleted while walking
+                } catch (IOException e) {
+                    logger.warn("Cannot read blob {}: {}", path, e.getMessage());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void purgeIncompleteUploads(Instant olderThan) throws IOException {
+        try (Stream<Path> parts = Files.list(tmp)) {
+            for (Path part : (Iterable<Path>) parts::iterator) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(olderThan)) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    private Path pathFor(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.quickledger.services.voice;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Offline stand-in for speech-to-text, enabled with {@code voice.stt.provider=fake}. The uploaded
+ * "audio" is read as UTF-8 text and returned as the transcript, so voice drafts can be exercised
+ * locally and in tests by uploading a text file with the phrase to parse.
+ */
+@Service
+@ConditionalOnProperty(prefix = "voice.stt", name = "provider", havingValue = "fake")
+public class FakeSpeechToTextService implements SpeechToTextService {
+
+    @Override
+    public String transcribe(InputStream audio, String languageCode, Integer sampleRateHertz, String encoding) throws IOException {
+        return new String(audio.readAllBytes(), StandardCharsets.UTF_8).strip();
+    }
+}
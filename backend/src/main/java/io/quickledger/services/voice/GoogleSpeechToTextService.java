@@ -1,30 +1,127 @@
 package io.quickledger.services.voice;
 
-import com.google.cloud.speech.v1.RecognitionAudio;
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.rpc.ClientStream;
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.api.gax.rpc.StreamController;
 import com.google.cloud.speech.v1.RecognitionConfig;
-import com.google.cloud.speech.v1.RecognizeResponse;
 import com.google.cloud.speech.v1.SpeechClient;
 import com.google.cloud.speech.v1.SpeechRecognitionAlternative;
-import com.google.cloud.speech.v1.SpeechRecognitionResult;
+import com.google.cloud.speech.v1.SpeechSettings;
+import com.google.cloud.speech.v1.StreamingRecognitionConfig;
+import com.google.cloud.speech.v1.StreamingRecognitionResult;
+import com.google.cloud.speech.v1.StreamingRecognizeRequest;
+import com.google.cloud.speech.v1.StreamingRecognizeResponse;
 import com.google.protobuf.ByteString;
 import io.quickledger.config.VoiceProperties;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Streams audio to Google Cloud Speech-to-Text. One {@link SpeechClient} is shared by all
+ * requests, so the gRPC channels, TLS sessions and credentials are set up once; it is created on
+ * first use so the application starts without Google credentials when voice drafts are unused.
+ */
 @Service
+@ConditionalOnProperty(prefix = "voice.stt", name = "provider", havingValue = "google", matchIfMissing = true)
 public class GoogleSpeechToTextService implements SpeechToTextService {
     private static final Logger logger = LoggerFactory.getLogger(GoogleSpeechToTextService.class);
+
+    // Streaming requests are limited to 25 KB each, including the config message
+    private static final int MAX_CHUNK_BYTES = 24 * 1024;
+
     private final VoiceProperties voiceProperties;
+    private volatile SpeechClient speechClient;
 
     public GoogleSpeechToTextService(VoiceProperties voiceProperties) {
         this.voiceProperties = voiceProperties;
     }
 
     @Override
-    public String transcribe(byte[] audioBytes, String languageCode, Integer sampleRateHertz, String encoding) {
+    public String transcribe(InputStream audio, String languageCode, Integer sampleRateHertz, String encoding) throws IOException {
+        StreamingRecognizeRequest configRequest = StreamingRecognizeRequest.newBuilder()
+                .setStreamingConfig(StreamingRecognitionConfig.newBuilder()
+                        .setConfig(buildConfig(languageCode, sampleRateHertz, encoding))
+                        .setInterimResults(false))
+                .build();
+
+        TranscriptObserver observer = new TranscriptObserver();
+        ClientStream<StreamingRecognizeRequest> requests = client().streamingRecognizeCallable().splitCall(observer);
+        try {
+            requests.send(configRequest);
+            byte[] buffer = new byte[Math.min(Math.max(voiceProperties.getStt().getStreamChunkBytes(), 1024), MAX_CHUNK_BYTES)];
+            int read;
+            while ((read = audio.readNBytes(buffer, 0, buffer.length)) > 0) {
+                requests.send(StreamingRecognizeRequest.newBuilder()
+                        .setAudioContent(ByteString.copyFrom(buffer, 0, read))
+                        .build());
+            }
+            requests.closeSend();
+        } catch (IOException | RuntimeException e) {
+            requests.closeSendWithError(e);
+            throw e;
+        }
+
+        try {
+            return observer.transcript.get(voiceProperties.getStt().getTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            observer.cancel();
+            throw new IllegalStateException("Speech-to-text timed out", e);
+        } catch (InterruptedException e) {
+            observer.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for speech-to-text", e);
+        } catch (ExecutionException e) {
+            logger.error("Speech-to-text request failed", e.getCause());
+            throw new IllegalStateException("Speech-to-text request failed", e.getCause());
+        }
+    }
+
+    private SpeechClient client() throws IOException {
+        SpeechClient client = speechClient;
+        if (client == null) {
+            synchronized (this) {
+                client = speechClient;
+                if (client == null) {
+                    int poolSize = Math.max(voiceProperties.getStt().getChannelPoolSize(), 1);
+                    SpeechSettings settings = SpeechSettings.newBuilder()
+                            .setTransportChannelProvider(SpeechSettings.defaultGrpcTransportProviderBuilder()
+                                    .setChannelPoolSettings(ChannelPoolSettings.staticallySized(poolSize))
+                                    .build())
+                            .build();
+                    try {
+                        client = SpeechClient.create(settings);
+                    } catch (IOException e) {
+                        logger.error("Failed to initialize Google Speech client", e);
+                        throw e;
+                    }
+                    logger.info("Created Google Speech client with {} channel(s)", poolSize);
+                    speechClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    @PreDestroy
+    public void close() {
+        SpeechClient client = speechClient;
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private RecognitionConfig buildConfig(String languageCode, Integer sampleRateHertz, String encoding) {
         String resolvedLanguage = languageCode != null ? languageCode : voiceProperties.getStt().getLanguageCode();
         Integer resolvedSampleRate = sampleRateHertz != null ? sampleRateHertz : voiceProperties.getStt().getSampleRateHertz();
         String resolvedEncoding = encoding != null ? encoding : voiceProperties.getStt().getEncoding();
@@ -41,42 +138,65 @@ public class GoogleSpeechToTextService implements SpeechToTextService {
         if (resolvedSampleRate != null) {
             configBuilder.setSampleRateHertz(resolvedSampleRate);
         }
+        return configBuilder.build();
+    }
 
-        RecognitionAudio audio = RecognitionAudio.newBuilder()
-                .setContent(ByteString.copyFrom(audioBytes))
-                .build();
+    private RecognitionConfig.AudioEncoding parseEncoding(String encoding) {
+        if (encoding == null || encoding.isBlank()) {
+            return null;
+        }
+        try {
+            return RecognitionConfig.AudioEncoding.valueOf(encoding.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Unknown audio encoding '{}', leaving unset", encoding);
+            return null;
+        }
+    }
+
+    /**
+     * Joins the final results into one transcript, completed once the server closes the stream.
+     */
+    private static final class TranscriptObserver implements ResponseObserver<StreamingRecognizeResponse> {
+        private final CompletableFuture<String> transcript = new CompletableFuture<>();
+        private final StringBuilder text = new StringBuilder();
+        private volatile StreamController controller;
 
-        try (SpeechClient speechClient = SpeechClient.create()) {
-            RecognizeResponse response = speechClient.recognize(configBuilder.build(), audio);
-            StringBuilder transcript = new StringBuilder();
-            for (SpeechRecognitionResult result : response.getResultsList()) {
-                if (result.getAlternativesCount() == 0) {
+        @Override
+        public void onStart(StreamController controller) {
+            this.controller = controller;
+        }
+
+        @Override
+        public void onResponse(StreamingRecognizeResponse response) {
+            for (StreamingRecognitionResult result : response.getResultsList()) {
+                if (!result.getIsFinal() || result.getAlternativesCount() == 0) {
                     continue;
                 }
                 SpeechRecognitionAlternative alternative = result.getAlternatives(0);
                 if (!alternative.getTranscript().isBlank()) {
-                    if (transcript.length() > 0) {
-                        transcript.append(" ");
+                    if (text.length() > 0) {
+                        text.append(" ");
                     }
-                    transcript.append(alternative.getTranscript().trim());
+                    text.append(alternative.getTranscript().trim());
                 }
             }
-            return transcript.toString();
-        } catch (IOException e) {
-            logger.error("Failed to initialize Google Speech client", e);
-            throw new IllegalStateException("Unable to initialize speech-to-text client", e);
         }
-    }
 
-    private RecognitionConfig.AudioEncoding parseEncoding(String encoding) {
-        if (encoding == null || encoding.isBlank()) {
-            return null;
+        @Override
+        public void onError(Throwable t) {
+            transcript.completeExceptionally(t);
         }
-        try {
-            return RecognitionConfig.AudioEncoding.valueOf(encoding.trim().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            logger.warn("Unknown audio encoding '{}', leaving unset", encoding);
-            return null;
+
+        @Override
+        public void onComplete() {
+            transcript.complete(text.toString());
+        }
+
+        private void cancel() {
+            StreamController current = controller;
+            if (current != null) {
+                current.cancel();
+            }
         }
     }
 }
@@ -3,6 +3,7 @@ package io.quickledger.services.voice;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quickledger.config.VoiceProperties;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -14,7 +15,15 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class OllamaClient {
@@ -23,8 +32,21 @@ public class OllamaClient {
     private final ObjectMapper objectMapper;
     private final VoiceProperties voiceProperties;
 
+    // Closes streamed responses that pass their deadline, as a read waiting on a stalled model
+    // never returns to check it
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama-stream-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public OllamaClient(ObjectMapper objectMapper, VoiceProperties voiceProperties) {
-        this.httpClient = HttpClient.newHttpClient();
+        // One client for the application so connections are reused. HTTP/2 is used when the
+        // server offers it (e.g. behind a TLS proxy); a plain Ollama endpoint stays on HTTP/1.1 keep-alive
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(voiceProperties.getLlm().getConnectTimeoutMs()))
+                .build();
         this.objectMapper = objectMapper;
         this.voiceProperties = voiceProperties;
     }
@@ -33,12 +55,13 @@ public class OllamaClient {
         String baseUrl = normalizeBaseUrl(voiceProperties.getLlm().getBaseUrl());
         String model = voiceProperties.getLlm().getModel();
         int timeoutMs = voiceProperties.getLlm().getTimeoutMs();
+        boolean stream = voiceProperties.getLlm().isStream();
 
         Map<String, Object> payload = new HashMap<>();
         payload.put("model", model);
         payload.put("prompt", prompt);
         payload.put("system", system);
-        payload.put("stream", false);
+        payload.put("stream", stream);
         payload.put("format", "json");
         Map<String, Object> options = new HashMap<>();
         options.put("temperature", 0);
@@ -53,6 +76,11 @@ public class OllamaClient {
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .build();
 
+            if (stream) {
+                return readStream(httpClient.send(request, HttpResponse.BodyHandlers.ofLines()),
+                        System.nanoTime() + Duration.ofMillis(timeoutMs).toNanos());
+            }
+
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() >= 300) {
                 logger.error("Ollama request failed: status={} body={}", response.statusCode(), response.body());
@@ -76,6 +104,116 @@ public class OllamaClient {
         }
     }
 
+    /**
+     * Joins the streamed fragments, returning as soon as the top-level JSON object closes rather
+     * than waiting for the model to finish; models in JSON mode often pad the end with whitespace.
+     * The request timeout only covers the response headers, so the body is closed when the deadline passes.
+     */
+    private String readStream(HttpResponse<Stream<String>> response, long deadline) throws IOException {
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() >= 300) {
+                String body = lines.collect(Collectors.joining("\n"));
+                logger.error("Ollama request failed: status={} body={}", response.statusCode(), body);
+                throw new IllegalStateException("LLM request failed with status " + response.statusCode());
+            }
+            return readFragments(lines.iterator(), lines, deadline);
+        }
+    }
+
+    String readFragments(Iterator<String> lines, AutoCloseable body, long deadline) throws IOException {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = deadlines.schedule(() -> {
+            timedOut.set(true);
+            try {
+                body.close();
+            } catch (Exception e) {
+                logger.warn("Cannot close the timed out LLM response: {}", e.getMessage());
+            }
+        }, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        try {
+            String json = joinFragments(lines, timedOut);
+            if (timedOut.get()) {
+                throw new IllegalStateException("LLM request timed out");
+            }
+            return json;
+        } catch (IOException | RuntimeException e) {
+            // Closing the body makes the blocked read fail or end early
+            if (timedOut.get()) {
+                throw new IllegalStateException("LLM request timed out", e);
+            }
+            throw e;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private String joinFragments(Iterator<String> lines, AtomicBoolean timedOut) throws IOException {
+        StringBuilder json = new StringBuilder();
+        JsonObjectEnd end = new JsonObjectEnd();
+        while (!timedOut.get() && lines.hasNext()) {
+            String line = lines.next();
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode chunk = objectMapper.readTree(line);
+            if (chunk.hasNonNull("error")) {
+                throw new IllegalStateException("LLM request failed: " + chunk.get("error").asText());
+            }
+            String fragment = chunk.path("response").asText("");
+            int close = end.find(fragment);
+            if (close >= 0) {
+                return json.append(fragment, 0, close + 1).toString().trim();
+            }
+            json.append(fragment);
+            if (chunk.path("done").asBoolean(false)) {
+                break;
+            }
+        }
+        if (json.isEmpty()) {
+            throw new IllegalStateException("LLM response was empty");
+        }
+        return json.toString().trim();
+    }
+
+    @PreDestroy
+    public void close() {
+        deadlines.shutdownNow();
+    }
+
+    /**
+     * Tracks brace depth across fragments, ignoring braces inside strings.
+     */
+    private static final class JsonObjectEnd {
+        private int depth;
+        private boolean started;
+        private boolean inString;
+        private boolean escaped;
+
+        // Index in the fragment of the brace closing the top-level object, or -1
+        int find(String fragment) {
+            for (int i = 0; i < fragment.length(); i++) {
+                char c = fragment.charAt(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{') {
+                    depth++;
+                    started = true;
+                } else if (c == '}' && started && --depth == 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
     private String normalizeBaseUrl(String baseUrl) {
         if (baseUrl == null || baseUrl.isBlank()) {
             return "http://localhost:11434";
@@ -1,5 +1,21 @@
 package io.quickledger.services.voice;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
 public interface SpeechToTextService {
-    String transcribe(byte[] audioBytes, String languageCode, Integer sampleRateHertz, String encoding);
+    /**
+     * Transcribes audio read from {@code audio} as it arrives; the caller keeps ownership of the stream.
+     */
+    String transcribe(InputStream audio, String languageCode, Integer sampleRateHertz, String encoding) throws IOException;
+
+    default String transcribe(byte[] audioBytes, String languageCode, Integer sampleRateHertz, String encoding) {
+        try {
+            return transcribe(new ByteArrayInputStream(audioBytes), languageCode, sampleRateHertz, encoding);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package io.quickledger.services.voice;
+
+import io.quickledger.dto.voice.VoiceDraftJobDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-sent event subscriptions to voice draft jobs on this instance. Each subscriber gets a
+ * {@code status} event whenever the job's status or stage timestamp changes, and the stream is
+ * completed once the job has finished.
+ */
+@Component
+public class VoiceDraftJobEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceDraftJobEvents.class);
+
+    private final Map<Long, CopyOnWriteArrayList<Subscription>> byJob = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(VoiceDraftJobDto current, long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter);
+        if (!subscription.send(current)) {
+            return emitter;
+        }
+        CopyOnWriteArrayList<Subscription> subscriptions = byJob.computeIfAbsent(current.getId(),
+                id -> new CopyOnWriteArrayList<>());
+        subscriptions.add(subscription);
+        Runnable remove = () -> unsubscribe(current.getId(), subscription);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    public boolean hasSubscribers(Long jobId) {
+        return byJob.containsKey(jobId);
+    }
+
+    public Set<Long> subscribedJobIds() {
+        return byJob.keySet();
+    }
+
+    public void publish(VoiceDraftJobDto job) {
+        CopyOnWriteArrayList<Subscription> subscriptions = byJob.get(job.getId());
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.send(job)) {
+                unsubscribe(job.getId(), subscription);
+            }
+        }
+    }
+
+    private void unsubscribe(Long jobId, Subscription subscription) {
+        byJob.computeIfPresent(jobId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private VoiceDraftJobDto lastSent;
+
+        private Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return false once the stream is closed, either because the job finished or the client went away
+         */
+        private synchronized boolean send(VoiceDraftJobDto job) {
+            if (lastSent != null && lastSent.getStatus() == job.getStatus()
+                    && Objects.equals(lastSent.getModifiedDate(), job.getModifiedDate())) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("status").data(job));
+                lastSent = job;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Voice draft job {} subscriber went away: {}", job.getId(), e.getMessage());
+                return false;
+            }
+            if (job.getStatus().isFinished()) {
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+    }
+}
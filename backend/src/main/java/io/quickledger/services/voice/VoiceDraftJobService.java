@@ -0,0 +1,395 @@
+package io.quickledger.services.voice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quickledger.config.VoiceProperties;
+import io.quickledger.dto.voice.VoiceDraftJobDto;
+import io.quickledger.dto.voice.VoiceDraftResponse;
+import io.quickledger.dto.voice.VoiceParseResult;
+import io.quickledger.entities.User;
+import io.quickledger.entities.voice.VoiceDraftJob;
+import io.quickledger.entities.voice.VoiceDraftJob.Status;
+import io.quickledger.repositories.voice.VoiceDraftJobRepository;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntSupplier;
+
+/**
+ * Builds voice drafts in the background so request threads never wait on speech recognition or
+ * the LLM. A submitted recording is spooled to a temporary file and run on the bounded
+ * {@code voiceDraftExecutor} through transcribe, parse and save, with the job row updated at each
+ * stage so any instance can answer status polls. Each company may have at most
+ * {@code voice.jobs.max-active-per-company} unfinished jobs; the check is made at submission and
+ * is not atomic, so simultaneous submissions may briefly exceed it.
+ */
+@Service
+public class VoiceDraftJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceDraftJobService.class);
+
+    private static final Set<Status> QUEUED = EnumSet.of(Status.QUEUED);
+    private static final Set<Status> TRANSCRIBING = EnumSet.of(Status.TRANSCRIBING);
+    private static final Set<Status> PARSING = EnumSet.of(Status.PARSING);
+    private static final Set<Status> SAVING = EnumSet.of(Status.SAVING);
+    private static final Set<Status> FINISHED = EnumSet.complementOf(EnumSet.copyOf(Status.ACTIVE));
+
+    private final VoiceDraftJobRepository voiceDraftJobRepository;
+    private final VoiceDraftService voiceDraftService;
+    private final VoiceDraftJobEvents events;
+    private final VoiceProperties voiceProperties;
+    private final ObjectMapper objectMapper;
+    private final Executor voiceDraftExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Jobs running on this instance, so cancellation can interrupt the stage in progress
+    private final Map<Long, RunningJob> running = new ConcurrentHashMap<>();
+
+    public VoiceDraftJobService(VoiceDraftJobRepository voiceDraftJobRepository,
+                                VoiceDraftService voiceDraftService,
+                                VoiceDraftJobEvents events,
+                                VoiceProperties voiceProperties,
+                                ObjectMapper objectMapper,
+                                @Qualifier("voiceDraftExecutor") Executor voiceDraftExecutor,
+                                PlatformTransactionManager transactionManager) {
+        this.voiceDraftJobRepository = voiceDraftJobRepository;
+        this.voiceDraftService = voiceDraftService;
+        this.events = events;
+        this.voiceProperties = voiceProperties;
+        this.objectMapper = objectMapper;
+        this.voiceDraftExecutor = voiceDraftExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public VoiceDraftJobDto submit(Long companyId, MultipartFile audio, String documentType, String languageCode,
+                                   Integer sampleRateHertz, String encoding, User user) {
+        RunningJob job = start(companyId, audio, documentType, languageCode, sampleRateHertz, encoding, user);
+        return toDto(job.submitted);
+    }
+
+    /**
+     * Submits a job and returns the draft once it has been saved, for callers that want a single
+     * request; the request thread is released while the job runs.
+     */
+    public CompletableFuture<VoiceDraftResponse> submitAndAwait(Long companyId, MultipartFile audio, String documentType,
+                                                                String languageCode, Integer sampleRateHertz,
+                                                                String encoding, User user) {
+        return start(companyId, audio, documentType, languageCode, sampleRateHertz, encoding, user).result;
+    }
+
+    public VoiceDraftJobDto getJob(Long companyId, Long jobId, User user) {
+        return toDto(find(companyId, jobId, user));
+    }
+
+    public SseEmitter subscribe(Long companyId, Long jobId, User user) {
+        return events.subscribe(getJob(companyId, jobId, user), voiceProperties.getJobs().getSseTimeoutMs());
+    }
+
+    /**
+     * Cancels a job that has not started saving its draft. A stage running on this instance is
+     * interrupted; one running elsewhere stops at its next stage change.
+     */
+    public VoiceDraftJobDto cancel(Long companyId, Long jobId, User user) {
+        VoiceDraftJob job = find(companyId, jobId, user);
+        if (job.getStatus().isFinished()) {
+            return toDto(job);
+        }
+        int cancelled = inTransaction(() -> voiceDraftJobRepository.finish(jobId, Status.CANCELLABLE,
+                Status.CANCELLED, null, "Cancelled", now()));
+        if (cancelled == 0) {
+            VoiceDraftJob current = find(companyId, jobId, user);
+            if (current.getStatus() == Status.SAVING) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "The draft is already being saved");
+            }
+            return toDto(current);
+        }
+        RunningJob local = running.get(jobId);
+        if (local != null) {
+            local.cancel();
+        }
+        notifySubscribers(jobId);
+        return getJob(companyId, jobId, user);
+    }
+
+    private RunningJob start(Long companyId, MultipartFile audio, String documentType, String languageCode,
+                             Integer sampleRateHertz, String encoding, User user) {
+        int limit = voiceProperties.getJobs().getMaxActivePerCompany();
+        if (voiceDraftJobRepository.countByCompanyIdAndStatusIn(companyId, Status.ACTIVE) >= limit) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many voice drafts in progress, wait for one to finish");
+        }
+
+        Path audioFile = spool(audio);
+        VoiceDraftJob job = new VoiceDraftJob();
+        job.setCompanyId(companyId);
+        job.setUserId(user.getId());
+        job.setStatus(Status.QUEUED);
+        job = voiceDraftJobRepository.save(job);
+
+        RunningJob run = new RunningJob(job);
+        running.put(job.getId(), run);
+        try {
+            voiceDraftExecutor.execute(() -> run(run, audioFile, companyId, documentType, languageCode,
+                    sampleRateHertz, encoding, user));
+        } catch (RejectedExecutionException e) {
+            running.remove(job.getId());
+            deleteQuietly(audioFile);
+            voiceDraftJobRepository.deleteById(job.getId());
+            logger.warn("Voice draft queue is full, rejected job for company {}", companyId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Voice drafts are busy, try again shortly");
+        }
+        return run;
+    }
+
+    private void run(RunningJob run, Path audioFile, Long companyId, String documentType, String languageCode,
+             Integer sampleRateHertz, String encoding, User user) {
+        Long jobId = run.submitted.getId();
+        try {
+            if (!advance(jobId, QUEUED, Status.TRANSCRIBING, null)) {
+                run.result.completeExceptionally(new CancellationException("Voice draft was cancelled"));
+                return;
+            }
+            String transcript = run.interruptibly(() -> {
+                try (InputStream audio = Files.newInputStream(audioFile)) {
+                    return voiceDraftService.transcribe(audio, languageCode, sampleRateHertz, encoding);
+                }
+            });
+            deleteQuietly(audioFile);
+
+            if (!advance(jobId, TRANSCRIBING, Status.PARSING, transcript)) {
+                run.result.completeExceptionally(new CancellationException("Voice draft was cancelled"));
+                return;
+            }
+            VoiceParseResult parseResult = run.interruptibly(() -> voiceDraftService.parse(transcript, documentType));
+
+            if (!advance(jobId, PARSING, Status.SAVING, null)) {
+                run.result.completeExceptionally(new CancellationException("Voice draft was cancelled"));
+                return;
+            }
+            // The draft and the job's result commit together
+            VoiceDraftResponse response = transactionTemplate.execute(status -> {
+                VoiceDraftResponse saved = voiceDraftService.saveDraft(companyId, transcript, parseResult, user);
+                voiceDraftJobRepository.finish(jobId, SAVING, Status.COMPLETED, toJson(saved), null, now());
+                return saved;
+            });
+            run.result.complete(response);
+        } catch (CancellationException e) {
+            run.result.completeExceptionally(e);
+        } catch (Exception e) {
+            logger.error("Voice draft job {} for company {} failed", jobId, companyId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            inTransaction(() -> voiceDraftJobRepository.finish(jobId, Status.ACTIVE, Status.FAILED, null,
+                    truncate(message), now()));
+            run.result.completeExceptionally(e);
+        } finally {
+            running.remove(jobId);
+            deleteQuietly(audioFile);
+            notifySubscribers(jobId);
+        }
+    }
+
+    private boolean advance(Long jobId, Set<Status> expected, Status next, String transcript) {
+        int updated = inTransaction(() -> transcript != null
+                ? voiceDraftJobRepository.transitionWithTranscript(jobId, expected, next, transcript, now())
+                : voiceDraftJobRepository.transition(jobId, expected, next, now()));
+        if (updated == 1) {
+            notifySubscribers(jobId);
+        }
+        return updated == 1;
+    }
+
+    private void notifySubscribers(Long jobId) {
+        if (events.hasSubscribers(jobId)) {
+            voiceDraftJobRepository.findById(jobId).ifPresent(job -> events.publish(toDto(job)));
+        }
+    }
+
+    /**
+     * Pushes progress of jobs running on other instances to subscribers connected here.
+     */
+    @Scheduled(fixedDelayString = "${voice.jobs.subscription-poll-ms:1000}")
+    public void refreshSubscriptions() {
+        try {
+            List<Long> remote = events.subscribedJobIds().stream()
+                    .filter(jobId -> !running.containsKey(jobId))
+                    .toList();
+            if (!remote.isEmpty()) {
+                voiceDraftJobRepository.findAllById(remote).forEach(job -> events.publish(toDto(job)));
+            }
+        } catch (Exception e) {
+            logger.error("Error refreshing voice draft job subscriptions", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${voice.jobs.stale-check-interval-ms:60000}")
+    @SchedulerLock(name = "failStaleVoiceDraftJobs", lockAtMostFor = "PT5M")
+    public void failStaleJobs() {
+        try {
+            LocalDateTime now = now();
+            int failed = inTransaction(() -> voiceDraftJobRepository.failStale(Status.ACTIVE, Status.FAILED,
+                    "Interrupted", now.minusMinutes(voiceProperties.getJobs().getStaleMinutes()), now));
+            if (failed > 0) {
+                logger.warn("Marked {} interrupted voice draft jobs as failed", failed);
+            }
+        } catch (Exception e) {
+            logger.error("Error failing stale voice draft jobs", e);
+        }
+    }
+
+    @Scheduled(cron = "0 45 4 * * *") // Daily at 4:45 AM
+    @SchedulerLock(name = "purgeVoiceDraftJobs", lockAtLeastFor = "PT5M", lockAtMostFor = "PT30M")
+    public void purgeFinishedJobs() {
+        try {
+            int purged = inTransaction(() -> voiceDraftJobRepository.deleteFinishedBefore(FINISHED,
+                    now().minusDays(voiceProperties.getJobs().getRetentionDays())));
+            logger.info("Purged {} finished voice draft jobs", purged);
+        } catch (Exception e) {
+            logger.error("Error purging voice draft jobs", e);
+        }
+    }
+
+    private VoiceDraftJob find(Long companyId, Long jobId, User user) {
+        return voiceDraftJobRepository.findByIdAndCompanyIdAndUserId(jobId, companyId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Voice draft job not found"));
+    }
+
+    private VoiceDraftJobDto toDto(VoiceDraftJob job) {
+        VoiceDraftJobDto dto = new VoiceDraftJobDto();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus());
+        dto.setTranscript(job.getTranscript());
+        dto.setError(job.getError());
+        dto.setCreatedDate(job.getCreatedDate());
+        dto.setModifiedDate(job.getModifiedDate());
+        dto.setCompletedAt(job.getCompletedAt());
+        if (job.getResult() != null) {
+            try {
+                dto.setResult(objectMapper.readValue(job.getResult(), VoiceDraftResponse.class));
+            } catch (JsonProcessingException e) {
+                logger.warn("Unreadable result for voice draft job {}", job.getId(), e);
+            }
+        }
+        return dto;
+    }
+
+    private String toJson(VoiceDraftResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to store voice draft result", e);
+        }
+    }
+
+    private int inTransaction(IntSupplier work) {
+        Integer updated = transactionTemplate.execute(status -> work.getAsInt());
+        return updated != null ? updated : 0;
+    }
+
+    private static Path spool(MultipartFile audio) {
+        try {
+            Path file = Files.createTempFile("voice-draft-", ".audio");
+            try (InputStream in = audio.getInputStream()) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read audio input", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete voice draft audio {}", file, e);
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 2000 ? error.substring(0, 2000) : error;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    private interface Stage<T> {
+        T call() throws Exception;
+    }
+
+    private static final class RunningJob {
+        private final VoiceDraftJob submitted;
+        private final CompletableFuture<VoiceDraftResponse> result = new CompletableFuture<>();
+        private Thread worker;
+        private boolean cancelled;
+
+        private RunningJob(VoiceDraftJob submitted) {
+            this.submitted = submitted;
+        }
+
+        /**
+         * Runs a stage that may be interrupted by {@link #cancel}. The interrupt flag is cleared
+         * before returning, so it can never reach the database work that follows.
+         */
+        private <T> T interruptibly(Stage<T> stage) throws Exception {
+            synchronized (this) {
+                if (cancelled) {
+                    throw new CancellationException("Voice draft was cancelled");
+                }
+                worker = Thread.currentThread();
+            }
+            try {
+                return stage.call();
+            } catch (Exception e) {
+                if (isCancelled()) {
+                    throw new CancellationException("Voice draft was cancelled");
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    worker = null;
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
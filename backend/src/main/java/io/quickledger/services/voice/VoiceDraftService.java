@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,38 +46,49 @@ public class VoiceDraftService {
             Integer sampleRateHertz,
             String encoding,
             User user) {
-        try {
-            String transcript = speechToTextService.transcribe(
-                    audio.getBytes(),
-                    languageCode,
-                    sampleRateHertz,
-                    encoding);
-
-            VoiceParseResult parseResult = voiceParseService.parseTranscript(transcript);
-            VoiceDocumentType overrideType = VoiceDocumentType.fromString(documentTypeOverride);
-            if (overrideType != VoiceDocumentType.UNKNOWN) {
-                parseResult.setDocumentType(overrideType);
-            }
+        String transcript;
+        try (InputStream audioStream = audio.getInputStream()) {
+            transcript = transcribe(audioStream, languageCode, sampleRateHertz, encoding);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read audio input", e);
+        }
+        VoiceParseResult parseResult = parse(transcript, documentTypeOverride);
+        return saveDraft(companyId, transcript, parseResult, user);
+    }
 
-            VoiceDraftResponse response = new VoiceDraftResponse();
-            response.setTranscript(transcript);
-            response.setParseResult(parseResult);
-            response.setWarnings(buildWarnings(parseResult));
+    // The stages below are run one at a time by VoiceDraftJobService, which records progress between them
 
-            if (parseResult.getDocumentType() == VoiceDocumentType.QUOTE) {
-                QuoteDto draft = buildQuoteDto(parseResult, companyId, user);
-                QuoteDto saved = quoteService.createOrUpdateQuote(draft, companyId, user.getId());
-                response.setQuote(saved);
-            } else {
-                InvoiceDto draft = buildInvoiceDto(parseResult, companyId, user);
-                InvoiceDto saved = invoiceService.createUpdate(companyId, draft, user);
-                response.setInvoice(saved);
-            }
+    public String transcribe(InputStream audio, String languageCode, Integer sampleRateHertz, String encoding)
+            throws IOException {
+        return speechToTextService.transcribe(audio, languageCode, sampleRateHertz, encoding);
+    }
 
-            return response;
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to read audio input", e);
+    public VoiceParseResult parse(String transcript, String documentTypeOverride) {
+        VoiceParseResult parseResult = voiceParseService.parseTranscript(transcript);
+        VoiceDocumentType overrideType = VoiceDocumentType.fromString(documentTypeOverride);
+        if (overrideType != VoiceDocumentType.UNKNOWN) {
+            parseResult.setDocumentType(overrideType);
         }
+        return parseResult;
+    }
+
+    public VoiceDraftResponse saveDraft(Long companyId, String transcript, VoiceParseResult parseResult, User user) {
+        VoiceDraftResponse response = new VoiceDraftResponse();
+        response.setTranscript(transcript);
+        response.setParseResult(parseResult);
+        response.setWarnings(buildWarnings(parseResult));
+
+        if (parseResult.getDocumentType() == VoiceDocumentType.QUOTE) {
+            QuoteDto draft = buildQuoteDto(parseResult, companyId, user);
+            QuoteDto saved = quoteService.createOrUpdateQuote(draft, companyId, user.getId());
+            response.setQuote(saved);
+        } else {
+            InvoiceDto draft = buildInvoiceDto(parseResult, companyId, user);
+            InvoiceDto saved = invoiceService.createUpdate(companyId, draft, user);
+            response.setInvoice(saved);
+        }
+
+        return response;
     }
 
     private List<String> buildWarnings(VoiceParseResult parseResult) {
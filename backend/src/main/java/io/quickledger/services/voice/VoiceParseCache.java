@@ -0,0 +1,113 @@
+package io.quickledger.services.voice;
+
+import io.quickledger.config.VoiceProperties;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * LLM parse output per normalized transcript. Parsing runs at temperature 0, so the same words
+ * always produce the same JSON; entries expire after {@code voice.llm.cache-ttl-seconds} and the
+ * least recently used are dropped beyond {@code voice.llm.cache-max-entries}. Concurrent misses
+ * for the same transcript share a single LLM call. Only output that parsed successfully is
+ * cached; a failed call is retried by the next request.
+ */
+@Component
+public class VoiceParseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    // Access-ordered, so the eldest entry is the transcript heard least recently
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public VoiceParseCache(VoiceProperties voiceProperties) {
+        this.ttlMillis = voiceProperties.getLlm().getCacheTtlSeconds() * 1000;
+        this.maxEntries = voiceProperties.getLlm().getCacheMaxEntries();
+    }
+
+    /**
+     * Returns the cached output for the transcript, or the loader's output, which is cached if
+     * the loader returns normally.
+     */
+    public String get(String transcript, Supplier<String> loader) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            return loader.get();
+        }
+        String key = normalize(transcript);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+        }
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            String value = loader.get();
+            synchronized (entries) {
+                entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+                while (entries.size() > maxEntries) {
+                    entries.remove(entries.keySet().iterator().next());
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    static String normalize(String transcript) {
+        if (transcript == null) {
+            return "";
+        }
+        // Case is kept: the cached output carries names as they were heard, e.g. "Bob" vs "bob"
+        String normalized = Normalizer.normalize(transcript, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    // Waits on another request's call; an interrupt (a cancelled voice draft) stops only this waiter
+    private static String await(CompletableFuture<String> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for LLM parse", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("LLM parse failed", e.getCause());
+        }
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -1,5 +1,6 @@
 package io.quickledger.services.voice;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quickledger.dto.voice.VoiceDocumentType;
 import io.quickledger.dto.voice.VoiceLineItem;
@@ -22,18 +23,20 @@ public class VoiceParseService {
 
     private final OllamaClient ollamaClient;
     private final ObjectMapper objectMapper;
+    private final VoiceParseCache voiceParseCache;
 
-    public VoiceParseService(OllamaClient ollamaClient, ObjectMapper objectMapper) {
+    public VoiceParseService(OllamaClient ollamaClient, ObjectMapper objectMapper, VoiceParseCache voiceParseCache) {
         this.ollamaClient = ollamaClient;
         this.objectMapper = objectMapper;
+        this.voiceParseCache = voiceParseCache;
     }
 
     public VoiceParseResult parseTranscript(String transcript) {
         VoiceParseResult result = null;
-        String prompt = buildPrompt(transcript);
 
         try {
-            String json = ollamaClient.generateJson(prompt, buildSystemPrompt());
+            // Each call reads the cached JSON into a fresh result, as callers modify it
+            String json = voiceParseCache.get(transcript, () -> generate(transcript));
             result = objectMapper.readValue(json, VoiceParseResult.class);
         } catch (Exception e) {
             logger.warn("LLM parse failed, falling back to rule-based parsing", e);
@@ -44,6 +47,17 @@ public class VoiceParseService {
         return result;
     }
 
+    // Only output that reads as a VoiceParseResult is returned, and so cached
+    private String generate(String transcript) {
+        String json = ollamaClient.generateJson(buildPrompt(transcript), buildSystemPrompt());
+        try {
+            objectMapper.readValue(json, VoiceParseResult.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("LLM returned unreadable JSON", e);
+        }
+        return json;
+    }
+
     private void applyRuleBasedFallback(String transcript, VoiceParseResult result) {
         if (result.getDocumentType() == null || result.getDocumentType() == VoiceDocumentType.UNKNOWN) {
             String normalized = transcript == null ? "" : transcript.toLowerCase();
@@ -0,0 +1,67 @@
+package io.quickledger.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+
+/**
+ * Creates the MySQL FULLTEXT ngram indexes behind substring searches. Hibernate's schema update
+ * cannot declare them, so each search service builds its index in a scheduled job that holds a
+ * ShedLock, and every instance checks for the index before relying on it.
+ */
+public final class FulltextIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(FulltextIndexes.class);
+
+    // MySQL's default ngram_token_size; shorter terms produce no tokens to match
+    public static final int MIN_TERM_LENGTH = 2;
+
+    private FulltextIndexes() {
+    }
+
+    /**
+     * Creates the ngram index on {@code table(column)} unless an index of that name exists.
+     *
+     * @return true once the index exists
+     */
+    public static boolean ensureNgramIndex(JdbcTemplate jdbcTemplate, String table, String index, String column) {
+        if (indexExists(jdbcTemplate, table, index)) {
+            return true;
+        }
+
+        logger.info("Creating full-text index {} on {}...", index, table);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // The default stopword list would drop every ngram containing words like "a" or
+                // "in"; the setting is read once, when the index is built
+                statement.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+                try {
+                    statement.execute("CREATE FULLTEXT INDEX " + index + " ON " + table + " (" + column + ") WITH PARSER ngram");
+                } finally {
+                    statement.execute("SET SESSION innodb_ft_enable_stopword = ON");
+                }
+            }
+            return null;
+        });
+        logger.info("Full-text index {} created", index);
+        return true;
+    }
+
+    public static boolean indexExists(JdbcTemplate jdbcTemplate, String table, String index) {
+        Integer existing = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?
+                """, Integer.class, table, index);
+        return existing != null && existing > 0;
+    }
+
+    /**
+     * Escapes a term for {@code LIKE ... ESCAPE '!'}.
+     */
+    public static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,132 @@
+package io.quickledger.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search over one table's denormalized {@code search_text} column: the ngram FULLTEXT index for
+ * terms long enough to have tokens, a LIKE otherwise or while the index is missing. Each search
+ * service owns one of these and supplies only its table-specific SQL and queries.
+ */
+public class FulltextSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(FulltextSearch.class);
+
+    private static final String COLUMN = "search_text";
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+    private static final long INDEX_RECHECK_INTERVAL_MS = 60_000;
+
+    /**
+     * Finds one page of matching ids for a FULLTEXT boolean-mode query or a LIKE pattern.
+     */
+    @FunctionalInterface
+    public interface IdQuery {
+        List<Long> find(String query);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String index;
+    private final String backfillRangeSql;
+    private final String backfillSql;
+
+    private volatile boolean fulltextAvailable;
+    private volatile long fulltextCheckedAt;
+
+    /**
+     * @param backfillRangeSql selects {@code min_id} and {@code max_id} of the rows to backfill
+     * @param backfillSql      fills the rows with {@code id > ? AND id <= ?}
+     */
+    public FulltextSearch(JdbcTemplate jdbcTemplate, String table, String index, String backfillRangeSql,
+                          String backfillSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.index = index;
+        this.backfillRangeSql = backfillRangeSql;
+        this.backfillSql = backfillSql;
+    }
+
+    /**
+     * Lower-cases and trims a search term; empty when there is nothing to search for.
+     */
+    public static String normalize(String searchTerm) {
+        return searchTerm == null ? "" : searchTerm.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public List<Long> findIds(String term, IdQuery byFulltext, IdQuery byPattern) {
+        String phrase = term.replace("\"", " ").trim();
+        if (phrase.length() >= FulltextIndexes.MIN_TERM_LENGTH && isFulltextAvailable()) {
+            try {
+                // A quoted phrase matches the term's ngrams in sequence, i.e. a substring match
+                return byFulltext.find("\"" + phrase + "\"");
+            } catch (DataAccessException e) {
+                logger.warn("Full-text search on {} failed, falling back to LIKE: {}", table, e.getMessage());
+                fulltextAvailable = false;
+                fulltextCheckedAt = System.currentTimeMillis();
+            }
+        }
+        return byPattern.find("%" + FulltextIndexes.escapeLike(term) + "%");
+    }
+
+    public void checkIndex() {
+        refreshFulltextAvailable();
+    }
+
+    /**
+     * Backfills {@code search_text} and builds the index. Callers run this under a ShedLock so
+     * instances starting together don't race to build the same index.
+     */
+    public void prepareIndex() {
+        try {
+            backfill();
+            fulltextAvailable = FulltextIndexes.ensureNgramIndex(jdbcTemplate, table, index, COLUMN);
+            fulltextCheckedAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            logger.error("Failed to prepare search index {} on {}: {}", index, table, e.getMessage());
+            // The index may still exist, e.g. when it was built outside the lock
+            refreshFulltextAvailable();
+        }
+    }
+
+    // Instances that did not build the index, or saw a full-text query fail, look again
+    // periodically instead of using LIKE until restarted
+    private boolean isFulltextAvailable() {
+        if (!fulltextAvailable && System.currentTimeMillis() - fulltextCheckedAt >= INDEX_RECHECK_INTERVAL_MS) {
+            refreshFulltextAvailable();
+        }
+        return fulltextAvailable;
+    }
+
+    private void refreshFulltextAvailable() {
+        fulltextCheckedAt = System.currentTimeMillis();
+        try {
+            fulltextAvailable = FulltextIndexes.indexExists(jdbcTemplate, table, index);
+        } catch (DataAccessException e) {
+            logger.warn("Could not check for search index {} on {}, searches will use LIKE: {}",
+                    index, table, e.getMessage());
+            fulltextAvailable = false;
+        }
+    }
+
+    // Fills rows written before the column existed, in id ranges to keep each statement short
+    private void backfill() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(backfillRangeSql);
+        if (range.get("max_id") == null) {
+            return;
+        }
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+        logger.info("Backfilling search text of {} {} to {}...", table, minId, maxId);
+        int updated = 0;
+        for (long from = minId - 1; from < maxId; from += BACKFILL_BATCH_SIZE) {
+            updated += jdbcTemplate.update(backfillSql, from, Math.min(from + BACKFILL_BATCH_SIZE, maxId));
+        }
+        logger.info("Search text backfilled for {} {}", updated, table);
+    }
+}
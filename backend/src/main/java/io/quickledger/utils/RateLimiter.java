@@ -0,0 +1,54 @@
+package io.quickledger.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter that spaces permits evenly at a fixed rate. {@link #acquire} hands callers that
+ * arrive early the next free slot and sleeps until it comes up, which is cheap on virtual
+ * threads. Work queued on a bounded executor should {@link #reserve} its slot instead and only
+ * be submitted once it comes up, so a throttled task never holds a worker while it waits.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeAt = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond Allowed rate; zero or less means unlimited
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0L) {
+            return;
+        }
+        long now = System.nanoTime();
+        long waitNanos = reserve(now) - now;
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes the first free slot at or after {@code notBefore} without waiting for it.
+     *
+     * @return the slot, as a {@link System#nanoTime()} value
+     */
+    public synchronized long reserve(long notBefore) {
+        long slot = Math.max(notBefore, nextFreeAt);
+        nextFreeAt = slot + intervalNanos;
+        return slot;
+    }
+
+    /**
+     * The slot {@link #reserve} would hand out for {@code notBefore}, without taking it.
+     */
+    public synchronized long nextSlot(long notBefore) {
+        return Math.max(notBefore, nextFreeAt);
+    }
+}
@@ -2,17 +2,67 @@ package io.quickledger.utils;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 
 /**
  * Utility class for generating sequence numbers with date placeholders and
  * padding.
  * Supports placeholders: {YYYY}, {YY}, {MM}, {DD}
+ * <p>
+ * Compiled patterns are shared through {@link #of(String, String, Integer)}: most companies use
+ * the same few prefixes, and each pattern keeps its affixes rendered for the last date it saw,
+ * so formatting a number on the same day is a padding and a concatenation.
  */
 public class SequenceNumberFormatter {
 
+    private static final DateTimeFormatter YEAR = DateTimeFormatter.ofPattern("yyyy");
+    private static final DateTimeFormatter SHORT_YEAR = DateTimeFormatter.ofPattern("yy");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MM");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("dd");
+
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    // Access-ordered, so the eldest entry is the pattern used least recently
+    private static final LinkedHashMap<Key, SequenceNumberFormatter> PATTERNS = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final String prefix;
+    private final String postfix;
+    private final int padding;
+    private final boolean dated;
+
+    private volatile Rendered rendered;
+
+    private SequenceNumberFormatter(String prefix, String postfix, int padding) {
+        this.prefix = prefix;
+        this.postfix = postfix;
+        this.padding = padding;
+        this.dated = prefix.indexOf('{') >= 0 || postfix.indexOf('{') >= 0;
+        this.rendered = dated ? null : new Rendered(null, prefix, postfix);
+    }
+
+    /**
+     * Returns the compiled pattern for a sequence configuration, shared with every other
+     * configuration that uses the same prefix, postfix and padding.
+     */
+    public static SequenceNumberFormatter of(String prefix, String postfix, Integer padding) {
+        Key key = new Key(prefix != null ? prefix : "", postfix != null ? postfix : "",
+                padding != null ? Math.max(padding, 0) : 0);
+        synchronized (PATTERNS) {
+            SequenceNumberFormatter formatter = PATTERNS.get(key);
+            if (formatter == null) {
+                formatter = new SequenceNumberFormatter(key.prefix(), key.postfix(), key.padding());
+                PATTERNS.put(key, formatter);
+                if (PATTERNS.size() > MAX_CACHED_PATTERNS) {
+                    PATTERNS.remove(PATTERNS.keySet().iterator().next());
+                }
+            }
+            return formatter;
+        }
+    }
+
     /**
      * Formats a sequence number with date placeholders and padding.
-     * 
+     *
      * @param prefix  The prefix pattern (may contain date placeholders)
      * @param number  The sequential number
      * @param postfix The postfix pattern (may contain date placeholders)
@@ -21,14 +71,23 @@ public class SequenceNumberFormatter {
      * @return The formatted sequence number
      */
     public static String format(String prefix, Integer number, String postfix, Integer padding, LocalDate date) {
-        // Apply date placeholders
-        String formattedPrefix = applyDatePlaceholders(prefix != null ? prefix : "", date);
-        String formattedPostfix = applyDatePlaceholders(postfix != null ? postfix : "", date);
-
-        // Apply number padding
-        String paddedNumber = padNumber(number, padding != null ? padding : 0);
+        return of(prefix, postfix, padding).format(number != null ? number : 0, date);
+    }
 
-        return formattedPrefix + paddedNumber + formattedPostfix;
+    /**
+     * Formats a number with this pattern.
+     *
+     * @param number The sequential number
+     * @param date   The date to use for placeholder replacement
+     * @return The formatted sequence number
+     */
+    public String format(int number, LocalDate date) {
+        Rendered affixes = rendered;
+        if (dated && !date.equals(affixes == null ? null : affixes.date())) {
+            affixes = new Rendered(date, applyDatePlaceholders(prefix, date), applyDatePlaceholders(postfix, date));
+            rendered = affixes;
+        }
+        return affixes.prefix() + padNumber(number, padding) + affixes.postfix();
     }
 
     /**
@@ -45,30 +104,40 @@ public class SequenceNumberFormatter {
         }
 
         String result = pattern;
-        result = result.replace("{YYYY}", date.format(DateTimeFormatter.ofPattern("yyyy")));
-        result = result.replace("{YY}", date.format(DateTimeFormatter.ofPattern("yy")));
-        result = result.replace("{MM}", date.format(DateTimeFormatter.ofPattern("MM")));
-        result = result.replace("{DD}", date.format(DateTimeFormatter.ofPattern("dd")));
+        result = result.replace("{YYYY}", date.format(YEAR));
+        result = result.replace("{YY}", date.format(SHORT_YEAR));
+        result = result.replace("{MM}", date.format(MONTH));
+        result = result.replace("{DD}", date.format(DAY));
 
         return result;
     }
 
     /**
      * Pads a number with leading zeros.
-     * 
+     *
      * @param number  The number to pad
      * @param padding The total number of digits (0 = no padding)
      * @return The padded number as a string
      */
-    private static String padNumber(Integer number, Integer padding) {
-        if (number == null) {
-            number = 0;
+    private static String padNumber(int number, int padding) {
+        String digits = Long.toString(Math.abs((long) number));
+        int zeros = padding - digits.length() - (number < 0 ? 1 : 0);
+        if (zeros <= 0) {
+            return Integer.toString(number);
         }
 
-        if (padding == null || padding <= 0) {
-            return number.toString();
+        StringBuilder padded = new StringBuilder(padding);
+        if (number < 0) {
+            padded.append('-');
         }
+        padded.append("0".repeat(zeros)).append(digits);
+        return padded.toString();
+    }
+
+    private record Key(String prefix, String postfix, int padding) {
+    }
 
-        return String.format("%0" + padding + "d", number);
+    // Affixes rendered for one date; replaced as a whole so readers never see a mix of two days
+    private record Rendered(LocalDate date, String prefix, String postfix) {
     }
 }
@@ -0,0 +1,70 @@
+package io.quickledger.security;
+
+import io.quickledger.entities.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticationCacheTest {
+
+    private static User user(Long id, String externalId) {
+        User user = new User();
+        user.setId(id);
+        user.setExternalId(externalId);
+        return user;
+    }
+
+    @Test
+    void getUserId_returnsTheCachedIdUntilTheTtlPasses() {
+        AuthenticationCache cache = new AuthenticationCache(10, 10, 60);
+        cache.putUser("auth0|a", user(1L, "auth0|a"));
+
+        assertEquals(1L, cache.getUserId("auth0|a"));
+        assertNull(cache.getUserId("auth0|b"));
+
+        AuthenticationCache expired = new AuthenticationCache(10, 10, 0);
+        expired.putUser("auth0|a", user(1L, "auth0|a"));
+        assertNull(expired.getUserId("auth0|a"));
+    }
+
+    @Test
+    void evictUser_dropsTheEntryEvenWhenTheExternalIdChanged() {
+        AuthenticationCache cache = new AuthenticationCache(10, 10, 60);
+        cache.putUser("auth0|a", user(1L, "auth0|a"));
+        cache.putUser("auth0|b", user(2L, "auth0|b"));
+
+        // Written with a new external id, so only the primary key matches the cached entry
+        cache.evictUser(user(1L, "auth0|new"));
+
+        assertNull(cache.getUserId("auth0|a"));
+        assertEquals(2L, cache.getUserId("auth0|b"));
+    }
+
+    @Test
+    void putUser_dropsTheLeastRecentlyUsedEntryBeyondTheLimit() {
+        AuthenticationCache cache = new AuthenticationCache(10, 2, 60);
+        cache.putUser("auth0|a", user(1L, "auth0|a"));
+        cache.putUser("auth0|b", user(2L, "auth0|b"));
+        cache.getUserId("auth0|a");
+
+        cache.putUser("auth0|c", user(3L, "auth0|c"));
+
+        assertEquals(1L, cache.getUserId("auth0|a"));
+        assertNull(cache.getUserId("auth0|b"));
+        assertEquals(3L, cache.getUserId("auth0|c"));
+    }
+
+    @Test
+    void getVerifiedToken_forgetsTokensOnceTheyExpire() {
+        AuthenticationCache cache = new AuthenticationCache(10, 10, 60);
+        AuthenticationCache.VerifiedToken live = new AuthenticationCache.VerifiedToken("auth0|a", "a@example.com",
+                System.currentTimeMillis() + 60_000);
+        cache.putVerifiedToken("token-1", live);
+        cache.putVerifiedToken("token-2", new AuthenticationCache.VerifiedToken("auth0|a", "a@example.com",
+                System.currentTimeMillis() - 1));
+
+        assertEquals(live, cache.getVerifiedToken("token-1"));
+        assertNull(cache.getVerifiedToken("token-2"));
+        assertNull(cache.getVerifiedToken("token-3"));
+    }
+}
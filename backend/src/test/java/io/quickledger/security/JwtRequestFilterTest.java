@@ -0,0 +1,106 @@
+package io.quickledger.security;
+
+import io.quickledger.entities.Company;
+import io.quickledger.entities.User;
+import io.quickledger.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtRequestFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private UserService userService;
+
+    private AuthenticationCache authenticationCache;
+    private JwtRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        authenticationCache = new AuthenticationCache(10, 10, 60);
+        // Signature already checked, so no request reaches the JWK provider
+        authenticationCache.putVerifiedToken(TOKEN, new AuthenticationCache.VerifiedToken("auth0|a", "a@example.com",
+                System.currentTimeMillis() + 60_000));
+        filter = new JwtRequestFilter(userService, authenticationCache);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private User authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUser();
+    }
+
+    private static User user(Company defaultCompany) {
+        User user = new User();
+        user.setId(7L);
+        user.setExternalId("auth0|a");
+        user.setDefaultCompany(defaultCompany);
+        return user;
+    }
+
+    private static Company company(Long id) {
+        Company company = new Company();
+        company.setId(id);
+        return company;
+    }
+
+    @Test
+    void cachedSubjectSkipsTheExternalIdLookupButReadsTheUserRow() throws Exception {
+        when(userService.findByExternalId("auth0|a")).thenReturn(Optional.of(user(company(1L))));
+        when(userService.getUserById(7L)).thenReturn(Optional.of(user(company(2L))));
+
+        assertEquals(1L, authenticate().getDefaultCompany().getId());
+        // The company was switched since; the next request sees it without waiting for the TTL
+        assertEquals(2L, authenticate().getDefaultCompany().getId());
+
+        verify(userService, times(1)).findByExternalId("auth0|a");
+        verify(userService, times(1)).getUserById(7L);
+    }
+
+    @Test
+    void evictedSubjectIsLookedUpAgain() throws Exception {
+        when(userService.findByExternalId("auth0|a")).thenReturn(Optional.of(user(company(1L))));
+
+        authenticate();
+        authenticationCache.evictUser(user(company(1L)));
+        authenticate();
+
+        verify(userService, times(2)).findByExternalId("auth0|a");
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void cachedIdOfAUserRelinkedElsewhereFallsBackToTheExternalIdLookup() throws Exception {
+        when(userService.findByExternalId("auth0|a")).thenReturn(Optional.of(user(company(1L))));
+        User relinked = user(company(1L));
+        relinked.setExternalId("auth0|other");
+        when(userService.getUserById(7L)).thenReturn(Optional.of(relinked));
+
+        authenticate();
+        authenticate();
+
+        verify(userService, times(2)).findByExternalId("auth0|a");
+    }
+}
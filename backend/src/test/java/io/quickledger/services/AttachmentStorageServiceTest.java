@@ -0,0 +1,134 @@
+package io.quickledger.services;
+
+import io.quickledger.config.BlobStoreProperties;
+import io.quickledger.entities.job.JobAttachment;
+import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.repositories.expense.ExpenseAttachmentRepository;
+import io.quickledger.repositories.job.JobAttachmentRepository;
+import io.quickledger.repositories.quote.QuoteAttachmentRepository;
+import io.quickledger.services.storage.LocalFileBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentStorageServiceTest {
+
+    @Mock
+    private JobAttachmentRepository jobAttachmentRepository;
+
+    @Mock
+    private QuoteAttachmentRepository quoteAttachmentRepository;
+
+    @Mock
+    private ExpenseAttachmentRepository expenseAttachmentRepository;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path root;
+
+    private LocalFileBlobStore blobStore;
+    private AttachmentStorageService attachmentStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        BlobStoreProperties properties = new BlobStoreProperties();
+        properties.setLocalRoot(root.toString());
+        properties.setGcGraceHours(1);
+        blobStore = new LocalFileBlobStore(properties);
+        attachmentStorageService = new AttachmentStorageService(blobStore, jobAttachmentRepository,
+                quoteAttachmentRepository, expenseAttachmentRepository, companyRepository, imageService, properties,
+                transactionManager);
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void age(String key, Duration age) throws IOException {
+        Files.setLastModifiedTime(root.resolve(key.substring(0, 2)).resolve(key),
+                FileTime.from(Instant.now().minus(age)));
+    }
+
+    @Test
+    void store_keysContentByHashAndKeepsOneCopyOfIdenticalFiles() throws IOException {
+        JobAttachment first = new JobAttachment();
+        JobAttachment second = new JobAttachment();
+
+        attachmentStorageService.store(first, content("receipt"));
+        attachmentStorageService.store(second, content("receipt"));
+
+        assertEquals(64, first.getStorageKey().length());
+        assertEquals(first.getStorageKey(), second.getStorageKey());
+        assertEquals(7L, first.getSize());
+        try (Stream<Path> files = Files.list(root.resolve(first.getStorageKey().substring(0, 2)))) {
+            assertEquals(1, files.count());
+        }
+        try (Stream<Path> parts = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, parts.count());
+        }
+    }
+
+    @Test
+    void open_streamsStoredContentAndFallsBackToTheDataColumn() throws IOException {
+        JobAttachment stored = new JobAttachment();
+        attachmentStorageService.store(stored, content("invoice scan"));
+        JobAttachment legacy = new JobAttachment();
+        legacy.setData("old row".getBytes(StandardCharsets.UTF_8));
+
+        Resource storedContent = attachmentStorageService.open(stored);
+        Resource legacyContent = attachmentStorageService.open(legacy);
+
+        assertEquals(12, storedContent.contentLength());
+        assertEquals("invoice scan", storedContent.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("old row", legacyContent.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void collectGarbage_deletesOnlyOldUnreferencedBlobs() throws IOException {
+        JobAttachment referenced = new JobAttachment();
+        JobAttachment orphaned = new JobAttachment();
+        JobAttachment recent = new JobAttachment();
+        attachmentStorageService.store(referenced, content("kept"));
+        attachmentStorageService.store(orphaned, content("deleted"));
+        attachmentStorageService.store(recent, content("still uploading"));
+        age(referenced.getStorageKey(), Duration.ofDays(2));
+        age(orphaned.getStorageKey(), Duration.ofDays(2));
+        when(jobAttachmentRepository.existsByStorageKey(referenced.getStorageKey())).thenReturn(true);
+
+        int deleted = attachmentStorageService.collectGarbage();
+
+        assertEquals(1, deleted);
+        assertTrue(blobStore.exists(referenced.getStorageKey()));
+        assertFalse(blobStore.exists(orphaned.getStorageKey()));
+        assertTrue(blobStore.exists(recent.getStorageKey()));
+        verify(jobAttachmentRepository, never()).existsByStorageKey(recent.getStorageKey());
+    }
+}
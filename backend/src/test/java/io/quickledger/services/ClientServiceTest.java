@@ -0,0 +1,98 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.ClientDto;
+import io.quickledger.dto.ClientPageDto;
+import io.quickledger.entities.Client;
+import io.quickledger.entities.User;
+import io.quickledger.mappers.ClientMapper;
+import io.quickledger.repositories.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientServiceTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private UserCompanyService userCompanyService;
+
+    @Mock
+    private InvoiceSearchService invoiceSearchService;
+
+    private ClientService clientService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        clientService = new ClientService(clientRepository, userCompanyService, ClientMapper.INSTANCE, invoiceSearchService);
+        user = new User();
+        user.setId(5L);
+    }
+
+    private Client client(long id, LocalDateTime modifiedDate) {
+        Client client = new Client();
+        client.setId(id);
+        client.setContactName("Client " + id);
+        client.setModifiedDate(modifiedDate);
+        return client;
+    }
+
+    @Test
+    void getAllClients_onlyPagesTheCompanysClients() {
+        when(clientRepository.findByCompanyId(eq(1L), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        clientService.getAllClients(1L, user, PageRequest.of(2, 50));
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(clientRepository).findByCompanyId(eq(1L), pageable.capture());
+        assertEquals(2, pageable.getValue().getPageNumber());
+        assertEquals(Sort.by(Sort.Order.desc("modifiedDate"), Sort.Order.desc("id")), pageable.getValue().getSort());
+        verify(clientRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void listClients_continuesFromTheLastClientOfThePreviousPage() {
+        LocalDateTime modified = LocalDateTime.of(2026, 10, 1, 9, 30, 15, 123_456_000);
+        when(clientRepository.findFirstPage(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(client(9L, modified.plusDays(1)), client(7L, modified)));
+        when(clientRepository.findPageAfter(1L, modified, 7L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(client(3L, modified)));
+
+        ClientPageDto first = clientService.listClients(1L, user, null, 2);
+        ClientPageDto second = clientService.listClients(1L, user, first.getNextCursor(), 2);
+
+        assertEquals(List.of(9L, 7L), first.getClients().stream().map(ClientDto::getId).toList());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(3L), second.getClients().stream().map(ClientDto::getId).toList());
+        assertNull(second.getNextCursor());
+        verify(userCompanyService, times(2)).checkUserBelongs(user, 1L);
+    }
+
+    @Test
+    void listClients_rejectsACursorItDidNotIssue() {
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> clientService.listClients(1L, user, "not-a-cursor", null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        verify(clientRepository, never()).findPageAfter(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,101 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.Company;
+import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.services.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyLogoServiceTest {
+
+    @Mock
+    private BlobStore blobStore;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private PdfService pdfService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CompanyLogoService companyLogoService;
+
+    @BeforeEach
+    void setUp() {
+        companyLogoService = new CompanyLogoService(blobStore, companyRepository, pdfService, jdbcTemplate, 16);
+    }
+
+    private static Company company(Long id, String logoKey) {
+        Company company = new Company();
+        company.setId(id);
+        company.setLogoKey(logoKey);
+        return company;
+    }
+
+    @Test
+    void getLogoBase64_encodesEachLogoOnce() throws IOException {
+        when(blobStore.get("a")).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+
+        String first = companyLogoService.getLogoBase64(company(1L, "a"));
+        String second = companyLogoService.getLogoBase64(company(2L, "a"));
+
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}), first);
+        assertSame(first, second);
+        verify(blobStore, times(1)).get("a");
+    }
+
+    @Test
+    void getLogoBase64_evictsLeastRecentlyUsedLogosOverBudget() throws IOException {
+        // 6 bytes encode to 8 chars, so two logos fill the 16 char budget
+        when(blobStore.get(any())).thenAnswer(invocation -> new ByteArrayResource(new byte[6]));
+
+        companyLogoService.getLogoBase64(company(1L, "a"));
+        companyLogoService.getLogoBase64(company(2L, "b"));
+        companyLogoService.getLogoBase64(company(1L, "a"));
+        companyLogoService.getLogoBase64(company(3L, "c"));
+        companyLogoService.getLogoBase64(company(1L, "a"));
+        companyLogoService.getLogoBase64(company(2L, "b"));
+
+        verify(blobStore, times(1)).get("a");
+        verify(blobStore, times(2)).get("b");
+        verify(blobStore, times(1)).get("c");
+    }
+
+    @Test
+    void storeLogo_pointsTheCompanyAtTheBlobAndEvictsRenderedPdfs() throws IOException {
+        Company company = company(1L, null);
+        InputStream content = new ByteArrayInputStream(new byte[]{1});
+        when(blobStore.put(content)).thenReturn(new BlobStore.StoredBlob("abc", 1, Instant.now()));
+        when(companyRepository.save(company)).thenReturn(company);
+
+        companyLogoService.storeLogo(company, content, "image/png");
+
+        assertEquals("abc", company.getLogoKey());
+        assertEquals("image/png", company.getLogoContentType());
+        verify(pdfService).evictCompany(1L);
+    }
+
+    @Test
+    void getLogoBase64_returnsNullWithoutLogo() {
+        assertNull(companyLogoService.getLogoBase64(company(1L, null)));
+        verifyNoInteractions(blobStore);
+    }
+}
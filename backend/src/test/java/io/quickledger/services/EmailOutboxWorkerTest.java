@@ -0,0 +1,124 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quickledger.config.EmailOutboxProperties;
+import io.quickledger.entities.OutboundEmail;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxWorkerTest {
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    private EmailOutboxProperties properties;
+    private EmailOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EmailOutboxProperties();
+        properties.setClaimSize(10);
+        properties.setSendBatchSize(2);
+        properties.setProviderRatePerSecond(0);
+        properties.setDomainRatePerSecond(0);
+        worker = new EmailOutboxWorker(emailOutboxService, mailSender, properties, Runnable::run,
+                new SimpleMeterRegistry());
+        lenient().when(mailSender.createMimeMessage())
+                .thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    private OutboundEmail email(long id, int attempts) {
+        OutboundEmail email = new OutboundEmail();
+        email.setId(id);
+        email.setToAddress("client" + id + "@example.com");
+        email.setSubject("Invoice #" + id);
+        email.setBody("<p>Hello</p>");
+        email.setHtml(true);
+        email.setAttempts(attempts);
+        return email;
+    }
+
+    @Test
+    void drain_sendsClaimedMessagesInBatchesAndMarksThemSent() {
+        when(emailOutboxService.claim(10)).thenReturn(List.of(email(1, 1), email(2, 1), email(3, 1)));
+
+        worker.drain();
+
+        ArgumentCaptor<MimeMessage[]> batches = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(2)).send(batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).length);
+        assertEquals(1, batches.getAllValues().get(1).length);
+        verify(emailOutboxService).markSent(List.of(1L, 2L));
+        verify(emailOutboxService).markSent(List.of(3L));
+        verify(emailOutboxService, never()).markFailed(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void drain_keepsClaimingWhileFullPagesComeBack() {
+        properties.setClaimSize(1);
+        when(emailOutboxService.claim(1)).thenReturn(List.of(email(1, 1)), List.of(email(2, 1)), List.of());
+
+        worker.drain();
+
+        verify(emailOutboxService, times(3)).claim(1);
+        verify(mailSender, times(2)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    void sendBatch_retriesOnlyTheMessagesTheProviderRejected() {
+        OutboundEmail ok = email(1, 1);
+        OutboundEmail rejected = email(2, 3);
+        doAnswer(invocation -> {
+            Object[] messages = invocation.getArguments();
+            throw new MailSendException(Map.of(messages[1], new RuntimeException("Throttling")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+        when(emailOutboxService.markFailed(2L, 3, "Throttling")).thenReturn(true);
+
+        worker.sendBatch(List.of(ok, rejected));
+
+        verify(emailOutboxService).markSent(List.of(1L));
+        verify(emailOutboxService).markFailed(2L, 3, "Throttling");
+    }
+
+    @Test
+    void sendBatch_marksWholeBatchFailedWhenTheProviderIsUnreachable() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        worker.sendBatch(List.of(email(1, 1), email(2, 8)));
+
+        verify(emailOutboxService).markFailed(eq(1L), eq(1), contains("Connection refused"));
+        verify(emailOutboxService).markFailed(eq(2L), eq(8), contains("Connection refused"));
+        verify(emailOutboxService).markSent(List.of());
+    }
+
+    @Test
+    void sendBatch_givesUpOnMessagesThatCannotBeBuilt() {
+        OutboundEmail broken = email(1, 1);
+        broken.setToAddress("not an address@@");
+
+        worker.sendBatch(List.of(broken));
+
+        verify(emailOutboxService).markUndeliverable(eq(1L), any());
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+}
@@ -25,6 +25,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -55,6 +58,9 @@ class ExpenseServiceTest {
     @Mock
     private PlanService planService;
 
+    @Mock
+    private AttachmentStorageService attachmentStorageService;
+
     private ExpenseService expenseService;
 
     private User advancedUser;
@@ -71,7 +77,8 @@ class ExpenseServiceTest {
                 attachmentRepository,
                 expenseMapper,
                 attachmentMapper,
-                planService
+                planService,
+                attachmentStorageService
         );
 
         // Setup users with different plans
@@ -286,7 +293,7 @@ class ExpenseServiceTest {
     // ==================== Attachment Tests ====================
 
     @Test
-    void uploadAttachment_withAdvancedPlan_succeeds() {
+    void uploadAttachment_withAdvancedPlan_succeeds() throws IOException {
         ExpenseAttachment attachment = new ExpenseAttachment();
         attachment.setId(1L);
         attachment.setFileName("receipt.pdf");
@@ -302,11 +309,12 @@ class ExpenseServiceTest {
         when(attachmentMapper.toDto(any(ExpenseAttachment.class))).thenReturn(attachmentDto);
 
         ExpenseAttachmentDto result = expenseService.uploadAttachment(
-                1L, 1L, "receipt.pdf", "application/pdf", new byte[]{1, 2, 3}, 1024L, advancedUser
+                1L, 1L, "receipt.pdf", "application/pdf", new ByteArrayInputStream(new byte[]{1, 2, 3}), advancedUser
         );
 
         assertNotNull(result);
         assertEquals("receipt.pdf", result.getFileName());
+        verify(attachmentStorageService).store(any(ExpenseAttachment.class), any(InputStream.class));
         verify(attachmentRepository).save(any(ExpenseAttachment.class));
     }
 
@@ -318,11 +326,12 @@ class ExpenseServiceTest {
         IllegalStateException exception = assertThrows(
                 IllegalStateException.class,
                 () -> expenseService.uploadAttachment(
-                        1L, 1L, "receipt.pdf", "application/pdf", new byte[]{1, 2, 3}, 1024L, freeUser
+                        1L, 1L, "receipt.pdf", "application/pdf", new ByteArrayInputStream(new byte[]{1, 2, 3}), freeUser
                 )
         );
 
         assertTrue(exception.getMessage().contains("Advanced plan"));
+        verifyNoInteractions(attachmentStorageService);
         verify(attachmentRepository, never()).save(any(ExpenseAttachment.class));
     }
 
@@ -333,7 +342,7 @@ class ExpenseServiceTest {
         assertThrows(
                 EntityNotFoundException.class,
                 () -> expenseService.uploadAttachment(
-                        999L, 1L, "receipt.pdf", "application/pdf", new byte[]{1, 2, 3}, 1024L, advancedUser
+                        999L, 1L, "receipt.pdf", "application/pdf", new ByteArrayInputStream(new byte[]{1, 2, 3}), advancedUser
                 )
         );
     }
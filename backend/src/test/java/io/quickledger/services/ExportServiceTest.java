@@ -0,0 +1,207 @@
+package io.quickledger.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quickledger.config.ExportProperties;
+import io.quickledger.entities.User;
+import io.quickledger.services.ExportService.Dataset;
+import io.quickledger.services.ExportService.ExportRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private UserCompanyService userCompanyService;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final User user = new User();
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(userCompanyService, objectMapper, new ExportProperties(), dataSource,
+                new SimpleMeterRegistry());
+    }
+
+    // Two expense rows: the second has a vendor that needs quoting and no GST amount
+    private void givenExpenseRows() throws Exception {
+        givenExpenseRows("BP", "Smith, \"Jones\" & Co");
+    }
+
+    private void givenExpenseRows(String firstVendor, String secondVendor) throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+        when(resultSet.getObject(2, LocalDate.class)).thenReturn(LocalDate.of(2025, 7, 1), LocalDate.of(2026, 6, 30));
+        when(resultSet.getString(anyInt())).thenAnswer(invocation -> switch ((int) invocation.getArgument(0)) {
+            case 3 -> "2025-26";
+            case 4 -> "FUEL";
+            case 6 -> "APPROVED";
+            default -> null;
+        });
+        when(resultSet.getBigDecimal(anyInt())).thenAnswer(invocation -> switch ((int) invocation.getArgument(0)) {
+            case 7 -> new BigDecimal("110.00");
+            default -> new BigDecimal("100.00");
+        });
+        when(resultSet.getString(5)).thenReturn(firstVendor, secondVendor);
+        when(resultSet.getBigDecimal(8)).thenReturn(new BigDecimal("10.00"), (BigDecimal) null);
+        when(resultSet.getBoolean(anyInt())).thenReturn(true);
+        when(resultSet.getObject(14, LocalDateTime.class)).thenReturn(LocalDateTime.of(2025, 7, 1, 9, 30));
+        when(resultSet.wasNull()).thenReturn(false);
+    }
+
+    @Test
+    void prepare_financialYearNarrowsTheDateRangeAndNamesTheFile() {
+        ExportRequest request = exportService.prepare(Dataset.INVOICES, 1L, user, LocalDate.of(2026, 1, 1), null,
+                "2025-26", "paid", "jsonl", true);
+
+        verify(userCompanyService).checkUserBelongs(user, 1L);
+        assertEquals(LocalDate.of(2026, 1, 1), request.from());
+        assertEquals(LocalDate.of(2026, 6, 30), request.to());
+        assertEquals("PAID", request.status().name());
+        assertEquals("invoices-2025-26.jsonl.gz", request.fileName());
+        assertEquals("application/gzip", request.contentType());
+    }
+
+    @Test
+    void prepare_rejectsBadFilters() {
+        assertBadRequest(() -> exportService.prepare(Dataset.INVOICES, 1L, user, null, null, "2025-27", null, "csv", false));
+        assertBadRequest(() -> exportService.prepare(Dataset.QUOTES, 1L, user, null, null, null, "PAID", "csv", false));
+        assertBadRequest(() -> exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "xlsx", false));
+        assertBadRequest(() -> exportService.prepare(Dataset.EXPENSES, 1L, user, LocalDate.of(2026, 2, 1),
+                LocalDate.of(2026, 1, 1), null, null, "csv", false));
+    }
+
+    @Test
+    void write_streamsCsvThroughAForwardOnlyCursor() throws Exception {
+        givenExpenseRows();
+        ExportRequest request = exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, "2025-26", "approved",
+                "csv", false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.write(request, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,expense_date,financial_year,category,vendor,status,amount,gst_amount"));
+        assertEquals("1,2025-07-01,2025-26,FUEL,BP,APPROVED,110.00,10.00,100.00,true,true,,,2025-07-01T09:30", lines[1]);
+        assertEquals("2,2026-06-30,2025-26,FUEL,\"Smith, \"\"Jones\"\" & Co\",APPROVED,110.00,,100.00,true,true,,,2025-07-01T09:30",
+                lines[2]);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("e.expense_date >= ? AND e.expense_date <= ? AND e.status = ? ORDER BY e.id"));
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+        verify(statement).setObject(1, 1L);
+        verify(statement).setObject(2, LocalDate.of(2025, 7, 1));
+        verify(statement).setObject(3, LocalDate.of(2026, 6, 30));
+        verify(statement).setString(4, "APPROVED");
+    }
+
+    @Test
+    void write_csvKeepsSpreadsheetsFromRunningTextCellsAsFormulas() throws Exception {
+        givenExpenseRows("=HYPERLINK(\"http://evil.test\")", "-2+3\tx");
+        ExportRequest request = exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "csv",
+                false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.write(request, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("1,2025-07-01,2025-26,FUEL,\"'=HYPERLINK(\"\"http://evil.test\"\")\",APPROVED,110.00,10.00,100.00,"
+                + "true,true,,,2025-07-01T09:30", lines[1]);
+        assertEquals("2,2026-06-30,2025-26,FUEL,'-2+3\tx,APPROVED,110.00,,100.00,true,true,,,2025-07-01T09:30", lines[2]);
+    }
+
+    @Test
+    void write_gzippedJsonLinesHaveOneObjectPerLine() throws Exception {
+        givenExpenseRows();
+        ExportRequest request = exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "jsonl",
+                true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.write(request, out);
+
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = text.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(2, second.get("id").asLong());
+        assertEquals("Smith, \"Jones\" & Co", second.get("vendor").asText());
+        assertTrue(second.get("gst_amount").isNull());
+        assertEquals(0, new BigDecimal("110.00").compareTo(second.get("amount").decimalValue()));
+        assertTrue(second.get("tax_deductible").asBoolean());
+    }
+
+    @Test
+    void prepare_refusesExportsBeyondTheConcurrencyLimit() throws Exception {
+        ExportProperties properties = new ExportProperties();
+        properties.setMaxConcurrent(1);
+        exportService = new ExportService(userCompanyService, objectMapper, properties, dataSource,
+                new SimpleMeterRegistry());
+        ExportRequest first = exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "csv",
+                false);
+
+        // Refused before the controller sends any of the download
+        ResponseStatusException busy = assertThrows(ResponseStatusException.class,
+                () -> exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "csv", false));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, busy.getStatusCode());
+
+        // Writing gives the slot back even when it fails, and the request completing releases nothing more
+        when(dataSource.getConnection()).thenThrow(new IllegalStateException("stop"));
+        assertThrows(RuntimeException.class, () -> exportService.write(first, new ByteArrayOutputStream()));
+        first.slot().release();
+
+        ExportRequest next = exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "csv", false);
+        assertNotNull(next);
+        assertThrows(ResponseStatusException.class,
+                () -> exportService.prepare(Dataset.EXPENSES, 1L, user, null, null, null, null, "csv", false));
+    }
+
+    private static void assertBadRequest(org.junit.jupiter.api.function.Executable executable) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, executable);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}
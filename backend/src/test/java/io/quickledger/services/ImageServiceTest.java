@@ -0,0 +1,114 @@
+package io.quickledger.services;
+
+import io.quickledger.config.BlobStoreProperties;
+import io.quickledger.entities.StoredImage;
+import io.quickledger.services.storage.LocalFileBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path root;
+
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        BlobStoreProperties properties = new BlobStoreProperties();
+        properties.setLocalRoot(root.toString());
+        imageService = new ImageService(new LocalFileBlobStore(properties), jdbcTemplate, transactionManager);
+    }
+
+    private static InputStream png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Test
+    void store_scalesLargeImagesToAThumbnailOnce() throws IOException {
+        StoredImage image = imageService.store(png(1024, 512), "image/png");
+
+        assertNotNull(image.getThumbnailKey());
+        assertNotEquals(image.getStorageKey(), image.getThumbnailKey());
+        try (InputStream in = imageService.open(image.getThumbnailKey()).getInputStream()) {
+            BufferedImage thumbnail = ImageIO.read(in);
+            assertEquals(ImageService.THUMBNAIL_SIZE, thumbnail.getWidth());
+            assertEquals(ImageService.THUMBNAIL_SIZE / 2, thumbnail.getHeight());
+        }
+        assertEquals("image/png", imageService.detectContentType(imageService.open(image.getThumbnailKey())));
+    }
+
+    @Test
+    void store_usesSmallImagesAsTheirOwnThumbnail() throws IOException {
+        StoredImage image = imageService.store(png(64, 64), "image/png");
+
+        assertEquals(image.getStorageKey(), image.getThumbnailKey());
+    }
+
+    @Test
+    void store_keepsImagesItCannotDecodeWithoutAThumbnail() throws IOException {
+        StoredImage image = imageService.store(new ByteArrayInputStream("<svg/>".getBytes()), "image/svg+xml");
+
+        assertNotNull(image.getStorageKey());
+        assertNull(image.getThumbnailKey());
+        assertEquals(6L, image.getSize());
+    }
+
+    @Test
+    void store_rejectsImagesAboveThePixelLimitWithoutDecodingThem() throws IOException {
+        // One bit a pixel, so the upload is tiny while declaring more pixels than the limit
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(8000, 6000, BufferedImage.TYPE_BYTE_BINARY), "png", out);
+        assertTrue(8000L * 6000 > ImageService.MAX_PIXELS);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> imageService.store(new ByteArrayInputStream(out.toByteArray()), "image/png"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void isReferencedByCompany_onlyMatchesImagesOfTheCompanysOwners() {
+        when(jdbcTemplate.queryForList(anyString(), eq("abc"), eq("abc"), eq(2L))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            // Users belong to companies through user_companies; everything else has a company_id
+            return sql.startsWith("SELECT 1 FROM user_image_refs") && sql.contains("FROM user_companies WHERE company_id = ?")
+                    ? List.of(Map.of("1", 1))
+                    : List.of();
+        });
+
+        assertTrue(imageService.isReferencedByCompany("abc", 2L));
+        assertFalse(imageService.isReferencedByCompany("abc", 3L));
+    }
+}
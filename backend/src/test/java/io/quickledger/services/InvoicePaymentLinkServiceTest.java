@@ -0,0 +1,173 @@
+package io.quickledger.services;
+
+import com.stripe.model.checkout.Session;
+import io.quickledger.entities.Client;
+import io.quickledger.entities.Company;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoicePaymentLink;
+import io.quickledger.repositories.InvoicePaymentLinkRepository;
+import io.quickledger.repositories.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoicePaymentLinkServiceTest {
+
+    @Mock
+    private InvoicePaymentLinkRepository invoicePaymentLinkRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private StripeService stripeService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InvoicePaymentLinkService invoicePaymentLinkService;
+
+    private Invoice testInvoice;
+
+    @BeforeEach
+    void setUp() {
+        invoicePaymentLinkService = new InvoicePaymentLinkService(
+                invoicePaymentLinkRepository,
+                invoiceRepository,
+                stripeService,
+                transactionManager
+        );
+
+        Company company = new Company();
+        company.setId(1L);
+        company.setStripeConnectedAccountId("acct_test");
+        company.setStripeChargesEnabled(true);
+
+        Client client = new Client();
+        client.setId(1L);
+        client.setEmail("client@test.com");
+
+        testInvoice = new Invoice();
+        testInvoice.setId(10L);
+        testInvoice.setInvoiceNumber("INV-010");
+        testInvoice.setCompany(company);
+        testInvoice.setClient(client);
+        testInvoice.setTotalPrice(new BigDecimal("100.00"));
+        testInvoice.setStatus(Invoice.InvoiceStatus.SENT);
+    }
+
+    private InvoicePaymentLink storedLink(long amountCents, LocalDateTime expiresAt) {
+        InvoicePaymentLink link = new InvoicePaymentLink();
+        link.setInvoiceId(10L);
+        link.setAmountCents(amountCents);
+        link.setSessionId("cs_old");
+        link.setUrl("https://checkout.stripe.test/cs_old");
+        link.setExpiresAt(expiresAt);
+        return link;
+    }
+
+    private Session newSession() {
+        Session session = new Session();
+        session.setId("cs_new");
+        session.setUrl("https://checkout.stripe.test/cs_new");
+        session.setExpiresAt(Instant.now().plusSeconds(24 * 60 * 60).getEpochSecond());
+        return session;
+    }
+
+    @Test
+    void getPaymentLink_reusesUnexpiredSessionForSameAmount() throws Exception {
+        when(invoicePaymentLinkRepository.findByInvoiceId(10L))
+                .thenReturn(Optional.of(storedLink(10000L, LocalDateTime.now(ZoneOffset.UTC).plusHours(12))));
+
+        String link = invoicePaymentLinkService.getPaymentLink(testInvoice);
+
+        assertEquals("https://checkout.stripe.test/cs_old", link);
+        verify(stripeService, never()).createInvoiceCheckoutSession(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getPaymentLink_createsSessionWhenNoneStored() throws Exception {
+        when(invoicePaymentLinkRepository.findByInvoiceId(10L)).thenReturn(Optional.empty());
+        when(stripeService.createInvoiceCheckoutSession(eq(10L), eq(10000L), eq("aud"), any(), eq(1L),
+                eq("client@test.com"), any(), any())).thenReturn(newSession());
+        when(invoicePaymentLinkRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String link = invoicePaymentLinkService.getPaymentLink(testInvoice);
+
+        assertEquals("https://checkout.stripe.test/cs_new", link);
+        verify(invoicePaymentLinkRepository).save(argThat(saved ->
+                saved.getInvoiceId().equals(10L) && saved.getAmountCents() == 10000L
+                        && "cs_new".equals(saved.getSessionId())));
+        verify(stripeService, never()).expireCheckoutSession(any());
+    }
+
+    @Test
+    void getPaymentLink_replacesAndExpiresSessionWhenAmountChanged() throws Exception {
+        when(invoicePaymentLinkRepository.findByInvoiceId(10L))
+                .thenReturn(Optional.of(storedLink(5000L, LocalDateTime.now(ZoneOffset.UTC).plusHours(12))));
+        when(stripeService.createInvoiceCheckoutSession(any(), eq(10000L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(newSession());
+        when(invoicePaymentLinkRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String link = invoicePaymentLinkService.getPaymentLink(testInvoice);
+
+        assertEquals("https://checkout.stripe.test/cs_new", link);
+        verify(stripeService).expireCheckoutSession("cs_old");
+    }
+
+    @Test
+    void getPaymentLink_renewsSessionCloseToExpiryAndExpiresIt() throws Exception {
+        when(invoicePaymentLinkRepository.findByInvoiceId(10L))
+                .thenReturn(Optional.of(storedLink(10000L, LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5))));
+        when(stripeService.createInvoiceCheckoutSession(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(newSession());
+        when(invoicePaymentLinkRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String link = invoicePaymentLinkService.getPaymentLink(testInvoice);
+
+        assertEquals("https://checkout.stripe.test/cs_new", link);
+        verify(stripeService).expireCheckoutSession("cs_old");
+    }
+
+    @Test
+    void getPaymentLink_returnsWinningSessionAndExpiresOwnOnConcurrentRegistration() throws Exception {
+        InvoicePaymentLink winner = storedLink(10000L, LocalDateTime.now(ZoneOffset.UTC).plusHours(23));
+        winner.setSessionId("cs_winner");
+        winner.setUrl("https://checkout.stripe.test/cs_winner");
+        when(invoicePaymentLinkRepository.findByInvoiceId(10L))
+                .thenReturn(Optional.empty(), Optional.empty(), Optional.of(winner));
+        when(stripeService.createInvoiceCheckoutSession(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(newSession());
+        when(invoicePaymentLinkRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        String link = invoicePaymentLinkService.getPaymentLink(testInvoice);
+
+        assertEquals("https://checkout.stripe.test/cs_winner", link);
+        verify(stripeService).expireCheckoutSession("cs_new");
+        verify(stripeService, never()).expireCheckoutSession("cs_winner");
+    }
+
+    @Test
+    void getPaymentLink_returnsNullWhenCompanyNotConnected() throws Exception {
+        testInvoice.getCompany().setStripeConnectedAccountId(null);
+
+        assertNull(invoicePaymentLinkService.getPaymentLink(testInvoice));
+        verifyNoInteractions(invoicePaymentLinkRepository);
+        verify(stripeService, never()).createInvoiceCheckoutSession(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+}
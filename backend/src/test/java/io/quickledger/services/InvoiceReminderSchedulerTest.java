@@ -1,21 +1,30 @@
 package io.quickledger.services;
 
+import io.quickledger.config.ReminderProperties;
 import io.quickledger.entities.Client;
 import io.quickledger.entities.Company;
 import io.quickledger.entities.invoice.Invoice;
 import io.quickledger.entities.invoice.InvoiceReminder.ReminderType;
+import io.quickledger.entities.invoice.InvoiceReminderRun;
+import io.quickledger.repositories.InvoiceReminderRunRepository;
 import io.quickledger.repositories.InvoiceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
-import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,17 +33,35 @@ class InvoiceReminderSchedulerTest {
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Mock
+    private InvoiceReminderRunRepository invoiceReminderRunRepository;
+
     @Mock
     private InvoiceReminderService invoiceReminderService;
 
+    private ReminderProperties reminderProperties;
+
     private InvoiceReminderScheduler scheduler;
 
     @BeforeEach
     void setUp() {
-        scheduler = new InvoiceReminderScheduler(invoiceRepository, invoiceReminderService);
+        reminderProperties = new ReminderProperties();
+        reminderProperties.setGlobalRatePerSecond(0);
+        reminderProperties.setCompanyRatePerSecond(0);
+        // Run reminder work on the calling thread so verifications see it
+        scheduler = new InvoiceReminderScheduler(invoiceRepository, invoiceReminderRunRepository,
+                invoiceReminderService, reminderProperties, Runnable::run);
+
+        lenient().when(invoiceReminderRunRepository.findByRunDate(any())).thenReturn(Optional.empty());
+        lenient().when(invoiceReminderRunRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
-    private Invoice createTestInvoice(Long id, String dueDate) {
+    private void givenCandidates(Invoice... invoices) {
+        when(invoiceRepository.findReminderCandidates(eq(Invoice.InvoiceStatus.SENT), anyList(), anyLong(), any()))
+                .thenReturn(List.of(invoices));
+    }
+
+    private Invoice createTestInvoice(Long id, LocalDate dueDate) {
         Company company = new Company();
         company.setId(1L);
         company.setName("Test Company");
@@ -59,10 +86,10 @@ class InvoiceReminderSchedulerTest {
     @Test
     void sendPaymentReminders_sendsUpcomingReminder3DaysBefore() {
         LocalDate today = LocalDate.now();
-        String dueDateIn3Days = today.plusDays(3).toString();
+        LocalDate dueDateIn3Days = today.plusDays(3);
         Invoice invoice = createTestInvoice(1L, dueDateIn3Days);
 
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice));
+        givenCandidates(invoice);
         when(invoiceReminderService.sendReminderIfNotAlreadySent(invoice, ReminderType.UPCOMING_3_DAYS))
                 .thenReturn(true);
 
@@ -74,10 +101,10 @@ class InvoiceReminderSchedulerTest {
     @Test
     void sendPaymentReminders_sendsOverdueReminder7DaysAfter() {
         LocalDate today = LocalDate.now();
-        String dueDate7DaysAgo = today.minusDays(7).toString();
+        LocalDate dueDate7DaysAgo = today.minusDays(7);
         Invoice invoice = createTestInvoice(2L, dueDate7DaysAgo);
 
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice));
+        givenCandidates(invoice);
         when(invoiceReminderService.sendReminderIfNotAlreadySent(invoice, ReminderType.OVERDUE_7_DAYS))
                 .thenReturn(true);
 
@@ -89,21 +116,10 @@ class InvoiceReminderSchedulerTest {
     @Test
     void sendPaymentReminders_skipsInvoiceWithNoMatchingReminderType() {
         LocalDate today = LocalDate.now();
-        String dueDateIn5Days = today.plusDays(5).toString(); // Not 3 days, not -7 days
+        LocalDate dueDateIn5Days = today.plusDays(5); // Not 3 days, not -7 days
         Invoice invoice = createTestInvoice(3L, dueDateIn5Days);
 
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice));
-
-        scheduler.sendPaymentReminders();
-
-        verify(invoiceReminderService, never()).sendReminderIfNotAlreadySent(any(), any());
-    }
-
-    @Test
-    void sendPaymentReminders_skipsInvoiceWithInvalidDueDate() {
-        Invoice invoice = createTestInvoice(4L, "invalid-date");
-
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice));
+        givenCandidates(invoice);
 
         scheduler.sendPaymentReminders();
 
@@ -114,7 +130,7 @@ class InvoiceReminderSchedulerTest {
     void sendPaymentReminders_skipsInvoiceWithNullDueDate() {
         Invoice invoice = createTestInvoice(5L, null);
 
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice));
+        givenCandidates(invoice);
 
         scheduler.sendPaymentReminders();
 
@@ -124,10 +140,10 @@ class InvoiceReminderSchedulerTest {
     @Test
     void sendPaymentReminders_continuesAfterExceptionOnSingleInvoice() {
         LocalDate today = LocalDate.now();
-        Invoice invoice1 = createTestInvoice(1L, today.plusDays(3).toString());
-        Invoice invoice2 = createTestInvoice(2L, today.plusDays(3).toString());
+        Invoice invoice1 = createTestInvoice(1L, today.plusDays(3));
+        Invoice invoice2 = createTestInvoice(2L, today.plusDays(3));
 
-        when(invoiceRepository.findInvoicesForReminders()).thenReturn(List.of(invoice1, invoice2));
+        givenCandidates(invoice1, invoice2);
         when(invoiceReminderService.sendReminderIfNotAlreadySent(invoice1, ReminderType.UPCOMING_3_DAYS))
                 .thenThrow(new RuntimeException("Unexpected error"));
         when(invoiceReminderService.sendReminderIfNotAlreadySent(invoice2, ReminderType.UPCOMING_3_DAYS))
@@ -138,4 +154,100 @@ class InvoiceReminderSchedulerTest {
         verify(invoiceReminderService).sendReminderIfNotAlreadySent(invoice1, ReminderType.UPCOMING_3_DAYS);
         verify(invoiceReminderService).sendReminderIfNotAlreadySent(invoice2, ReminderType.UPCOMING_3_DAYS);
     }
+
+    @Test
+    void sendPaymentReminders_queriesOnlyTheReminderDueDates() {
+        LocalDate today = LocalDate.now();
+        givenCandidates();
+
+        scheduler.sendPaymentReminders();
+
+        verify(invoiceRepository).findReminderCandidates(eq(Invoice.InvoiceStatus.SENT),
+                eq(List.of(today.plusDays(3), today.minusDays(7))), eq(0L), any());
+    }
+
+    @Test
+    void sendPaymentReminders_pagesFromLastIdAndCheckpointsEachPage() {
+        reminderProperties.setPageSize(2);
+        LocalDate dueDate = LocalDate.now().plusDays(3);
+        Invoice invoice1 = createTestInvoice(1L, dueDate);
+        Invoice invoice2 = createTestInvoice(2L, dueDate);
+        Invoice invoice3 = createTestInvoice(3L, dueDate);
+
+        when(invoiceRepository.findReminderCandidates(any(), anyList(), eq(0L), any()))
+                .thenReturn(List.of(invoice1, invoice2));
+        when(invoiceRepository.findReminderCandidates(any(), anyList(), eq(2L), any()))
+                .thenReturn(List.of(invoice3));
+        when(invoiceReminderService.sendReminderIfNotAlreadySent(any(), eq(ReminderType.UPCOMING_3_DAYS)))
+                .thenReturn(true);
+
+        scheduler.sendPaymentReminders();
+
+        verify(invoiceReminderService, times(3)).sendReminderIfNotAlreadySent(any(), eq(ReminderType.UPCOMING_3_DAYS));
+        // One checkpoint per page plus the completion
+        ArgumentCaptor<InvoiceReminderRun> saved = ArgumentCaptor.forClass(InvoiceReminderRun.class);
+        verify(invoiceReminderRunRepository, times(3)).save(saved.capture());
+        InvoiceReminderRun run = saved.getValue();
+        assertTrue(run.isCompleted());
+        assertEquals(3L, run.getLastInvoiceId());
+        assertEquals(3, run.getRemindersSent());
+    }
+
+    @Test
+    void sendPaymentReminders_resumesAfterCheckpointedInvoice() {
+        InvoiceReminderRun run = new InvoiceReminderRun(LocalDate.now());
+        run.setLastInvoiceId(42L);
+        run.setRemindersSent(5);
+        when(invoiceReminderRunRepository.findByRunDate(LocalDate.now())).thenReturn(Optional.of(run));
+        Invoice invoice = createTestInvoice(43L, LocalDate.now().minusDays(7));
+        when(invoiceRepository.findReminderCandidates(any(), anyList(), eq(42L), any())).thenReturn(List.of(invoice));
+        when(invoiceReminderService.sendReminderIfNotAlreadySent(invoice, ReminderType.OVERDUE_7_DAYS))
+                .thenReturn(true);
+
+        scheduler.sendPaymentReminders();
+
+        assertTrue(run.isCompleted());
+        assertEquals(43L, run.getLastInvoiceId());
+        assertEquals(6, run.getRemindersSent());
+    }
+
+    @Test
+    void sendPaymentReminders_waitsForThePermitBeforeHandingTheSendToAWorker() {
+        reminderProperties.setCompanyRatePerSecond(20);
+        LocalDate dueDate = LocalDate.now().plusDays(3);
+        Invoice first = createTestInvoice(1L, dueDate);
+        Invoice second = createTestInvoice(2L, dueDate);
+        Invoice third = createTestInvoice(3L, dueDate);
+        Invoice otherCompany = createTestInvoice(4L, dueDate);
+        Company company = new Company();
+        company.setId(2L);
+        otherCompany.setCompany(company);
+        givenCandidates(first, second, third, otherCompany);
+
+        List<Long> sentIds = new ArrayList<>();
+        List<Long> sentAt = new ArrayList<>();
+        when(invoiceReminderService.sendReminderIfNotAlreadySent(any(), eq(ReminderType.UPCOMING_3_DAYS)))
+                .thenAnswer(invocation -> {
+                    sentIds.add(((Invoice) invocation.getArgument(0)).getId());
+                    sentAt.add(System.nanoTime());
+                    return true;
+                });
+
+        scheduler.sendPaymentReminders();
+
+        // The other company's reminder does not queue behind the throttled company's
+        assertEquals(List.of(1L, 4L, 2L, 3L), sentIds);
+        assertTrue(sentAt.get(3) - sentAt.get(0) >= TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    void sendPaymentReminders_skipsCompletedRun() {
+        InvoiceReminderRun run = new InvoiceReminderRun(LocalDate.now());
+        run.setCompletedAt(LocalDateTime.now());
+        when(invoiceReminderRunRepository.findByRunDate(LocalDate.now())).thenReturn(Optional.of(run));
+
+        scheduler.sendPaymentReminders();
+
+        verifyNoInteractions(invoiceRepository, invoiceReminderService);
+    }
 }
@@ -12,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,7 +35,7 @@ class InvoiceReminderServiceTest {
     private TempTokenService tempTokenService;
 
     @Mock
-    private StripeService stripeService;
+    private InvoicePaymentLinkService invoicePaymentLinkService;
 
     private InvoiceReminderService invoiceReminderService;
 
@@ -49,7 +50,7 @@ class InvoiceReminderServiceTest {
                 invoiceService,
                 emailService,
                 tempTokenService,
-                stripeService
+                invoicePaymentLinkService
         );
 
         testCompany = new Company();
@@ -69,7 +70,7 @@ class InvoiceReminderServiceTest {
         testInvoice.setInvoiceNumber("INV-001");
         testInvoice.setCompany(testCompany);
         testInvoice.setClient(testClient);
-        testInvoice.setDueDate("2026-03-01");
+        testInvoice.setDueDate(LocalDate.of(2026, 3, 1));
         testInvoice.setTotalPrice(new BigDecimal("100.00"));
         testInvoice.setStatus(Invoice.InvoiceStatus.SENT);
     }
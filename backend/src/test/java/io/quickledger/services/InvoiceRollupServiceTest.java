@@ -0,0 +1,172 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.Client;
+import io.quickledger.entities.Company;
+import io.quickledger.entities.invoice.ClientRevenueRollup;
+import io.quickledger.entities.invoice.Invoice;
+import io.quickledger.entities.invoice.InvoiceMonthlyRollup;
+import io.quickledger.entities.invoice.InvoiceRollupListener;
+import io.quickledger.repositories.ClientRevenueRollupRepository;
+import io.quickledger.repositories.InvoiceMonthlyRollupRepository;
+import io.quickledger.repositories.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceRollupServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceMonthlyRollupRepository invoiceMonthlyRollupRepository;
+
+    @Mock
+    private ClientRevenueRollupRepository clientRevenueRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<InvoiceRollupService> invoiceRollupServiceProvider;
+
+    private InvoiceRollupService invoiceRollupService;
+    private InvoiceRollupListener listener;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRollupService = new InvoiceRollupService(jdbcTemplate, invoiceRepository,
+                invoiceMonthlyRollupRepository, clientRevenueRollupRepository, transactionManager);
+        listener = new InvoiceRollupListener(invoiceRollupServiceProvider);
+    }
+
+    private static Invoice invoice(Invoice.InvoiceStatus status, String total) {
+        Company company = new Company();
+        company.setId(1L);
+        Client client = new Client();
+        client.setId(5L);
+        Invoice invoice = new Invoice();
+        invoice.setCompany(company);
+        invoice.setClient(client);
+        invoice.setCreatedDate(LocalDateTime.of(2026, 3, 9, 10, 0));
+        invoice.setStatus(status);
+        invoice.setTotalPrice(new BigDecimal(total));
+        return invoice;
+    }
+
+    private void verifyMonthly(String status, int count, String amount) {
+        verify(jdbcTemplate).update(contains("invoice_monthly_rollups"), eq(1L), eq("2026-03"), eq(status),
+                eq(count), eq(new BigDecimal(amount)));
+    }
+
+    @Test
+    void insert_addsTheInvoiceToItsMonthAndStatus() {
+        when(invoiceRollupServiceProvider.getObject()).thenReturn(invoiceRollupService);
+        Invoice invoice = invoice(Invoice.InvoiceStatus.SENT, "110.00");
+
+        listener.postWrite(invoice);
+
+        verifyMonthly("SENT", 1, "110.00");
+        // Only paid invoices count towards a client's revenue
+        verifyNoMoreInteractions(jdbcTemplate);
+        assertNotNull(invoice.getRollupState());
+    }
+
+    @Test
+    void update_movesTheContributionFromTheLoadedState() {
+        when(invoiceRollupServiceProvider.getObject()).thenReturn(invoiceRollupService);
+        Invoice invoice = invoice(Invoice.InvoiceStatus.SENT, "110.00");
+        listener.postLoad(invoice);
+        invoice.setStatus(Invoice.InvoiceStatus.PAID);
+        invoice.setTotalPrice(new BigDecimal("120.00"));
+
+        listener.postWrite(invoice);
+
+        verifyMonthly("SENT", -1, "-110.00");
+        verifyMonthly("PAID", 1, "120.00");
+        verify(jdbcTemplate).update(contains("client_revenue_rollups"), eq(1L), eq(5L), eq(1),
+                eq(new BigDecimal("120.00")));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void update_writesNothingWhenTheContributionIsUnchanged() {
+        when(invoiceRollupServiceProvider.getObject()).thenReturn(invoiceRollupService);
+        Invoice invoice = invoice(Invoice.InvoiceStatus.SENT, "110.00");
+        listener.postLoad(invoice);
+        invoice.setNotes("Thanks");
+        invoice.setTotalPrice(new BigDecimal("110.0"));
+
+        listener.postWrite(invoice);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void delete_subtractsTheLoadedState() {
+        when(invoiceRollupServiceProvider.getObject()).thenReturn(invoiceRollupService);
+        Invoice invoice = invoice(Invoice.InvoiceStatus.PAID, "50.00");
+        listener.postLoad(invoice);
+
+        listener.postRemove(invoice);
+
+        verifyMonthly("PAID", -1, "-50.00");
+        verify(jdbcTemplate).update(contains("client_revenue_rollups"), eq(1L), eq(5L), eq(-1),
+                eq(new BigDecimal("-50.00")));
+        verifyNoMoreInteractions(jdbcTemplate);
+        assertNull(invoice.getRollupState());
+    }
+
+    @Test
+    void repairDrift_rebuildsOnlyCompaniesWhoseRollupsDisagreeWithTheInvoices() {
+        when(invoiceRepository.findDistinctCompanyIds()).thenReturn(List.of(1L, 2L));
+        List<Object[]> march = new ArrayList<>();
+        march.add(new Object[] { Invoice.InvoiceStatus.PAID, 2026, 3, 2L, new BigDecimal("150.00") });
+        List<Object[]> client = new ArrayList<>();
+        client.add(new Object[] { 5L, 2L, new BigDecimal("150.00") });
+        when(invoiceRepository.aggregateByStatusAndMonth(anyLong())).thenReturn(march);
+        when(invoiceRepository.aggregateByClient(anyLong(), eq(Invoice.InvoiceStatus.PAID))).thenReturn(client);
+        // Company 1 is in step; company 2 missed a delta
+        when(invoiceMonthlyRollupRepository.findByCompanyId(1L)).thenReturn(List.of(
+                new InvoiceMonthlyRollup(1L, "2026-03", Invoice.InvoiceStatus.PAID, 2L, new BigDecimal("150.0"))));
+        when(invoiceMonthlyRollupRepository.findByCompanyId(2L)).thenReturn(List.of(
+                new InvoiceMonthlyRollup(2L, "2026-03", Invoice.InvoiceStatus.PAID, 1L, new BigDecimal("100.00"))));
+        when(clientRevenueRollupRepository.findByCompanyId(1L)).thenReturn(List.of(
+                new ClientRevenueRollup(1L, 5L, 2L, new BigDecimal("150.00"))));
+        when(clientRevenueRollupRepository.findByCompanyId(2L)).thenReturn(List.of(
+                new ClientRevenueRollup(2L, 5L, 2L, new BigDecimal("150.00"))));
+
+        assertEquals(1, invoiceRollupService.repairDrift());
+
+        verify(invoiceMonthlyRollupRepository, never()).deleteByCompanyId(1L);
+        verify(invoiceMonthlyRollupRepository).deleteByCompanyId(2L);
+        verify(clientRevenueRollupRepository).deleteByCompanyId(2L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InvoiceMonthlyRollup>> rebuilt = ArgumentCaptor.forClass(List.class);
+        verify(invoiceMonthlyRollupRepository).saveAll(rebuilt.capture());
+        InvoiceMonthlyRollup row = rebuilt.getValue().get(0);
+        assertEquals(2L, row.getCompanyId());
+        assertEquals("2026-03", row.getPeriod());
+        assertEquals(2L, row.getInvoiceCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(row.getTotalAmount()));
+    }
+}
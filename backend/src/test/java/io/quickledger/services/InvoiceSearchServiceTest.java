@@ -0,0 +1,143 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.invoice.InvoiceSearchResultDto;
+import io.quickledger.repositories.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceSearchServiceTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private InvoiceSearchService invoiceSearchService;
+
+    @BeforeEach
+    void setUp() {
+        invoiceSearchService = new InvoiceSearchService(invoiceRepository, jdbcTemplate);
+    }
+
+    // Nothing to backfill and the FULLTEXT index already exists
+    private void givenFulltextIndex() {
+        Map<String, Object> range = new HashMap<>();
+        range.put("min_id", null);
+        range.put("max_id", null);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(range);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("invoices"), eq("ft_invoice_search")))
+                .thenReturn(1);
+        invoiceSearchService.prepareIndex();
+    }
+
+    @Test
+    void search_usesTheFulltextIndexForTermsOfAnNgramOrLonger() {
+        givenFulltextIndex();
+        InvoiceSearchResultDto result = new InvoiceSearchResultDto(9L, "INV-0009", null, null, null, null, null, null,
+                null, null);
+        when(invoiceRepository.findSearchIdsByFulltext(1L, "\"smith  co\"", Long.MAX_VALUE, 20)).thenReturn(List.of(9L, 4L));
+        when(invoiceRepository.findSearchResultsByIds(List.of(9L, 4L))).thenReturn(List.of(result));
+
+        assertEquals(List.of(result), invoiceSearchService.search(1L, "  Smith \"Co\" ", null, null));
+
+        verify(invoiceRepository, never()).findSearchIdsByPattern(any(), any(), any(), any());
+    }
+
+    @Test
+    void search_fallsBackToLikeForShortTermsAndWithoutTheIndex() {
+        when(invoiceRepository.findSearchIdsByPattern(eq(1L), anyString(), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of());
+
+        // The index has not been prepared
+        invoiceSearchService.search(1L, "smith", null, null);
+        givenFulltextIndex();
+        invoiceSearchService.search(1L, "s", null, null);
+
+        verify(invoiceRepository).findSearchIdsByPattern(1L, "%smith%", Long.MAX_VALUE, PageRequest.of(0, 20));
+        verify(invoiceRepository).findSearchIdsByPattern(1L, "%s%", Long.MAX_VALUE, PageRequest.of(0, 20));
+        verify(invoiceRepository, never()).findSearchIdsByFulltext(any(), any(), any(), anyInt());
+        verify(invoiceRepository, never()).findSearchResultsByIds(any());
+    }
+
+    @Test
+    void search_fallsBackToLikeWhenTheFulltextQueryFails() {
+        givenFulltextIndex();
+        when(invoiceRepository.findSearchIdsByFulltext(any(), any(), any(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("index missing"));
+        when(invoiceRepository.findSearchIdsByPattern(1L, "%inv-0042%", Long.MAX_VALUE, PageRequest.of(0, 20)))
+                .thenReturn(List.of(42L));
+
+        invoiceSearchService.search(1L, "INV-0042", null, null);
+
+        verify(invoiceRepository).findSearchResultsByIds(List.of(42L));
+    }
+
+    @Test
+    void search_continuesBeforeTheCursorAndCapsThePageSize() {
+        givenFulltextIndex();
+        when(invoiceRepository.findSearchIdsByFulltext(1L, "\"smith\"", 120L, InvoiceSearchService.MAX_LIMIT))
+                .thenReturn(List.of());
+        when(invoiceRepository.findSearchIdsByPattern(eq(1L), anyString(), eq(120L), any())).thenReturn(List.of());
+
+        invoiceSearchService.search(1L, "smith", 120L, 500);
+        invoiceSearchService.search(1L, "s", 120L, 5);
+
+        verify(invoiceRepository).findSearchIdsByFulltext(1L, "\"smith\"", 120L, InvoiceSearchService.MAX_LIMIT);
+        verify(invoiceRepository).findSearchIdsByPattern(1L, "%s%", 120L, PageRequest.of(0, 5));
+    }
+
+    @Test
+    void prepareIndex_usesTheIndexAnotherInstanceBuiltAfterCreateFails() {
+        Map<String, Object> range = new HashMap<>();
+        range.put("min_id", null);
+        range.put("max_id", null);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(range);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("invoices"), eq("ft_invoice_search")))
+                .thenReturn(0, 1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new BadSqlGrammarException("create index", "CREATE FULLTEXT INDEX",
+                        new SQLException("Duplicate key name 'ft_invoice_search'")));
+        when(invoiceRepository.findSearchIdsByFulltext(1L, "\"smith\"", Long.MAX_VALUE, 20)).thenReturn(List.of());
+
+        invoiceSearchService.prepareIndex();
+        invoiceSearchService.search(1L, "smith", null, null);
+
+        verify(invoiceRepository, never()).findSearchIdsByPattern(any(), any(), any(), any());
+    }
+
+    @Test
+    void search_escapesLikeWildcardsInTheTerm() {
+        when(invoiceRepository.findSearchIdsByPattern(eq(1L), anyString(), anyLong(), any())).thenReturn(List.of());
+
+        invoiceSearchService.search(1L, "50%_off!", null, null);
+
+        verify(invoiceRepository).findSearchIdsByPattern(1L, "%50!%!_off!!%", Long.MAX_VALUE, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void search_returnsNothingForABlankTerm() {
+        assertTrue(invoiceSearchService.search(1L, "   ", null, null).isEmpty());
+        assertTrue(invoiceSearchService.search(1L, null, null, null).isEmpty());
+
+        verifyNoInteractions(invoiceRepository);
+    }
+}
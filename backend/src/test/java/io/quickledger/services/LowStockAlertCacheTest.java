@@ -0,0 +1,63 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.inventory.LowStockAlertDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockAlertCacheTest {
+
+    private static Page<LowStockAlertDto> page(long productId) {
+        return new PageImpl<>(List.of(new LowStockAlertDto(productId, "Product " + productId, null, 0, 1, null)));
+    }
+
+    @Test
+    void get_servesRepeatReadsFromCacheUntilEvicted() {
+        LowStockAlertCache cache = new LowStockAlertCache(30, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        Page<LowStockAlertDto> cached = cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(1L, 1, 20, () -> page(loads.incrementAndGet()));
+        assertEquals(1L, cached.getContent().get(0).getProductId());
+        assertEquals(2, loads.get());
+
+        cache.evict(1L);
+        Page<LowStockAlertDto> reloaded = cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        assertEquals(3L, reloaded.getContent().get(0).getProductId());
+    }
+
+    @Test
+    void get_doesNotCacheAPageLoadedAcrossAnEviction() {
+        LowStockAlertCache cache = new LowStockAlertCache(30, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, 0, 20, () -> {
+            cache.evict(1L); // a movement commits while the page is being read
+            return page(loads.incrementAndGet());
+        });
+        cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_dropsLeastRecentlyReadCompanyOverLimit() {
+        LowStockAlertCache cache = new LowStockAlertCache(30, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(2L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(3L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(1L, 0, 20, () -> page(loads.incrementAndGet()));
+        cache.get(2L, 0, 20, () -> page(loads.incrementAndGet()));
+
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,199 @@
+package io.quickledger.services;
+
+import io.quickledger.config.PdfCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PdfRenderCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private PdfCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PdfCacheProperties();
+        properties.setDiskDirectory(directory.toString());
+        properties.setMemoryMaxBytes(100);
+        properties.setDiskMaxBytes(100);
+    }
+
+    private PdfRenderCache newCache() {
+        PdfRenderCache cache = new PdfRenderCache(properties);
+        cache.init();
+        return cache;
+    }
+
+    private static byte[] pdf(int size) {
+        return new byte[size];
+    }
+
+    private Path fileFor(String hash) {
+        return directory.resolve(hash + ".pdf");
+    }
+
+    @Test
+    void get_missesUnknownHashAndHitsMemoryAfterPut() {
+        PdfRenderCache cache = newCache();
+
+        assertNull(cache.get("a"));
+        byte[] stored = pdf(10);
+        cache.put("invoice_pdf:1", 1L, "a", stored);
+
+        assertSame(stored, cache.get("a"));
+        assertTrue(Files.exists(fileFor("a")));
+    }
+
+    @Test
+    void get_readsFromDiskWhenNotInMemory() throws Exception {
+        properties.setMemoryMaxBytes(5); // too small to hold the PDF
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(10));
+
+        assertArrayEquals(pdf(10), cache.get("a"));
+
+        Files.delete(fileFor("a"));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void init_servesEntriesLeftOnDiskByAnEarlierRun() {
+        newCache().put("invoice_pdf:1", 1L, "a", pdf(10));
+
+        assertArrayEquals(pdf(10), newCache().get("a"));
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedEntriesOverMemoryBudget() throws Exception {
+        properties.setDiskMaxBytes(1000);
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(40));
+        cache.put("invoice_pdf:2", 1L, "b", pdf(40));
+        cache.get("a");
+        cache.put("invoice_pdf:3", 1L, "c", pdf(40));
+
+        // Once the disk copies are gone, only what is still in memory can be served
+        Files.delete(fileFor("a"));
+        Files.delete(fileFor("b"));
+        Files.delete(fileFor("c"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedFilesOverDiskBudget() {
+        properties.setMemoryMaxBytes(5);
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(40));
+        cache.put("invoice_pdf:2", 1L, "b", pdf(40));
+        cache.get("a");
+        cache.put("invoice_pdf:3", 1L, "c", pdf(40));
+
+        assertTrue(Files.exists(fileFor("a")));
+        assertFalse(Files.exists(fileFor("b")));
+        assertTrue(Files.exists(fileFor("c")));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void get_memoryHitAlsoKeepsTheDiskCopyRecent() {
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(40));
+        cache.put("invoice_pdf:2", 1L, "b", pdf(40));
+        cache.get("a");
+        cache.put("invoice_pdf:3", 1L, "c", pdf(40));
+
+        assertTrue(Files.exists(fileFor("a")));
+        assertFalse(Files.exists(fileFor("b")));
+    }
+
+    @Test
+    void init_trimsDiskToBudgetOldestFirst() throws Exception {
+        Files.write(fileFor("old"), pdf(60));
+        Files.setLastModifiedTime(fileFor("old"), FileTime.fromMillis(1_000));
+        Files.write(fileFor("new"), pdf(60));
+
+        PdfRenderCache cache = newCache();
+
+        assertFalse(Files.exists(fileFor("old")));
+        assertNotNull(cache.get("new"));
+    }
+
+    @Test
+    void put_dropsTheDocumentsPreviousRendering() {
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(10));
+        cache.put("invoice_pdf:1", 1L, "b", pdf(10));
+
+        assertNull(cache.get("a"));
+        assertFalse(Files.exists(fileFor("a")));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void invalidate_removesOnlyThatDocument() {
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(10));
+        cache.put("invoice_pdf:2", 1L, "b", pdf(10));
+
+        cache.invalidate("invoice_pdf:1");
+
+        assertNull(cache.get("a"));
+        assertFalse(Files.exists(fileFor("a")));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void invalidateCompany_removesEveryDocumentOfThatCompany() {
+        PdfRenderCache cache = newCache();
+        cache.put("invoice_pdf:1", 1L, "a", pdf(10));
+        cache.put("quote_pdf:2", 1L, "b", pdf(10));
+        cache.put("invoice_pdf:3", 2L, "c", pdf(10));
+
+        cache.invalidateCompany(1L);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void generatePdfFromHtml_reRendersAfterDocumentUpdateOrLogoChange() {
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(eq("invoice_pdf"), any(IContext.class)))
+                .thenReturn("<html><body><p>Invoice 1</p></body></html>");
+        properties.setMemoryMaxBytes(1024 * 1024);
+        properties.setDiskMaxBytes(1024 * 1024);
+        PdfRenderCache cache = spy(newCache());
+        PdfService pdfService = new PdfService(templateEngine, cache);
+
+        byte[] first = pdfService.generatePdfFromHtml("invoice_pdf", Map.of(), 1L, 1L);
+        byte[] second = pdfService.generatePdfFromHtml("invoice_pdf", Map.of(), 1L, 1L);
+        assertSame(first, second);
+        verify(cache, times(1)).put(any(), any(), any(), any());
+
+        // InvoiceService.createUpdate evicts the document it saved
+        pdfService.evictDocument("invoice_pdf", 1L);
+        pdfService.generatePdfFromHtml("invoice_pdf", Map.of(), 1L, 1L);
+        verify(cache, times(2)).put(any(), any(), any(), any());
+
+        // CompanyLogoService evicts the whole company when the logo changes
+        pdfService.evictCompany(1L);
+        pdfService.generatePdfFromHtml("invoice_pdf", Map.of(), 1L, 1L);
+        verify(cache, times(3)).put(eq("invoice_pdf:1"), eq(1L), anyString(), any());
+    }
+}
@@ -0,0 +1,120 @@
+package io.quickledger.services;
+
+import io.quickledger.dto.quote.QuoteDto;
+import io.quickledger.dto.quote.QuoteItemDto;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto;
+import io.quickledger.dto.quote.QuoteRevisionDeltaDto.FieldChange;
+import io.quickledger.entities.quote.Quote;
+import io.quickledger.mappers.quote.QuoteMapper;
+import io.quickledger.repositories.quote.QuoteRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteRevisionServiceTest {
+
+    @Mock
+    private QuoteRepository quoteRepository;
+
+    @Mock
+    private QuoteMapper quoteMapper;
+
+    @Mock
+    private UserCompanyService userCompanyService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private QuoteRevisionService quoteRevisionService;
+
+    @Test
+    void markLatest_flagsTheHighestRevisionOfTheQuoteNumber() {
+        when(quoteRepository.findRevisionIdsNewestFirst(1L, "Q-0001", PageRequest.of(0, 1))).thenReturn(List.of(7L));
+
+        assertEquals(7L, quoteRevisionService.markLatest(1L, "Q-0001"));
+
+        verify(quoteRepository).markLatestRevision(1L, "Q-0001", 7L);
+    }
+
+    @Test
+    void markLatest_doesNothingOnceTheLastRevisionIsDeleted() {
+        when(quoteRepository.findRevisionIdsNewestFirst(eq(1L), eq("Q-0001"), any())).thenReturn(List.of());
+
+        assertNull(quoteRevisionService.markLatest(1L, "Q-0001"));
+        assertNull(quoteRevisionService.markLatest(1L, null));
+
+        verify(quoteRepository, never()).markLatestRevision(any(), any(), any());
+    }
+
+    @Test
+    void delta_firstRevisionDescribesTheWholeQuote() {
+        QuoteDto first = quote(1L, 0, "100.00", item(1, 10L, "Tap", 2, "50.00"));
+
+        QuoteRevisionDeltaDto delta = QuoteRevisionService.delta(new QuoteDto(), first);
+
+        assertEquals(0, delta.getQuoteRevision());
+        assertEquals(List.of("quoteDate", "totalPrice"), delta.getChanges().stream().map(FieldChange::getField).toList());
+        assertEquals(1, delta.getAddedItems().size());
+        assertTrue(delta.getRemovedItems().isEmpty());
+        assertTrue(delta.getChangedItems().isEmpty());
+    }
+
+    @Test
+    void delta_reportsOnlyWhatChangedBetweenRevisions() {
+        QuoteDto previous = quote(1L, 0, "150.00",
+                item(1, 10L, "Tap", 2, "50.00"),
+                item(2, null, "Labour", 1, "50.00"),
+                item(3, 11L, "Sink", 1, "0.00"));
+        QuoteDto current = quote(2L, 1, "150.0",
+                item(1, 10L, "Tap", 3, "50"),
+                item(2, null, "Labour", 1, "50.00"),
+                item(3, null, "Call-out fee", 1, "0.00"));
+
+        QuoteRevisionDeltaDto delta = QuoteRevisionService.delta(previous, current);
+
+        // 150.00 and 150.0 are the same total; unchanged lines are left out
+        assertTrue(delta.getChanges().isEmpty());
+        assertEquals(1, delta.getChangedItems().size());
+        FieldChange quantity = delta.getChangedItems().get(0).getChanges().get(0);
+        assertEquals("quantity", quantity.getField());
+        assertEquals(2, quantity.getFrom());
+        assertEquals(3, quantity.getTo());
+        assertEquals(List.of("Call-out fee"), delta.getAddedItems().stream().map(QuoteItemDto::getItemDescription).toList());
+        assertEquals(List.of("Sink"), delta.getRemovedItems().stream().map(QuoteItemDto::getItemDescription).toList());
+    }
+
+    private static QuoteDto quote(Long id, int revision, String total, QuoteItemDto... items) {
+        QuoteDto quote = new QuoteDto();
+        quote.setId(id);
+        quote.setQuoteRevision(revision);
+        quote.setStatus(Quote.QuoteStatus.PENDING);
+        quote.setQuoteDate(LocalDate.of(2026, 3, 9));
+        quote.setTotalPrice(new BigDecimal(total));
+        quote.setQuoteItems(List.of(items));
+        return quote;
+    }
+
+    private static QuoteItemDto item(int order, Long productItemId, String description, int quantity, String price) {
+        QuoteItemDto item = new QuoteItemDto();
+        item.setItemOrder(order);
+        item.setProductItemId(productItemId);
+        item.setItemDescription(description);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal(price));
+        return item;
+    }
+}
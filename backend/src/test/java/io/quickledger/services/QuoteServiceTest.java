@@ -0,0 +1,30 @@
+package io.quickledger.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteServiceTest {
+
+    @Test
+    void withPropertySort_mapsColumnNamesFromTheNativeListToEntityProperties() {
+        Pageable pageable = PageRequest.of(2, 25, Sort.by(Sort.Order.desc("quote_date"), Sort.Order.asc("totalPrice")));
+
+        Pageable converted = QuoteService.withPropertySort(pageable);
+
+        assertEquals(2, converted.getPageNumber());
+        assertEquals(25, converted.getPageSize());
+        assertEquals(Sort.by(Sort.Order.desc("quoteDate"), Sort.Order.asc("totalPrice")), converted.getSort());
+    }
+
+    @Test
+    void withPropertySort_leavesUnsortedPagesAlone() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertSame(pageable, QuoteService.withPropertySort(pageable));
+        assertSame(Pageable.unpaged(), QuoteService.withPropertySort(Pageable.unpaged()));
+    }
+}
@@ -0,0 +1,86 @@
+package io.quickledger.services;
+
+import io.quickledger.entities.invoice.PendingInvoiceSend;
+import io.quickledger.repositories.PendingInvoiceSendRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringInvoiceAutoSenderTest {
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private PendingInvoiceSendRepository pendingInvoiceSendRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecurringInvoiceAutoSender autoSender;
+
+    @BeforeEach
+    void setUp() {
+        autoSender = new RecurringInvoiceAutoSender(invoiceService, pendingInvoiceSendRepository, Runnable::run,
+                transactionManager);
+    }
+
+    private static PendingInvoiceSend pending(long id, long invoiceId, int attempts) {
+        PendingInvoiceSend pending = new PendingInvoiceSend(1L, invoiceId);
+        pending.setId(id);
+        pending.setAttempts(attempts);
+        return pending;
+    }
+
+    @Test
+    void sendPending_sendsEachInvoiceAndRemovesItsPendingRowInTheSameTransaction() {
+        PendingInvoiceSend first = pending(1L, 100L, 0);
+        PendingInvoiceSend second = pending(2L, 200L, 0);
+        when(pendingInvoiceSendRepository.findPage(0L, PageRequest.of(0, RecurringInvoiceAutoSender.PAGE_SIZE)))
+                .thenReturn(List.of(first, second));
+        when(pendingInvoiceSendRepository.findPage(eq(2L), any())).thenReturn(List.of());
+
+        autoSender.sendPending();
+
+        verify(invoiceService).sendInvoice(1L, 100L);
+        verify(invoiceService).sendInvoice(1L, 200L);
+        verify(pendingInvoiceSendRepository).delete(first);
+        verify(pendingInvoiceSendRepository).delete(second);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void send_keepsTheRowForARetryWhenSendingFails() {
+        PendingInvoiceSend pending = pending(1L, 100L, 0);
+        when(invoiceService.sendInvoice(1L, 100L)).thenThrow(new IllegalStateException("Client email not found"));
+
+        autoSender.send(pending);
+
+        verify(transactionManager).rollback(any());
+        verify(pendingInvoiceSendRepository, never()).delete(any());
+        verify(pendingInvoiceSendRepository).save(pending);
+        assertEquals(1, pending.getAttempts());
+    }
+
+    @Test
+    void send_givesUpAfterTheLastAttempt() {
+        PendingInvoiceSend pending = pending(1L, 100L, RecurringInvoiceAutoSender.MAX_ATTEMPTS - 1);
+        when(invoiceService.sendInvoice(1L, 100L)).thenThrow(new IllegalStateException("Client email not found"));
+
+        autoSender.send(pending);
+
+        verify(pendingInvoiceSendRepository).delete(pending);
+        verify(pendingInvoiceSendRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,104 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quickledger.repositories.InvoiceRepository;
+import io.quickledger.services.RecurringInvoiceGenerator.GeneratedInvoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringInvoiceSchedulerTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private RecurringInvoiceGenerator recurringInvoiceGenerator;
+
+    @Mock
+    private RecurringInvoiceAutoSender recurringInvoiceAutoSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RecurringInvoiceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new RecurringInvoiceScheduler(invoiceRepository, recurringInvoiceGenerator,
+                recurringInvoiceAutoSender, meterRegistry);
+    }
+
+    private static Object[] row(long companyId, long templateId) {
+        return new Object[] { companyId, templateId };
+    }
+
+    private static List<GeneratedInvoice> generatedFor(List<Long> templateIds, boolean autoSend) {
+        return templateIds.stream()
+                .map(id -> new GeneratedInvoice(id + 1000, "INV-" + id, "T-" + id, autoSend))
+                .toList();
+    }
+
+    @Test
+    void generateRecurringInvoices_chunksTemplatesPerCompany() {
+        List<Object[]> rows = new ArrayList<>();
+        LongStream.rangeClosed(1, RecurringInvoiceScheduler.CHUNK_SIZE + 1).forEach(id -> rows.add(row(1L, id)));
+        rows.add(row(2L, 100L));
+        when(invoiceRepository.findRecurringTemplateIdsDueForGeneration(any())).thenReturn(rows);
+        when(recurringInvoiceGenerator.generateChunk(anyLong(), anyList(), any(LocalDate.class)))
+                .thenAnswer(invocation -> generatedFor(invocation.getArgument(1), false));
+
+        scheduler.generateRecurringInvoices();
+
+        verify(recurringInvoiceGenerator).generateChunk(eq(1L),
+                argThat(ids -> ids.size() == RecurringInvoiceScheduler.CHUNK_SIZE), any());
+        verify(recurringInvoiceGenerator).generateChunk(eq(1L), eq(List.of(26L)), any());
+        verify(recurringInvoiceGenerator).generateChunk(eq(2L), eq(List.of(100L)), any());
+        verifyNoInteractions(recurringInvoiceAutoSender);
+        assertEquals(27.0, meterRegistry.get("recurring.invoices.templates.processed")
+                .tag("outcome", "generated").counter().count());
+    }
+
+    @Test
+    void generateRecurringInvoices_retriesFailedChunkTemplateByTemplate() {
+        when(invoiceRepository.findRecurringTemplateIdsDueForGeneration(any()))
+                .thenReturn(List.<Object[]>of(row(1L, 1L), row(1L, 2L)));
+        when(recurringInvoiceGenerator.generateChunk(eq(1L), eq(List.of(1L, 2L)), any()))
+                .thenThrow(new IllegalStateException("Bad template"));
+        when(recurringInvoiceGenerator.generateChunk(eq(1L), eq(List.of(1L)), any()))
+                .thenThrow(new IllegalStateException("Bad template"));
+        when(recurringInvoiceGenerator.generateChunk(eq(1L), eq(List.of(2L)), any()))
+                .thenReturn(generatedFor(List.of(2L), false));
+
+        scheduler.generateRecurringInvoices();
+
+        assertEquals(1.0, meterRegistry.get("recurring.invoices.templates.processed")
+                .tag("outcome", "generated").counter().count());
+        assertEquals(1.0, meterRegistry.get("recurring.invoices.templates.processed")
+                .tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void generateRecurringInvoices_sendsAutoSendInvoicesAfterGeneration() {
+        when(invoiceRepository.findRecurringTemplateIdsDueForGeneration(any()))
+                .thenReturn(List.<Object[]>of(row(1L, 5L)));
+        when(recurringInvoiceGenerator.generateChunk(eq(1L), eq(List.of(5L)), any()))
+                .thenReturn(generatedFor(List.of(5L), true));
+
+        scheduler.generateRecurringInvoices();
+
+        verify(recurringInvoiceAutoSender).sendPending();
+    }
+}
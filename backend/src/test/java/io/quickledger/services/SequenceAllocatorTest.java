@@ -0,0 +1,197 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quickledger.config.SequenceAllocatorProperties;
+import io.quickledger.config.SequenceAllocatorProperties.Mode;
+import io.quickledger.entities.SequenceConfig;
+import io.quickledger.entities.SequenceConfig.EntityType;
+import io.quickledger.repositories.SequenceConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceAllocatorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 9);
+    private static final int THREADS = 8;
+    private static final int ALLOCATIONS_PER_THREAD = 250;
+
+    @Mock
+    private SequenceConfigRepository sequenceConfigRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SequenceAllocatorProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private SequenceConfig invoiceSequence;
+
+    // Stands in for the sequence_config row lock: taken by the locking read, released at commit
+    private final ReentrantLock rowLock = new ReentrantLock();
+
+    @BeforeEach
+    void setUp() {
+        properties = new SequenceAllocatorProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        invoiceSequence = new SequenceConfig();
+        invoiceSequence.setEntityType(EntityType.INVOICE);
+        invoiceSequence.setCompanyId(1L);
+        invoiceSequence.setPrefix("INV-{YY}{MM}-");
+        invoiceSequence.setPostfix("");
+        invoiceSequence.setCurrentNumber(0);
+        invoiceSequence.setNumberPadding(4);
+
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().doAnswer(invocation -> releaseRowLock()).when(transactionManager).commit(any());
+        lenient().doAnswer(invocation -> releaseRowLock()).when(transactionManager).rollback(any());
+        lenient().when(sequenceConfigRepository.findByEntityTypeAndCompanyIdForUpdate(EntityType.INVOICE, 1L))
+                .thenAnswer(invocation -> {
+                    rowLock.lock();
+                    return Optional.of(invoiceSequence);
+                });
+        lenient().when(sequenceConfigRepository.save(any(SequenceConfig.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private Object releaseRowLock() {
+        while (rowLock.isHeldByCurrentThread()) {
+            rowLock.unlock();
+        }
+        return null;
+    }
+
+    private SequenceAllocator allocator(Mode mode) {
+        properties.setMode(mode);
+        return new SequenceAllocator(sequenceConfigRepository, properties, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void next_formatsConsecutiveNumbersInItsOwnTransaction() {
+        SequenceAllocator allocator = allocator(Mode.SHORT_TRANSACTION);
+
+        assertEquals("INV-2603-0001", allocator.next(EntityType.INVOICE, 1L, DATE));
+        assertEquals(List.of("INV-2603-0002", "INV-2603-0003"), allocator.next(EntityType.INVOICE, 1L, 2, DATE));
+
+        assertEquals(3, invoiceSequence.getCurrentNumber());
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definition.capture());
+        assertTrue(definition.getAllValues().stream().allMatch(
+                tx -> tx.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        assertEquals(3, meterRegistry.get("sequence.numbers.allocated").tag("type", "invoice").counter().count());
+        assertEquals(2, meterRegistry.get("sequence.lock.wait").tag("type", "invoice").timer().count());
+    }
+
+    @Test
+    void next_createsTheDefaultSequenceForJobsButNotQuotes() {
+        SequenceAllocator allocator = allocator(Mode.SHORT_TRANSACTION);
+        when(sequenceConfigRepository.findByEntityTypeAndCompanyIdForUpdate(EntityType.JOB, 1L))
+                .thenReturn(Optional.empty());
+        when(sequenceConfigRepository.findByEntityTypeAndCompanyIdForUpdate(EntityType.QUOTE, 1L))
+                .thenReturn(Optional.empty());
+
+        assertEquals("JOB-0001", allocator.next(EntityType.JOB, 1L, DATE));
+        IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> allocator.next(EntityType.QUOTE, 1L, DATE));
+
+        ArgumentCaptor<SequenceConfig> saved = ArgumentCaptor.forClass(SequenceConfig.class);
+        verify(sequenceConfigRepository, times(2)).save(saved.capture());
+        assertEquals(EntityType.JOB, saved.getValue().getEntityType());
+        assertEquals(1, saved.getValue().getCurrentNumber());
+        assertTrue(missing.getMessage().contains("QUOTE"));
+    }
+
+    @Test
+    void blockMode_reservesBlocksAndStartsAgainAfterTheSequenceIsEdited() {
+        properties.setBlockSize(10);
+        SequenceAllocator allocator = allocator(Mode.BLOCK);
+
+        assertEquals("INV-2603-0001", allocator.next(EntityType.INVOICE, 1L, DATE));
+        assertEquals("INV-2603-0002", allocator.next(EntityType.INVOICE, 1L, DATE));
+        assertEquals(10, invoiceSequence.getCurrentNumber());
+
+        invoiceSequence.setPrefix("I-");
+        allocator.discardBlock(EntityType.INVOICE, 1L);
+
+        assertEquals("I-0011", allocator.next(EntityType.INVOICE, 1L, DATE));
+        verify(sequenceConfigRepository, times(2)).findByEntityTypeAndCompanyIdForUpdate(EntityType.INVOICE, 1L);
+        assertEquals(2, meterRegistry.get("sequence.blocks.reserved").tag("type", "invoice").counter().count());
+    }
+
+    @Test
+    void shortTransaction_numbersStayUniqueAndGaplessUnderLoad() throws Exception {
+        Set<String> numbers = allocateConcurrently(allocator(Mode.SHORT_TRANSACTION));
+
+        assertEquals(expectedNumbers(), numbers);
+        assertEquals(THREADS * ALLOCATIONS_PER_THREAD, invoiceSequence.getCurrentNumber());
+    }
+
+    @Test
+    void blockMode_numbersStayUniqueUnderLoadWithOneLockPerBlock() throws Exception {
+        properties.setBlockSize(25);
+
+        Set<String> numbers = allocateConcurrently(allocator(Mode.BLOCK));
+
+        // Every reserved block was used up, so the numbers are still 1..n
+        assertEquals(expectedNumbers(), numbers);
+        verify(sequenceConfigRepository, times(THREADS * ALLOCATIONS_PER_THREAD / 25))
+                .findByEntityTypeAndCompanyIdForUpdate(EntityType.INVOICE, 1L);
+    }
+
+    private Set<String> allocateConcurrently(SequenceAllocator allocator) throws Exception {
+        Queue<String> allocated = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ALLOCATIONS_PER_THREAD; i++) {
+                    allocated.add(allocator.next(EntityType.INVOICE, 1L, DATE));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Set<String> unique = new HashSet<>(allocated);
+        assertEquals(allocated.size(), unique.size(), "duplicate numbers allocated");
+        return unique;
+    }
+
+    private static Set<String> expectedNumbers() {
+        Set<String> expected = new HashSet<>();
+        for (int number = 1; number <= THREADS * ALLOCATIONS_PER_THREAD; number++) {
+            expected.add(String.format("INV-2603-%04d", number));
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,114 @@
+package io.quickledger.services;
+
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import io.quickledger.entities.User;
+import io.quickledger.repositories.CompanyRepository;
+import io.quickledger.repositories.InvoicePaymentLinkRepository;
+import io.quickledger.repositories.InvoiceRepository;
+import io.quickledger.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeServiceTest {
+
+    private static final String WEBHOOK_SECRET = "whsec_test_secret";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoicePaymentLinkRepository invoicePaymentLinkRepository;
+
+    @Mock
+    private StripeWebhookInbox stripeWebhookInbox;
+
+    private StripeService stripeService;
+    private String payload;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stripeService = new StripeService(userRepository, emailService, companyRepository, invoiceRepository,
+                invoicePaymentLinkRepository, stripeWebhookInbox);
+        ReflectionTestUtils.setField(stripeService, "endpointSecret", WEBHOOK_SECRET);
+        payload = fixture("checkout_session_completed.json");
+    }
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = StripeServiceTest.class.getResourceAsStream("/stripe/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String sign(String payload) throws Exception {
+        long timestamp = Webhook.Util.getTimeNow();
+        return "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(WEBHOOK_SECRET, timestamp + "." + payload);
+    }
+
+    @Test
+    void handleWebhook_storesVerifiedEventWithoutProcessingIt() throws Exception {
+        when(stripeWebhookInbox.receive(any(), any(), any(), any())).thenReturn(true);
+
+        stripeService.handleWebhook(payload, sign(payload));
+
+        verify(stripeWebhookInbox).receive("evt_1OcKq2LkdIwHu7ix0W8vQb3R", "checkout.session.completed",
+                "customer:cus_PRv3x8Yk2LmN4q", payload);
+        verifyNoInteractions(userRepository, emailService);
+    }
+
+    @Test
+    void handleWebhook_rejectsInvalidSignature() {
+        assertThrows(IllegalArgumentException.class,
+                () -> stripeService.handleWebhook(payload, "t=1706198400,v1=deadbeef"));
+
+        verifyNoInteractions(stripeWebhookInbox);
+    }
+
+    @Test
+    void orderingKey_fallsBackToInvoiceForOneOffPayments() {
+        Event event = StripeService.parseEvent(payload
+                .replace("\"customer\": \"cus_PRv3x8Yk2LmN4q\",", "")
+                .replace("\"planName\": \"Pro\"", "\"type\": \"invoice_payment\", \"invoiceId\": \"42\""));
+
+        assertEquals("invoice:42", StripeService.orderingKey(event));
+    }
+
+    @Test
+    void processEvent_startsTrialFromCheckoutSession() {
+        User user = new User();
+        user.setExternalId("auth0|65a1b2c3d4e5f6");
+        user.setEmail("owner@example.com");
+        user.setName("Sam");
+        when(userRepository.findByExternalId("auth0|65a1b2c3d4e5f6")).thenReturn(Optional.of(user));
+
+        stripeService.processEvent(StripeService.parseEvent(payload));
+
+        assertEquals("trialing", user.getSubscriptionStatus());
+        assertEquals("cus_PRv3x8Yk2LmN4q", user.getStripeCustomerId());
+        verify(userRepository).save(user);
+        verify(emailService).sendTrialStartedEmail("owner@example.com", "Sam", "Pro");
+    }
+}
@@ -0,0 +1,103 @@
+package io.quickledger.services;
+
+import com.stripe.model.Event;
+import io.quickledger.config.StripeWebhookProperties;
+import io.quickledger.entities.StripeWebhookEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeWebhookWorkerTest {
+
+    @Mock
+    private StripeWebhookInbox inbox;
+
+    @Mock
+    private StripeService stripeService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StripeWebhookProperties properties;
+    private StripeWebhookWorker worker;
+    private String payload;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new StripeWebhookProperties();
+        properties.setClaimSize(10);
+        worker = new StripeWebhookWorker(inbox, stripeService, properties, Runnable::run, transactionManager);
+        payload = StripeServiceTest.fixture("checkout_session_completed.json");
+    }
+
+    private StripeWebhookEvent event(long id, int attempts) {
+        StripeWebhookEvent event = new StripeWebhookEvent();
+        event.setId(id);
+        event.setEventId("evt_" + id);
+        event.setEventType("checkout.session.completed");
+        event.setPayload(payload);
+        event.setAttempts(attempts);
+        return event;
+    }
+
+    @Test
+    void drain_processesClaimedEventsAndMarksThemProcessed() {
+        when(inbox.claim(10)).thenReturn(List.of(event(1, 1), event(2, 1)));
+
+        worker.drain();
+
+        ArgumentCaptor<Event> processed = ArgumentCaptor.forClass(Event.class);
+        verify(stripeService, times(2)).processEvent(processed.capture());
+        assertEquals("evt_1OcKq2LkdIwHu7ix0W8vQb3R", processed.getValue().getId());
+        verify(inbox).markProcessed(1L);
+        verify(inbox).markProcessed(2L);
+        verify(transactionManager, times(2)).commit(any());
+        verify(inbox, never()).markFailed(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void drain_keepsClaimingWhileFullPagesComeBack() {
+        properties.setClaimSize(1);
+        when(inbox.claim(1)).thenReturn(List.of(event(1, 1)), List.of(event(2, 1)), List.of());
+
+        worker.drain();
+
+        verify(inbox, times(3)).claim(1);
+        verify(stripeService, times(2)).processEvent(any());
+    }
+
+    @Test
+    void process_rollsBackAndRetriesWhenHandlingFails() {
+        doThrow(new IllegalStateException("Deadlock found")).when(stripeService).processEvent(any());
+        when(inbox.markFailed(3L, 2, "Deadlock found")).thenReturn(true);
+
+        worker.process(event(3, 2));
+
+        verify(transactionManager).rollback(any());
+        verify(inbox, never()).markProcessed(any());
+        verify(inbox).markFailed(3L, 2, "Deadlock found");
+    }
+
+    @Test
+    void process_givesUpOnUnreadablePayload() {
+        StripeWebhookEvent broken = event(4, 10);
+        broken.setPayload("not json");
+
+        worker.process(broken);
+
+        verify(stripeService, never()).processEvent(any());
+        verify(inbox).markFailed(eq(4L), eq(10), any());
+    }
+}
@@ -0,0 +1,120 @@
+package io.quickledger.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quickledger.entities.User;
+import io.quickledger.entities.UserCompany;
+import io.quickledger.entities.UserCompanyId;
+import io.quickledger.repositories.UserCompanyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCompanyServiceTest {
+
+    @Mock
+    private UserCompanyRepository userCompanyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        user = new User();
+        user.setId(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private UserCompanyService service(long ttlSeconds) {
+        return new UserCompanyService(userCompanyRepository, meterRegistry, 100, ttlSeconds);
+    }
+
+    private UserCompany membership() {
+        UserCompany userCompany = new UserCompany();
+        userCompany.setId(new UserCompanyId(7L, 1L));
+        return userCompany;
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("tenant.membership.checks").tag("result", result).counter().count();
+    }
+
+    @Test
+    void checkUserBelongs_cachesConfirmedMembership() {
+        UserCompanyService service = service(300);
+        when(userCompanyRepository.findByUserIdAndCompanyId(7L, 1L)).thenReturn(Optional.of(membership()));
+
+        assertTrue(service.checkUserBelongs(user, 1L));
+        assertTrue(service.checkUserBelongs(user, 1L));
+
+        verify(userCompanyRepository, times(1)).findByUserIdAndCompanyId(7L, 1L);
+        assertEquals(1.0, checks("miss"));
+        assertEquals(1.0, checks("cache_hit"));
+    }
+
+    @Test
+    void checkUserBelongs_doesNotCacheDenial() {
+        UserCompanyService service = service(300);
+        when(userCompanyRepository.findByUserIdAndCompanyId(7L, 2L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.checkUserBelongs(user, 2L));
+        assertThrows(RuntimeException.class, () -> service.checkUserBelongs(user, 2L));
+
+        verify(userCompanyRepository, times(2)).findByUserIdAndCompanyId(7L, 2L);
+    }
+
+    @Test
+    void checkUserBelongs_requeriesAfterTtl() {
+        UserCompanyService service = service(0);
+        when(userCompanyRepository.findByUserIdAndCompanyId(7L, 1L)).thenReturn(Optional.of(membership()));
+
+        service.checkUserBelongs(user, 1L);
+        service.checkUserBelongs(user, 1L);
+
+        verify(userCompanyRepository, times(2)).findByUserIdAndCompanyId(7L, 1L);
+    }
+
+    @Test
+    void checkUserBelongs_memoizesWithinRequest() {
+        UserCompanyService service = service(0);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userCompanyRepository.findByUserIdAndCompanyId(7L, 1L)).thenReturn(Optional.of(membership()));
+
+        service.checkUserBelongs(user, 1L);
+        service.checkUserBelongs(user, 1L);
+
+        verify(userCompanyRepository, times(1)).findByUserIdAndCompanyId(7L, 1L);
+        assertEquals(1.0, checks("request_hit"));
+    }
+
+    @Test
+    void deleteUserCompany_evictsCachedMembership() {
+        UserCompanyService service = service(300);
+        UserCompany membership = membership();
+        when(userCompanyRepository.findByUserIdAndCompanyId(7L, 1L))
+                .thenReturn(Optional.of(membership))
+                .thenReturn(Optional.empty());
+
+        service.checkUserBelongs(user, 1L);
+        service.deleteUserCompany(membership);
+
+        assertThrows(RuntimeException.class, () -> service.checkUserBelongs(user, 1L));
+    }
+}
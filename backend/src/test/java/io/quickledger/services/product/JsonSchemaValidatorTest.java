@@ -0,0 +1,73 @@
+package io.quickledger.services.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSchemaValidatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonSchemaValidator validator = new JsonSchemaValidator(objectMapper, 2);
+
+    private JsonNode schema(String requiredProperty) throws Exception {
+        return objectMapper.readTree("""
+                {"type":"object","properties":{"colour":{"type":"string"},"size":{"type":"integer"}},
+                 "required":["%s"]}
+                """.formatted(requiredProperty));
+    }
+
+    @Test
+    void validate_compilesEachDefinitionsSchemaOnce() throws Exception {
+        JsonSchema first = validator.compiledSchema(1L, schema("colour"));
+        JsonSchema second = validator.compiledSchema(1L, schema("colour"));
+
+        assertSame(first, second);
+        assertTrue(validator.validate(1L, schema("colour"), objectMapper.valueToTree(Map.of("colour", "red"))).isValid());
+        JsonSchemaValidator.ValidationResult invalid = validator.validate(1L, schema("colour"),
+                objectMapper.valueToTree(Map.of("size", "large")));
+        assertFalse(invalid.isValid());
+        assertTrue(invalid.getMessage().startsWith("Invalid JSON: "));
+    }
+
+    @Test
+    void validate_recompilesWhenTheDefinitionsSchemaChanges() throws Exception {
+        JsonNode instance = objectMapper.valueToTree(Map.of("colour", "red"));
+        assertTrue(validator.validate(1L, schema("colour"), instance).isValid());
+
+        assertFalse(validator.validate(1L, schema("size"), instance).isValid());
+        assertNotSame(validator.compiledSchema(1L, schema("colour")), validator.compiledSchema(1L, schema("size")));
+    }
+
+    @Test
+    void compiledSchema_isNotAffectedByLaterChangesToTheCallersTree() throws Exception {
+        JsonNode source = schema("colour");
+        JsonSchema compiled = validator.compiledSchema(1L, source);
+
+        ((ObjectNode) source).put("title", "changed");
+
+        assertSame(compiled, validator.compiledSchema(1L, schema("colour")));
+    }
+
+    @Test
+    void evict_andSizeLimitDropCompiledSchemas() throws Exception {
+        JsonSchema one = validator.compiledSchema(1L, schema("colour"));
+        validator.compiledSchema(2L, schema("colour"));
+        validator.compiledSchema(3L, schema("colour"));
+        JsonSchema three = validator.compiledSchema(3L, schema("colour"));
+
+        assertNotSame(one, validator.compiledSchema(1L, schema("colour")));
+        validator.evict(3L);
+        assertNotSame(three, validator.compiledSchema(3L, schema("colour")));
+    }
+
+    @Test
+    void validate_reportsMissingSchemaAsInvalid() {
+        assertFalse(validator.validate(1L, null, objectMapper.valueToTree(Map.of("colour", "red"))).isValid());
+    }
+}
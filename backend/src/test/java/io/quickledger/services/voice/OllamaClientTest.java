@@ -0,0 +1,87 @@
+package io.quickledger.services.voice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quickledger.config.VoiceProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaClientTest {
+
+    private final OllamaClient client = new OllamaClient(new ObjectMapper(), new VoiceProperties());
+
+    private static long later() {
+        return System.nanoTime() + 60_000_000_000L;
+    }
+
+    @Test
+    void readFragments_stopsReadingOnceTheTopLevelObjectCloses() throws Exception {
+        List<String> lines = List.of(
+                "{\"response\":\"{\\\"clientName\\\": \\\"Bo\",\"done\":false}",
+                "{\"response\":\"b {\\\\\\\"the\\\\\\\" builder}\\\", \\\"lineItems\\\": [{\\\"amount\\\": 5}]\",\"done\":false}",
+                "{\"response\":\"}\\n\\n\",\"done\":false}",
+                "this line must not be read");
+        Iterator<String> iterator = lines.iterator();
+
+        String json = client.readFragments(iterator, () -> { }, later());
+
+        assertEquals("{\"clientName\": \"Bob {\\\"the\\\" builder}\", \"lineItems\": [{\"amount\": 5}]}", json);
+        assertTrue(iterator.hasNext());
+        assertEquals("Bob {\"the\" builder}", new ObjectMapper().readTree(json).get("clientName").asText());
+    }
+
+    @Test
+    void readFragments_returnsWhatArrivedWhenTheModelFinishes() throws Exception {
+        List<String> lines = List.of(
+                "{\"response\":\"{\\\"notes\\\": \",\"done\":false}",
+                "{\"response\":\"null\",\"done\":true}");
+
+        assertEquals("{\"notes\": null", client.readFragments(lines.iterator(), () -> { }, later()));
+    }
+
+    @Test
+    void readFragments_surfacesErrorsReportedMidStream() {
+        List<String> lines = List.of("{\"error\":\"model not found\"}");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> client.readFragments(lines.iterator(), () -> { }, later()));
+        assertTrue(error.getMessage().contains("model not found"));
+    }
+
+    @Test
+    void readFragments_closesAStalledStreamAtTheDeadline() {
+        CountDownLatch closed = new CountDownLatch(1);
+        // Like the body of a model that stops sending: waits for the next line until the stream is closed
+        Iterator<String> stalled = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new UncheckedIOException(new IOException("closed"));
+            }
+
+            @Override
+            public String next() {
+                throw new IllegalStateException();
+            }
+        };
+        long deadline = System.nanoTime() + 200_000_000L;
+
+        IllegalStateException error = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> client.readFragments(stalled, closed::countDown, deadline)));
+
+        assertEquals("LLM request timed out", error.getMessage());
+        assertEquals(0, closed.getCount());
+    }
+}
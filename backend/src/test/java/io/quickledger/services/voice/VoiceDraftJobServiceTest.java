@@ -0,0 +1,173 @@
+package io.quickledger.services.voice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quickledger.config.VoiceProperties;
+import io.quickledger.dto.voice.VoiceDraftJobDto;
+import io.quickledger.dto.voice.VoiceDraftResponse;
+import io.quickledger.dto.voice.VoiceParseResult;
+import io.quickledger.entities.User;
+import io.quickledger.entities.voice.VoiceDraftJob;
+import io.quickledger.entities.voice.VoiceDraftJob.Status;
+import io.quickledger.repositories.voice.VoiceDraftJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoiceDraftJobServiceTest {
+
+    @Mock
+    private VoiceDraftJobRepository voiceDraftJobRepository;
+
+    @Mock
+    private VoiceDraftService voiceDraftService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VoiceProperties voiceProperties;
+    private User user;
+    private MockMultipartFile audio;
+
+    @BeforeEach
+    void setUp() {
+        voiceProperties = new VoiceProperties();
+        voiceProperties.getJobs().setMaxActivePerCompany(2);
+        user = new User();
+        user.setId(5L);
+        audio = new MockMultipartFile("audio", "note.wav", "audio/wav", "pcm".getBytes(StandardCharsets.UTF_8));
+
+        lenient().when(voiceDraftJobRepository.save(any(VoiceDraftJob.class))).thenAnswer(invocation -> {
+            VoiceDraftJob job = invocation.getArgument(0);
+            job.setId(9L);
+            return job;
+        });
+        lenient().when(voiceDraftJobRepository.transition(eq(9L), anySet(), any(), any())).thenReturn(1);
+        lenient().when(voiceDraftJobRepository.transitionWithTranscript(eq(9L), anySet(), any(), any(), any()))
+                .thenReturn(1);
+        lenient().when(voiceDraftJobRepository.finish(eq(9L), anySet(), any(), any(), any(), any())).thenReturn(1);
+    }
+
+    private VoiceDraftJobService service(Executor executor) {
+        return new VoiceDraftJobService(voiceDraftJobRepository, voiceDraftService, new VoiceDraftJobEvents(),
+                voiceProperties, new ObjectMapper().findAndRegisterModules(), executor, transactionManager);
+    }
+
+    @Test
+    void submitAndAwait_runsEachStageAndCommitsDraftWithResult() throws Exception {
+        VoiceParseResult parsed = new VoiceParseResult();
+        VoiceDraftResponse response = new VoiceDraftResponse();
+        response.setTranscript("invoice Bob");
+        when(voiceDraftService.transcribe(any(InputStream.class), eq("en-AU"), isNull(), isNull()))
+                .thenReturn("invoice Bob");
+        when(voiceDraftService.parse("invoice Bob", "QUOTE")).thenReturn(parsed);
+        when(voiceDraftService.saveDraft(1L, "invoice Bob", parsed, user)).thenReturn(response);
+
+        CompletableFuture<VoiceDraftResponse> result = service(Runnable::run)
+                .submitAndAwait(1L, audio, "QUOTE", "en-AU", null, null, user);
+
+        assertSame(response, result.get(1, TimeUnit.SECONDS));
+        InOrder order = inOrder(voiceDraftJobRepository, voiceDraftService);
+        order.verify(voiceDraftJobRepository).transition(eq(9L), eq(Set.of(Status.QUEUED)), eq(Status.TRANSCRIBING), any());
+        order.verify(voiceDraftJobRepository).transitionWithTranscript(eq(9L), eq(Set.of(Status.TRANSCRIBING)),
+                eq(Status.PARSING), eq("invoice Bob"), any());
+        order.verify(voiceDraftJobRepository).transition(eq(9L), eq(Set.of(Status.PARSING)), eq(Status.SAVING), any());
+        order.verify(voiceDraftService).saveDraft(1L, "invoice Bob", parsed, user);
+        order.verify(voiceDraftJobRepository).finish(eq(9L), eq(Set.of(Status.SAVING)), eq(Status.COMPLETED),
+                contains("\"transcript\":\"invoice Bob\""), isNull(), any());
+    }
+
+    @Test
+    void submit_rejectsCompaniesAtTheirActiveJobLimit() {
+        when(voiceDraftJobRepository.countByCompanyIdAndStatusIn(1L, Status.ACTIVE)).thenReturn(2L);
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> service(Runnable::run).submit(1L, audio, null, null, null, null, user));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        verify(voiceDraftJobRepository, never()).save(any());
+    }
+
+    @Test
+    void submit_dropsTheJobWhenTheQueueIsFull() {
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> service(task -> { throw new RejectedExecutionException("full"); })
+                        .submit(1L, audio, null, null, null, null, user));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        verify(voiceDraftJobRepository).deleteById(9L);
+    }
+
+    @Test
+    void run_recordsTheFailureWhenAStageThrows() {
+        when(voiceDraftService.parse(any(), any())).thenThrow(new IllegalStateException("LLM unavailable"));
+
+        CompletableFuture<VoiceDraftResponse> result = service(Runnable::run)
+                .submitAndAwait(1L, audio, null, null, null, null, user);
+
+        assertTrue(result.isCompletedExceptionally());
+        verify(voiceDraftJobRepository).finish(eq(9L), eq(Status.ACTIVE), eq(Status.FAILED), isNull(),
+                eq("LLM unavailable"), any());
+        verify(voiceDraftService, never()).saveDraft(any(), any(), any(), any());
+    }
+
+    @Test
+    void cancel_interruptsTheRunningStageAndNeverSavesTheDraft() throws Exception {
+        CountDownLatch transcribing = new CountDownLatch(1);
+        when(voiceDraftService.transcribe(any(InputStream.class), any(), any(), any())).thenAnswer(invocation -> {
+            transcribing.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("Interrupted while waiting for speech-to-text", e);
+            }
+            return "too late";
+        });
+        VoiceDraftJob stored = new VoiceDraftJob();
+        stored.setId(9L);
+        stored.setStatus(Status.TRANSCRIBING);
+        when(voiceDraftJobRepository.findByIdAndCompanyIdAndUserId(9L, 1L, 5L)).thenReturn(Optional.of(stored));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            VoiceDraftJobService service = service(executor);
+            CompletableFuture<VoiceDraftResponse> result = service.submitAndAwait(1L, audio, null, null, null, null, user);
+            assertTrue(transcribing.await(5, TimeUnit.SECONDS));
+
+            VoiceDraftJobDto cancelled = service.cancel(1L, 9L, user);
+
+            assertEquals(9L, cancelled.getId());
+            assertThrows(CancellationException.class, () -> result.get(5, TimeUnit.SECONDS));
+            verify(voiceDraftJobRepository).finish(eq(9L), eq(Status.CANCELLABLE), eq(Status.CANCELLED), isNull(),
+                    eq("Cancelled"), any());
+            verify(voiceDraftService, never()).parse(any(), any());
+            verify(voiceDraftService, never()).saveDraft(any(), any(), any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.quickledger.services.voice;
+
+import io.quickledger.dto.invoice.InvoiceDto;
+import io.quickledger.dto.voice.VoiceDocumentType;
+import io.quickledger.dto.voice.VoiceDraftResponse;
+import io.quickledger.dto.voice.VoiceLineItem;
+import io.quickledger.dto.voice.VoiceParseResult;
+import io.quickledger.entities.User;
+import io.quickledger.services.InvoiceService;
+import io.quickledger.services.QuoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoiceDraftServiceTest {
+
+    @Mock
+    private VoiceParseService voiceParseService;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private QuoteService quoteService;
+
+    private VoiceDraftService voiceDraftService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        voiceDraftService = new VoiceDraftService(new FakeSpeechToTextService(), voiceParseService,
+                invoiceService, quoteService);
+        user = new User();
+        user.setId(5L);
+    }
+
+    @Test
+    void createDraftFromAudio_streamsUploadThroughSpeechToTextAndSavesInvoiceDraft() {
+        VoiceParseResult parsed = new VoiceParseResult();
+        parsed.setDocumentType(VoiceDocumentType.INVOICE);
+        parsed.setClientName("Bob Smith");
+        VoiceLineItem callOut = new VoiceLineItem();
+        callOut.setDescription("Call-out");
+        callOut.setAmount(new BigDecimal("120"));
+        parsed.setLineItems(List.of(callOut));
+        when(voiceParseService.parseTranscript("invoice Bob Smith for call-out $120")).thenReturn(parsed);
+        when(invoiceService.createUpdate(eq(1L), any(InvoiceDto.class), eq(user)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        MockMultipartFile audio = new MockMultipartFile("audio", "note.txt", "text/plain",
+                " invoice Bob Smith for call-out $120\n".getBytes(StandardCharsets.UTF_8));
+        VoiceDraftResponse response = voiceDraftService.createDraftFromAudio(1L, audio, null, null, null, null, user);
+
+        assertEquals("invoice Bob Smith for call-out $120", response.getTranscript());
+        ArgumentCaptor<InvoiceDto> draft = ArgumentCaptor.forClass(InvoiceDto.class);
+        verify(invoiceService).createUpdate(eq(1L), draft.capture(), eq(user));
+        assertEquals("Bob", draft.getValue().getClientFirstname());
+        assertEquals("Smith", draft.getValue().getClientLastname());
+        assertEquals(0, new BigDecimal("120").compareTo(draft.getValue().getTotalPrice()));
+        assertTrue(response.getWarnings().isEmpty());
+        verifyNoInteractions(quoteService);
+    }
+
+    @Test
+    void transcribeBytes_delegatesToStreamingTranscription() throws Exception {
+        SpeechToTextService speechToText = spy(new FakeSpeechToTextService());
+
+        assertEquals("hello", speechToText.transcribe("hello".getBytes(StandardCharsets.UTF_8), "en-AU", 8000, "MULAW"));
+
+        verify(speechToText).transcribe(any(ByteArrayInputStream.class), eq("en-AU"), eq(8000), eq("MULAW"));
+    }
+}
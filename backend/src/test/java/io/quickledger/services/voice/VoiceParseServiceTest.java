@@ -0,0 +1,126 @@
+package io.quickledger.services.voice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quickledger.config.VoiceProperties;
+import io.quickledger.dto.voice.VoiceDocumentType;
+import io.quickledger.dto.voice.VoiceParseResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoiceParseServiceTest {
+
+    private static final String BOB = """
+            {"documentType":"INVOICE","clientName":"Bob","lineItems":[{"description":"Call-out","amount":120,"quantity":1}]}
+            """;
+
+    @Mock
+    private OllamaClient ollamaClient;
+
+    private VoiceProperties voiceProperties;
+    private VoiceParseService voiceParseService;
+
+    @BeforeEach
+    void setUp() {
+        voiceProperties = new VoiceProperties();
+        voiceParseService = new VoiceParseService(ollamaClient, new ObjectMapper(), new VoiceParseCache(voiceProperties));
+    }
+
+    @Test
+    void parseTranscript_reusesTheParseForTheSameWordsAndReturnsIndependentCopies() {
+        when(ollamaClient.generateJson(contains("invoice Bob for call-out $120"), any())).thenReturn(BOB);
+
+        VoiceParseResult first = voiceParseService.parseTranscript("invoice Bob for call-out $120");
+        first.setDocumentType(VoiceDocumentType.QUOTE);
+        VoiceParseResult second = voiceParseService.parseTranscript("  invoice   Bob for call-out $120 ");
+
+        assertEquals(VoiceDocumentType.INVOICE, second.getDocumentType());
+        assertEquals("Bob", second.getClientName());
+        assertNotSame(first.getLineItems(), second.getLineItems());
+        verify(ollamaClient, times(1)).generateJson(any(), any());
+    }
+
+    @Test
+    void parseTranscript_doesNotShareAParseBetweenDifferentlyCasedTranscripts() {
+        when(ollamaClient.generateJson(contains("invoice Bob for call-out $120"), any())).thenReturn(BOB);
+        when(ollamaClient.generateJson(contains("invoice bob for call-out $120"), any()))
+                .thenReturn(BOB.replace("\"Bob\"", "\"bob\""));
+
+        voiceParseService.parseTranscript("invoice Bob for call-out $120");
+        VoiceParseResult lowerCase = voiceParseService.parseTranscript("invoice bob for call-out $120");
+
+        assertEquals("bob", lowerCase.getClientName());
+        verify(ollamaClient, times(2)).generateJson(any(), any());
+    }
+
+    @Test
+    void parseTranscript_doesNotCacheFailedOrUnreadableParses() {
+        when(ollamaClient.generateJson(any(), any()))
+                .thenThrow(new IllegalStateException("LLM request failed"))
+                .thenReturn("not json")
+                .thenReturn(BOB);
+
+        VoiceParseResult fallback = voiceParseService.parseTranscript("invoice to Bob Smith for call-out $120");
+        voiceParseService.parseTranscript("invoice to Bob Smith for call-out $120");
+        VoiceParseResult parsed = voiceParseService.parseTranscript("invoice to Bob Smith for call-out $120");
+        voiceParseService.parseTranscript("invoice to Bob Smith for call-out $120");
+
+        assertEquals("Bob Smith for call-out", fallback.getClientName());
+        assertEquals("Bob", parsed.getClientName());
+        verify(ollamaClient, times(3)).generateJson(any(), any());
+    }
+
+    @Test
+    void parseTranscript_coalescesConcurrentRequestsForTheSameTranscript() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(ollamaClient.generateJson(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return BOB;
+        });
+
+        int callers = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<VoiceParseResult>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> voiceParseService.parseTranscript("invoice Bob for call-out $120")));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<VoiceParseResult> result : results) {
+                assertEquals("Bob", result.get(5, TimeUnit.SECONDS).getClientName());
+            }
+            verify(ollamaClient, times(1)).generateJson(any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parseTranscript_callsTheLlmEveryTimeWhenCachingIsDisabled() {
+        voiceProperties.getLlm().setCacheTtlSeconds(0);
+        voiceParseService = new VoiceParseService(ollamaClient, new ObjectMapper(), new VoiceParseCache(voiceProperties));
+        when(ollamaClient.generateJson(any(), any())).thenReturn(BOB);
+
+        voiceParseService.parseTranscript("invoice Bob");
+        voiceParseService.parseTranscript("invoice Bob");
+
+        verify(ollamaClient, times(2)).generateJson(any(), any());
+    }
+}
@@ -35,7 +35,7 @@ export const InvoiceSearch = ({ onSelect, disabled, excludeIds = [] }: InvoiceSe
         queryFn: async () => {
             if (!debouncedSearchTerm || debouncedSearchTerm.length < 2) return [];
             const { data } = await api.get<InvoiceDto[]>(`/api/companies/${selectedCompanyId}/invoices/search`, {
-                params: { searchTerm: debouncedSearchTerm, lazy: true }
+                params: { searchTerm: debouncedSearchTerm, limit: 20 }
             });
             return data;
         },
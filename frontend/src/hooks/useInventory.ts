@@ -14,12 +14,14 @@ export const useInventoryDashboard = (companyId: number | null) => {
     });
 };
 
-export const useLowStockAlerts = (companyId: number | null) => {
+export const useLowStockAlerts = (companyId: number | null, page = 0, size = 20) => {
     const api = useApi();
-    return useQuery<LowStockAlert[]>({
-        queryKey: ['inventory', 'low-stock', companyId],
+    return useQuery<PaginatedResponse<LowStockAlert>>({
+        queryKey: ['inventory', 'low-stock', companyId, page, size],
         queryFn: async () => {
-            const { data } = await api.get(`/api/companies/${companyId}/inventory/low-stock`);
+            const { data } = await api.get(`/api/companies/${companyId}/inventory/low-stock`, {
+                params: { page, size },
+            });
             return data;
         },
         enabled: !!companyId,
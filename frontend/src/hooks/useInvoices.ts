@@ -18,7 +18,8 @@ export const useInvoices = ({ page, size, searchTerm, companyId }: InvoiceSearch
             if (!companyId) return null;
 
             let url = `/api/companies/${companyId}/invoices`;
-            const params: any = { page, size };
+            // List rows only need header columns; items are loaded by the detail view
+            const params: any = { page, size, lazy: true };
 
             if (searchTerm) {
                 url += `/search`;
@@ -27,7 +27,9 @@ export const useQuotes = ({ page, size, searchTerm, companyId, showAllRevisions
             const params: any = {
                 page,
                 size,
-                sort: `${sortField},desc`
+                sort: `${sortField},desc`,
+                // List rows only need header columns; items are loaded by the detail view
+                lazy: true
             };
 
             if (searchTerm) {
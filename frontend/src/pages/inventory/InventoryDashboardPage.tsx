@@ -72,6 +72,11 @@ const InventoryDashboardPage = () => {
                 <Card>
                     <CardHeader>
                         <CardTitle>Low Stock Alerts</CardTitle>
+                        {dashboard.lowStockCount > dashboard.lowStockAlerts.length && (
+                            <p className="text-sm text-muted-foreground">
+                                Showing the {dashboard.lowStockAlerts.length} most urgent of {dashboard.lowStockCount}
+                            </p>
+                        )}
                     </CardHeader>
                     <CardContent>
                         <div className="space-y-2">